@@ -0,0 +1,206 @@
+package amtf.jmh;
+
+import org.chocosolver.solver.Cause;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.ConstraintsName;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.tools.ArrayUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded, in-memory AllDifferent instances for the benchmarks.
+ * <p>
+ * Every generator only depends on its size parameters and on the seed,
+ * so that two runs (or two algorithms) see exactly the same model.
+ */
+public final class AllDiffInstances {
+
+    public static final String LATIN_SQUARE = "LatinSquare";
+    public static final String LANGFORD = "Langford";
+    public static final String QUEENS = "Queens";
+    public static final String GOLOMB = "Golomb";
+
+    private AllDiffInstances() {
+    }
+
+    /**
+     * Builds the instance <i>family</i> of size <i>size</i>, posting every AllDifferent with <i>consistency</i>.
+     */
+    public static Model build(String family, int size, long seed, String consistency) {
+        switch (family) {
+            case LATIN_SQUARE:
+                return latinSquare(size, 0.4, seed, consistency);
+            case LANGFORD:
+                return langford(size, seed, consistency);
+            case QUEENS:
+                return queens(size, consistency);
+            case GOLOMB:
+                return golomb(size, consistency);
+            default:
+                throw new IllegalArgumentException("Unknown family " + family);
+        }
+    }
+
+    /**
+     * Quasigroup with holes: a random Latin square of order <i>order</i> (shuffled cyclic square)
+     * where a ratio <i>preassigned</i> of the cells is fixed.
+     */
+    public static Model latinSquare(int order, double preassigned, long seed, String consistency) {
+        Random rnd = new Random(seed);
+        int[] rows = permutation(order, rnd);
+        int[] cols = permutation(order, rnd);
+        int[] syms = permutation(order, rnd);
+        Model model = new Model(LATIN_SQUARE + "-" + order + "-" + seed);
+        IntVar[][] x = new IntVar[order][order];
+        for (int i = 0; i < order; i++) {
+            for (int j = 0; j < order; j++) {
+                if (rnd.nextDouble() < preassigned) {
+                    x[i][j] = model.intVar("x_" + i + "_" + j, syms[(rows[i] + cols[j]) % order]);
+                } else {
+                    x[i][j] = model.intVar("x_" + i + "_" + j, 0, order - 1);
+                }
+            }
+        }
+        for (int i = 0; i < order; i++) {
+            model.allDifferent(x[i], consistency).post();
+            model.allDifferent(ArrayUtils.getColumn(x, i), consistency).post();
+        }
+        model.addHook("decisions", ArrayUtils.flatten(x));
+        return model;
+    }
+
+    /**
+     * Langford's problem L(2, n): positions of the two copies of each number in 1..n.
+     * The seed only shuffles the declaration order of the numbers.
+     */
+    public static Model langford(int n, long seed, String consistency) {
+        int[] order = permutation(n, new Random(seed));
+        Model model = new Model(LANGFORD + "-2-" + n + "-" + seed);
+        IntVar[] p = new IntVar[2 * n];
+        for (int k = 0; k < n; k++) {
+            int i = order[k] + 1;
+            p[2 * k] = model.intVar("p_" + i + "_1", 0, 2 * n - 1);
+            p[2 * k + 1] = model.intVar("p_" + i + "_2", 0, 2 * n - 1);
+            model.arithm(p[2 * k + 1], "-", p[2 * k], "=", i + 1).post();
+        }
+        model.allDifferent(p, consistency).post();
+        model.addHook("decisions", p);
+        return model;
+    }
+
+    /**
+     * The n-queens problem with three AllDifferent constraints (columns and both diagonals).
+     */
+    public static Model queens(int n, String consistency) {
+        Model model = new Model(QUEENS + "-" + n);
+        IntVar[] q = model.intVarArray("q", n, 1, n, false);
+        IntVar[] d1 = new IntVar[n];
+        IntVar[] d2 = new IntVar[n];
+        for (int i = 0; i < n; i++) {
+            d1[i] = model.intOffsetView(q[i], i);
+            d2[i] = model.intOffsetView(q[i], -i);
+        }
+        model.allDifferent(q, consistency).post();
+        model.allDifferent(d1, consistency).post();
+        model.allDifferent(d2, consistency).post();
+        model.addHook("decisions", q);
+        return model;
+    }
+
+    /**
+     * Golomb-like ruler with <i>m</i> marks: increasing marks whose pairwise differences are all different,
+     * the length is bounded by m^2 and not optimized.
+     */
+    public static Model golomb(int m, String consistency) {
+        Model model = new Model(GOLOMB + "-" + m);
+        int ub = m * m;
+        IntVar[] ticks = model.intVarArray("a", m, 0, ub, false);
+        model.arithm(ticks[0], "=", 0).post();
+        for (int i = 0; i < m - 1; i++) {
+            model.arithm(ticks[i + 1], ">", ticks[i]).post();
+        }
+        IntVar[] diffs = new IntVar[(m * m - m) / 2];
+        for (int k = 0, i = 0; i < m - 1; i++) {
+            for (int j = i + 1; j < m; j++, k++) {
+                diffs[k] = model.intVar("d_" + i + "_" + j, 0, ub, false);
+                model.arithm(diffs[k], "=", ticks[j], "-", ticks[i]).post();
+            }
+        }
+        model.allDifferent(diffs, consistency).post();
+        model.addHook("decisions", ticks);
+        return model;
+    }
+
+    /**
+     * @return the decision variables declared by the generator
+     */
+    public static IntVar[] decisions(Model model) {
+        return (IntVar[]) model.getHook("decisions");
+    }
+
+    /**
+     * @return the AllDifferent constraints of the model
+     */
+    public static List<Constraint> allDifferents(Model model) {
+        List<Constraint> cstrs = new ArrayList<>();
+        for (Constraint c : model.getCstrs()) {
+            if (c.getName().equals(ConstraintsName.ALLDIFFERENT)) {
+                cstrs.add(c);
+            }
+        }
+        return cstrs;
+    }
+
+    /**
+     * Moves the model to a fixed, consistent domain state: a solution is computed with a deterministic search,
+     * then each other value is removed with probability <i>ratio</i>, the solution values being kept.
+     * The state is built in a new world, the caller can go back to the root with <code>worldPop()</code>.
+     *
+     * @return false if the model has no solution
+     */
+    public static boolean fixDomainState(Model model, double ratio, long seed) throws ContradictionException {
+        IntVar[] vars = model.retrieveIntVars(true);
+        Solver solver = model.getSolver();
+        solver.setSearch(Search.minDomLBSearch(decisions(model)));
+        if (!solver.solve()) {
+            return false;
+        }
+        int[] solution = new int[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            solution[i] = vars[i].getValue();
+        }
+        solver.reset();
+        Random rnd = new Random(seed);
+        model.getEnvironment().worldPush();
+        for (int i = 0; i < vars.length; i++) {
+            IntVar v = vars[i];
+            for (int k = v.getLB(), ub = v.getUB(); k <= ub; k = v.nextValue(k)) {
+                if (k != solution[i] && rnd.nextDouble() < ratio) {
+                    v.removeValue(k, Cause.Null);
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int[] permutation(int n, Random rnd) {
+        int[] p = new int[n];
+        for (int i = 0; i < n; i++) {
+            p[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = p[i];
+            p[i] = p[j];
+            p[j] = t;
+        }
+        return p;
+    }
+}
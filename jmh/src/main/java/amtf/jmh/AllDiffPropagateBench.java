@@ -0,0 +1,89 @@
+package amtf.jmh;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.propagation.PropagationEngine;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one call to the AllDifferent propagators on a fixed domain state.
+ * <p>
+ * The state is built once per trial (see {@link AllDiffInstances#fixDomainState(Model, double, long)}),
+ * each invocation pushes a world, runs a full propagation of every AllDifferent propagator and pops the world.
+ * <p>
+ * Run with: <code>sbt "jmh/jmh:run -prof gc AllDiffPropagateBench"</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AllDiffPropagateBench {
+
+    @Param({"AC", "AC2", "ACFast", "ACFast2", "ACNaive", "ACIncr", "ACFastbit", "BC", "AUTO"})
+    public String algorithm;
+
+    @Param({"LatinSquare:20", "Langford:12", "Queens:40", "Golomb:8"})
+    public String instance;
+
+    @Param({"0.3"})
+    public double removalRatio;
+
+    @Param({"0"})
+    public long seed;
+
+    private IEnvironment environment;
+    private PropagationEngine engine;
+    private Propagator[] propagators;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ContradictionException {
+        String[] desc = instance.split(":");
+        Model model = AllDiffInstances.build(desc[0], Integer.parseInt(desc[1]), seed, algorithm);
+        if (!AllDiffInstances.fixDomainState(model, removalRatio, seed)) {
+            throw new IllegalStateException(instance + " has no solution");
+        }
+        environment = model.getEnvironment();
+        engine = model.getSolver().getEngine();
+        List<Propagator> props = new ArrayList<>();
+        for (Constraint c : AllDiffInstances.allDifferents(model)) {
+            for (Propagator p : c.getPropagators()) {
+                props.add(p);
+            }
+        }
+        propagators = props.toArray(new Propagator[0]);
+    }
+
+    @Benchmark
+    public void propagate() throws ContradictionException {
+        environment.worldPush();
+        try {
+            for (Propagator p : propagators) {
+                p.propagate(PropagatorEventType.FULL_PROPAGATION.getMask());
+            }
+        } finally {
+            engine.flush();
+            environment.worldPop();
+        }
+    }
+}
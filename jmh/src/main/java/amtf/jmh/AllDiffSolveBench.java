@@ -0,0 +1,59 @@
+package amtf.jmh;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.search.strategy.Search;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full solve (first solution, deterministic dom/lb search) of seeded AllDifferent instances.
+ * The model is built outside of the measured section, before each invocation.
+ * <p>
+ * Run with: <code>sbt "jmh/jmh:run -prof gc AllDiffSolveBench"</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AllDiffSolveBench {
+
+    @Param({"AC", "AC2", "ACFast", "ACFast2", "ACNaive", "ACIncr", "ACFastbit", "BC", "AUTO"})
+    public String algorithm;
+
+    @Param({"LatinSquare:20", "Langford:16", "Queens:30", "Golomb:8"})
+    public String instance;
+
+    @Param({"0"})
+    public long seed;
+
+    private Solver solver;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        String[] desc = instance.split(":");
+        Model model = AllDiffInstances.build(desc[0], Integer.parseInt(desc[1]), seed, algorithm);
+        solver = model.getSolver();
+        solver.setSearch(Search.minDomLBSearch(AllDiffInstances.decisions(model)));
+    }
+
+    @Benchmark
+    public long solve() {
+        solver.solve();
+        return solver.getNodeCount();
+    }
+}
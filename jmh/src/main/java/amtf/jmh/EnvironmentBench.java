@@ -0,0 +1,105 @@
+package amtf.jmh;
+
+import org.chocosolver.memory.EnvironmentBuilder;
+import org.chocosolver.solver.DefaultSettings;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.tools.ArrayUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node throughput of the trailing, copying and hybrid environments on small dense models,
+ * where most of the state changes at every node.
+ * All the solutions are enumerated, so every environment explores exactly the same tree;
+ * the model is built outside of the measured section, before each invocation.
+ * <p>
+ * Run with: <code>sbt "jmh/jmh:run -prof gc EnvironmentBench"</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnvironmentBench {
+
+    @Param({"TRAILING", "COPYING", "HYBRID", "ARENA"})
+    public EnvironmentBuilder.Type environment;
+
+    @Param({"Queens:10", "Queens:12", "LatinSquare:5"})
+    public String instance;
+
+    private Solver solver;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        String[] desc = instance.split(":");
+        int n = Integer.parseInt(desc[1]);
+        Model model = new Model(new DefaultSettings().setEnvironmentType(environment));
+        IntVar[] decisions;
+        switch (desc[0]) {
+            case "Queens":
+                decisions = queens(model, n);
+                break;
+            case "LatinSquare":
+                decisions = latinSquare(model, n);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown family " + desc[0]);
+        }
+        solver = model.getSolver();
+        solver.setSearch(Search.minDomLBSearch(decisions));
+    }
+
+    /**
+     * The n-queens problem with binary constraints only.
+     */
+    private static IntVar[] queens(Model model, int n) {
+        IntVar[] q = model.intVarArray("q", n, 1, n, false);
+        for (int i = 0; i < n - 1; i++) {
+            for (int j = i + 1; j < n; j++) {
+                int k = j - i;
+                model.arithm(q[i], "!=", q[j]).post();
+                model.arithm(q[i], "!=", q[j], "+", -k).post();
+                model.arithm(q[i], "!=", q[j], "+", k).post();
+            }
+        }
+        return q;
+    }
+
+    /**
+     * An empty Latin square of order <i>n</i>.
+     */
+    private static IntVar[] latinSquare(Model model, int n) {
+        IntVar[][] x = model.intVarMatrix("x", n, n, 0, n - 1);
+        for (int i = 0; i < n; i++) {
+            model.allDifferent(x[i], "AC").post();
+            model.allDifferent(ArrayUtils.getColumn(x, i), "AC").post();
+        }
+        return ArrayUtils.flatten(x);
+    }
+
+    /**
+     * @return the number of nodes explored, to be divided by the time per operation
+     */
+    @Benchmark
+    public long enumerate() {
+        while (solver.solve()) ;
+        return solver.getNodeCount();
+    }
+}
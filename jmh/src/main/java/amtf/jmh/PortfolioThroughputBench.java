@@ -0,0 +1,83 @@
+package amtf.jmh;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.ParallelPortfolio;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.variables.IntVar;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node throughput of a {@link ParallelPortfolio} minimizing a Golomb ruler, when the number of workers grows.
+ * Every worker runs the same deterministic search with a node limit; the portfolio stops as soon as one of them
+ * reaches it. Without contention between workers, <i>nodesPerWorker</i> (nodes/s for each worker) stays flat.
+ * <p>
+ * Run with: <code>sbt "jmh/jmh:run PortfolioThroughputBench"</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PortfolioThroughputBench {
+
+    @Param({"1", "2", "4", "8", "16", "32", "64"})
+    public int workers;
+
+    @Param({"11"})
+    public int marks;
+
+    @Param({"20000"})
+    public long nodes;
+
+    private ParallelPortfolio portfolio;
+
+    /**
+     * Nodes explored, divided by the number of workers, reported by JMH as a rate.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long nodesPerWorker;
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        Model model = AllDiffInstances.golomb(marks, "BC");
+        IntVar[] ticks = AllDiffInstances.decisions(model);
+        model.setObjective(Model.MINIMIZE, ticks[marks - 1]);
+        portfolio = new ParallelPortfolio(false);
+        portfolio.addModels(model, workers);
+        for (Model m : portfolio.getModels()) {
+            Solver s = m.getSolver();
+            s.setSearch(Search.minDomLBSearch(AllDiffInstances.decisions(m)));
+            s.limitNode(nodes);
+        }
+    }
+
+    @Benchmark
+    public boolean solve(Counters counters) {
+        boolean found = portfolio.solve();
+        long n = 0;
+        for (Model m : portfolio.getModels()) {
+            n += m.getSolver().getNodeCount();
+        }
+        counters.nodesPerWorker += n / workers;
+        return found;
+    }
+}
@@ -0,0 +1,82 @@
+package amtf.jmh;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.trace.telemetry.RingBufferSink;
+import org.chocosolver.solver.trace.telemetry.TelemetrySampler;
+import org.chocosolver.solver.variables.IntVar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a {@link TelemetrySampler} on a Golomb ruler optimization with a node limit.
+ * A period of 0 runs without sampler, and gives the reference; the sampled runs should stay within 1% of it.
+ * <p>
+ * Run with: <code>sbt "jmh/jmh:run TelemetryOverheadBench"</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TelemetryOverheadBench {
+
+    @Param({"0", "10", "100"})
+    public long period;
+
+    @Param({"true", "false"})
+    public boolean propagations;
+
+    @Param({"10"})
+    public int marks;
+
+    @Param({"50000"})
+    public long nodes;
+
+    private Solver solver;
+
+    private TelemetrySampler sampler;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        Model model = AllDiffInstances.golomb(marks, "BC");
+        IntVar[] ticks = AllDiffInstances.decisions(model);
+        model.setObjective(Model.MINIMIZE, ticks[marks - 1]);
+        solver = model.getSolver();
+        solver.setSearch(Search.minDomLBSearch(ticks));
+        solver.limitNode(nodes);
+        if (period > 0) {
+            sampler = new TelemetrySampler(solver, period, propagations, new RingBufferSink(16));
+            solver.plugMonitor(sampler);
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        if (sampler != null) {
+            sampler.close();
+            sampler = null;
+        }
+    }
+
+    @Benchmark
+    public long solve() {
+        while (solver.solve()) ;
+        return solver.getNodeCount();
+    }
+}
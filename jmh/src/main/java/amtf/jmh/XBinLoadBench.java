@@ -0,0 +1,130 @@
+package amtf.jmh;
+
+import XModel.XBin;
+import XModel.XModel;
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Warm load of a table instance, from its XCSP3 file or from its {@link XBin} compilation, into an {@link XModel},
+ * and then into the {@link Tuples} of Choco.
+ * The instance is generated once: random tables of <i>arity</i> over domains of size <i>d</i>.
+ * <p>
+ * Run with: <code>sbt "jmh/jmh:run XBinLoadBench"</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class XBinLoadBench {
+
+    @Param({"20"})
+    public int tables;
+
+    @Param({"10000", "100000"})
+    public int tuples;
+
+    @Param({"5"})
+    public int arity;
+
+    @Param({"20"})
+    public int d;
+
+    private Path dir;
+
+    private String xml;
+
+    private String xbin;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("xbin");
+        xml = dir.resolve("tables.xml").toString();
+        xbin = dir.resolve("tables" + XBin.EXTENSION).toString();
+        Random rnd = new Random(0);
+        int n = tables * arity;
+        try (BufferedWriter out = Files.newBufferedWriter(dir.resolve("tables.xml"))) {
+            out.write("<instance format=\"XCSP3\" type=\"CSP\">\n");
+            out.write("  <variables>\n    <array id=\"x\" size=\"[" + n + "]\"> 0.." + (d - 1) + " </array>\n  </variables>\n");
+            out.write("  <constraints>\n");
+            for (int k = 0; k < tables; k++) {
+                out.write("    <extension>\n      <list>");
+                for (int i = 0; i < arity; i++) {
+                    out.write(" x[" + (k * arity + i) + "]");
+                }
+                out.write(" </list>\n      <supports> ");
+                for (int t = 0; t < tuples; t++) {
+                    out.write('(');
+                    for (int i = 0; i < arity; i++) {
+                        if (i > 0) {
+                            out.write(',');
+                        }
+                        out.write(Integer.toString(rnd.nextInt(d)));
+                    }
+                    out.write(')');
+                }
+                out.write(" </supports>\n    </extension>\n");
+            }
+            out.write("  </constraints>\n</instance>\n");
+        }
+        XBin.write(new XModel(xml, true, 3), xbin);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public XModel loadXml() throws Exception {
+        return new XModel(xml, true, 3);
+    }
+
+    @Benchmark
+    public XModel loadXBin() throws Exception {
+        return new XModel(xbin, true, 3);
+    }
+
+    @Benchmark
+    public Tuples[] tuplesXml() throws Exception {
+        return toTuples(new XModel(xml, true, 3));
+    }
+
+    @Benchmark
+    public Tuples[] tuplesXBin() throws Exception {
+        return toTuples(new XModel(xbin, true, 3));
+    }
+
+    private static Tuples[] toTuples(XModel xm) {
+        Tuples[] ts = new Tuples[xm.tabs.size()];
+        for (int k = 0; k < ts.length; k++) {
+            ts[k] = xm.tabs.get(k).toTuples();
+        }
+        return ts;
+    }
+}
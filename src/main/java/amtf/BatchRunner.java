@@ -0,0 +1,502 @@
+package amtf;
+
+import amtf.parser.XCSPParser;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Counter;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Phase;
+import org.chocosolver.solver.trace.metrics.PropagatorMetricsRegistry;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.tools.TimeUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.lang.System.out;
+
+/**
+ * Batch runner for XCSP3 campaigns, replacing {@link expAllDiff}.
+ * <p>
+ * Every instance found in the given directories or glob patterns is solved once for each
+ * AllDifferent consistency and each search strategy, the jobs being run on a bounded pool of threads,
+ * each with its own parser and model.
+ * A record is written as soon as a job ends, in JSON Lines or in CSV depending on the extension of the output file,
+ * so that a campaign can be stopped at any time and resumed later with <code>--resume</code>:
+ * the jobs already recorded in the output file are skipped, except those recorded as <code>ERROR</code>,
+ * which are run again unless <code>--skip-errors</code> is given.
+ * <p>
+ * The time limit of a job covers the loading of the instance: the parser is interrupted once the limit is reached,
+ * and the search only gets the time left. The parser checks the interruption between constraints,
+ * so a single huge constraint may still overrun the limit.
+ * <p>
+ * Usage:
+ * <pre>
+ *     BatchRunner [options] (dir | glob)...
+ *       -a AC,ACFast,BC    AllDifferent consistencies (default: AUTO)
+ *       -s dom,wdeg        search strategies among default, dom, wdeg, activity, input (default: default)
+ *       -j 8               number of parallel jobs (default: number of processors)
+ *       -t 900s            time limit per job, loading included (default: 900s)
+ *       -n 1000000         node limit per job (default: none)
+ *       -o results.jsonl   output file, .jsonl or .csv (default: results.jsonl)
+ *       --resume           skip the jobs already in the output file
+ *       --skip-errors      with --resume, skip also the jobs which ended with an error
+ * </pre>
+ * For example: <code>BatchRunner -a AC,ACFast2,BC -s wdeg -j 4 -t 60s -o qwh.csv "bench/LatinSquare/*.xml"</code>.
+ * <p>
+ *
+ * @author Jia'nan Chen
+ */
+public class BatchRunner {
+
+    private static final String[] FIELDS = new String[]{
+            "instance", "consistency", "search", "status", "objective",
+            "nodes", "fails", "solutions", "time", "buildTime",
+            "matchingTime", "filterTime", "sccTime", "numDelValuesP1", "numDelValuesP2", "error"
+    };
+
+    private static final float IN_SEC = 1000 * 1000 * 1000f;
+
+    private static final Pattern JSON_FIELD = Pattern.compile("\"(instance|consistency|search|status)\":\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    // arguments
+    private final List<String> consistencies = new ArrayList<>();
+    private final List<String> searches = new ArrayList<>();
+    private final List<String> inputs = new ArrayList<>();
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private String timeLimit = "900s";
+    private long nodeLimit = -1;
+    private Path output = Paths.get("results.jsonl");
+    private boolean resume;
+    private boolean skipErrors;
+
+    private boolean csv;
+    private BufferedWriter writer;
+    // instances are loaded in these threads, so that loading can be interrupted
+    private ExecutorService loaders;
+
+    public static void main(String[] args) throws Exception {
+        BatchRunner runner = new BatchRunner();
+        runner.parseArgs(args);
+        runner.run();
+    }
+
+    //***********************************************************************************
+    // ARGUMENTS
+    //***********************************************************************************
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-a":
+                    consistencies.addAll(Arrays.asList(args[++i].split(",")));
+                    break;
+                case "-s":
+                    searches.addAll(Arrays.asList(args[++i].split(",")));
+                    break;
+                case "-j":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "-t":
+                    timeLimit = args[++i];
+                    break;
+                case "-n":
+                    nodeLimit = Long.parseLong(args[++i]);
+                    break;
+                case "-o":
+                    output = Paths.get(args[++i]);
+                    break;
+                case "--resume":
+                    resume = true;
+                    break;
+                case "--skip-errors":
+                    skipErrors = true;
+                    break;
+                default:
+                    if (args[i].startsWith("-")) {
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                    }
+                    inputs.add(args[i]);
+            }
+        }
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException("No instance given");
+        }
+        if (consistencies.isEmpty()) {
+            consistencies.add("AUTO");
+        }
+        if (searches.isEmpty()) {
+            searches.add("default");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of jobs must be positive");
+        }
+        csv = output.toString().endsWith(".csv");
+    }
+
+    //***********************************************************************************
+    // CAMPAIGN
+    //***********************************************************************************
+
+    private void run() throws IOException, InterruptedException {
+        List<Path> instances = listInstances();
+        Set<String> done = resume ? readDone() : new HashSet<>();
+        boolean header = csv && (!resume || !Files.exists(output) || Files.size(output) == 0);
+        writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                resume ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+        if (header) {
+            writer.write(String.join(",", FIELDS));
+            writer.newLine();
+            writer.flush();
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        loaders = Executors.newCachedThreadPool(r -> {
+            Thread th = new Thread(r, "loader");
+            th.setDaemon(true);
+            return th;
+        });
+        int submitted = 0;
+        for (Path ins : instances) {
+            for (String consistency : consistencies) {
+                for (String search : searches) {
+                    if (done.contains(key(ins.toString(), consistency, search))) {
+                        continue;
+                    }
+                    pool.execute(() -> write(solve(ins, consistency, search)));
+                    submitted++;
+                }
+            }
+        }
+        out.println(instances.size() + " instances, " + submitted + " jobs to run, " + done.size() + " already done");
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        loaders.shutdownNow();
+        writer.close();
+    }
+
+    /**
+     * @return the XCSP3 files found in the directories or matching the glob patterns, sorted by name
+     */
+    private List<Path> listInstances() throws IOException {
+        Set<Path> files = new HashSet<>();
+        for (String input : inputs) {
+            Path path = Paths.get(input);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> s = Files.walk(path)) {
+                    s.filter(p -> Files.isRegularFile(p) && isInstance(p)).forEach(files::add);
+                }
+            } else if (Files.isRegularFile(path)) {
+                files.add(path);
+            } else {
+                // walk from the longest prefix directory of the pattern without wildcard
+                int cut = firstWildcard(input);
+                int slash = input.lastIndexOf(File.separatorChar, cut);
+                Path root = slash < 0 ? Paths.get(".") : Paths.get(input.substring(0, slash + 1));
+                String glob = slash < 0 ? "./" + input : input;
+                PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+                if (Files.isDirectory(root)) {
+                    try (Stream<Path> s = Files.walk(root)) {
+                        s.filter(p -> Files.isRegularFile(p) && matcher.matches(p)).forEach(files::add);
+                    }
+                }
+            }
+        }
+        return files.stream().sorted().collect(Collectors.toList());
+    }
+
+    private static boolean isInstance(Path p) {
+        String name = p.getFileName().toString();
+        return name.endsWith(".xml") || name.endsWith(".lzma");
+    }
+
+    private static int firstWildcard(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if ("*?[{".indexOf(pattern.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return pattern.length();
+    }
+
+    //***********************************************************************************
+    // JOB
+    //***********************************************************************************
+
+    private Object[] solve(Path ins, String consistency, String search) {
+        Object[] record = new Object[FIELDS.length];
+        record[0] = ins.toString();
+        record[1] = consistency;
+        record[2] = search;
+        long start = System.nanoTime();
+        long limit = TimeUtils.convertInMilliseconds(timeLimit);
+        try {
+            Model model = new Model();
+            PropagatorMetricsRegistry metrics = model.getPropagatorMetrics();
+            metrics.setEnabled(true);
+            XCSPParser parser = new XCSPParser();
+            Future<?> loading = loaders.submit(() -> {
+                parser.model(model, ins.toString(), consistency);
+                return null;
+            });
+            try {
+                loading.get(limit, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                loading.cancel(true);
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+            long left = limit - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (loading.isCancelled() || left <= 0) {
+                // the time limit is reached while loading
+                record[3] = "UNKNOWN";
+                record[8] = (System.nanoTime() - start) / IN_SEC;
+                record[9] = record[8];
+                return record;
+            }
+            IntVar[] decVars = (IntVar[]) model.getHook("decisions");
+            if (decVars == null) {
+                decVars = parser.mvars.values().toArray(new IntVar[parser.mvars.size()]);
+            }
+            Arrays.sort(decVars, Comparator.comparingInt(IntVar::getId));
+            record[9] = (System.nanoTime() - start) / IN_SEC;
+
+            Solver solver = model.getSolver();
+            solver.limitTime(left);
+            if (nodeLimit > 0) {
+                solver.limitNode(nodeLimit);
+            }
+            solver.setSearch(makeSearch(search, model, decVars));
+            boolean optimization = model.getObjective() != null;
+            if (optimization) {
+                while (solver.solve()) ;
+            } else {
+                solver.solve();
+            }
+            long solutions = solver.getSolutionCount();
+            boolean complete = !solver.isStopCriterionMet() && !solver.hasEndedUnexpectedly();
+            if (solutions > 0) {
+                record[3] = optimization && complete ? "OPTIMUM" : "SAT";
+                record[4] = optimization ? solver.getBestSolutionValue() : null;
+            } else {
+                record[3] = complete ? "UNSAT" : "UNKNOWN";
+            }
+            record[5] = solver.getNodeCount();
+            record[6] = solver.getFailCount();
+            record[7] = solutions;
+            record[8] = solver.getTimeCount();
+            record[10] = metrics.getTotalTime(Phase.MATCHING) / IN_SEC;
+            record[11] = metrics.getTotalTime(Phase.FILTERING) / IN_SEC;
+            record[12] = metrics.getTotalTime(Phase.SCC) / IN_SEC;
+            record[13] = metrics.getCounter(Counter.REMOVED_GAMMA);
+            record[14] = metrics.getCounter(Counter.REMOVED_SCC);
+        } catch (Throwable e) {
+            // jobs failing on parsing or solving are recorded too, and run again on resume (unless --skip-errors)
+            record[3] = "ERROR";
+            record[8] = (System.nanoTime() - start) / IN_SEC;
+            record[15] = e.getClass().getSimpleName() + (e.getMessage() == null ? "" : ": " + e.getMessage());
+        }
+        return record;
+    }
+
+    private static AbstractStrategy<?> makeSearch(String search, Model model, IntVar[] decVars) {
+        switch (search) {
+            case "default":
+                return Search.defaultSearch(model);
+            case "dom":
+                return Search.minDomLBSearch(decVars);
+            case "wdeg":
+                return Search.domOverWDegSearch(decVars);
+            case "activity":
+                return Search.activityBasedSearch(decVars);
+            case "input":
+                return Search.inputOrderLBSearch(decVars);
+            default:
+                throw new IllegalArgumentException("Unknown search " + search);
+        }
+    }
+
+    //***********************************************************************************
+    // OUTPUT
+    //***********************************************************************************
+
+    private synchronized void write(Object[] record) {
+        try {
+            writer.write(csv ? toCSV(record) : toJSON(record));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        out.println(record[0] + " " + record[1] + " " + record[2] + " => " + record[3] + " " + record[8]);
+    }
+
+    private static String toJSON(Object[] record) {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (record[i] == null) {
+                continue;
+            }
+            if (sb.length() > 1) {
+                sb.append(',');
+            }
+            sb.append('"').append(FIELDS[i]).append("\":");
+            if (record[i] instanceof String) {
+                sb.append('"').append(escapeJSON((String) record[i])).append('"');
+            } else {
+                sb.append(record[i]);
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String toCSV(Object[] record) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            if (record[i] != null) {
+                sb.append(escapeCSV(record[i].toString()));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String escapeJSON(String s) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String escapeCSV(String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) {
+            return s;
+        }
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+
+    //***********************************************************************************
+    // RESUME
+    //***********************************************************************************
+
+    /**
+     * @return keys of the jobs already recorded in the output file, without those which ended with an error
+     * unless <code>--skip-errors</code> is given
+     */
+    private Set<String> readDone() throws IOException {
+        Set<String> done = new HashSet<>();
+        if (!Files.exists(output)) {
+            return done;
+        }
+        try (BufferedReader br = Files.newBufferedReader(output, StandardCharsets.UTF_8)) {
+            String line;
+            boolean first = true;
+            while ((line = br.readLine()) != null) {
+                if (csv) {
+                    // skip the header
+                    if (!first) {
+                        List<String> cols = splitCSV(line);
+                        if (cols.size() >= 4 && (skipErrors || !"ERROR".equals(cols.get(3)))) {
+                            done.add(key(cols.get(0), cols.get(1), cols.get(2)));
+                        }
+                    }
+                } else {
+                    String[] k = new String[4];
+                    Matcher m = JSON_FIELD.matcher(line);
+                    while (m.find()) {
+                        String v = m.group(2).replace("\\\"", "\"").replace("\\\\", "\\");
+                        switch (m.group(1)) {
+                            case "instance":
+                                k[0] = k[0] == null ? v : k[0];
+                                break;
+                            case "consistency":
+                                k[1] = k[1] == null ? v : k[1];
+                                break;
+                            case "search":
+                                k[2] = k[2] == null ? v : k[2];
+                                break;
+                            default:
+                                k[3] = k[3] == null ? v : k[3];
+                        }
+                    }
+                    if (k[0] != null && k[1] != null && k[2] != null && (skipErrors || !"ERROR".equals(k[3]))) {
+                        done.add(key(k[0], k[1], k[2]));
+                    }
+                }
+                first = false;
+            }
+        }
+        return done;
+    }
+
+    private static List<String> splitCSV(String line) {
+        List<String> cols = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        sb.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    sb.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cols.add(sb.toString());
+                sb.setLength(0);
+            } else {
+                sb.append(c);
+            }
+        }
+        cols.add(sb.toString());
+        return cols;
+    }
+
+    private static String key(String instance, String consistency, String search) {
+        return instance + '\u0000' + consistency + '\u0000' + search;
+    }
+}
@@ -5,6 +5,9 @@ import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.constraints.nary.nvalue.amnv.mis.F;
 import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Counter;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Phase;
+import org.chocosolver.solver.trace.metrics.PropagatorMetricsRegistry;
 import org.chocosolver.solver.variables.IntVar;
 
 import java.io.*;
@@ -77,8 +80,9 @@ public class expAllDiff {
                         numDelValuesP2 = 0f;
                         out.println(algorithm + "======>");
                         for (int i = 0; i < runNum; i++) {
-                            Measurer.initial();
                             Model model = new Model();
+                            PropagatorMetricsRegistry metrics = model.getPropagatorMetrics();
+                            metrics.setEnabled(true);
                             try {
                                 parser.model(model, ins.getPath(), algorithm);
                             } catch (Exception e) {
@@ -104,10 +108,10 @@ public class expAllDiff {
                             // }
                             node = solver.getNodeCount();
                             time += solver.getTimeCount() / runNum;
-                            matchingTime += Measurer.matchingTime / IN_SEC / runNum;
-                            filterTime += Measurer.filterTime / IN_SEC / runNum;
-                            numDelValuesP1 += Measurer.numDelValuesP1 / runNum;
-                            numDelValuesP2 += Measurer.numDelValuesP2 / runNum;
+                            matchingTime += metrics.getTotalTime(Phase.MATCHING) / IN_SEC / runNum;
+                            filterTime += metrics.getTotalTime(Phase.FILTERING) / IN_SEC / runNum;
+                            numDelValuesP1 += metrics.getCounter(Counter.REMOVED_GAMMA) / runNum;
+                            numDelValuesP2 += metrics.getCounter(Counter.REMOVED_SCC) / runNum;
                         }
                         bw.write("," + algorithm + "," + node + "," + time + "," + matchingTime + "," + filterTime + "," + numDelValuesP1 + "," + numDelValuesP2);
 //                        bw.write("," + node + "," + time);
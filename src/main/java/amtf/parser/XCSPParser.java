@@ -3,7 +3,10 @@ package amtf.parser;
 import gnu.trove.map.hash.TObjectIntHashMap;
 
 import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.constraints.extension.TuplesFactory;
+import org.chocosolver.solver.constraints.nary.alldifferent.AllDifferent;
 import org.chocosolver.solver.constraints.nary.automata.FA.FiniteAutomaton;
 import org.chocosolver.solver.expression.discrete.arithmetic.ArExpression;
 import org.chocosolver.solver.expression.discrete.arithmetic.NaArExpression;
@@ -26,17 +29,25 @@ import org.xcsp.common.Types;
 import org.xcsp.common.predicates.XNode;
 import org.xcsp.common.predicates.XNodeParent;
 import org.xcsp.parser.XCallbacks2;
+import org.xcsp.parser.entries.AnyEntry;
 import org.xcsp.parser.entries.XConstraints;
 import org.xcsp.parser.entries.XVariables;
 
 import java.io.File;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -63,6 +74,10 @@ public class XCSPParser implements XCallbacks2 {
      */
     public HashMap<XVariables.XVarInteger, IntVar> mvars;
     private ArrayList<IntVar> ovars;
+    /**
+     * Tuples already built, by array of tuples given by the XCSP3 parser: constraints of a group share the same array
+     */
+    private IdentityHashMap<int[][], Tuples> relations;
     /**
      * The model to feed
      */
@@ -73,19 +88,128 @@ public class XCSPParser implements XCallbacks2 {
     // 用于设定allDiff的相容性算法
     private String allDiffConsistency;
 
+    /**
+     * Pool which generates the tuples of intension constraints and builds the MDDs, <tt>null</tt> to build them
+     * on the thread which loads the instance
+     */
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    /**
+     * Constraints being built in the pool, in the order of the instance. Each task returns the action which posts
+     * the constraint, run on the thread which loads the instance.
+     */
+    private ArrayDeque<ForkJoinTask<Runnable>> pending;
+
+    /**
+     * Number of constraints submitted to the pool
+     */
+    private int nbDeferred;
+
+    /**
+     * Load <i>instance</i> into <i>model</i>, the filtering of the AllDifferent constraints is selected automatically.
+     *
+     * @see org.chocosolver.solver.constraints.nary.alldifferent.AllDifferent#AUTO
+     */
+    public void model(Model model, String instance) throws Exception {
+        model(model, instance, AllDifferent.AUTO);
+    }
+
     public void model(Model model, String instance, String allDiffConsistency) throws Exception {
         this.model = model;
         this.allDiffConsistency = allDiffConsistency;
         this.mvars = new HashMap<>();
+        this.relations = new IdentityHashMap<>();
         this.implem = new Implem(this);
+        this.pending = new ArrayDeque<>();
         File file = new File(instance);
         if(file.exists()){
             loadInstance(instance);
+            flush(0);
         }else{
             throw new RuntimeException("FILE DOES NOT EXIST");
         }
     }
 
+    /**
+     * Set the pool which builds the costly constraints while the instance is read, <tt>null</tt> to build them
+     * sequentially. The constraints are always posted in the order of the instance, by the thread which loads it.
+     * By default, the common pool is used.
+     *
+     * @param pool a fork-join pool, or <tt>null</tt>
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Build a constraint, in the pool if any.
+     * <i>build</i> must not modify the model: it returns the action which posts the constraint.
+     */
+    private void defer(Callable<Runnable> build) {
+        if (pool == null) {
+            try {
+                build.call().run();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ParserException(e.getMessage());
+            }
+        } else {
+            pending.addLast(pool.submit(build));
+            nbDeferred++;
+            // bound the number of pending tasks, to control memory
+            flush(4 * pool.getParallelism());
+        }
+    }
+
+    /**
+     * Post the constraints built, in order, until at most <i>window</i> of them are still being built.
+     */
+    private void flush(int window) {
+        while (pending.size() > window) {
+            pending.pollFirst().join().run();
+        }
+    }
+
+    /**
+     * Load a constraint, keeping the order of the instance: only the intension and MDD constraints may be built
+     * in the pool, the other ones are posted once the constraints being built are posted.
+     * Loading stops if the current thread is interrupted.
+     */
+    @Override
+    public void loadCtr(XConstraints.XCtr c) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new ParserException("Loading interrupted");
+        }
+        if (c.type != Types.TypeCtr.intension && c.type != Types.TypeCtr.mdd) {
+            flush(0);
+            XCallbacks2.super.loadCtr(c);
+            return;
+        }
+        int n = model.getNbCstrs();
+        int d = nbDeferred;
+        XCallbacks2.super.loadCtr(c);
+        if (nbDeferred == d && model.getNbCstrs() > n && !pending.isEmpty()) {
+            // recognized as another constraint and posted directly: move it after the pending ones (unpost from the last one, to keep the order)
+            Constraint[] cs = Arrays.copyOfRange(model.getCstrs(), n, model.getNbCstrs());
+            for (int i = cs.length - 1; i >= 0; i--) {
+                model.unpost(cs[i]);
+            }
+            flush(0);
+            model.post(cs);
+        }
+    }
+
+    @Override
+    public void beginLogic(XConstraints.XLogic l) {
+        flush(0);
+    }
+
+    @Override
+    public void beginObjectives(List<AnyEntry.OEntry> objectives, Types.TypeCombination type) {
+        flush(0);
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     /////////////////////////////////////////// VARIABLES //////////////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -104,7 +228,23 @@ public class XCSPParser implements XCallbacks2 {
     public void buildCtrIntension(String id, XVariables.XVarInteger[] scope, XNodeParent<XVariables.XVarInteger> tree) {
         ReExpression exp = buildRe(tree);
         if(VariableUtils.domainCardinality(vars(scope)) < Integer.MAX_VALUE / 1000){
-            exp.extension().post();
+            // same as ReExpression.extension(), but tuples are generated in the pool: only the domains copied here are read
+            HashSet<IntVar> avars = new LinkedHashSet<>();
+            exp.extractVar(avars);
+            IntVar[] uvars = avars.stream().sorted().toArray(IntVar[]::new);
+            Map<IntVar, Integer> map = new HashMap<>();
+            int[][] doms = new int[uvars.length][];
+            for (int i = 0; i < uvars.length; i++) {
+                map.put(uvars[i], i);
+                doms[i] = new int[uvars[i].getDomainSize()];
+                for (int j = 0, v = uvars[i].getLB(); j < doms[i].length; j++, v = uvars[i].nextValue(v)) {
+                    doms[i][j] = v;
+                }
+            }
+            defer(() -> {
+                Tuples tuples = TuplesFactory.generateTuples(values -> exp.beval(values, map), true, doms);
+                return () -> model.table(uvars, tuples).post();
+            });
         }else{
             exp.decompose().post();
         }
@@ -301,13 +441,15 @@ public class XCSPParser implements XCallbacks2 {
         if (flags.contains(Types.TypeFlag.UNCLEAN_TUPLES)) {
             // do you have to clean the tuples, so as to remove those that cannot be built from variable domains ?
         }
-        Tuples mTuples = new Tuples(tuples, positive);
-        if (flags.contains(Types.TypeFlag.STARRED_TUPLES)) {
-            if(!positive){
-                // can you manage tables with symbol * ?
-                throw new ParserException("Negative tables with symbol * are not supported");
+        boolean starred = flags.contains(Types.TypeFlag.STARRED_TUPLES);
+        // constraints of a group share the same array of tuples: build Tuples once, so that their supports are shared
+        Tuples mTuples = relations.get(tuples);
+        if (mTuples == null || mTuples.isFeasible() != positive || mTuples.allowUniversalValue() != starred) {
+            mTuples = new Tuples(tuples, positive);
+            if (starred) {
+                mTuples.setUniversalValue(STAR_INT);
             }
-            mTuples.setUniversalValue(STAR_INT);
+            relations.put(tuples, mTuples);
         }
         model.table(vars(list), mTuples).post();
     }
@@ -890,35 +1032,38 @@ public class XCSPParser implements XCallbacks2 {
             succs.add(transitions[t]);
         }
 
-        String first = possibleRoots.toArray(new String[1])[0];
-        String last =possibleWells.toArray(new String[1])[0];
-        TObjectIntHashMap<String> map = new TObjectIntHashMap<>();
-        map.put(first, 0);
-        map.put(last, -1);
-        possibleRoots.add(last);
-        int n = 1;
-
-        int[][] mtransitions = new int[transitions.length][3];
-        int k = 0;
-        CircularQueue<String> queue = new CircularQueue<>(layers.size());
-        queue.addLast(first);
-        while(!queue.isEmpty()){
-            String src = queue.pollFirst();
-            List<Object[]> succs = layers.get(src);
-            if(succs == null) continue;
-            for(Object[] t : succs){
-                String tgt = (String)t[2];
-                if(!possibleRoots.contains(tgt)){
-                    queue.addLast(tgt);
-                    possibleRoots.add(tgt);
-                    map.put(tgt, n++);
+        IntVar[] mVars = vars(list);
+        // layers are numbered and the MDD is built in the pool, the MDD only reads the domains of the variables
+        defer(() -> {
+            String first = possibleRoots.toArray(new String[1])[0];
+            String last =possibleWells.toArray(new String[1])[0];
+            TObjectIntHashMap<String> map = new TObjectIntHashMap<>();
+            map.put(first, 0);
+            map.put(last, -1);
+            possibleRoots.add(last);
+            int n = 1;
+
+            int[][] mtransitions = new int[transitions.length][3];
+            int k = 0;
+            CircularQueue<String> queue = new CircularQueue<>(layers.size());
+            queue.addLast(first);
+            while(!queue.isEmpty()){
+                String src = queue.pollFirst();
+                List<Object[]> succs = layers.get(src);
+                if(succs == null) continue;
+                for(Object[] t : succs){
+                    String tgt = (String)t[2];
+                    if(!possibleRoots.contains(tgt)){
+                        queue.addLast(tgt);
+                        possibleRoots.add(tgt);
+                        map.put(tgt, n++);
+                    }
+                    mtransitions[k++] = new int[]{map.get(src), ((Long) t[1]).intValue(),map.get(tgt)};
                 }
-                mtransitions[k++] = new int[]{map.get(src), ((Long) t[1]).intValue(),map.get(tgt)};
             }
-        }
-        IntVar[] mVars = vars(list);
-        MultivaluedDecisionDiagram mdd = new MultivaluedDecisionDiagram(mVars, mtransitions);
-        model.mddc(mVars, mdd).post();
+            MultivaluedDecisionDiagram mdd = new MultivaluedDecisionDiagram(mVars, mtransitions);
+            return () -> model.mddc(mVars, mdd).post();
+        });
 
     }
 
@@ -1413,6 +1558,7 @@ public class XCSPParser implements XCallbacks2 {
             XConstraints.CEntryReifiable child = ((XConstraints.XLogic) g.template).components[0];
             if (child instanceof XConstraints.XCtr && ((XConstraints.XCtr) child).type == Types.TypeCtr.allEqual) {
                 // http://sofdem.github.io/gccat/aux/pdf/not_all_equal.pdf
+                flush(0);
                 Stream.of(g.argss).forEach(o -> model.notAllEqual(vars((XVariables.XVarInteger[]) o)).post());
             }
         } else
@@ -5,6 +5,8 @@ import gnu.trove.impl.sync.TSynchronizedShortByteMap;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Phase;
+import org.chocosolver.solver.trace.metrics.PropagatorMetricsRegistry;
 import org.chocosolver.solver.search.strategy.selectors.values.IntDomainMin;
 import org.chocosolver.solver.search.strategy.selectors.variables.FirstFail;
 import org.chocosolver.solver.variables.IntVar;
@@ -66,8 +68,9 @@ public class testAllDiff {
             for (String algo : algorithms) {
                 out.println(algo + "====>");
                 for (int i = 0; i < runNum; i++) {
-                    Measurer.initial();
                     Model model = new Model();
+                    PropagatorMetricsRegistry metrics = model.getPropagatorMetrics();
+                    metrics.setEnabled(true);
                     try {
                         parser.model(model, ins, algo);
                     } catch (Exception e) {
@@ -95,9 +98,9 @@ public class testAllDiff {
                     if (i == runNum - 1) {
                         out.println("node: " + solver.getNodeCount());
                         out.println("time: " + solver.getTimeCount() + "s");
-                        out.println("find matching time: " + Measurer.matchingTime / IN_SEC + "s");
-                        out.println("filter time: " + Measurer.filterTime / IN_SEC + "s");
-                        out.println("scc time: " + Measurer.checkSCCTime / IN_SEC + "s");
+                        out.println("find matching time: " + metrics.getTotalTime(Phase.MATCHING) / IN_SEC + "s");
+                        out.println("filter time: " + metrics.getTotalTime(Phase.FILTERING) / IN_SEC + "s");
+                        out.println("scc time: " + metrics.getTotalTime(Phase.SCC) / IN_SEC + "s");
                     }
                 }
             }
@@ -116,7 +116,7 @@ object Test {
     }
     i = 0
     while (i < xm.num_tabs) {
-      tuple2(i) = new Tuples(xm.tabs.get(i).tuples, true)
+      tuple2(i) = xm.tabs.get(i).toTuples()
       i += 1
     }
     i = 0
@@ -63,6 +63,10 @@ public class XCSPParser implements XCallbacks2 {
      */
     protected HashMap<XVariables.XVarInteger, IntVar> mvars;
     private ArrayList<IntVar> ovars;
+    /**
+     * Tuples already built, by array of tuples given by the XCSP3 parser: constraints of a group share the same array
+     */
+    private IdentityHashMap<int[][], Tuples> relations;
     /**
      * The model to feed
      */
@@ -75,6 +79,7 @@ public class XCSPParser implements XCallbacks2 {
     public void model(Model model, String instance,String algorithm) throws Exception {
         this.model = model;
         this.mvars = new HashMap<>();
+        this.relations = new IdentityHashMap<>();
         this.algorithm = algorithm;
         this.implem = new Implem(this);
         File file = new File(instance);
@@ -300,13 +305,19 @@ public class XCSPParser implements XCallbacks2 {
         if (flags.contains(Types.TypeFlag.UNCLEAN_TUPLES)) {
             // do you have to clean the tuples, so as to remove those that cannot be built from variable domains ?
         }
-        Tuples mTuples = new Tuples(tuples, positive);
-        if (flags.contains(Types.TypeFlag.STARRED_TUPLES)) {
-            if(!positive){
-                // can you manage tables with symbol * ?
-                throw new ParserException("Negative tables with symbol * are not supported");
+        boolean starred = flags.contains(Types.TypeFlag.STARRED_TUPLES);
+        if (starred && !positive) {
+            // can you manage tables with symbol * ?
+            throw new ParserException("Negative tables with symbol * are not supported");
+        }
+        // constraints of a group share the same array of tuples: build Tuples once, so that their supports are shared
+        Tuples mTuples = relations.get(tuples);
+        if (mTuples == null || mTuples.isFeasible() != positive || mTuples.allowUniversalValue() != starred) {
+            mTuples = new Tuples(tuples, positive);
+            if (starred) {
+                mTuples.setUniversalValue(STAR_INT);
             }
-            mTuples.setUniversalValue(STAR_INT);
+            relations.put(tuples, mTuples);
         }
         model.table1(vars(list), mTuples,algorithm).post();
     }
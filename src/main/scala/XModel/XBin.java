@@ -0,0 +1,364 @@
+package XModel;
+
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.objects.graphs.MultivaluedDecisionDiagram;
+import org.msgpack.core.MessageBufferPacker;
+import org.msgpack.core.MessagePack;
+import org.msgpack.core.MessageUnpacker;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary format of instances: an XCSP instance is compiled once, then loaded by mapping the file, without
+ * parsing the XML again.
+ * <p>
+ * Layout of the file:
+ * <pre>
+ * int    magic ("XBIN")
+ * int    version
+ * int    header length
+ * byte[] header, msgpack: name, need_positive, variables (name, values), tables (name, semantics, STD, scope,
+ *        number of tuples, offset of the data, width of each column)
+ * byte[] data: tuples of each table, column by column, each column stored on 1, 2 or 4 bytes per value
+ * </pre>
+ * Tuples are those of {@link XTab}, that is, indices of values in the domains, which are small:
+ * most columns are stored on a single byte.
+ * The data is never copied on loading: {@link Table} reads it from the mapped file,
+ * {@link XTab} keeps a reference to it, and {@link Table#toTuples()} or {@link Table#toMDD(IntVar[])} build the
+ * relations of Choco directly from it.
+ * The file must be loaded with the <i>transform</i> it was compiled with.
+ * <p>
+ * Compile an instance with: <code>XBin instance.xml instance.xbin</code>
+ *
+ * @author Jia'nan Chen
+ */
+public class XBin {
+
+    public static final String EXTENSION = ".xbin";
+
+    private static final int MAGIC = 0x5842494E;
+    private static final int VERSION = 1;
+
+    public final String name;
+    public final boolean need_positive;
+    private final String[] varNames;
+    private final int[][] varValues;
+    private final Table[] tables;
+
+    /**
+     * A table constraint, whose tuples are read from the mapped file
+     */
+    public static final class Table {
+        public final String name;
+        public final boolean semantics;
+        public final boolean STD;
+        public final int[] scope;
+        private final int nbTuples;
+        private final ByteBuffer data;
+        // start of each column in data, and its width in bytes
+        private final int[] starts;
+        private final byte[] widths;
+
+        private Table(String name, boolean semantics, boolean STD, int[] scope, int nbTuples, ByteBuffer data, byte[] widths) {
+            this.name = name;
+            this.semantics = semantics;
+            this.STD = STD;
+            this.scope = scope;
+            this.nbTuples = nbTuples;
+            this.data = data;
+            this.widths = widths;
+            this.starts = new int[scope.length];
+            for (int i = 1; i < scope.length; i++) {
+                starts[i] = starts[i - 1] + nbTuples * widths[i - 1];
+            }
+        }
+
+        public int arity() {
+            return scope.length;
+        }
+
+        public int nbTuples() {
+            return nbTuples;
+        }
+
+        /**
+         * @return the value of the <i>i</i>-th variable in the <i>t</i>-th tuple
+         */
+        public int get(int t, int i) {
+            switch (widths[i]) {
+                case 1:
+                    return data.get(starts[i] + t) & 0xFF;
+                case 2:
+                    return data.getChar(starts[i] + (t << 1));
+                default:
+                    return data.getInt(starts[i] + (t << 2));
+            }
+        }
+
+        /**
+         * Copy the <i>i</i>-th column into <i>column</i>, from the <i>from</i>-th tuple.
+         */
+        public void getColumn(int i, int from, int[] column) {
+            int n = Math.min(column.length, nbTuples - from);
+            for (int t = 0; t < n; t++) {
+                column[t] = get(from + t, i);
+            }
+        }
+
+        /**
+         * @return the tuples of this table, with its semantics
+         */
+        public Tuples toTuples() {
+            Tuples tuples = new Tuples(semantics);
+            int[] tuple = new int[scope.length];
+            for (int t = 0; t < nbTuples; t++) {
+                for (int i = 0; i < tuple.length; i++) {
+                    tuple[i] = get(t, i);
+                }
+                tuples.add(tuple);
+            }
+            return tuples;
+        }
+
+        /**
+         * @return an MDD of the tuples of this table, which must be positive, over <i>vars</i>
+         */
+        public MultivaluedDecisionDiagram toMDD(IntVar[] vars) {
+            return new MultivaluedDecisionDiagram(vars, toTuples());
+        }
+
+        /**
+         * @return the tuples of this table, row by row
+         */
+        public int[][] toMatrix() {
+            int[][] tuples = new int[nbTuples][scope.length];
+            for (int i = 0; i < scope.length; i++) {
+                for (int t = 0; t < nbTuples; t++) {
+                    tuples[t][i] = get(t, i);
+                }
+            }
+            return tuples;
+        }
+    }
+
+    private XBin(String name, boolean need_positive, String[] varNames, int[][] varValues, Table[] tables) {
+        this.name = name;
+        this.need_positive = need_positive;
+        this.varNames = varNames;
+        this.varValues = varValues;
+        this.tables = tables;
+    }
+
+    public int nbVars() {
+        return varNames.length;
+    }
+
+    public String varName(int v) {
+        return varNames[v];
+    }
+
+    /**
+     * @return original values of the domain of the <i>v</i>-th variable
+     */
+    public int[] values(int v) {
+        return varValues[v];
+    }
+
+    public int nbTables() {
+        return tables.length;
+    }
+
+    public Table table(int k) {
+        return tables[k];
+    }
+
+    /**
+     * Write an XModel as a binary file
+     */
+    public static void write(XModel xm, String file) throws IOException {
+        int nt = xm.tabs.size();
+        byte[][] widths = new byte[nt][];
+        long offset = 0;
+        long[] offsets = new long[nt];
+        for (int k = 0; k < nt; k++) {
+            XTab t = xm.tabs.get(k);
+            widths[k] = new byte[t.arity];
+            for (int i = 0; i < t.arity; i++) {
+                int min = 0, max = 0;
+                for (int r = 0; r < t.nbTuples(); r++) {
+                    min = Math.min(min, t.get(r, i));
+                    max = Math.max(max, t.get(r, i));
+                }
+                widths[k][i] = (byte) (min < 0 || max > 0xFFFF ? 4 : max > 0xFF ? 2 : 1);
+            }
+            offsets[k] = offset;
+            for (int i = 0; i < t.arity; i++) {
+                offset += (long) t.nbTuples() * widths[k][i];
+            }
+        }
+        byte[] header;
+        try (MessageBufferPacker packer = MessagePack.newDefaultBufferPacker()) {
+            packer.packString(xm.name == null ? "" : xm.name);
+            packer.packBoolean(xm.need_positive);
+            packer.packArrayHeader(xm.vars.size());
+            for (XVar v : xm.vars) {
+                packer.packString(v.name);
+                packer.packArrayHeader(v.values_ori.length);
+                for (int a : v.values_ori) {
+                    packer.packInt(a);
+                }
+            }
+            packer.packArrayHeader(nt);
+            for (int k = 0; k < nt; k++) {
+                XTab t = xm.tabs.get(k);
+                packer.packString(t.name == null ? "" : t.name);
+                packer.packBoolean(t.semantics);
+                packer.packBoolean(t.STD);
+                packer.packArrayHeader(t.arity);
+                for (int i = 0; i < t.arity; i++) {
+                    packer.packInt(t.scopeInt[i]);
+                }
+                packer.packInt(t.nbTuples());
+                packer.packLong(offsets[k]);
+                packer.packBinaryHeader(t.arity);
+                packer.writePayload(widths[k]);
+            }
+            header = packer.toByteArray();
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(Paths.get(file)), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(header.length);
+            out.write(header);
+            // tuples, column by column
+            for (int k = 0; k < nt; k++) {
+                XTab t = xm.tabs.get(k);
+                for (int i = 0; i < t.arity; i++) {
+                    switch (widths[k][i]) {
+                        case 1:
+                            for (int r = 0; r < t.nbTuples(); r++) {
+                                out.writeByte(t.get(r, i));
+                            }
+                            break;
+                        case 2:
+                            for (int r = 0; r < t.nbTuples(); r++) {
+                                out.writeChar(t.get(r, i));
+                            }
+                            break;
+                        default:
+                            for (int r = 0; r < t.nbTuples(); r++) {
+                                out.writeInt(t.get(r, i));
+                            }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Map a binary file in memory, only its header is decoded
+     */
+    public static XBin open(String file) throws IOException {
+        Path path = Paths.get(file);
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a binary instance");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException(file + ": unsupported version " + buffer.getInt(4));
+        }
+        int hl = buffer.getInt(8);
+        byte[] header = new byte[hl];
+        buffer.position(12);
+        buffer.get(header);
+        int dataStart = 12 + hl;
+        try (MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(header)) {
+            String name = unpacker.unpackString();
+            boolean needPositive = unpacker.unpackBoolean();
+            int nv = unpacker.unpackArrayHeader();
+            String[] varNames = new String[nv];
+            int[][] varValues = new int[nv][];
+            for (int v = 0; v < nv; v++) {
+                varNames[v] = unpacker.unpackString();
+                varValues[v] = new int[unpacker.unpackArrayHeader()];
+                for (int a = 0; a < varValues[v].length; a++) {
+                    varValues[v][a] = unpacker.unpackInt();
+                }
+            }
+            int nt = unpacker.unpackArrayHeader();
+            Table[] tables = new Table[nt];
+            for (int k = 0; k < nt; k++) {
+                String tname = unpacker.unpackString();
+                boolean semantics = unpacker.unpackBoolean();
+                boolean std = unpacker.unpackBoolean();
+                int[] scope = new int[unpacker.unpackArrayHeader()];
+                for (int i = 0; i < scope.length; i++) {
+                    scope[i] = unpacker.unpackInt();
+                }
+                int nbTuples = unpacker.unpackInt();
+                long offset = unpacker.unpackLong();
+                byte[] widths = unpacker.readPayload(unpacker.unpackBinaryHeader());
+                long size = 0;
+                for (byte w : widths) {
+                    size += (long) nbTuples * w;
+                }
+                if (dataStart + offset + size > Integer.MAX_VALUE) {
+                    throw new IOException(file + ": instances over 2GB are not supported");
+                }
+                buffer.limit((int) (dataStart + offset + size));
+                buffer.position((int) (dataStart + offset));
+                tables[k] = new Table(tname, semantics, std, scope, nbTuples, buffer.slice(), widths);
+                buffer.clear();
+            }
+            return new XBin(name, needPositive, varNames, varValues, tables);
+        }
+    }
+
+    /**
+     * Fill an XModel with this binary instance, tuples are not copied
+     */
+    void fill(XModel xm) {
+        xm.name = name;
+        xm.need_positive = need_positive;
+        for (int v = 0; v < varNames.length; v++) {
+            XVar var = new XVar(xm.num_vars++, varNames[v], varValues[v]);
+            xm.vars_map.put(var.name, var);
+            xm.vars.add(var);
+            xm.max_domain_size = Math.max(xm.max_domain_size, var.size);
+        }
+        for (Table table : tables) {
+            XVar[] scp = new XVar[table.arity()];
+            for (int i = 0; i < scp.length; i++) {
+                scp[i] = xm.vars.get(table.scope[i]);
+            }
+            XTab t = new XTab(xm.num_tabs++, table, scp);
+            xm.tabs.add(t);
+            xm.max_arity = Math.max(xm.max_arity, t.arity);
+            xm.max_tuples_size = Math.max(xm.max_tuples_size, t.nbTuples());
+            xm.avg_tuples_size = (xm.avg_tuples_size * (xm.tabs.size() - 1) + t.nbTuples()) / xm.tabs.size();
+        }
+    }
+
+    /**
+     * Compile: XBin instance.xml instance.xbin [transform]
+     */
+    public static void main(String[] args) throws Exception {
+        boolean transform = args.length < 3 || Boolean.parseBoolean(args[2]);
+        XModel xm = new XModel(args[0], transform, 3);
+        write(xm, args[1]);
+    }
+}
@@ -42,7 +42,16 @@ public class XModel implements XCallbacks2 {
     public XModel(String fileName, boolean transform, int format) throws Exception {
         filePath = fileName;
         name = getFileName(fileName);
-        if (format == 3) {
+        if (fileName.endsWith(XBin.EXTENSION)) {
+            // compiled binary instance, see XBin
+            XBin bin = XBin.open(fileName);
+            if (bin.need_positive != transform) {
+                throw new IllegalArgumentException(fileName + " was compiled with transform = " + bin.need_positive
+                        + ", compile it again with transform = " + transform);
+            }
+            bin.fill(this);
+            name = getFileName(fileName);
+        } else if (format == 3) {
             need_positive = transform;
 //        Document doc = Utilities.loadDocument(fileName);
 //        XParser parser = new XParser(doc);
@@ -93,8 +102,8 @@ public class XModel implements XCallbacks2 {
         XTab t = new XTab(num_tabs++, id, positive, tuples, v, need_positive, false);
         tabs.add(t);
         max_arity = Math.max(max_arity, t.arity);
-        max_tuples_size = Math.max(max_tuples_size, t.tuples.length);
-        avg_tuples_size = (avg_tuples_size * (tabs.size() - 1) + t.tuples.length) / tabs.size();
+        max_tuples_size = Math.max(max_tuples_size, t.nbTuples());
+        avg_tuples_size = (avg_tuples_size * (tabs.size() - 1) + t.nbTuples()) / tabs.size();
     }
 
     @Override
@@ -141,8 +150,8 @@ public class XModel implements XCallbacks2 {
             XTab t = new XTab(num_tabs++, c.name, true, r.rvs, v, need_positive, true);
             tabs.add(t);
             max_arity = Math.max(max_arity, t.arity);
-            max_tuples_size = Math.max(max_tuples_size, t.tuples.length);
-            avg_tuples_size = (avg_tuples_size * (tabs.size() - 1) + t.tuples.length) / tabs.size();
+            max_tuples_size = Math.max(max_tuples_size, t.nbTuples());
+            avg_tuples_size = (avg_tuples_size * (tabs.size() - 1) + t.nbTuples()) / tabs.size();
         }
     }
 
@@ -1,5 +1,7 @@
 package XModel;
 
+import org.chocosolver.solver.constraints.extension.Tuples;
+
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -8,7 +10,15 @@ public class XTab {
     public int id;
     public String name;
     public int arity;
+    /**
+     * Tuples, row by row; <tt>null</tt> for a table loaded from a binary instance until {@link #have(int[])}
+     * or {@link #show()} needs them
+     */
     public int[][] tuples;
+    /**
+     * Tuples mapped from a binary instance, <tt>null</tt> otherwise
+     */
+    private XBin.Table table;
     public XVar[] scope;
     public int[] scopeInt;
     public boolean STD;
@@ -137,6 +147,26 @@ public class XTab {
         tuples = ts;
     }
 
+    /**
+     * A table of a binary instance, whose tuples stay in the mapped file.
+     */
+    XTab(int id, XBin.Table table, XVar[] scp) {
+        this.id = id;
+        this.name = table.name;
+        this.semantics = table.semantics;
+        this.STD = table.STD;
+        this.arity = scp.length;
+        this.scope = scp;
+        this.table = table;
+        scopeInt = new int[arity];
+
+        for (int i = 0; i < arity; ++i) {
+            var vid = scp[i].id;
+            scopeInt[i] = vid;
+            scopeIntMap.put(vid, i);
+        }
+    }
+
     XTab(XTab t, XVar[] scp) {
         this.id = t.id + 1;
         this.STD = t.STD;
@@ -150,6 +180,32 @@ public class XTab {
         }
 
         tuples = t.tuples;
+        table = t.table;
+    }
+
+    public int nbTuples() {
+        return table != null ? table.nbTuples() : tuples.length;
+    }
+
+    /**
+     * @return the value of the <i>i</i>-th variable in the <i>t</i>-th tuple
+     */
+    public int get(int t, int i) {
+        return table != null ? table.get(t, i) : tuples[t][i];
+    }
+
+    /**
+     * @return the tuples of Choco, with the semantics of this table, read from the mapped file if any
+     */
+    public Tuples toTuples() {
+        return table != null ? table.toTuples() : new Tuples(tuples, semantics);
+    }
+
+    private int[][] matrix() {
+        if (tuples == null) {
+            tuples = table.toMatrix();
+        }
+        return tuples;
     }
 
     void GetTuple(int idx, int[] src_t, int[] std_t) {
@@ -167,13 +223,13 @@ public class XTab {
     }
 
     boolean have(int[] tuple) {
-        return Arrays.binarySearch(tuples, tuple) >= 0;
+        return Arrays.binarySearch(matrix(), tuple) >= 0;
     }
 
     public void show() {
         String sem = semantics ? "supports" : "conflicts";
-        System.out.println("name: " + id + " semantics: " + sem + " size: " + tuples.length + " arity: " + arity + " scope = " + Arrays.toString(scopeInt));
-        for (int[] t : tuples) {
+        System.out.println("name: " + id + " semantics: " + sem + " size: " + nbTuples() + " arity: " + arity + " scope = " + Arrays.toString(scopeInt));
+        for (int[] t : matrix()) {
             System.out.print(Arrays.toString(t));
         }
         System.out.println();
@@ -184,7 +240,7 @@ public class XTab {
     }
 
     public int getSTDValue(int index, int vid) {
-        return tuples[index][getVarIndex(vid)];
+        return get(index, getVarIndex(vid));
     }
 
     public double Looseness() {
@@ -194,7 +250,7 @@ public class XTab {
             p *= t.size;
         }
 
-        return (double) tuples.length / (double) p;
+        return (double) nbTuples() / (double) p;
     }
 
     public double Tightness() {
@@ -9,7 +9,10 @@
  */
 package org.chocosolver.memory;
 
+import org.chocosolver.memory.copying.EnvironmentCopying;
+import org.chocosolver.memory.copying.EnvironmentHybrid;
 import org.chocosolver.memory.trailing.EnvironmentTrailing;
+import org.chocosolver.memory.trailing.arena.EnvironmentArena;
 import org.chocosolver.memory.trailing.trail.*;
 import org.chocosolver.memory.trailing.trail.chunck.*;
 import org.chocosolver.memory.trailing.trail.flatten.*;
@@ -23,6 +26,28 @@ import org.chocosolver.memory.trailing.trail.flatten.*;
  */
 public class EnvironmentBuilder {
 
+    /**
+     * Kinds of environment
+     */
+    public enum Type {
+        /**
+         * Every stored data is trailed, see {@link EnvironmentTrailing}
+         */
+        TRAILING,
+        /**
+         * Stored data are copied on world push, see {@link EnvironmentCopying}
+         */
+        COPYING,
+        /**
+         * Bit sets are copied on world push, other data are trailed, see {@link EnvironmentHybrid}
+         */
+        HYBRID,
+        /**
+         * Stored primitives are slots of arenas trailed with primitive stacks, see {@link EnvironmentArena}
+         */
+        ARENA
+    }
+
     /**
      * The maximum numbers of worlds that a
      * {@link org.chocosolver.memory.IStorage} can handle.
@@ -149,7 +174,63 @@ public class EnvironmentBuilder {
      * @return the resulting environment
      */
     public EnvironmentTrailing build(){
-        EnvironmentTrailing env = new EnvironmentTrailing();
+        return setTrails(new EnvironmentTrailing());
+    }
+
+    /**
+     * Build a copying environment, only operations and vectors are trailed
+     * @return the resulting environment
+     */
+    public EnvironmentCopying buildCopying(){
+        EnvironmentCopying env = new EnvironmentCopying(worldsize, worldnumber);
+        if (ot == null) {
+            ot = new OperationTrail(worldsize, worldnumber, loadfactor);
+        }
+        env.setOperationTrail(ot);
+        return env;
+    }
+
+    /**
+     * Build an hybrid environment, bit sets are copied and other data are trailed
+     * @return the resulting environment
+     */
+    public EnvironmentHybrid buildHybrid(){
+        return setTrails(new EnvironmentHybrid(worldsize, worldnumber));
+    }
+
+    /**
+     * Build an arena environment, stored primitives are slots of arenas with their own trails
+     * @return the resulting environment
+     */
+    public EnvironmentArena buildArena(){
+        EnvironmentArena env = new EnvironmentArena(worldsize, worldnumber, loadfactor);
+        if (ot == null) {
+            ot = new OperationTrail(worldsize, worldnumber, loadfactor);
+        }
+        env.setOperationTrail(ot);
+        return env;
+    }
+
+    /**
+     * Build an environment of the given kind
+     * @param type kind of environment
+     * @return the resulting environment
+     */
+    public IEnvironment build(Type type){
+        switch (type) {
+            case COPYING:
+                return buildCopying();
+            case HYBRID:
+                return buildHybrid();
+            case ARENA:
+                return buildArena();
+            case TRAILING:
+            default:
+                return build();
+        }
+    }
+
+    private <E extends EnvironmentTrailing> E setTrails(E env){
         if (bt == null) {
             bt = new StoredBoolTrail(worldsize, worldnumber, loadfactor);
         }
@@ -33,8 +33,10 @@ public abstract class IStateInt  {
 
     /**
      * Returns the current value.
+     * Overridden by the states whose value is not held by the object itself,
+     * see {@link org.chocosolver.memory.copying.EnvironmentCopying}.
      */
-    public final int get() {
+    public int get() {
         return currentValue;
     }
 
@@ -52,7 +54,7 @@ public abstract class IStateInt  {
      * @return the new value
      */
     public final int add(int delta) {
-        int res = currentValue + delta;
+        int res = get() + delta;
         set(res);
         return res;
     }
@@ -74,6 +76,6 @@ public abstract class IStateInt  {
 
     @Override
     public String toString() {
-        return String.valueOf(currentValue);
+        return String.valueOf(get());
     }
 }
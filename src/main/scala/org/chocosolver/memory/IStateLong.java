@@ -33,8 +33,10 @@ public abstract class IStateLong  {
 
     /**
      * Returns the current value.
+     * Overridden by the states whose value is not held by the object itself,
+     * see {@link org.chocosolver.memory.copying.EnvironmentCopying}.
      */
-    public final long get() {
+    public long get() {
         return currentValue;
     }
 
@@ -62,6 +64,6 @@ public abstract class IStateLong  {
 
     @Override
     public String toString() {
-        return String.valueOf(currentValue);
+        return String.valueOf(get());
     }
 }
@@ -0,0 +1,50 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.copying;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateBool;
+
+/**
+ * A backtrackable boolean whose value is held by an {@link IntArena}.
+ *
+ * @author Jia'nan Chen
+ */
+public class CopiedBool extends IStateBool {
+
+    private final IntArena arena;
+    private final int idx;
+
+    /**
+     * Constructs a stored boolean with an initial value.
+     * Note: this constructor should not be used directly: one should instead
+     * use the IEnvironment factory
+     */
+    public CopiedBool(final IEnvironment env, final IntArena arena, final boolean i) {
+        super(env, i);
+        this.arena = arena;
+        this.idx = arena.allocate(1, i ? 1 : 0);
+    }
+
+    @Override
+    public final boolean get() {
+        return arena.values[arena.offset + idx] != 0;
+    }
+
+    @Override
+    public final void set(final boolean y) {
+        arena.values[arena.offset + idx] = y ? 1 : 0;
+    }
+
+    @Override
+    public void _set(final boolean y, final int wstamp) {
+        set(y);
+    }
+}
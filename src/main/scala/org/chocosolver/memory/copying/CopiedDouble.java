@@ -0,0 +1,50 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.copying;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateDouble;
+
+/**
+ * A backtrackable double whose value is held by a {@link LongArena}, as raw long bits.
+ *
+ * @author Jia'nan Chen
+ */
+public class CopiedDouble extends IStateDouble {
+
+    private final LongArena arena;
+    private final int idx;
+
+    /**
+     * Constructs a stored double with an initial value.
+     * Note: this constructor should not be used directly: one should instead
+     * use the IEnvironment factory
+     */
+    public CopiedDouble(final IEnvironment env, final LongArena arena, final double i) {
+        super(env, i);
+        this.arena = arena;
+        this.idx = arena.allocate(1, Double.doubleToRawLongBits(i));
+    }
+
+    @Override
+    public final double get() {
+        return Double.longBitsToDouble(arena.values[arena.offset + idx]);
+    }
+
+    @Override
+    public final void set(final double y) {
+        arena.values[arena.offset + idx] = Double.doubleToRawLongBits(y);
+    }
+
+    @Override
+    public void _set(final double y, final int wstamp) {
+        set(y);
+    }
+}
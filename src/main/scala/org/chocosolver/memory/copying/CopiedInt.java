@@ -0,0 +1,50 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.copying;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateInt;
+
+/**
+ * A backtrackable int whose value is held by an {@link IntArena}.
+ *
+ * @author Jia'nan Chen
+ */
+public class CopiedInt extends IStateInt {
+
+    private final IntArena arena;
+    private final int idx;
+
+    /**
+     * Constructs a stored int with an initial value.
+     * Note: this constructor should not be used directly: one should instead
+     * use the IEnvironment factory
+     */
+    public CopiedInt(final IEnvironment env, final IntArena arena, final int i) {
+        super(env, i);
+        this.arena = arena;
+        this.idx = arena.allocate(1, i);
+    }
+
+    @Override
+    public final int get() {
+        return arena.values[arena.offset + idx];
+    }
+
+    @Override
+    public final void set(final int y) {
+        arena.values[arena.offset + idx] = y;
+    }
+
+    @Override
+    public void _set(final int y, final int wstamp) {
+        set(y);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.copying;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateLong;
+
+/**
+ * A backtrackable long whose value is held by a {@link LongArena}.
+ *
+ * @author Jia'nan Chen
+ */
+public class CopiedLong extends IStateLong {
+
+    private final LongArena arena;
+    private final int idx;
+
+    /**
+     * Constructs a stored long with an initial value.
+     * Note: this constructor should not be used directly: one should instead
+     * use the IEnvironment factory
+     */
+    public CopiedLong(final IEnvironment env, final LongArena arena, final long i) {
+        super(env, i);
+        this.arena = arena;
+        this.idx = arena.allocate(1, i);
+    }
+
+    @Override
+    public final long get() {
+        return arena.values[arena.offset + idx];
+    }
+
+    @Override
+    public final void set(final long y) {
+        arena.values[arena.offset + idx] = y;
+    }
+
+    @Override
+    public void _set(final long y, final int wstamp) {
+        set(y);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.copying;
+
+import org.chocosolver.memory.IStateBitSet;
+import org.chocosolver.memory.IStateBool;
+import org.chocosolver.memory.IStateDouble;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.memory.IStateLong;
+import org.chocosolver.memory.trailing.EnvironmentTrailing;
+
+/**
+ * An environment which saves its data by copying instead of trailing.
+ * <p/>
+ * Stored ints and booleans are cells of an {@link IntArena}, stored longs, doubles and bit set words
+ * are cells of a {@link LongArena}: a world push is a bulk copy of the arenas, whatever the number
+ * of modifications, and a world pop only moves back the start of the current slice.
+ * This pays off on small models explored deeply, where most of the state changes between two choice points.
+ * <p/>
+ * Saved operations (see {@link #save(org.chocosolver.memory.structure.IOperation)}) and vectors,
+ * which can not be copied, are still trailed.
+ *
+ * @author Jia'nan Chen
+ * @see EnvironmentHybrid
+ */
+public class EnvironmentCopying extends EnvironmentTrailing {
+
+    private final IntArena ints;
+    private final LongArena longs;
+
+    /**
+     * Create a copying environment.
+     *
+     * @param capacity initial number of cells of each arena
+     * @param nbWorlds initial number of worlds of each arena
+     */
+    public EnvironmentCopying(int capacity, int nbWorlds) {
+        this.ints = new IntArena(capacity, nbWorlds);
+        this.longs = new LongArena(capacity, nbWorlds);
+        addStorage(ints);
+        addStorage(longs);
+    }
+
+    /**
+     * Create a copying environment with default capacities.
+     */
+    public EnvironmentCopying() {
+        this(NBUPATES, NBWORLDS);
+    }
+
+    @Override
+    public IStateInt makeInt(final int initialValue) {
+        return new CopiedInt(this, ints, initialValue);
+    }
+
+    @Override
+    public IStateBool makeBool(final boolean initialValue) {
+        return new CopiedBool(this, ints, initialValue);
+    }
+
+    @Override
+    public IStateDouble makeFloat(final double initialValue) {
+        return new CopiedDouble(this, longs, initialValue);
+    }
+
+    @Override
+    public IStateLong makeLong(final long init) {
+        return new CopiedLong(this, longs, init);
+    }
+
+    @Override
+    public IStateBitSet makeBitSet(int size) {
+        return new CopiedBitSet(longs, size);
+    }
+}
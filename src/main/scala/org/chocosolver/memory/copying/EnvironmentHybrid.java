@@ -0,0 +1,53 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.copying;
+
+import org.chocosolver.memory.IStateBitSet;
+import org.chocosolver.memory.trailing.EnvironmentTrailing;
+
+/**
+ * An environment which copies dense data and trails the rest.
+ * <p/>
+ * The words of the bit sets (typically, the domains of the enumerated variables) are cells of a {@link LongArena},
+ * copied as a whole on world push, while stored ints, longs, booleans and doubles
+ * (bounds, sizes, counters) are trailed as in {@link EnvironmentTrailing}:
+ * the few scalars modified between two choice points are trailed,
+ * the bit sets, whose words are modified in bulk, are copied.
+ *
+ * @author Jia'nan Chen
+ * @see EnvironmentCopying
+ */
+public class EnvironmentHybrid extends EnvironmentTrailing {
+
+    private final LongArena words;
+
+    /**
+     * Create an hybrid environment.
+     *
+     * @param capacity initial number of words of the arena
+     * @param nbWorlds initial number of worlds of the arena
+     */
+    public EnvironmentHybrid(int capacity, int nbWorlds) {
+        this.words = new LongArena(capacity, nbWorlds);
+        addStorage(words);
+    }
+
+    /**
+     * Create an hybrid environment with default capacities.
+     */
+    public EnvironmentHybrid() {
+        this(NBUPATES, NBWORLDS);
+    }
+
+    @Override
+    public IStateBitSet makeBitSet(int size) {
+        return new CopiedBitSet(words, size);
+    }
+}
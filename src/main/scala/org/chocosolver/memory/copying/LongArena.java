@@ -0,0 +1,132 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.copying;
+
+import org.chocosolver.memory.IStorage;
+
+import java.util.Arrays;
+
+/**
+ * Contiguous storage of backtrackable longs and doubles, copied on world push.
+ * <p/>
+ * The arena is made of one slice of <i>stride</i> cells per world, the slice of world <i>w</i>
+ * starting at <i>w * stride</i>. The cells of the current world start at {@link #offset}.
+ * Pushing a world copies the current slice into the next one with a single {@link System#arraycopy},
+ * popping a world only moves {@link #offset} back.
+ *
+ * @author Jia'nan Chen
+ */
+public final class LongArena implements IStorage {
+
+    /**
+     * All the slices
+     */
+    long[] values;
+
+    /**
+     * Start of the slice of the current world
+     */
+    int offset;
+
+    // number of allocated cells and length of the slice of each world
+    private int size;
+    private int stride;
+    private int world;
+
+    /**
+     * Create an arena.
+     *
+     * @param capacity initial number of cells per world
+     * @param nbWorlds initial number of worlds
+     */
+    public LongArena(int capacity, int nbWorlds) {
+        this.stride = Math.max(capacity, 1);
+        this.values = new long[stride * Math.max(nbWorlds, 2)];
+    }
+
+    /**
+     * Allocate <i>n</i> consecutive cells set to <i>initialValue</i>.
+     * The value is also set in the previous worlds, so that it is restored on backtrack.
+     *
+     * @param n            number of cells
+     * @param initialValue initial value of the cells
+     * @return index of the first cell
+     */
+    public int allocate(int n, long initialValue) {
+        if (size + n > stride) {
+            resize(Math.max(2 * stride, size + n));
+        }
+        int idx = size;
+        size += n;
+        for (int w = 0; w <= world; w++) {
+            Arrays.fill(values, w * stride + idx, w * stride + idx + n, initialValue);
+        }
+        return idx;
+    }
+
+    /**
+     * Move the <i>n</i> cells starting at <i>idx</i> to <i>newN</i> new consecutive cells,
+     * in the current and the previous worlds. The cells beyond <i>n</i> are set to 0.
+     *
+     * @param idx  index of the first cell to move
+     * @param n    number of cells to move
+     * @param newN number of new cells, at least <i>n</i>
+     * @return index of the first new cell
+     */
+    public int reallocate(int idx, int n, int newN) {
+        int nidx = allocate(newN, 0);
+        for (int w = 0; w <= world; w++) {
+            System.arraycopy(values, w * stride + idx, values, w * stride + nidx, n);
+        }
+        return nidx;
+    }
+
+    private void resize(int newStride) {
+        int nbWorlds = values.length / stride;
+        long[] tmp = new long[newStride * nbWorlds];
+        for (int w = 0; w <= world; w++) {
+            System.arraycopy(values, w * stride, tmp, w * newStride, size);
+        }
+        values = tmp;
+        stride = newStride;
+        offset = world * stride;
+    }
+
+    /**
+     * @return number of allocated cells
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void worldPush(int worldIndex) {
+        int next = offset + stride;
+        if (next + stride > values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        System.arraycopy(values, offset, values, next, size);
+        offset = next;
+        world = worldIndex;
+    }
+
+    @Override
+    public void worldPop(int worldIndex) {
+        world = worldIndex - 1;
+        offset = world * stride;
+    }
+
+    @Override
+    public void worldCommit(int worldIndex) {
+        System.arraycopy(values, offset, values, offset - stride, size);
+        world = worldIndex - 1;
+        offset = world * stride;
+    }
+}
@@ -183,6 +183,15 @@ public class EnvironmentTrailing extends AbstractEnvironment {
         System.arraycopy(tmp, 0, trails, 0, tmp.length);
     }
 
+    /**
+     * Register a storage which is not a trail, driven on world push, pop and commit like the trails.
+     * @param storage a storage
+     */
+    public void addStorage(IStorage storage){
+        increaseTrail();
+        trails[trailSize++] = storage;
+    }
+
     public void setIntTrail(IStoredIntTrail itrail){
         if(intTrail == null) {
             increaseTrail();
@@ -0,0 +1,304 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.trailing.arena;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateBitSet;
+
+/**
+ * A backtrackable bit set whose words are consecutive slots of a {@link LongSlotTrail}.
+ * <p/>
+ * Contrary to {@link org.chocosolver.memory.structure.S64BitSet}, there is neither one stored object per word
+ * nor a stored number of words in use: all the words are scanned, and a modified word is trailed
+ * as a <i>(slot, former value)</i> entry of the arena.
+ *
+ * @author Jia'nan Chen
+ */
+public class ArenaBitSet implements IStateBitSet {
+
+    private final static int ADDRESS_BITS_PER_WORD = 6;
+    private final static int BITS_PER_WORD = 1 << ADDRESS_BITS_PER_WORD;
+    private static final long WORD_MASK = 0xffffffffffffffffL;
+
+    private final IEnvironment environment;
+
+    private final LongSlotTrail trail;
+
+    // slot of the first word, number of words
+    private int base;
+    private int nbWords;
+
+    /**
+     * Creates a bit set able to hold the bits in [0, <i>nbits</i>), all initially <code>false</code>.
+     *
+     * @param environment the environment this bit set belongs to
+     * @param trail       arena storing the words
+     * @param nbits       initial size of the bit set
+     */
+    public ArenaBitSet(IEnvironment environment, LongSlotTrail trail, int nbits) {
+        if (nbits < 0) {
+            throw new NegativeArraySizeException("nbits < 0: " + nbits);
+        }
+        this.environment = environment;
+        this.trail = trail;
+        this.nbWords = Math.max(wordIndex(nbits - 1) + 1, 1);
+        this.base = trail.allocate(nbWords, 0L);
+    }
+
+    private static int wordIndex(int bitIndex) {
+        return bitIndex >> ADDRESS_BITS_PER_WORD;
+    }
+
+    private static void checkRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0)
+            throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+        if (toIndex < 0)
+            throw new IndexOutOfBoundsException("toIndex < 0: " + toIndex);
+        if (fromIndex > toIndex)
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + " > toIndex: " + toIndex);
+    }
+
+    private void ensureCapacity(int wordsRequired) {
+        if (nbWords < wordsRequired) {
+            // new slots are allocated in the current world, old slots keep their history: backtracking restores the old slots
+            int request = Math.max(2 * nbWords, wordsRequired);
+            final int oldBase = base;
+            final int oldNbWords = nbWords;
+            int nbase = trail.allocate(request, 0L);
+            System.arraycopy(trail.values, oldBase, trail.values, nbase, oldNbWords);
+            if (environment.getWorldIndex() > 0) {
+                environment.save(() -> {
+                    base = oldBase;
+                    nbWords = oldNbWords;
+                });
+            }
+            base = nbase;
+            nbWords = request;
+        }
+    }
+
+    @Override
+    public int cardinality() {
+        long[] words = trail.values;
+        int from = base;
+        int sum = 0;
+        for (int i = 0; i < nbWords; i++) {
+            sum += Long.bitCount(words[from + i]);
+        }
+        return sum;
+    }
+
+    @Override
+    public int size() {
+        return nbWords * BITS_PER_WORD;
+    }
+
+    @Override
+    public void set(int bitIndex) {
+        if (bitIndex < 0)
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+        int wordIndex = wordIndex(bitIndex);
+        ensureCapacity(wordIndex + 1);
+        int slot = base + wordIndex;
+        trail.set(slot, trail.values[slot] | (1L << bitIndex));
+    }
+
+    @Override
+    public void clear(int bitIndex) {
+        if (bitIndex < 0)
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+        int wordIndex = wordIndex(bitIndex);
+        if (wordIndex < nbWords) {
+            int slot = base + wordIndex;
+            trail.set(slot, trail.values[slot] & ~(1L << bitIndex));
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < nbWords; i++) {
+            trail.set(base + i, 0L);
+        }
+    }
+
+    @Override
+    public void clear(int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        if (fromIndex == toIndex)
+            return;
+        int startWordIndex = wordIndex(fromIndex);
+        if (startWordIndex >= nbWords)
+            return;
+        int endWordIndex = wordIndex(toIndex - 1);
+        long lastWordMask = WORD_MASK >>> -toIndex;
+        if (endWordIndex >= nbWords) {
+            endWordIndex = nbWords - 1;
+            lastWordMask = WORD_MASK;
+        }
+        long firstWordMask = WORD_MASK << fromIndex;
+        long[] words = trail.values;
+        int from = base;
+        if (startWordIndex == endWordIndex) {
+            trail.set(from + startWordIndex, words[from + startWordIndex] & ~(firstWordMask & lastWordMask));
+        } else {
+            trail.set(from + startWordIndex, words[from + startWordIndex] & ~firstWordMask);
+            for (int i = startWordIndex + 1; i < endWordIndex; i++)
+                trail.set(from + i, 0L);
+            trail.set(from + endWordIndex, words[from + endWordIndex] & ~lastWordMask);
+        }
+    }
+
+    @Override
+    public void set(int index, boolean value) {
+        if (value)
+            set(index);
+        else
+            clear(index);
+    }
+
+    @Override
+    public void set(int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        if (fromIndex == toIndex)
+            return;
+        int startWordIndex = wordIndex(fromIndex);
+        int endWordIndex = wordIndex(toIndex - 1);
+        ensureCapacity(endWordIndex + 1);
+        long firstWordMask = WORD_MASK << fromIndex;
+        long lastWordMask = WORD_MASK >>> -toIndex;
+        long[] words = trail.values;
+        int from = base;
+        if (startWordIndex == endWordIndex) {
+            trail.set(from + startWordIndex, words[from + startWordIndex] | (firstWordMask & lastWordMask));
+        } else {
+            trail.set(from + startWordIndex, words[from + startWordIndex] | firstWordMask);
+            for (int i = startWordIndex + 1; i < endWordIndex; i++)
+                trail.set(from + i, WORD_MASK);
+            trail.set(from + endWordIndex, words[from + endWordIndex] | lastWordMask);
+        }
+    }
+
+    @Override
+    public boolean get(int bitIndex) {
+        int wordIndex = bitIndex >> ADDRESS_BITS_PER_WORD;
+        return (wordIndex < nbWords)
+                && ((trail.values[base + wordIndex] & (1L << bitIndex)) != 0);
+    }
+
+    @Override
+    public int nextSetBit(int fromIndex) {
+        if (fromIndex < 0) {
+            fromIndex = 0;
+        }
+        int u = wordIndex(fromIndex);
+        if (u >= nbWords)
+            return -1;
+        long[] words = trail.values;
+        int from = base;
+        long word = words[from + u] & (WORD_MASK << fromIndex);
+        while (true) {
+            if (word != 0)
+                return (u * BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+            if (++u == nbWords)
+                return -1;
+            word = words[from + u];
+        }
+    }
+
+    @Override
+    public int nextClearBit(int fromIndex) {
+        if (fromIndex < 0) {
+            fromIndex = 0;
+        }
+        int u = wordIndex(fromIndex);
+        if (u >= nbWords)
+            return fromIndex;
+        long[] words = trail.values;
+        int from = base;
+        long word = ~words[from + u] & (WORD_MASK << fromIndex);
+        while (true) {
+            if (word != 0)
+                return (u * BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+            if (++u == nbWords)
+                return nbWords * BITS_PER_WORD;
+            word = ~words[from + u];
+        }
+    }
+
+    @Override
+    public int prevSetBit(int fromIndex) {
+        if (fromIndex < 0) {
+            return -1;
+        }
+        long[] words = trail.values;
+        int from = base;
+        int u = wordIndex(fromIndex);
+        long word;
+        if (u >= nbWords) {
+            u = nbWords - 1;
+            word = words[from + u];
+        } else {
+            word = words[from + u] & (WORD_MASK >>> -(fromIndex + 1));
+        }
+        while (true) {
+            if (word != 0)
+                return (u + 1) * BITS_PER_WORD - 1 - Long.numberOfLeadingZeros(word);
+            if (u-- == 0)
+                return -1;
+            word = words[from + u];
+        }
+    }
+
+    @Override
+    public int prevClearBit(int fromIndex) {
+        if (fromIndex < 0) {
+            return -1;
+        }
+        int u = wordIndex(fromIndex);
+        if (u >= nbWords)
+            return fromIndex;
+        long[] words = trail.values;
+        int from = base;
+        long word = ~words[from + u] & (WORD_MASK >>> -(fromIndex + 1));
+        while (true) {
+            if (word != 0)
+                return (u + 1) * BITS_PER_WORD - 1 - Long.numberOfLeadingZeros(word);
+            if (u-- == 0)
+                return -1;
+            word = ~words[from + u];
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        long[] words = trail.values;
+        int from = base;
+        for (int i = 0; i < nbWords; i++) {
+            if (words[from + i] != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder();
+        b.append('{');
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            if (b.length() > 1) {
+                b.append(", ");
+            }
+            b.append(i);
+        }
+        b.append('}');
+        return b.toString();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.trailing.arena;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateBool;
+
+/**
+ * A backtrackable boolean held by a slot of an {@link IntSlotTrail}.
+ *
+ * @author Jia'nan Chen
+ */
+public class ArenaBool extends IStateBool {
+
+    private final IntSlotTrail trail;
+    private final int slot;
+
+    /**
+     * Constructs a stored boolean with an initial value.
+     * Note: this constructor should not be used directly: one should instead
+     * use the IEnvironment factory
+     */
+    public ArenaBool(final IEnvironment env, final IntSlotTrail trail, final boolean i) {
+        super(env, i);
+        this.trail = trail;
+        this.slot = trail.allocate(1, i ? 1 : 0);
+    }
+
+    @Override
+    public final boolean get() {
+        return trail.values[slot] != 0;
+    }
+
+    @Override
+    public final void set(final boolean y) {
+        trail.set(slot, y ? 1 : 0);
+    }
+
+    @Override
+    public void _set(final boolean y, final int wstamp) {
+        trail.values[slot] = y ? 1 : 0;
+    }
+}
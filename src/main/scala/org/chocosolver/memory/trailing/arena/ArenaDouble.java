@@ -0,0 +1,50 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.trailing.arena;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateDouble;
+
+/**
+ * A backtrackable double held by a slot of a {@link LongSlotTrail}.
+ *
+ * @author Jia'nan Chen
+ */
+public class ArenaDouble extends IStateDouble {
+
+    private final LongSlotTrail trail;
+    private final int slot;
+
+    /**
+     * Constructs a stored double with an initial value.
+     * Note: this constructor should not be used directly: one should instead
+     * use the IEnvironment factory
+     */
+    public ArenaDouble(final IEnvironment env, final LongSlotTrail trail, final double i) {
+        super(env, i);
+        this.trail = trail;
+        this.slot = trail.allocate(1, Double.doubleToRawLongBits(i));
+    }
+
+    @Override
+    public final double get() {
+        return Double.longBitsToDouble(trail.values[slot]);
+    }
+
+    @Override
+    public final void set(final double y) {
+        trail.set(slot, Double.doubleToRawLongBits(y));
+    }
+
+    @Override
+    public void _set(final double y, final int wstamp) {
+        trail.values[slot] = Double.doubleToRawLongBits(y);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.trailing.arena;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateInt;
+
+/**
+ * A backtrackable int held by a slot of an {@link IntSlotTrail}.
+ *
+ * @author Jia'nan Chen
+ */
+public class ArenaInt extends IStateInt {
+
+    private final IntSlotTrail trail;
+    private final int slot;
+
+    /**
+     * Constructs a stored int with an initial value.
+     * Note: this constructor should not be used directly: one should instead
+     * use the IEnvironment factory
+     */
+    public ArenaInt(final IEnvironment env, final IntSlotTrail trail, final int i) {
+        super(env, i);
+        this.trail = trail;
+        this.slot = trail.allocate(1, i);
+    }
+
+    @Override
+    public final int get() {
+        return trail.values[slot];
+    }
+
+    @Override
+    public final void set(final int y) {
+        trail.set(slot, y);
+    }
+
+    @Override
+    public void _set(final int y, final int wstamp) {
+        trail.values[slot] = y;
+    }
+}
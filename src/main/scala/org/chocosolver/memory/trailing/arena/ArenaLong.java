@@ -0,0 +1,50 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.trailing.arena;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateLong;
+
+/**
+ * A backtrackable long held by a slot of a {@link LongSlotTrail}.
+ *
+ * @author Jia'nan Chen
+ */
+public class ArenaLong extends IStateLong {
+
+    private final LongSlotTrail trail;
+    private final int slot;
+
+    /**
+     * Constructs a stored long with an initial value.
+     * Note: this constructor should not be used directly: one should instead
+     * use the IEnvironment factory
+     */
+    public ArenaLong(final IEnvironment env, final LongSlotTrail trail, final long i) {
+        super(env, i);
+        this.trail = trail;
+        this.slot = trail.allocate(1, i);
+    }
+
+    @Override
+    public final long get() {
+        return trail.values[slot];
+    }
+
+    @Override
+    public final void set(final long y) {
+        trail.set(slot, y);
+    }
+
+    @Override
+    public void _set(final long y, final int wstamp) {
+        trail.values[slot] = y;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.trailing.arena;
+
+import org.chocosolver.memory.IStateBitSet;
+import org.chocosolver.memory.IStateBool;
+import org.chocosolver.memory.IStateDouble;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.memory.IStateLong;
+import org.chocosolver.memory.trailing.EnvironmentTrailing;
+
+/**
+ * A trailing environment whose stored primitives are slots of two arenas.
+ * <p/>
+ * Stored ints and booleans are slots of an {@link IntSlotTrail}, stored longs, doubles and bit set words
+ * are slots of a {@link LongSlotTrail}. Each arena trails its own slots with primitive stacks,
+ * so that a stored data is no more than an index, and a world pop is a loop over <code>int[]</code>
+ * and <code>long[]</code>, instead of one virtual call per update on objects spread in the heap.
+ * This pays off on models with a large number of stored cells.
+ * <p/>
+ * Saved operations (see {@link #save(org.chocosolver.memory.structure.IOperation)}) and vectors
+ * are trailed as in {@link EnvironmentTrailing}.
+ *
+ * @author Jia'nan Chen
+ * @see org.chocosolver.memory.copying.EnvironmentCopying
+ */
+public class EnvironmentArena extends EnvironmentTrailing {
+
+    private final IntSlotTrail ints;
+    private final LongSlotTrail longs;
+
+    /**
+     * Create an arena environment.
+     *
+     * @param nUpdates   initial number of slots and of updates of each arena
+     * @param nWorlds    initial number of worlds
+     * @param loadfactor load factor of the arenas
+     */
+    public EnvironmentArena(int nUpdates, int nWorlds, double loadfactor) {
+        this.ints = new IntSlotTrail(this, nUpdates, nWorlds, loadfactor);
+        this.longs = new LongSlotTrail(this, nUpdates, nWorlds, loadfactor);
+        addStorage(ints);
+        addStorage(longs);
+    }
+
+    /**
+     * Create an arena environment with default capacities.
+     */
+    public EnvironmentArena() {
+        this(NBUPATES, NBWORLDS, LOADFACTOR);
+    }
+
+    @Override
+    public IStateInt makeInt(final int initialValue) {
+        return new ArenaInt(this, ints, initialValue);
+    }
+
+    @Override
+    public IStateBool makeBool(final boolean initialValue) {
+        return new ArenaBool(this, ints, initialValue);
+    }
+
+    @Override
+    public IStateDouble makeFloat(final double initialValue) {
+        return new ArenaDouble(this, longs, initialValue);
+    }
+
+    @Override
+    public IStateLong makeLong(final long init) {
+        return new ArenaLong(this, longs, init);
+    }
+
+    @Override
+    public IStateBitSet makeBitSet(int size) {
+        return new ArenaBitSet(this, longs, size);
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.trailing.arena;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStorage;
+
+import java.util.Arrays;
+
+/**
+ * An arena of backtrackable ints, with its own trail.
+ * <p/>
+ * The current values and their time stamps are slots of two flat arrays,
+ * and the trail only records <i>(slot, former value, former stamp)</i>, as primitives:
+ * contrary to {@link org.chocosolver.memory.trailing.trail.flatten.StoredIntTrail},
+ * restoring a world is a tight loop over primitive arrays, with neither pointer chasing nor virtual call.
+ *
+ * @author Jia'nan Chen
+ */
+public final class IntSlotTrail implements IStorage {
+
+    private final IEnvironment environment;
+
+    private final double loadfactor;
+
+    /**
+     * Current values, by slot
+     */
+    int[] values;
+
+    /**
+     * World in which each slot was last saved
+     */
+    private int[] stamps;
+
+    // number of allocated slots
+    private int size;
+
+    // trail: slot, old value, old time stamp
+    private int[] slotStack;
+    private int[] valueStack;
+    private int[] stampStack;
+    private int currentLevel;
+
+    // start of each world in the trail
+    private int[] worldStartLevels;
+
+    /**
+     * Constructs an arena with predefined sizes.
+     *
+     * @param environment the environment this arena belongs to
+     * @param nUpdates    initial number of slots and of updates
+     * @param nWorlds     initial number of worlds
+     * @param loadfactor  load factor for structures
+     */
+    public IntSlotTrail(IEnvironment environment, int nUpdates, int nWorlds, double loadfactor) {
+        this.environment = environment;
+        this.loadfactor = loadfactor;
+        values = new int[nUpdates];
+        stamps = new int[nUpdates];
+        slotStack = new int[nUpdates];
+        valueStack = new int[nUpdates];
+        stampStack = new int[nUpdates];
+        worldStartLevels = new int[nWorlds];
+    }
+
+    /**
+     * Allocate <i>n</i> consecutive slots set to <i>initialValue</i> in the current world.
+     *
+     * @param n            number of slots
+     * @param initialValue initial value of the slots
+     * @return the first slot
+     */
+    public int allocate(int n, int initialValue) {
+        if (size + n > values.length) {
+            int capacity = Math.max((int) (values.length * loadfactor), size + n);
+            values = Arrays.copyOf(values, capacity);
+            stamps = Arrays.copyOf(stamps, capacity);
+        }
+        int slot = size;
+        size += n;
+        int wi = environment.getWorldIndex();
+        Arrays.fill(values, slot, size, initialValue);
+        Arrays.fill(stamps, slot, size, wi);
+        if (environment.fakeHistoryNeeded()) {
+            for (int s = slot; s < size; s++) {
+                buildFakeHistory(s, initialValue, wi);
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * @param slot a slot
+     * @return the current value of <i>slot</i>
+     */
+    public int get(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Modify the value of <i>slot</i>, saving its former value if needed.
+     *
+     * @param slot  a slot
+     * @param value the new value
+     */
+    public void set(int slot, int value) {
+        int old = values[slot];
+        if (value != old) {
+            int wi = environment.getWorldIndex();
+            if (stamps[slot] < wi) {
+                savePreviousState(slot, old, stamps[slot]);
+                stamps[slot] = wi;
+            }
+            values[slot] = value;
+        }
+    }
+
+    private void savePreviousState(int slot, int oldValue, int oldStamp) {
+        slotStack[currentLevel] = slot;
+        valueStack[currentLevel] = oldValue;
+        stampStack[currentLevel] = oldStamp;
+        currentLevel++;
+        if (currentLevel == slotStack.length) {
+            resizeUpdateCapacity();
+        }
+    }
+
+    @Override
+    public void worldPush(int worldIndex) {
+        worldStartLevels[worldIndex] = currentLevel;
+        if (worldIndex == worldStartLevels.length - 1) {
+            worldStartLevels = Arrays.copyOf(worldStartLevels, (int) (worldStartLevels.length * loadfactor));
+        }
+    }
+
+    @Override
+    public void worldPop(int worldIndex) {
+        final int wsl = worldStartLevels[worldIndex];
+        final int[] vals = values;
+        final int[] stps = stamps;
+        while (currentLevel > wsl) {
+            currentLevel--;
+            final int slot = slotStack[currentLevel];
+            vals[slot] = valueStack[currentLevel];
+            stps[slot] = stampStack[currentLevel];
+        }
+    }
+
+    @Override
+    public void worldCommit(int worldIndex) {
+        // as StoredIntTrail: updates already recorded in the previous world are dropped, the others are moved
+        final int startLevel = worldStartLevels[worldIndex];
+        final int prevWorld = worldIndex - 1;
+        int writeIdx = startLevel;
+        for (int level = startLevel; level < currentLevel; level++) {
+            final int slot = slotStack[level];
+            final int stamp = stampStack[level];
+            stamps[slot] = prevWorld;
+            if (stamp != prevWorld) {
+                if (writeIdx != level) {
+                    slotStack[writeIdx] = slot;
+                    valueStack[writeIdx] = valueStack[level];
+                    stampStack[writeIdx] = stamp;
+                }
+                writeIdx++;
+            }
+        }
+        currentLevel = writeIdx;
+    }
+
+    private void buildFakeHistory(int slot, int initValue, int olderStamp) {
+        // as StoredIntTrail: insert, in each world from 0 to olderStamp, a record with initValue as old value
+        savePreviousState(slot, initValue, olderStamp - 1);
+        while (currentLevel + olderStamp > slotStack.length) {
+            resizeUpdateCapacity();
+        }
+        int i1, f, s = currentLevel;
+        for (int w = olderStamp; w > 1; w--) {
+            f = worldStartLevels[w];
+            i1 = f + w - 1;
+            s -= f;
+            System.arraycopy(slotStack, f, slotStack, i1, s);
+            System.arraycopy(valueStack, f, valueStack, i1, s);
+            System.arraycopy(stampStack, f, stampStack, i1, s);
+            slotStack[i1 - 1] = slot;
+            valueStack[i1 - 1] = initValue;
+            stampStack[i1 - 1] = w - 2;
+            worldStartLevels[w] += w - 1;
+            currentLevel++;
+            s = f;
+        }
+    }
+
+    private void resizeUpdateCapacity() {
+        final int newCapacity = (int) (slotStack.length * loadfactor);
+        slotStack = Arrays.copyOf(slotStack, newCapacity);
+        valueStack = Arrays.copyOf(valueStack, newCapacity);
+        stampStack = Arrays.copyOf(stampStack, newCapacity);
+    }
+
+    /**
+     * @return number of allocated slots
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -110,6 +110,11 @@ public class PropNogoods extends Propagator<IntVar> {
      */
     private ArrayList<IntVar> add_var;
 
+    /**
+     * Clauses to add once the SAT solver is back to root level, see {@link #addNogoodAtRoot(TIntList)}
+     */
+    private Deque<TIntList> pending_;
+
     /**
      * Indicates if this is initialized or not
      */
@@ -139,6 +144,7 @@ public class PropNogoods extends Propagator<IntVar> {
         test_eq = new BitSet();
         fp = new ArrayDeque<>();
         add_var = new ArrayList<>(16);
+        pending_ = new ArrayDeque<>();
     }
 
     @Override
@@ -147,6 +153,10 @@ public class PropNogoods extends Propagator<IntVar> {
         if (!sat_.ok_) fails();
         fp.clear();
         sat_.cancelUntil(0); // to deal with learnt clauses, only called on coarse grain propagation
+        while (!pending_.isEmpty()) {
+            sat_.addClause(pending_.pollFirst());
+        }
+        if (!sat_.ok_) fails();
         storeEarlyDeductions();
         applyEarlyDeductions();
         for (int i = 0; i < vars.length; ++i) {
@@ -525,6 +535,17 @@ public class PropNogoods extends Propagator<IntVar> {
         return result;
     }
 
+    /**
+     * Add clause to no-goods store on next coarse propagation, once the SAT solver is back to root level.
+     * Contrary to {@link #addNogood(TIntList)}, can be called anywhere in the search tree.
+     *
+     * @param lits clause
+     */
+    public void addNogoodAtRoot(TIntList lits) {
+        pending_.addLast(lits);
+        forcePropagationOnBacktrack();
+    }
+
     /**
      * Add learnt clause to no-goods store
      *
@@ -9,6 +9,7 @@
  */
 package org.chocosolver.solver;
 
+import org.chocosolver.memory.EnvironmentBuilder;
 import org.chocosolver.memory.Except_0;
 import org.chocosolver.memory.ICondition;
 import org.chocosolver.solver.search.strategy.Search;
@@ -89,6 +90,10 @@ public class DefaultSettings implements Settings {
 
     private boolean explainGlobalFailureInSum = true;
 
+    private boolean enablePropagatorMetrics = false;
+
+    private EnvironmentBuilder.Type environmentType = EnvironmentBuilder.Type.TRAILING;
+
     private Function<Model, Solver> initSolver = Solver::new;
 
 
@@ -394,4 +399,26 @@ public class DefaultSettings implements Settings {
         this.explainGlobalFailureInSum = b;
         return this;
     }
+
+    @Override
+    public boolean enablePropagatorMetrics() {
+        return enablePropagatorMetrics;
+    }
+
+    @Override
+    public Settings setEnablePropagatorMetrics(boolean b) {
+        this.enablePropagatorMetrics = b;
+        return this;
+    }
+
+    @Override
+    public EnvironmentBuilder.Type getEnvironmentType() {
+        return environmentType;
+    }
+
+    @Override
+    public Settings setEnvironmentType(EnvironmentBuilder.Type type) {
+        this.environmentType = type;
+        return this;
+    }
 }
@@ -27,6 +27,8 @@ import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.objective.IObjectiveManager;
 import org.chocosolver.solver.objective.ObjectiveFactory;
 import org.chocosolver.solver.propagation.PropagationEngine;
+import org.chocosolver.solver.search.SearchState;
+import org.chocosolver.solver.trace.metrics.PropagatorMetricsRegistry;
 import org.chocosolver.solver.variables.*;
 
 import java.util.Arrays;
@@ -170,6 +172,11 @@ public class Model implements IModel {
      */
     private ResolutionPolicy policy = ResolutionPolicy.SATISFACTION;
 
+    /**
+     * Metrics of the propagators declared in this model
+     */
+    private final PropagatorMetricsRegistry propagatorMetrics;
+
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     /////////////////////////////////////// CONSTRUCTORS ///////////////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -194,6 +201,7 @@ public class Model implements IModel {
         this.objective = null;
         this.hooks = new HashMap<>();
         this.settings = settings;
+        this.propagatorMetrics = new PropagatorMetricsRegistry(settings.enablePropagatorMetrics());
         this.solver = settings.initSolver(this);
     }
 
@@ -216,7 +224,7 @@ public class Model implements IModel {
      * @param settings settings to use
      */
     public Model(String name, Settings settings) {
-        this(new EnvironmentBuilder().fromFlat().build(), name, settings);
+        this(new EnvironmentBuilder().fromFlat().build(settings.getEnvironmentType()), name, settings);
     }
 
     /**
@@ -238,7 +246,7 @@ public class Model implements IModel {
      * @see Model#Model(org.chocosolver.memory.IEnvironment, String, Settings)
      */
     public Model(Settings settings) {
-        this(new EnvironmentBuilder().fromFlat().build(), "Model-" + nextModelNum(), settings);
+        this(new EnvironmentBuilder().fromFlat().build(settings.getEnvironmentType()), "Model-" + nextModelNum(), settings);
     }
 
     /**
@@ -647,6 +655,40 @@ public class Model implements IModel {
         return this.settings;
     }
 
+    /**
+     * Return the metrics of the propagators of this model.
+     * Recording is disabled by default, see {@link Settings#setEnablePropagatorMetrics(boolean)}
+     * or {@link PropagatorMetricsRegistry#setEnabled(boolean)}.
+     *
+     * @return the propagator metrics registry of this model
+     */
+    public PropagatorMetricsRegistry getPropagatorMetrics() {
+        return propagatorMetrics;
+    }
+
+    /**
+     * Return a copy of this model, in a new environment, which can be solved concurrently with this one.
+     * Variables, views, constraints, propagators and hooks are duplicated,
+     * with the same names and ids, in the same declaration order.
+     * Large read-only structures, like {@link org.chocosolver.solver.constraints.extension.Tuples} and the supports
+     * of table propagators, are shared (see {@link ModelCopier#shareClass(Class)}).
+     * <p>
+     * The copy comes with a new solver: the search strategy, the limits and the monitors of this model's solver
+     * are not copied.
+     * <p>
+     * This is much faster than building the model again, and is intended to create the models of
+     * a {@link ParallelPortfolio} or of a {@link ParallelEPS}.
+     *
+     * @return a copy of this model
+     * @throws SolverException if the resolution has begun, or if an object of the model cannot be copied
+     */
+    public Model copy() {
+        if (environment.getWorldIndex() > 0 || solver.getSearchState() == SearchState.RUNNING) {
+            throw new SolverException("A model can only be copied at root node, before or after the resolution");
+        }
+        return new ModelCopier(this).copy();
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     /////////////////////////////////////// SETTERS ////////////////////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
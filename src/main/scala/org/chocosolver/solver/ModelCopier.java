@@ -0,0 +1,473 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver;
+
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.constraints.extension.nary.LargeRelation;
+import org.chocosolver.solver.constraints.extension.nary.CompactTableSupports;
+import org.chocosolver.solver.constraints.extension.nary.PropCompactTable;
+import org.chocosolver.solver.constraints.extension.nary.PropCompactTableStar;
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.util.objects.graphs.MultivaluedDecisionDiagram;
+import org.objenesis.Objenesis;
+import org.objenesis.ObjenesisStd;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deep copy of a {@link Model}, see {@link Model#copy()}.
+ * <p>
+ * The object graph reachable from the model (variables, views, constraints, propagators, environment, hooks)
+ * is copied field by field, without calling any constructor, except for:
+ * <ul>
+ * <li>immutable objects (strings, boxed primitives, enums, classes) and objects referenced by a static field,
+ * which are already shared by models built independently,</li>
+ * <li>objects of a class declared as shared (see {@link #shareClass(Class)}) and values of a field declared as
+ * shared (see {@link #shareField(Class, String)}): large structures which are read-only once built,
+ * like {@link Tuples} or the supports of {@link PropCompactTable},</li>
+ * <li>the settings, and the solver which is created anew on the copy.</li>
+ * </ul>
+ * JDK collections and maps are rebuilt from their copied elements, since hash codes may differ in the copy.
+ * <p>
+ * The graph is walked breadth-first, so that deep graphs do not overflow the stack.
+ *
+ * @author Jia'nan Chen
+ */
+public final class ModelCopier {
+
+    private static final Objenesis OBJENESIS = new ObjenesisStd(true);
+
+    /**
+     * Classes whose instances are shared by a model and its copies
+     */
+    private static final Set<Class<?>> SHARED_CLASSES = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Fields whose values are shared by a model and its copies
+     */
+    private static final Set<Field> SHARED_FIELDS = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Instance fields of each class, superclasses included
+     */
+    private static final Map<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<>();
+
+    /**
+     * Immutable classes of the JDK
+     */
+    private static final Set<Class<?>> IMMUTABLES = new HashSet<>(Arrays.asList(
+            String.class, Class.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class,
+            Long.class, Float.class, Double.class, BigInteger.class, BigDecimal.class));
+
+    static {
+        shareClass(Settings.class);
+        shareClass(Tuples.class);
+        shareClass(LargeRelation.class);
+        shareClass(MultivaluedDecisionDiagram.class);
+        shareClass(CompactTableSupports.class);
+        shareField(PropCompactTable.class, "supports");
+        shareField(PropCompactTableStar.class, "inc_supports");
+    }
+
+    /**
+     * Declare the instances of <i>clazz</i>, and of its subclasses, as read-only once built:
+     * they are shared by a model and its copies instead of being copied.
+     *
+     * @param clazz a class
+     */
+    public static void shareClass(Class<?> clazz) {
+        SHARED_CLASSES.add(clazz);
+    }
+
+    /**
+     * Declare the values of the field <i>name</i> of <i>clazz</i> as read-only once built:
+     * they are shared by a model and its copies instead of being copied.
+     *
+     * @param clazz a class
+     * @param name  name of a field declared in <i>clazz</i>
+     * @throws SolverException if <i>clazz</i> declares no such field
+     */
+    public static void shareField(Class<?> clazz, String name) {
+        try {
+            SHARED_FIELDS.add(clazz.getDeclaredField(name));
+        } catch (NoSuchFieldException e) {
+            throw new SolverException("Unknown field " + name + " in " + clazz.getName());
+        }
+    }
+
+    private final Model source;
+
+    /**
+     * Copy of each object met so far
+     */
+    private final IdentityHashMap<Object, Object> copies = new IdentityHashMap<>();
+
+    /**
+     * Classes whose static fields are already scanned
+     */
+    private final Set<Class<?>> scanned = new HashSet<>();
+
+    /**
+     * Pairs (source, copy) of objects and arrays whose content remains to copy
+     */
+    private final ArrayDeque<Object[]> toFill = new ArrayDeque<>();
+
+    /**
+     * Pairs (source, copy) of collections and maps whose content remains to copy
+     */
+    private final ArrayDeque<Object[]> toRebuild = new ArrayDeque<>();
+
+    /**
+     * Pairs (object, field) which refer to the solver of the source
+     */
+    private final List<Object[]> toSolver = new ArrayList<>();
+
+    ModelCopier(Model source) {
+        this.source = source;
+    }
+
+    /**
+     * @return a copy of the source model, with a new solver
+     */
+    Model copy() {
+        Model target = (Model) shell(source);
+        // copy objects first, then rebuild collections: hash codes of elements may depend on their fields
+        while (!toFill.isEmpty() || !toRebuild.isEmpty()) {
+            fillAll();
+            if (!toRebuild.isEmpty()) {
+                Object[] p = toRebuild.pollFirst();
+                rebuild(p[0], p[1]);
+            }
+        }
+        Solver solver = target.getSettings().initSolver(target);
+        try {
+            for (Object[] p : toSolver) {
+                ((Field) p[1]).set(p[0], solver);
+            }
+        } catch (IllegalAccessException e) {
+            throw new SolverException("Cannot copy the model: " + e.getMessage());
+        }
+        if (target.getObjective() != null) {
+            target.setObjective(target.getResolutionPolicy() == ResolutionPolicy.MAXIMIZE, target.getObjective());
+        }
+        return target;
+    }
+
+    /**
+     * @param o an object of the source
+     * @return the copy of <i>o</i>, whose content may not be copied yet
+     */
+    private Object shell(Object o) {
+        if (o == null) {
+            return null;
+        }
+        Object c = copies.get(o);
+        if (c != null) {
+            return c;
+        }
+        if (o == source.getSolver()) {
+            throw new SolverException("Cannot copy the model: the solver is referred to out of a field");
+        }
+        Class<?> clazz = o.getClass();
+        scanStatics(clazz);
+        c = copies.get(o);
+        if (c != null) {
+            return c;
+        }
+        if (isShared(clazz)) {
+            c = o;
+        } else if (clazz.isArray()) {
+            int n = Array.getLength(o);
+            c = Array.newInstance(clazz.getComponentType(), n);
+            if (clazz.getComponentType().isPrimitive()) {
+                System.arraycopy(o, 0, c, 0, n);
+            } else {
+                toFill.addLast(new Object[]{o, c});
+            }
+        } else if (isLambda(clazz)) {
+            c = lambda(o, clazz);
+        } else if (isJdk(clazz)) {
+            c = jdk(o, clazz);
+        } else if (isTroveObjectMap(clazz)) {
+            c = newInstance(clazz);
+            toRebuild.addLast(new Object[]{o, c});
+        } else {
+            c = OBJENESIS.newInstance(clazz);
+            toFill.addLast(new Object[]{o, c});
+        }
+        copies.put(o, c);
+        return c;
+    }
+
+    private void fillAll() {
+        while (!toFill.isEmpty()) {
+            Object[] p = toFill.pollFirst();
+            fill(p[0], p[1]);
+        }
+    }
+
+    private void fill(Object o, Object c) {
+        if (o.getClass().isArray()) {
+            Object[] src = (Object[]) o;
+            Object[] dst = (Object[]) c;
+            for (int i = 0; i < src.length; i++) {
+                dst[i] = shell(src[i]);
+            }
+            return;
+        }
+        try {
+            for (Field f : fieldsOf(o.getClass())) {
+                Object v = f.get(o);
+                if (f.getType().isPrimitive() || SHARED_FIELDS.contains(f)) {
+                    f.set(c, v);
+                } else if (v != null && v == source.getSolver()) {
+                    toSolver.add(new Object[]{c, f});
+                } else {
+                    f.set(c, shell(v));
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new SolverException("Cannot copy " + o.getClass().getName() + ": " + e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rebuild(Object o, Object c) {
+        // elements must be fully copied before insertion: their hashCode and equals depend on their fields
+        if (o instanceof Map) {
+            Map<Object, Object> dst = (Map<Object, Object>) c;
+            List<Object> elements = new ArrayList<>();
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) o).entrySet()) {
+                elements.add(shell(e.getKey()));
+                elements.add(shell(e.getValue()));
+            }
+            fillAll();
+            for (int i = 0; i < elements.size(); i += 2) {
+                dst.put(elements.get(i), elements.get(i + 1));
+            }
+        } else if (o instanceof Collection) {
+            Collection<Object> dst = (Collection<Object>) c;
+            List<Object> elements = new ArrayList<>();
+            for (Object e : (Collection<?>) o) {
+                elements.add(shell(e));
+            }
+            fillAll();
+            dst.addAll(elements);
+        } else {
+            // gnu.trove maps with object keys: keys(), get(Object), put(Object, v)
+            try {
+                Method keys = o.getClass().getMethod("keys");
+                Method get = o.getClass().getMethod("get", Object.class);
+                Method put = Arrays.stream(o.getClass().getMethods())
+                        .filter(m -> m.getName().equals("put") && m.getParameterCount() == 2)
+                        .findFirst().orElseThrow(NoSuchMethodException::new);
+                List<Object> elements = new ArrayList<>();
+                for (Object k : (Object[]) keys.invoke(o)) {
+                    elements.add(shell(k));
+                    elements.add(shell(get.invoke(o, k)));
+                }
+                fillAll();
+                for (int i = 0; i < elements.size(); i += 2) {
+                    put.invoke(c, elements.get(i), elements.get(i + 1));
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new SolverException("Cannot copy " + o.getClass().getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Map the objects referred to by static fields of <i>clazz</i>, its supertypes and its enclosing class
+     * to themselves.
+     */
+    private void scanStatics(Class<?> clazz) {
+        if (clazz == null || isJdk(clazz) || !scanned.add(clazz)) {
+            return;
+        }
+        for (Field f : clazz.getDeclaredFields()) {
+            if (Modifier.isStatic(f.getModifiers()) && !f.getType().isPrimitive()) {
+                try {
+                    f.setAccessible(true);
+                    Object v = f.get(null);
+                    if (v != null) {
+                        copies.putIfAbsent(v, v);
+                    }
+                } catch (RuntimeException | IllegalAccessException ignored) {
+                    // inaccessible static field: ignored
+                }
+            }
+        }
+        scanStatics(clazz.getSuperclass());
+        for (Class<?> i : clazz.getInterfaces()) {
+            scanStatics(i);
+        }
+        scanStatics(clazz.getEnclosingClass());
+    }
+
+    /**
+     * Copy a lambda through its constructor, which takes the captured values in declaration order.
+     */
+    private Object lambda(Object o, Class<?> clazz) {
+        Field[] fields = fieldsOf(clazz);
+        if (fields.length == 0) {
+            return o;
+        }
+        try {
+            Object[] args = new Object[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                args[i] = fields[i].getType().isPrimitive() ? fields[i].get(o) : shell(fields[i].get(o));
+            }
+            Constructor<?> cons = clazz.getDeclaredConstructors()[0];
+            cons.setAccessible(true);
+            return cons.newInstance(args);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new SolverException("Cannot copy the lambda " + clazz.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Copy an object of the JDK: collections and maps are rebuilt,
+     * other objects are copied by serialization when possible.
+     */
+    private Object jdk(Object o, Class<?> clazz) {
+        if (o instanceof SortedMap) {
+            Object c = new TreeMap<>((Comparator<?>) shell(((SortedMap<?, ?>) o).comparator()));
+            toRebuild.addLast(new Object[]{o, c});
+            return c;
+        }
+        if (o instanceof SortedSet) {
+            Object c = new TreeSet<>((Comparator<?>) shell(((SortedSet<?>) o).comparator()));
+            toRebuild.addLast(new Object[]{o, c});
+            return c;
+        }
+        if (o instanceof PriorityQueue) {
+            Object c = new PriorityQueue<>((Comparator<?>) shell(((PriorityQueue<?>) o).comparator()));
+            toRebuild.addLast(new Object[]{o, c});
+            return c;
+        }
+        if (o instanceof Map || o instanceof Collection) {
+            boolean empty = o instanceof Map ? ((Map<?, ?>) o).isEmpty() : ((Collection<?>) o).isEmpty();
+            Object c;
+            try {
+                c = clazz.getConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                if (empty) {
+                    // immutable empty collection
+                    return o;
+                }
+                throw new SolverException("Cannot copy " + clazz.getName() + ": no public constructor without argument");
+            }
+            toRebuild.addLast(new Object[]{o, c});
+            return c;
+        }
+        if (o instanceof BitSet) {
+            return ((BitSet) o).clone();
+        }
+        if (o instanceof Serializable) {
+            try {
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+                    oos.writeObject(o);
+                }
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+                    return ois.readObject();
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                throw new SolverException("Cannot copy " + clazz.getName() + ": " + e.getMessage());
+            }
+        }
+        throw new SolverException("Cannot copy " + clazz.getName());
+    }
+
+    private static Object newInstance(Class<?> clazz) {
+        try {
+            return clazz.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new SolverException("Cannot copy " + clazz.getName() + ": no public constructor without argument");
+        }
+    }
+
+    private static boolean isShared(Class<?> clazz) {
+        if (IMMUTABLES.contains(clazz) || Enum.class.isAssignableFrom(clazz)) {
+            return true;
+        }
+        for (Class<?> s : SHARED_CLASSES) {
+            if (s.isAssignableFrom(clazz)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLambda(Class<?> clazz) {
+        return clazz.isSynthetic() && clazz.getName().contains("$$Lambda");
+    }
+
+    private static boolean isJdk(Class<?> clazz) {
+        String n = clazz.getName();
+        return n.startsWith("java.") || n.startsWith("javax.") || n.startsWith("sun.") || n.startsWith("jdk.");
+    }
+
+    private static boolean isTroveObjectMap(Class<?> clazz) {
+        String n = clazz.getName();
+        return n.startsWith("gnu.trove.map.hash.TObject") || n.startsWith("gnu.trove.map.custom_hash.TObject");
+    }
+
+    /**
+     * @return the instance fields of <i>clazz</i> and its superclasses, accessible, sorted by name for lambdas
+     */
+    private static Field[] fieldsOf(Class<?> clazz) {
+        return FIELDS.computeIfAbsent(clazz, k -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = k; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field f : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(f.getModifiers())) {
+                        f.setAccessible(true);
+                        fields.add(f);
+                    }
+                }
+            }
+            if (isLambda(k)) {
+                // arg$1, arg$2, ...: in the order of the constructor parameters
+                fields.sort(Comparator.comparingInt((Field f) -> f.getName().length()).thenComparing(Field::getName));
+            }
+            return fields.toArray(new Field[0]);
+        });
+    }
+}
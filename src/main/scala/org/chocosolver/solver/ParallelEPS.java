@@ -0,0 +1,570 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.util.criteria.Criterion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>
+ *     An Embarrassingly Parallel Search helper.
+ * </p>
+ * <p>
+ *     Contrary to {@link ParallelPortfolio}, where each model explores the whole search space with its own strategy,
+ *     the search space is split into many subproblems, called cubes, which are shared among the models.
+ *     The first model decomposes the problem: the smallest uninstantiated decision variable
+ *     is split, level by level, until the number of cubes reaches <i>cubesPerWorker</i> times the number of models.
+ *     The cubes which fail on propagation are discarded.
+ *     Then each model solves its own cubes, and steals the ones of the other models once its own are exhausted.
+ * </p>
+ * <p>
+ *     All the models should be the same, declaring the same variables in the same order, since a cube refers
+ *     to variables by declaration index (see {@link Model#getVar(int)}).
+ *     When dealing with an optimization problem, the best bound is shared among all models.
+ * </p>
+ * <p>
+ *     Since a cube is solved as a fresh search, the stop criteria declared in the models are removed.
+ * </p>
+ * <p>
+ *     Example of use.
+ *
+ * <pre>
+ * <code>ParallelEPS eps = new ParallelEPS();
+ * for (int i = 0; i < 32; i++) {
+ *      eps.addModel(modeller());
+ * }
+ * long n = eps.streamSolutions().count();
+ * </code>
+ * </pre>
+ * </p>
+ *
+ * @author Jia'nan Chen
+ * @see "Embarrassingly Parallel Search", J.-C. Régin, M. Rezgui, A. Malapert, CP'13.
+ */
+public class ParallelEPS {
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////       VARIABLES       //////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** List of {@link Model}s to be executed in parallel. */
+    private final List<Model> models;
+
+    /** Number of cubes to generate per model */
+    private final int cubesPerWorker;
+
+    /** Cubes of each model: a cube is a sequence of (variable index, lower bound, upper bound) */
+    private List<ConcurrentLinkedDeque<int[]>> deques;
+
+    private final AtomicBoolean stop = new AtomicBoolean(false);
+
+    /** Point to (one of) the model(s) which found the (best) solution */
+    private Model finder;
+
+    /** The best solution found, for optimization problems */
+    private Solution best;
+
+    /** Value of the objective in {@link #best}, imported by each model in its own thread (see {@link Watcher}) */
+    private final AtomicReference<Integer> bound = new AtomicReference<>();
+
+    /** Solution recorded for each model, copied for the consumers */
+    private final Map<Model, Solution> records = new IdentityHashMap<>();
+
+    // statistics: cubes generated, cubes filtered by propagation, steals, solutions
+    private int nbCubes;
+    private int nbFiltered;
+    private final AtomicLong nbSteals = new AtomicLong();
+    private final AtomicLong nbSolutions = new AtomicLong();
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////      CONSTRUCTOR      //////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Creates a new ParallelEPS.
+     *
+     * @param cubesPerWorker number of cubes to generate per model
+     */
+    public ParallelEPS(int cubesPerWorker) {
+        this.models = new ArrayList<>();
+        this.cubesPerWorker = cubesPerWorker;
+    }
+
+    /**
+     * Creates a new ParallelEPS, generating 30 cubes per model.
+     */
+    public ParallelEPS() {
+        this(30);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////          API          //////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Adds a model to the list of models to run in parallel.
+     * When dealing with optimization problems, the objective variable <b>HAS</b> to be declared eagerly with
+     * {@link Model#setObjective(boolean, Variable)}.
+     *
+     * @param model a model to add
+     */
+    public void addModel(Model model) {
+        this.models.add(model);
+    }
+
+    /**
+     * Adds <i>model</i> and <i>nbModels - 1</i> copies of it (see {@link Model#copy()}),
+     * which is much faster than building the same model again for each worker.
+     * The solver of each copy has to be configured afterwards, if needed.
+     *
+     * @param model    a model to add
+     * @param nbModels total number of models to add
+     */
+    public void addModels(Model model, int nbModels) {
+        addModel(model);
+        for (int i = 1; i < nbModels; i++) {
+            addModel(model.copy());
+        }
+    }
+
+    /**
+     * @return the (mutable!) list of models used in this ParallelEPS
+     */
+    public List<Model> getModels() {
+        return models;
+    }
+
+    /**
+     * Solve every cube in parallel.
+     * A satisfaction problem stops on the first solution, an optimization problem ends once the best solution
+     * is proven optimal.
+     *
+     * @return <code>true</code> if and only if at least one solution has been found.
+     * @throws SolverException if no model has been added or if the models differ.
+     */
+    public boolean solve() {
+        run(false, s -> {
+        });
+        return finder != null;
+    }
+
+    /**
+     * Stream the solutions found in parallel: every solution of a satisfaction problem,
+     * every improving solution of an optimization problem.
+     * The search runs in background and ends once all the cubes are solved.
+     *
+     * @return a stream of solutions
+     * @throws SolverException if no model has been added or if the models differ.
+     */
+    public Stream<Solution> streamSolutions() {
+        BlockingQueue<Solution> queue = new LinkedBlockingQueue<>();
+        AtomicBoolean done = new AtomicBoolean(false);
+        check();
+        Thread th = new Thread(() -> {
+            try {
+                run(true, queue::add);
+            } finally {
+                done.set(true);
+            }
+        }, "eps");
+        th.setDaemon(true);
+        th.start();
+        Spliterator<Solution> it = new Spliterator<Solution>() {
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Solution> action) {
+                try {
+                    while (true) {
+                        // poll once more after checking done, not to miss the last solutions
+                        boolean end = done.get();
+                        Solution s = queue.poll(10, TimeUnit.MILLISECONDS);
+                        if (s != null) {
+                            action.accept(s);
+                            return true;
+                        }
+                        if (end) {
+                            return false;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    stop.set(true);
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+
+            @Override
+            public Spliterator<Solution> trySplit() {
+                return null;
+            }
+
+            @Override
+            public long estimateSize() {
+                return Long.MAX_VALUE;
+            }
+
+            @Override
+            public int characteristics() {
+                return Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.CONCURRENT;
+            }
+        };
+        return StreamSupport.stream(it, false).onClose(() -> stop.set(true));
+    }
+
+    /**
+     * @return the first model which finds the (best) solution, or <tt>null</tt> if no such model exists.
+     */
+    public Model getBestModel() {
+        return finder;
+    }
+
+    /**
+     * @return the best solution found when dealing with an optimization problem, <tt>null</tt> otherwise
+     */
+    public Solution getBestSolution() {
+        return best;
+    }
+
+    /**
+     * @return number of cubes generated by the last resolution
+     */
+    public int getNbCubes() {
+        return nbCubes;
+    }
+
+    /**
+     * @return number of cubes discarded by propagation during the last decomposition
+     */
+    public int getNbFilteredCubes() {
+        return nbFiltered;
+    }
+
+    /**
+     * @return number of cubes stolen from another model during the last resolution
+     */
+    public long getNbSteals() {
+        return nbSteals.get();
+    }
+
+    /**
+     * @return number of solutions found during the last resolution
+     */
+    public long getSolutionCount() {
+        return nbSolutions.get();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////   INTERNAL METHODS    //////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void run(boolean all, Consumer<Solution> sink) {
+        check();
+        stop.set(false);
+        finder = null;
+        best = null;
+        bound.set(null);
+        nbSteals.set(0);
+        nbSolutions.set(0);
+        int n = models.size();
+        deques = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            deques.add(new ConcurrentLinkedDeque<>());
+        }
+        List<int[]> cubes = decompose(models.get(0), cubesPerWorker * n);
+        nbCubes = cubes.size();
+        for (int i = 0; i < cubes.size(); i++) {
+            deques.get(i % n).addLast(cubes.get(i));
+        }
+        Thread[] workers = new Thread[n];
+        for (int i = 0; i < n; i++) {
+            int w = i;
+            workers[i] = new Thread(() -> work(w, all, sink), "eps-" + i);
+            workers[i].start();
+        }
+        try {
+            for (int i = 0; i < n; i++) {
+                workers[i].join();
+            }
+        } catch (InterruptedException e) {
+            stop.set(true);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Split the root node of <i>model</i> into at least <i>target</i> cubes, if possible.
+     * The model is restored to its initial state afterwards.
+     */
+    private List<int[]> decompose(Model model, int target) {
+        Solver solver = model.getSolver();
+        IEnvironment env = model.getEnvironment();
+        IntVar[] dvars = decisionVariables(model);
+        int[] indices = indices(model, dvars);
+        nbFiltered = 0;
+        List<int[]> frontier = new ArrayList<>();
+        int w0 = env.getWorldIndex();
+        env.worldPush();
+        try {
+            solver.propagate();
+            frontier.add(new int[0]);
+        } catch (ContradictionException e) {
+            // the problem has no solution at root node
+        }
+        boolean split = true;
+        while (split && frontier.size() < target) {
+            split = false;
+            List<int[]> next = new ArrayList<>();
+            for (int[] cube : frontier) {
+                env.worldPush();
+                try {
+                    apply(model, cube);
+                    solver.propagate();
+                    int k = select(dvars);
+                    if (k < 0) {
+                        next.add(cube);
+                    } else {
+                        split = true;
+                        for (int[] r : ranges(dvars[k])) {
+                            env.worldPush();
+                            try {
+                                dvars[k].updateBounds(r[0], r[1], Cause.Null);
+                                solver.propagate();
+                                int[] c = Arrays.copyOf(cube, cube.length + 3);
+                                c[cube.length] = indices[k];
+                                c[cube.length + 1] = r[0];
+                                c[cube.length + 2] = r[1];
+                                next.add(c);
+                            } catch (ContradictionException e) {
+                                nbFiltered++;
+                            }
+                            env.worldPop();
+                        }
+                    }
+                } catch (ContradictionException e) {
+                    throw new SolverException("A consistent cube fails on propagation");
+                }
+                env.worldPop();
+            }
+            frontier = next;
+        }
+        env.worldPopUntil(w0);
+        // the states of the propagators are restored, reset the engine to activate them again on solving
+        solver.getEngine().reset();
+        return frontier;
+    }
+
+    private static IntVar[] decisionVariables(Model model) {
+        Solver solver = model.getSolver();
+        if (solver.getSearch() != null && solver.getSearch().getVariables().length > 0) {
+            Variable[] vars = solver.getSearch().getVariables();
+            List<IntVar> ivars = new ArrayList<>();
+            for (Variable v : vars) {
+                if ((v.getTypeAndKind() & Variable.INT) > 0) {
+                    ivars.add((IntVar) v);
+                }
+            }
+            return ivars.toArray(new IntVar[0]);
+        }
+        return model.retrieveIntVars(true);
+    }
+
+    private static int[] indices(Model model, IntVar[] vars) {
+        int[] indices = new int[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            indices[i] = -1;
+            for (int j = 0; j < model.getNbVars() && indices[i] < 0; j++) {
+                if (model.getVar(j) == vars[i]) {
+                    indices[i] = j;
+                }
+            }
+            if (indices[i] < 0) {
+                throw new SolverException(vars[i].getName() + " is not declared in the model and cannot be split");
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * @return the uninstantiated variable with the smallest domain, -1 if none
+     */
+    private static int select(IntVar[] vars) {
+        int k = -1;
+        for (int i = 0; i < vars.length; i++) {
+            if (!vars[i].isInstantiated() && (k < 0 || vars[i].getDomainSize() < vars[k].getDomainSize())) {
+                k = i;
+            }
+        }
+        return k;
+    }
+
+    /**
+     * @return one range per value of small domains, two halves otherwise
+     */
+    private static List<int[]> ranges(IntVar var) {
+        List<int[]> ranges = new ArrayList<>();
+        if (var.getDomainSize() <= 16 && var.hasEnumeratedDomain()) {
+            for (int v = var.getLB(); v <= var.getUB(); v = var.nextValue(v)) {
+                ranges.add(new int[]{v, v});
+            }
+        } else {
+            int mid = var.getLB() + (var.getUB() - var.getLB()) / 2;
+            ranges.add(new int[]{var.getLB(), mid});
+            ranges.add(new int[]{mid + 1, var.getUB()});
+        }
+        return ranges;
+    }
+
+    private static void apply(Model model, int[] cube) throws ContradictionException {
+        for (int i = 0; i < cube.length; i += 3) {
+            ((IntVar) model.getVar(cube[i])).updateBounds(cube[i + 1], cube[i + 2], Cause.Null);
+        }
+    }
+
+    private int[] next(int w) {
+        int[] cube = deques.get(w).pollFirst();
+        for (int k = 1; cube == null && k < deques.size(); k++) {
+            // steal from the tail of the other workers
+            cube = deques.get((w + k) % deques.size()).pollLast();
+            if (cube != null) {
+                nbSteals.incrementAndGet();
+            }
+        }
+        return cube;
+    }
+
+    private void work(int w, boolean all, Consumer<Solution> sink) {
+        Model model = models.get(w);
+        Solver solver = model.getSolver();
+        boolean satPb = model.getResolutionPolicy() == ResolutionPolicy.SATISFACTION;
+        Watcher watcher = new Watcher(model);
+        solver.addStopCriterion(watcher);
+        int[] cube;
+        while (!stop.get() && (cube = next(w)) != null) {
+            Constraint[] cs = new Constraint[cube.length / 3];
+            for (int i = 0; i < cs.length; i++) {
+                cs[i] = model.member((IntVar) model.getVar(cube[3 * i]), cube[3 * i + 1], cube[3 * i + 2]);
+            }
+            model.post(cs);
+            while (solver.solve()) {
+                onSolution(model, sink);
+                if (satPb && !all) {
+                    stop.set(true);
+                }
+            }
+            // reset() removes all the stop criteria, and resets the bounds of the objective
+            solver.reset();
+            watcher.imported = false;
+            solver.addStopCriterion(watcher);
+            model.unpost(cs);
+        }
+    }
+
+    /**
+     * Stop criterion of a model, which imports the best bound found by the models in its own thread.
+     */
+    private final class Watcher implements Criterion {
+        private final Model model;
+        /** Last bound imported, if any since the last reset */
+        private int seen;
+        private boolean imported;
+
+        private Watcher(Model model) {
+            this.model = model;
+        }
+
+        @Override
+        public boolean isMet() {
+            Integer b = bound.get();
+            if (b != null && (!imported || b != seen)) {
+                seen = b;
+                imported = true;
+                if (model.getResolutionPolicy() == ResolutionPolicy.MAXIMIZE) {
+                    model.getSolver().getObjectiveManager().updateBestLB(b);
+                } else {
+                    model.getSolver().getObjectiveManager().updateBestUB(b);
+                }
+            }
+            return stop.get();
+        }
+    }
+
+    private synchronized void onSolution(Model m, Consumer<Solution> sink) {
+        if (m.getResolutionPolicy() == ResolutionPolicy.SATISFACTION) {
+            if (finder == null) {
+                finder = m;
+            }
+            nbSolutions.incrementAndGet();
+            sink.accept(records.computeIfAbsent(m, Solution::new).record().copySolution());
+        } else {
+            int val = ((IntVar) m.getObjective()).getValue();
+            if (best != null) {
+                int bestVal = best.getIntVal((IntVar) finder.getObjective());
+                if (m.getResolutionPolicy() == ResolutionPolicy.MAXIMIZE ? val <= bestVal : val >= bestVal) {
+                    // another worker has already found a better solution
+                    return;
+                }
+            }
+            finder = m;
+            best = records.computeIfAbsent(m, Solution::new).record().copySolution();
+            nbSolutions.incrementAndGet();
+            bound.set(val);
+            sink.accept(best);
+        }
+    }
+
+    private void check() {
+        if (models.size() == 0) {
+            throw new SolverException("No model found in the ParallelEPS.");
+        }
+        Model m0 = models.get(0);
+        if (m0.getResolutionPolicy() != ResolutionPolicy.SATISFACTION) {
+            Variable objective = m0.getObjective();
+            if (objective == null) {
+                throw new UnsupportedOperationException("No objective has been defined");
+            }
+            if ((objective.getTypeAndKind() & Variable.INT) == 0) {
+                throw new UnsupportedOperationException("ParallelEPS only deals with integer objectives");
+            }
+        }
+        for (int i = 1; i < models.size(); i++) {
+            Model m = models.get(i);
+            boolean same = m.getNbVars() == m0.getNbVars();
+            for (int j = 0; j < m0.getNbVars() && same; j++) {
+                same = m.getVar(j).getTypeAndKind() == m0.getVar(j).getTypeAndKind()
+                        && m.getVar(j).getName().equals(m0.getVar(j).getName());
+            }
+            if (!same) {
+                throw new SolverException("The models of a ParallelEPS must declare the same variables in the same order.");
+            }
+        }
+    }
+}
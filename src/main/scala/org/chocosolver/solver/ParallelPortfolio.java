@@ -14,8 +14,13 @@ import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.constraints.real.RealConstraint;
 import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.search.limits.FailCounter;
+import org.chocosolver.solver.search.loop.learn.ClauseExchange;
+import org.chocosolver.solver.search.loop.learn.ClauseSharing;
+import org.chocosolver.solver.search.loop.learn.LearnSignedClauses;
 import org.chocosolver.solver.search.loop.lns.INeighborFactory;
+import org.chocosolver.solver.search.loop.monitors.IMonitorRestart;
 import org.chocosolver.solver.search.loop.monitors.IMonitorSolution;
+import org.chocosolver.solver.search.loop.monitors.NogoodFromRestarts;
 import org.chocosolver.solver.search.strategy.Search;
 import org.chocosolver.solver.search.strategy.selectors.values.IntDomainBest;
 import org.chocosolver.solver.search.strategy.selectors.values.IntDomainLast;
@@ -30,11 +35,13 @@ import org.chocosolver.util.criteria.Criterion;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Spliterator;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -66,7 +73,8 @@ import static org.chocosolver.solver.search.strategy.Search.*;
  *     The resolution process is synchronized. As soon as one model ends (naturally or by hitting a limit)
  *     the other ones are eagerly stopped.
  *     Moreover, when dealing with an optimization problem, cut on the objective variable's value is propagated
- *     to all models on solution.
+ *     to all models on solution: each model reads the best bound found so far at its next node.
+ *     No lock is taken, neither on solution nor on nodes.
  *     It is essential to eagerly declare the objective variable(s) with {@link Model#setObjective(boolean, Variable)}.
  *
  * </p>
@@ -119,11 +127,21 @@ public class ParallelPortfolio {
     /** Stores whether or not prepare() method has been called */
     private boolean isPrepared = false;
 
-    private AtomicBoolean solverTerminated = new AtomicBoolean(false);
-    private AtomicBoolean solutionFound = new AtomicBoolean(false);
+    // lock-free: a flag read on each node
+    private volatile boolean solverTerminated = false;
+    private volatile boolean solutionFound = false;
 
-    /** Point to (one of) the solver(s) which found a solution */
-    private Model finder;
+    /** Point to (one of) the solver(s) which found a solution, when dealing with a satisfaction problem */
+    private volatile Model finder;
+
+    /** Best objective value found so far, and the model which found it, when dealing with an optimization problem */
+    private final AtomicReference<Bound> best = new AtomicReference<>();
+
+    /** Solution recorded for each model, copied for the consumers of {@link #streamSolutions()} */
+    private final Map<Model, Solution> records = new IdentityHashMap<>();
+
+    /** Learnt clauses shared between the models, null if clauses are not shared */
+    private ClauseExchange exchange;
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     ///////////////////////////////////////      CONSTRUCTOR      //////////////////////////////////////////////////////
@@ -178,6 +196,46 @@ public class ParallelPortfolio {
         this.models.add(model);
     }
 
+    /**
+     * Adds <i>model</i> and <i>nbModels - 1</i> copies of it (see {@link Model#copy()}),
+     * which is much faster than building the same model again for each worker.
+     * The solver of each copy has to be configured afterwards, if needed.
+     *
+     * @param model    a model to add
+     * @param nbModels total number of models to add
+     */
+    public void addModels(Model model, int nbModels){
+        addModel(model);
+        for (int i = 1; i < nbModels; i++) {
+            addModel(model.copy());
+        }
+    }
+
+    /**
+     * <p>
+     * Share the short learnt clauses between the models: the signed clauses learnt on failure
+     * (see {@link Solver#setLearningSignedClauses()}) and the nogoods recorded on restart
+     * (see {@link Solver#setNoGoodRecordingFromRestarts()}) are published by the model which learns them
+     * and imported by the other ones on their next restart.
+     * </p>
+     * <p>
+     * Variables are matched by declaration index, so clauses are shared only if all the models declare
+     * the same variables, with the same names, in the same order.
+     * Must be called before the first call to {@link #solve()}.
+     * </p>
+     * @param maxSize maximum number of literals of a shared clause
+     */
+    public void shareClauses(int maxSize){
+        this.exchange = new ClauseExchange(1 << 14, maxSize);
+    }
+
+    /**
+     * @return the exchange of learnt clauses, or <tt>null</tt> if clauses are not shared
+     */
+    public ClauseExchange getClauseExchange(){
+        return exchange;
+    }
+
     /**
      * Run the solve() instruction of every model of the portfolio in parallel.
      *
@@ -188,18 +246,18 @@ public class ParallelPortfolio {
      * @throws SolverException if no model or only model has been added.
      */
     public boolean solve() {
-        getSolverTerminated().set(false);
-        getSolutionFound().set(false);
+        solverTerminated = false;
+        solutionFound = false;
         if (!isPrepared) {
             prepare();
         }
         ForkJoinPool forkJoinPool = new ForkJoinPool(models.size());
         try {
             forkJoinPool.submit(() -> models.parallelStream().forEach(m -> {
-                if (!getSolverTerminated().get()) {
+                if (!solverTerminated) {
                     boolean so = m.getSolver().solve();
-                    if (!so || finder == m) {
-                        getSolverTerminated().set(true);
+                    if (!so || getBestModel() == m) {
+                        solverTerminated = true;
                     }
                 }
             })).get();
@@ -207,8 +265,8 @@ public class ParallelPortfolio {
             e.printStackTrace();
         }
         forkJoinPool.shutdownNow();
-        getSolverTerminated().set(false);// otherwise, solver.isStopCriterionMet() always returns true
-        if(getSolutionFound().get() && models.get(0).getResolutionPolicy()!=ResolutionPolicy.SATISFACTION) {
+        solverTerminated = false;// otherwise, solver.isStopCriterionMet() always returns true
+        if(solutionFound && models.get(0).getResolutionPolicy()!=ResolutionPolicy.SATISFACTION) {
             int bestAll = getBestModel().getSolver().getBestSolutionValue().intValue();
             for (Model m : models) {
                 int mVal = m.getSolver().getBestSolutionValue().intValue();
@@ -218,7 +276,7 @@ public class ParallelPortfolio {
                     assert m.getResolutionPolicy() != ResolutionPolicy.MINIMIZE || mVal >= bestAll : mVal + " < " + bestAll;
             }
         }
-        return getSolutionFound().get();
+        return solutionFound;
     }
 
     /**
@@ -237,7 +295,8 @@ public class ParallelPortfolio {
      * @return the first model which finds a solution (or the best one) or <tt>null</tt> if no such model exists.
      */
     public Model getBestModel(){
-        return finder;
+        Bound b = best.get();
+        return b != null ? b.model : finder;
     }
 
     /**
@@ -273,7 +332,9 @@ public class ParallelPortfolio {
             @Override
             public boolean tryAdvance(Consumer<? super Solution> action) {
                 if (solve()) {
-                    action.accept(new Solution(getBestModel()).record());
+                    // each model reuses the same record, only its arrays of values are copied
+                    Model m = getBestModel();
+                    action.accept(records.computeIfAbsent(m, Solution::new).record().copySolution());
                     return true;
                 }
                 return false;
@@ -306,37 +367,129 @@ public class ParallelPortfolio {
     private void prepare(){
         isPrepared = true;
         check();
+        // number variables before configuring the search: it may declare additional variables
+        ClauseSharing[] sharings = new ClauseSharing[models.size()];
+        if (exchange != null && sameVariables()) {
+            for (int i = 0; i < models.size(); i++) {
+                sharings[i] = new ClauseSharing(models.get(i), exchange, i);
+            }
+        }
         for(int i=0;i<models.size();i++){
             Solver s = models.get(i).getSolver();
-            s.addStopCriterion((Criterion) () -> getSolverTerminated().get());
+            s.addStopCriterion(new Watcher(s.getModel()));
             s.plugMonitor((IMonitorSolution) () -> updateFromSolution(s.getModel()));
             if(searchAutoConf){
                 configureModel(i);
             }
+            if (sharings[i] != null) {
+                connect(s, sharings[i]);
+            }
+        }
+    }
+
+    private boolean sameVariables(){
+        Model m0 = models.get(0);
+        for (int i = 1; i < models.size(); i++) {
+            Model m = models.get(i);
+            if (m.getNbVars() != m0.getNbVars()) {
+                return false;
+            }
+            for (int j = 0; j < m0.getNbVars(); j++) {
+                if (m.getVar(j).getTypeAndKind() != m0.getVar(j).getTypeAndKind()
+                        || !m.getVar(j).getName().equals(m0.getVar(j).getName())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void connect(Solver s, ClauseSharing sharing){
+        boolean connected = false;
+        for (IMonitorRestart mr : s.getSearchMonitors().getRestartMonitors()) {
+            if (mr instanceof NogoodFromRestarts) {
+                ((NogoodFromRestarts) mr).setSharing(sharing);
+                connected = true;
+            }
+        }
+        if (s.getLearner() instanceof LearnSignedClauses) {
+            ((LearnSignedClauses) s.getLearner()).setSharing(sharing);
+            connected = true;
+        }
+        if (connected) {
+            s.plugMonitor(sharing);
         }
     }
 
-    private synchronized void updateFromSolution(Model m){
+    private void updateFromSolution(Model m){
         if (m.getResolutionPolicy() == ResolutionPolicy.SATISFACTION) {
             finder = m;
-            getSolutionFound().set(true);
+            solutionFound = true;
         }else{
             int solverVal = ((IntVar)m.getObjective()).getValue();
             int bestVal = m.getSolver().getObjectiveManager().getBestSolutionValue().intValue();
-            if(m.getResolutionPolicy()==ResolutionPolicy.MAXIMIZE){
+            boolean max = m.getResolutionPolicy()==ResolutionPolicy.MAXIMIZE;
+            if(max){
                 assert solverVal<=bestVal:solverVal+">"+bestVal;
             }else
                 assert
                     m.getResolutionPolicy() != ResolutionPolicy.MINIMIZE || solverVal >= bestVal :solverVal+"<"+bestVal;
             if(solverVal == bestVal){
-                getSolutionFound().set(true);
-                finder = m;
-                if (m.getResolutionPolicy() == ResolutionPolicy.MAXIMIZE) {
-                    models.forEach(s1 -> s1.getSolver().getObjectiveManager().updateBestLB(bestVal));
-                }else {
-                    models.forEach(s1 -> s1.getSolver().getObjectiveManager().updateBestUB(bestVal));
+                // only published on improvement; other models read it by themselves on their next node
+                Bound b = new Bound(bestVal, m);
+                Bound cur;
+                do {
+                    cur = best.get();
+                    if (cur != null && (max ? cur.value >= bestVal : cur.value <= bestVal)) {
+                        return;
+                    }
+                } while (!best.compareAndSet(cur, b));
+                solutionFound = true;
+            }
+        }
+    }
+
+    /**
+     * Best objective value found by the models of the portfolio, published once, never modified.
+     */
+    private static final class Bound {
+        private final int value;
+        private final Model model;
+
+        private Bound(int value, Model model) {
+            this.value = value;
+            this.model = model;
+        }
+    }
+
+    /**
+     * Stop criterion of a model, checked at each node: stops the model once the portfolio terminates,
+     * and imports the best bound found by the other models.
+     * The last bound seen is cached, so that a node costs two volatile reads when nothing changes.
+     */
+    private final class Watcher implements Criterion {
+        private final Model model;
+        private Bound seen;
+
+        private Watcher(Model model) {
+            this.model = model;
+        }
+
+        @Override
+        public boolean isMet() {
+            Bound b = best.get();
+            if (b != seen) {
+                seen = b;
+                if (b.model != model) {
+                    if (model.getResolutionPolicy() == ResolutionPolicy.MAXIMIZE) {
+                        model.getSolver().getObjectiveManager().updateBestLB(b.value);
+                    } else {
+                        model.getSolver().getObjectiveManager().updateBestUB(b.value);
+                    }
                 }
             }
+            return solverTerminated;
         }
     }
 
@@ -492,12 +645,4 @@ public class ParallelPortfolio {
             }
         }
     }
-
-    private synchronized AtomicBoolean getSolverTerminated(){
-        return solverTerminated;
-    }
-
-    private synchronized AtomicBoolean getSolutionFound(){
-        return solutionFound;
-    }
 }
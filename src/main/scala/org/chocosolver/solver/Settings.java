@@ -9,6 +9,7 @@
  */
 package org.chocosolver.solver;
 
+import org.chocosolver.memory.EnvironmentBuilder;
 import org.chocosolver.memory.ICondition;
 import org.chocosolver.memory.IEnvironment;
 import org.chocosolver.solver.constraints.ISatFactory;
@@ -94,6 +95,10 @@ public interface Settings {
                 "learnt.dominance", this.getLearntClausesDominancePerimeter()).toString()));
         this.explainGlobalFailureInSum(Boolean.valueOf(properties.getOrDefault(
                 "learnt.sum.global", this.explainGlobalFailureInSum()).toString()));
+        this.setEnablePropagatorMetrics(Boolean.valueOf(properties.getOrDefault(
+                "propagators.metrics", this.enablePropagatorMetrics()).toString()));
+        this.setEnvironmentType(EnvironmentBuilder.Type.valueOf(properties.getOrDefault(
+                "environment.type", this.getEnvironmentType()).toString()));
         return this;
     }
 
@@ -159,6 +164,8 @@ public interface Settings {
         properties.setProperty("learnt.maxCard", Integer.toString(this.getMaxLearntClauseCardinality()));
         properties.setProperty("learnt.dominance", Integer.toString(this.getLearntClausesDominancePerimeter()));
         properties.setProperty("learnt.sum.global", Boolean.toString(this.explainGlobalFailureInSum()));
+        properties.setProperty("propagators.metrics", Boolean.toString(this.enablePropagatorMetrics()));
+        properties.setProperty("environment.type", this.getEnvironmentType().name());
         return properties;
     }
 
@@ -589,4 +596,33 @@ public interface Settings {
      * Set to <i>true</i> to allow additional clauses to be learned from sum's global failure
      */
     Settings explainGlobalFailureInSum(boolean b);
+
+    /**
+     * @return <i>true</i> if propagators record metrics (time per filtering phase, counters)
+     * @see org.chocosolver.solver.trace.metrics.PropagatorMetricsRegistry
+     */
+    boolean enablePropagatorMetrics();
+
+    /**
+     * Set to <i>true</i> to let propagators record metrics (time per filtering phase, counters).
+     * Metrics are available through {@link Model#getPropagatorMetrics()}.
+     * @param b <i>true</i> to enable propagator metrics
+     * @return the current instance
+     */
+    Settings setEnablePropagatorMetrics(boolean b);
+
+    /**
+     * @return the kind of environment built by the model constructors which are not given one
+     * @see EnvironmentBuilder#build(EnvironmentBuilder.Type)
+     */
+    EnvironmentBuilder.Type getEnvironmentType();
+
+    /**
+     * Set the kind of environment built by the model constructors which are not given one.
+     * Copying environments save the whole state of small dense models at once on world push,
+     * instead of trailing each modification.
+     * @param type kind of environment
+     * @return the current instance
+     */
+    Settings setEnvironmentType(EnvironmentBuilder.Type type);
 }
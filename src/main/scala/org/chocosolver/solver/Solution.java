@@ -45,15 +45,35 @@ public class Solution implements ICause {
      */
     private boolean empty;
     /**
-     * Maps of value for integer variable (id - value)
+     * Position of each variable to store, shared by the copies of this solution
+     */
+    private Layout layout;
+    /**
+     * Values of integer variables, by position in {@link #varsToStore}
+     */
+    private int[] ivals;
+    /**
+     * Bounds of real variables, by position in {@link #varsToStore} (lower bound at 2i, upper bound at 2i+1)
+     */
+    private double[] rvals;
+    /**
+     * Values of set variables, by position in {@link #varsToStore}
+     */
+    private int[][] svals;
+    /**
+     * Positions of the variables recorded, as a bitset
+     */
+    private long[] recorded;
+    /**
+     * Maps of value for integer variable (id - value), for variables not in {@link #varsToStore}
      */
     private TIntIntHashMap intmap;
     /**
-     * Maps of value for real variable (id - value)
+     * Maps of value for real variable (id - value), for variables not in {@link #varsToStore}
      */
     private TIntObjectHashMap<double[]> realmap;
     /**
-     * Maps of value for set variable (id - values)
+     * Maps of value for set variable (id - values), for variables not in {@link #varsToStore}
      */
     private TIntObjectHashMap<int[]> setmap;
 
@@ -67,6 +87,47 @@ public class Solution implements ICause {
      */
     private Variable[] varsToStore;
 
+    /**
+     * Kind and position by variable id of the variables to store.
+     * Immutable once built, shared by a solution and its copies.
+     */
+    private static final class Layout {
+        private final Variable[] vars;
+        /**
+         * Kind of each variable, {@link Variable#CSTE} for constants
+         */
+        private final int[] kinds;
+        /**
+         * Position of each variable, by id, -1 if not stored
+         */
+        private final int[] positions;
+
+        private Layout(Variable[] vars) {
+            this.vars = vars;
+            this.kinds = new int[vars.length];
+            int max = 0;
+            for (int i = 0; i < vars.length; i++) {
+                Variable var = vars[i];
+                kinds[i] = (var.getTypeAndKind() & Variable.TYPE) == Variable.CSTE ?
+                    Variable.CSTE : var.getTypeAndKind() & Variable.KIND;
+                max = Math.max(max, var.getId());
+            }
+            this.positions = new int[max + 1];
+            Arrays.fill(positions, -1);
+            for (int i = 0; i < vars.length; i++) {
+                positions[vars[i].getId()] = i;
+            }
+        }
+
+        /**
+         * @return the position of the variable with the same id as <i>var</i>, -1 if not stored
+         */
+        private int indexOf(Variable var) {
+            int id = var.getId();
+            return id >= 0 && id < positions.length ? positions[id] : -1;
+        }
+    }
+
     //***********************************************************************************
     // CONSTRUCTOR
     //***********************************************************************************
@@ -90,18 +151,38 @@ public class Solution implements ICause {
     // METHODS
     //***********************************************************************************
 
+    private Layout layout() {
+        if (layout == null) {
+            if (varsToStore.length == 0) {
+                varsToStore = model.getVars();
+            }
+            layout = new Layout(varsToStore);
+            recorded = new long[(varsToStore.length + 63) >>> 6];
+        }
+        return layout;
+    }
+
+    private boolean isRecorded(int i) {
+        return (recorded[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private void setRecorded(int i) {
+        recorded[i >>> 6] |= 1L << i;
+    }
+
     /**
-     * Records the current solution of the solver clears all previous recordings
+     * Records the current solution of the solver clears all previous recordings.
+     * Values are copied in arrays aligned with the variables to store:
+     * recording again the same object does not allocate, except for set variables.
      *
      * @return this object
      */
     public Solution record() {
         empty = false;
         boolean warn = false;
-        if (varsToStore.length == 0) {
-            varsToStore = model.getVars();
-        }
+        Layout l = layout();
         assert varsToStore.length > 0;
+        Arrays.fill(recorded, 0L);
         if (intmap != null) {
             intmap.clear();
         }
@@ -111,33 +192,37 @@ public class Solution implements ICause {
         if (setmap != null) {
             setmap.clear();
         }
-        for (Variable var : varsToStore) {
-            if ((var.getTypeAndKind() & Variable.TYPE) != Variable.CSTE) {
-                int kind = var.getTypeAndKind() & Variable.KIND;
+        Variable[] vars = l.vars;
+        int[] kinds = l.kinds;
+        for (int i = 0; i < vars.length; i++) {
+            int kind = kinds[i];
+            if (kind != Variable.CSTE) {
+                Variable var = vars[i];
                 if (var.isInstantiated()) {
                     switch (kind) {
                         case Variable.INT:
                         case Variable.BOOL:
-                            if (intmap == null) {
-                                intmap = new TIntIntHashMap(16, .5f, Solution.NO_ENTRY,
-                                    Solution.NO_ENTRY);
+                            if (ivals == null) {
+                                ivals = new int[vars.length];
                             }
-                            IntVar v = (IntVar) var;
-                            intmap.put(v.getId(), v.getValue());
+                            ivals[i] = ((IntVar) var).getValue();
+                            setRecorded(i);
                             break;
                         case Variable.REAL:
-                            if (realmap == null) {
-                                realmap = new TIntObjectHashMap<>(16, 05f, Solution.NO_ENTRY);
+                            if (rvals == null) {
+                                rvals = new double[2 * vars.length];
                             }
                             RealVar r = (RealVar) var;
-                            realmap.put(r.getId(), new double[]{r.getLB(), r.getUB()});
+                            rvals[2 * i] = r.getLB();
+                            rvals[2 * i + 1] = r.getUB();
+                            setRecorded(i);
                             break;
                         case Variable.SET:
-                            if (setmap == null) {
-                                setmap = new TIntObjectHashMap<>(16, 05f, Solution.NO_ENTRY);
+                            if (svals == null) {
+                                svals = new int[vars.length][];
                             }
-                            SetVar s = (SetVar) var;
-                            setmap.put(s.getId(), s.getValue().toArray());
+                            svals[i] = ((SetVar) var).getValue().toArray();
+                            setRecorded(i);
                             break;
                         default:
                             // do not throw exception to allow extending the solver with other variable kinds (e.g. graph)
@@ -169,19 +254,21 @@ public class Solution implements ICause {
                     case Variable.INT:
                     case Variable.BOOL:
                         IntVar v = (IntVar) var;
-                        st.append(v.getName()).append("=").append(intmap.get(v.getId()))
+                        int i = layout().indexOf(v);
+                        st.append(v.getName()).append("=")
+                            .append(i > -1 && ivals != null && isRecorded(i) ? ivals[i] : Solution.NO_ENTRY)
                             .append(", ");
                         break;
                     case Variable.REAL:
                         RealVar r = (RealVar) var;
-                        double[] bounds = realmap.get(r.getId());
+                        double[] bounds = getRealBounds(r);
                         st.append(r.getName()).append("=[").append(bounds[0]).append(",")
                             .append(bounds[1]).append("], ");
                         break;
                     case Variable.SET:
                         SetVar s = (SetVar) var;
                         st.append(s.getName()).append("=")
-                            .append(Arrays.toString(setmap.get(s.getId()))).append(", ");
+                            .append(Arrays.toString(getSetVal(s))).append(", ");
                         break;
                     default:
                         // do not throw exception to allow extending the solver with other variable kinds (e.g. graph)
@@ -195,17 +282,94 @@ public class Solution implements ICause {
 
     public Solution copySolution() {
         Solution ret = new Solution(model, varsToStore);
-        ret.empty = empty;
-        if (intmap != null) {
-            ret.intmap = new TIntIntHashMap(intmap);
+        copyTo(ret);
+        return ret;
+    }
+
+    /**
+     * Copy the values of this solution into <i>target</i>, which must store the same variables,
+     * reusing the arrays of <i>target</i> when possible.
+     *
+     * @param target a solution of the same model and variables
+     * @throws SolverException if <i>target</i> does not store the same variables
+     */
+    public void copyTo(Solution target) {
+        if (target.layout != layout && !Arrays.equals(target.varsToStore, varsToStore)) {
+            throw new SolverException("Cannot copy a solution into a solution storing other variables");
         }
-        if (realmap != null) {
-            ret.realmap = new TIntObjectHashMap<>(realmap);
+        target.empty = empty;
+        target.varsToStore = varsToStore;
+        target.layout = layout;
+        target.recorded = copy(recorded, target.recorded);
+        target.ivals = copy(ivals, target.ivals);
+        if (rvals != null) {
+            target.rvals = target.rvals == null ? rvals.clone() : target.rvals;
+            System.arraycopy(rvals, 0, target.rvals, 0, rvals.length);
         }
-        if (setmap != null) {
-            ret.setmap = new TIntObjectHashMap<>(setmap);
+        if (svals != null) {
+            // set values are never modified, they can be shared
+            target.svals = target.svals == null ? svals.clone() : target.svals;
+            System.arraycopy(svals, 0, target.svals, 0, svals.length);
         }
-        return ret;
+        target.intmap = intmap == null ? null : new TIntIntHashMap(intmap);
+        target.realmap = realmap == null ? null : new TIntObjectHashMap<>(realmap);
+        target.setmap = setmap == null ? null : new TIntObjectHashMap<>(setmap);
+    }
+
+    private static long[] copy(long[] src, long[] dst) {
+        if (src == null) {
+            return null;
+        }
+        if (dst == null || dst.length != src.length) {
+            return src.clone();
+        }
+        System.arraycopy(src, 0, dst, 0, src.length);
+        return dst;
+    }
+
+    private static int[] copy(int[] src, int[] dst) {
+        if (src == null) {
+            return null;
+        }
+        if (dst == null || dst.length != src.length) {
+            return src.clone();
+        }
+        System.arraycopy(src, 0, dst, 0, src.length);
+        return dst;
+    }
+
+    /**
+     * @return a hash of the values of the integer variables recorded in this solution
+     */
+    public long fingerprint() {
+        long h = 1125899906842597L;
+        if (ivals != null) {
+            for (int i = 0; i < ivals.length; i++) {
+                if (isRecorded(i)) {
+                    h = 31 * h + ivals[i];
+                }
+            }
+        }
+        return h;
+    }
+
+    /**
+     * @param other a solution storing the same variables
+     * @return <i>true</i> if this and <i>other</i> record the same values for the integer variables
+     */
+    public boolean sameIntValues(Solution other) {
+        if (empty || other.empty || layout != other.layout) {
+            return empty == other.empty && empty;
+        }
+        if (!Arrays.equals(recorded, other.recorded)) {
+            return false;
+        }
+        for (int i = 0; ivals != null && i < ivals.length; i++) {
+            if (isRecorded(i) && ivals[i] != other.ivals[i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -222,7 +386,10 @@ public class Solution implements ICause {
             throw new SolverException("Cannot access value of " + v
                 + ": No solution has been recorded yet (empty solution). Make sure this.record() has been called.");
         }
-        if (intmap != null && intmap.containsKey(v.getId())) {
+        int i = layout().indexOf(v);
+        if (i > -1 && ivals != null && isRecorded(i)) {
+            return ivals[i];
+        } else if (intmap != null && intmap.containsKey(v.getId())) {
             return intmap.get(v.getId());
         } else {
             if ((v.getTypeAndKind() & Variable.TYPE) == Variable.CSTE) {
@@ -242,10 +409,19 @@ public class Solution implements ICause {
      */
     public void setIntVal(IntVar var, int val) {
         empty = false;
-        if (intmap == null) {
-            intmap = new TIntIntHashMap(16, .5f, Solution.NO_ENTRY, Solution.NO_ENTRY);
+        int i = layout().indexOf(var);
+        if (i > -1) {
+            if (ivals == null) {
+                ivals = new int[varsToStore.length];
+            }
+            ivals[i] = val;
+            setRecorded(i);
+        } else {
+            if (intmap == null) {
+                intmap = new TIntIntHashMap(16, .5f, Solution.NO_ENTRY, Solution.NO_ENTRY);
+            }
+            intmap.put(var.getId(), val);
         }
-        intmap.put(var.getId(), val);
     }
 
     /**
@@ -262,7 +438,10 @@ public class Solution implements ICause {
             throw new SolverException("Cannot access value of " + s
                 + ": No solution has been recorded yet (empty solution). Make sure this.record() has been called.");
         }
-        if (setmap != null && setmap.containsKey(s.getId())) {
+        int i = layout().indexOf(s);
+        if (i > -1 && svals != null && isRecorded(i)) {
+            return svals[i];
+        } else if (setmap != null && setmap.containsKey(s.getId())) {
             return setmap.get(s.getId());
         } else if ((s.getTypeAndKind() & Variable.TYPE) == Variable.CSTE) {
             return s.getValue().toArray();
@@ -280,10 +459,19 @@ public class Solution implements ICause {
      */
     public void setSetVal(SetVar var, int[] val) {
         empty = false;
-        if (setmap == null) {
-            setmap = new TIntObjectHashMap<>(16, 05f, Solution.NO_ENTRY);
+        int i = layout().indexOf(var);
+        if (i > -1) {
+            if (svals == null) {
+                svals = new int[varsToStore.length][];
+            }
+            svals[i] = val;
+            setRecorded(i);
+        } else {
+            if (setmap == null) {
+                setmap = new TIntObjectHashMap<>(16, 05f, Solution.NO_ENTRY);
+            }
+            setmap.put(var.getId(), val);
         }
-        setmap.put(var.getId(), val);
     }
 
     /**
@@ -300,7 +488,10 @@ public class Solution implements ICause {
             throw new SolverException("Cannot access value of " + r
                 + ": No solution has been recorded yet (empty solution). Make sure this.record() has been called.");
         }
-        if (realmap != null && realmap.containsKey(r.getId())) {
+        int i = layout().indexOf(r);
+        if (i > -1 && rvals != null && isRecorded(i)) {
+            return new double[]{rvals[2 * i], rvals[2 * i + 1]};
+        } else if (realmap != null && realmap.containsKey(r.getId())) {
             return realmap.get(r.getId());
         } else {
             if ((r.getTypeAndKind() & Variable.TYPE) == Variable.CSTE) {
@@ -320,13 +511,23 @@ public class Solution implements ICause {
      */
     public void setRealBounds(RealVar var, double[] val) {
         empty = false;
-        if (realmap == null) {
-            realmap = new TIntObjectHashMap<>(16, 05f, Solution.NO_ENTRY);
-        }
         if (val.length != 2) {
             throw new SolverException("wrong array size");
         }
-        realmap.put(var.getId(), val);
+        int i = layout().indexOf(var);
+        if (i > -1) {
+            if (rvals == null) {
+                rvals = new double[2 * varsToStore.length];
+            }
+            rvals[2 * i] = val[0];
+            rvals[2 * i + 1] = val[1];
+            setRecorded(i);
+        } else {
+            if (realmap == null) {
+                realmap = new TIntObjectHashMap<>(16, 05f, Solution.NO_ENTRY);
+            }
+            realmap.put(var.getId(), val);
+        }
     }
 
     /**
@@ -380,16 +581,16 @@ public class Solution implements ICause {
                     case Variable.INT:
                     case Variable.BOOL:
                         IntVar v = (IntVar) var;
-                        v.instantiateTo(intmap.get(v.getId()), this);
+                        v.instantiateTo(getIntVal(v), this);
                         break;
                     case Variable.REAL:
                         RealVar r = (RealVar) var;
-                        double[] bounds = realmap.get(r.getId());
+                        double[] bounds = getRealBounds(r);
                         r.updateBounds(bounds[0], bounds[1], this);
                         break;
                     case Variable.SET:
                         SetVar s = (SetVar) var;
-                        s.instantiateTo(setmap.get(s.getId()), this);
+                        s.instantiateTo(getSetVal(s), this);
                         break;
                     default:
                         // do not throw exception to allow extending the solver with other variable kinds (e.g. graph)
@@ -0,0 +1,154 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver;
+
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.search.loop.monitors.IMonitorSolution;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Variable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A pool of the <i>k</i> best distinct solutions of a model.
+ * <p>
+ * Solutions are ranked by the value of an integer objective, the first solutions found being preferred in case of tie.
+ * A solution whose integer values are the same as a solution of the pool is ignored.
+ * The solutions of the pool are recycled: once the pool is full, recording a new solution does not allocate.
+ * <p>
+ * Plugged as a monitor, the pool offers each solution found:
+ * <pre>
+ * <code>SolutionPool pool = new SolutionPool(model, 10, cost, Model.MINIMIZE);
+ * model.getSolver().plugMonitor(pool);
+ * </code>
+ * </pre>
+ *
+ * @author Jia'nan Chen
+ * @see Solution
+ */
+public class SolutionPool implements IMonitorSolution {
+
+    private final IntVar objective;
+
+    private final boolean maximize;
+
+    /**
+     * Solutions of the pool, best first, and their objective values
+     */
+    private final Solution[] solutions;
+    private final int[] values;
+    private final long[] fingerprints;
+    private int size;
+
+    /**
+     * Solution to record in, next
+     */
+    private Solution spare;
+
+    /**
+     * Create a pool of the <i>capacity</i> best solutions.
+     *
+     * @param model       model of the solutions
+     * @param capacity    maximum number of solutions kept
+     * @param objective   variable which ranks the solutions
+     * @param maximize    set to <i>true</i> to prefer solutions with larger objective values
+     * @param varsToStore variables to store, all variables of the model if empty
+     * @throws SolverException if <i>capacity</i> is not positive
+     */
+    public SolutionPool(Model model, int capacity, IntVar objective, boolean maximize, Variable... varsToStore) {
+        if (capacity < 1) {
+            throw new SolverException("The capacity of a solution pool must be positive");
+        }
+        this.objective = objective;
+        this.maximize = maximize;
+        this.solutions = new Solution[capacity];
+        this.values = new int[capacity];
+        this.fingerprints = new long[capacity];
+        this.spare = new Solution(model, varsToStore);
+    }
+
+    @Override
+    public void onSolution() {
+        offer();
+    }
+
+    /**
+     * Record the current solution of the model if it is among the best ones and not yet in the pool.
+     *
+     * @return <i>true</i> if the solution has been added to the pool
+     */
+    public boolean offer() {
+        int val = objective.getValue();
+        // worse than the worst solution: no need to record it
+        if (size == solutions.length && !better(val, values[size - 1])) {
+            return false;
+        }
+        spare.record();
+        long fp = spare.fingerprint();
+        for (int i = 0; i < size; i++) {
+            if (fingerprints[i] == fp && solutions[i].sameIntValues(spare)) {
+                return false;
+            }
+        }
+        Solution out = size == solutions.length ? solutions[size - 1] : null;
+        int p = size == solutions.length ? size - 1 : size++;
+        while (p > 0 && better(val, values[p - 1])) {
+            solutions[p] = solutions[p - 1];
+            values[p] = values[p - 1];
+            fingerprints[p] = fingerprints[p - 1];
+            p--;
+        }
+        solutions[p] = spare;
+        values[p] = val;
+        fingerprints[p] = fp;
+        spare = out != null ? out : spare.copySolution();
+        return true;
+    }
+
+    private boolean better(int a, int b) {
+        return maximize ? a > b : a < b;
+    }
+
+    /**
+     * @return the solutions of the pool, best first
+     */
+    public List<Solution> getSolutions() {
+        List<Solution> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(solutions[i]);
+        }
+        return list;
+    }
+
+    /**
+     * @return the best solution of the pool, or <tt>null</tt> if the pool is empty
+     */
+    public Solution getBest() {
+        return size > 0 ? solutions[0] : null;
+    }
+
+    /**
+     * @return number of solutions in the pool
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove all solutions from the pool.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            solutions[i] = null;
+        }
+        size = 0;
+    }
+}
@@ -80,6 +80,8 @@ import org.chocosolver.util.tools.VariableUtils;
 
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -418,7 +420,11 @@ public interface IIntConstraintFactory extends ISelf<Model> {
     default Constraint table(IntVar var1, IntVar var2, Tuples tuples, String algo) {
         Propagator p;
         if (tuples.allowUniversalValue()) {
-            p = new PropCompactTableStar(new IntVar[]{var1, var2}, tuples);
+            if (tuples.isFeasible()) {
+                p = new PropCompactTableStar(new IntVar[]{var1, var2}, tuples);
+            } else {
+                p = new PropCompactTableNeg(new IntVar[]{var1, var2}, tuples);
+            }
         } else {
             switch (algo) {
                 case "AC2001":
@@ -695,6 +701,19 @@ public interface IIntConstraintFactory extends ISelf<Model> {
      *                    Uses Regin algorithm
      *                    Runs in O(m.n) worst case time for the initial propagation and then in O(n+m) on average.
      *                    <p>
+     *                    <b>ACIncr</b>:
+     *                    Incremental AC: the matching and the value graph are kept across calls and restored on backtrack,
+     *                    the matching is only repaired from the variables whose mate has been removed.
+     *                    <p>
+     *                    <b>ACFastbit</b>:
+     *                    AC where the edges of the value graph are stored in a single bitset,
+     *                    Hall sets and strongly connected components being explored word by word.
+     *                    <p>
+     *                    <b>AUTO</b>:
+     *                    Picks a bit-parallel AC algorithm when the variables fit in a 32/64-bit word and the values are few,
+     *                    Regin-like AC otherwise, and switches between this AC and BC on each call
+     *                    according to the number of values each one removed per microsecond.
+     *                    <p>
      *                    <b>DEFAULT</b>:
      *                    <br/>
      *                    Uses BC plus a probabilistic AC propagator to get a compromise between BC and AC
@@ -1554,12 +1573,13 @@ public interface IIntConstraintFactory extends ISelf<Model> {
     /**
      * Create a constraint where solutions (tuples) are encoded by a multi-valued decision diagram.
      * The order of the variables in vars is important and must refer to the MDD.
+     * The filtering is incremental (MDD4R): only the values removed since the last call are processed.
      *
      * @param vars the array of variables
      * @param MDD  the multi-valued decision diagram encoding solutions
      */
     default Constraint mddc(IntVar[] vars, MultivaluedDecisionDiagram MDD) {
-        return new Constraint(ConstraintsName.MDDC, new PropLargeMDDC(MDD, vars));
+        return new Constraint(ConstraintsName.MDDC, new PropLargeMDDCIncr(MDD, vars));
     }
 
     /**
@@ -2023,22 +2043,54 @@ public interface IIntConstraintFactory extends ISelf<Model> {
      * Creates a table constraint specifying that the sequence of variables vars must belong to the list of tuples
      * (or must NOT belong in case of infeasible tuples)
      *
-     * Default configuration with GACSTR+ algorithm for feasible tuples and GAC3rm otherwise
+     * Default configuration with a Compact-Table algorithm: CT+ for feasible tuples, possibly short,
+     * and CT- for infeasible tuples, possibly short.
+     * When the bitsets of Compact-Table would take more than 64MB, STR2+ is used for feasible tuples
+     * and GAC3rm for infeasible tuples.
+     * When short infeasible tuples are too many to be expanded, the conflicts are grouped by the variables
+     * they constrain, each group being a table without universal value over these variables.
+     * Tables over two variables use a binary table constraint.
      *
      * @param vars      variables forming the tuples
      * @param tuples    the relation between the variables (list of allowed/forbidden tuples)
      */
     default Constraint table(IntVar[] vars, Tuples tuples) {
-        String algo = "GAC3rm";
-        if (tuples.isFeasible()) {
-            if (tuples.nbTuples() > 512 &&
-                    (IntStream.range(0, vars.length)
-                            .map(i -> tuples.max(i) - tuples.min(i))
-                            .max().getAsInt()) < 256 || tuples.allowUniversalValue()) {
-                algo = "CT+";
-            } else {
-                algo = "GACSTR+";
+        // one bitset per value of each variable, one bit per tuple (or conflict)
+        long words = CompactTableSupports.estimateWords(vars, tuples);
+        if (words == Long.MAX_VALUE) {
+            // short conflicts which cannot be expanded: a conflict only constrains its non-universal positions
+            int star = tuples.getStarValue();
+            Map<BitSet, Tuples> groups = new LinkedHashMap<>();
+            for (int t = 0; t < tuples.nbTuples(); t++) {
+                int[] tuple = tuples.get(t);
+                BitSet scope = new BitSet(tuple.length);
+                for (int i = 0; i < tuple.length; i++) {
+                    if (tuple[i] != star) {
+                        scope.set(i);
+                    }
+                }
+                if (scope.isEmpty()) {
+                    return ref().falseConstraint();
+                }
+                groups.computeIfAbsent(scope, k -> new Tuples(false))
+                        .add(scope.stream().map(i -> tuple[i]).toArray());
             }
+            Propagator<?>[] props = new Propagator<?>[groups.size()];
+            int k = 0;
+            for (Map.Entry<BitSet, Tuples> e : groups.entrySet()) {
+                IntVar[] scope = e.getKey().stream().mapToObj(i -> vars[i]).toArray(IntVar[]::new);
+                props[k++] = CompactTableSupports.estimateWords(scope, e.getValue()) <= 1 << 23 ?
+                        new PropCompactTableNeg(scope, e.getValue()) :
+                        new PropLargeGAC3rm(scope, e.getValue());
+            }
+            return new Constraint(ConstraintsName.TABLE, props);
+        }
+        boolean fits = words <= 1 << 23;
+        String algo;
+        if (tuples.isFeasible()) {
+            algo = fits || tuples.allowUniversalValue() ? "CT+" : "STR2+";
+        } else {
+            algo = fits || tuples.allowUniversalValue() ? "CT-" : "GAC3rm";
         }
         return table(vars, tuples, algo);
     }
@@ -2046,7 +2098,11 @@ public interface IIntConstraintFactory extends ISelf<Model> {
     /**
      * Creates a table constraint, with the specified algorithm defined algo
      * <p>
-     * - <b>CT+</b>: Compact-Table algorithm (AC),
+     * - <b>CT+</b>: Compact-Table algorithm (AC) for allowed tuples, possibly short,
+     * <br/>
+     * - <b>CT-</b>: Compact-Table algorithm (AC) for forbidden tuples, possibly short,
+     * <br/>
+     * - <b>AUTO</b>: selects the algorithm from the size of the table and the arity (see {@link #table(IntVar[], Tuples)}),
      * <br/>
      * - <b>GAC2001</b>: Arc Consistency version 2001 for tuples,
      * <br/>
@@ -2097,8 +2153,11 @@ public interface IIntConstraintFactory extends ISelf<Model> {
                 }
             }
             break;
+            case "CT-":
+                p = new PropCompactTableNeg(vars, tuples);
+                break;
             case "MDD+":
-                p = new PropLargeMDDC(new MultivaluedDecisionDiagram(vars, tuples), vars);
+                p = new PropLargeMDDCIncr(new MultivaluedDecisionDiagram(vars, tuples), vars);
                 break;
             case "FC":
                 p = new PropLargeFC(vars, tuples);
@@ -2128,6 +2187,9 @@ public interface IIntConstraintFactory extends ISelf<Model> {
     }
 
     default Constraint table(IntVar[] vars, Tuples tuples, String algo) {
+        if (algo.equals("AUTO")) {
+            return table(vars, tuples);
+        }
         if (!tuples.allowUniversalValue() && vars.length == 2) {
             switch (algo) {
                 case "FC":
@@ -2143,7 +2205,10 @@ public interface IIntConstraintFactory extends ISelf<Model> {
         if (algo.contains("+") && !tuples.isFeasible()) {
             throw new SolverException(algo + " table algorithm cannot be used with forbidden tuples.");
         }
-        if (tuples.allowUniversalValue() && !algo.contains("CT+")) {
+        if (algo.equals("CT-") && tuples.isFeasible()) {
+            throw new SolverException(algo + " table algorithm cannot be used with allowed tuples.");
+        }
+        if (tuples.allowUniversalValue() && !algo.startsWith("CT")) {
             throw new SolverException(algo + " table algorithm cannot be used with short tuples.");
         }
         Propagator p;
@@ -2156,8 +2221,11 @@ public interface IIntConstraintFactory extends ISelf<Model> {
                 }
             }
             break;
+            case "CT-":
+                p = new PropCompactTableNeg(vars, tuples);
+                break;
             case "MDD+":
-                p = new PropLargeMDDC(new MultivaluedDecisionDiagram(vars, tuples), vars);
+                p = new PropLargeMDDCIncr(new MultivaluedDecisionDiagram(vars, tuples), vars);
                 break;
             case "FC":
                 p = new PropLargeFC(vars, tuples);
@@ -18,6 +18,7 @@ import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.learn.ExplanationForSignedClause;
 import org.chocosolver.solver.learn.Implications;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics;
 import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.Variable;
@@ -195,6 +196,10 @@ public abstract class Propagator<V extends Variable> implements ICause, Identity
      * Position of this in the propgation engine
      */
     private int position = -1;
+    /**
+     * Number of times this has been revised by the propagation engine
+     */
+    private long nbRevisions;
 
     /**
      * A bi-int-consumer
@@ -213,6 +218,11 @@ public abstract class Propagator<V extends Variable> implements ICause, Identity
      */
     private BoolVar reifVar;
 
+    /**
+     * Metrics of this propagator, {@link IPropagatorMetrics.Default#NONE} unless enabled in the model.
+     */
+    protected final IPropagatorMetrics metrics;
+
     /**
      * Creates a new propagator to filter the domains of vars.
      * <p>
@@ -244,6 +254,7 @@ public abstract class Propagator<V extends Variable> implements ICause, Identity
         this.vindices = new int[vars.length];
         Arrays.fill(vindices, -1);
         ID = model.nextId();
+        this.metrics = model.getPropagatorMetrics().register(this);
         this.swapOnPassivate = model.getSettings().swapOnPassivate() & swapOnPassivate;
         if (this.swapOnPassivate) {
             operations = new IOperation[3 + vars.length];
@@ -660,6 +671,13 @@ public abstract class Propagator<V extends Variable> implements ICause, Identity
         return model;
     }
 
+    /**
+     * @return the metrics of this propagator
+     */
+    public IPropagatorMetrics getMetrics() {
+        return metrics;
+    }
+
     @Override
     public int hashCode() {
         return ID;
@@ -888,6 +906,22 @@ public abstract class Propagator<V extends Variable> implements ICause, Identity
         scheduled = true;
     }
 
+    /**
+     * Increment the number of revisions of this
+     */
+    public final void incRevisionCount(){
+        nbRevisions++;
+    }
+
+    /**
+     * Return the number of times this has been revised by the propagation engine.
+     * May be read from another thread than the one which solves, in which case the value may be slightly outdated.
+     * @return the number of revisions of this
+     */
+    public final long getRevisionCount(){
+        return nbRevisions;
+    }
+
     /**
      * @return true if scheduled for propagation
      */
@@ -911,6 +945,18 @@ public abstract class Propagator<V extends Variable> implements ICause, Identity
         return 0;
     }
 
+    /**
+     * Apply scheduling instruction, for engines which do not store this in a queue
+     * @return 0 if already scheduled, its priority otherwise
+     */
+    public int doSchedule(){
+        if(!scheduled) {
+            schedule();
+            return priority.priority;
+        }
+        return 0;
+    }
+
     public void doScheduleEvent(int pindice, int mask){
         fineevt.accept(pindice, mask);
     }
@@ -38,6 +38,10 @@ public class Tuples {
 	private int[] ranges;
 	private boolean allowStar;
 	private int star;
+	/**
+	 * Hash of the content, 0 when it has to be computed again
+	 */
+	private int hash;
 
 	//***********************************************************************************
 	// CONSTRUCTOR
@@ -90,6 +94,7 @@ public class Tuples {
 	public void setUniversalValue(int star){
 		this.star = star;
 		this.allowStar = true;
+		this.hash = 0;
 	}
 
 	/**
@@ -157,6 +162,7 @@ public class Tuples {
 			throw new SolverException("The given tuple does not match the arity: " + arity);
 		}
 		tuples.add(tuple.clone());
+		hash = 0;
 		for (int i = 0; i < arity; i++) {
 			ranges[i] = Math.min(ranges[i], tuple[i]);
 			ranges[i + arity] = Math.max(ranges[i + arity], tuple[i]);
@@ -245,6 +251,47 @@ public class Tuples {
 
 	public void sort() {
 		tuples.sort(new TupleComparator());
+		hash = 0;
+	}
+
+	/**
+	 * @return a hash of the content of this: the tuples, in order, their feasibility and the universal value, if any
+	 */
+	public int contentHash() {
+		int h = hash;
+		if (h == 0) {
+			h = feasible ? 1231 : 1237;
+			h = 31 * h + (allowStar ? star : 0);
+			for (int[] t : tuples) {
+				h = 31 * h + Arrays.hashCode(t);
+			}
+			if (h == 0) {
+				h = 1;
+			}
+			hash = h;
+		}
+		return h;
+	}
+
+	/**
+	 * @param other tuples to compare to
+	 * @return <tt>true</tt> if this and <i>other</i> have the same tuples, in the same order,
+	 * the same feasibility and the same universal value, if any
+	 */
+	public boolean sameContent(Tuples other) {
+		if (this == other) {
+			return true;
+		}
+		if (feasible != other.feasible || allowStar != other.allowStar || (allowStar && star != other.star)
+				|| tuples.size() != other.tuples.size() || contentHash() != other.contentHash()) {
+			return false;
+		}
+		for (int i = 0; i < tuples.size(); i++) {
+			if (!Arrays.equals(tuples.get(i), other.tuples.get(i))) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	private static class TupleComparator implements Comparator<int[]> {
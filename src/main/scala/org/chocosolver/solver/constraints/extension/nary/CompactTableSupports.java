@@ -0,0 +1,301 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.extension.nary;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.variables.IntVar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Supports of a Compact-Table propagator: for each variable and each value of its initial domain,
+ * the bitset of the tuples which support the value.
+ * <p>
+ * Supports only depend on the tuples and on the initial domains of the variables, and are never modified once built.
+ * They are then shared by all the propagators of a model posted on the same relation, with the same initial domains,
+ * which is common with groups of constraints in XCSP3 instances.
+ * Only the current table and the residues are proper to a propagator.
+ * <p>
+ * The supports of a negative table are the bitsets of its conflicts: short conflicts are then expanded over
+ * the initial domains, and duplicated conflicts are removed, so that conflicts can be counted.
+ *
+ * @author Jia'nan Chen
+ * @see PropCompactTable
+ * @see PropCompactTableStar
+ */
+public final class CompactTableSupports {
+
+    /**
+     * Name of the hook of a model which stores the supports built
+     */
+    private static final String HOOK_NAME = "compact_table_supports";
+
+    /**
+     * Kinds of supports: of a positive table, of a positive short table, of a negative table, possibly short
+     */
+    static final int POSITIVE = 0, STAR = 1, NEGATIVE = 2;
+
+    /**
+     * Maximum number of conflicts once the short conflicts of a negative table are expanded
+     */
+    public static final int MAX_EXPANDED = 1 << 24;
+
+    /**
+     * Smallest value of the initial domain of each variable
+     */
+    final int[] offset;
+
+    /**
+     * Supports of each value of each variable
+     */
+    final long[][][] supports;
+
+    /**
+     * Supports of each value of each variable, without the tuples in which the variable takes the universal value,
+     * only for short tuples, <tt>null</tt> otherwise
+     */
+    final long[][][] incSupports;
+
+    /**
+     * Number of tuples which are valid according to the initial domains, that is, number of bits of the supports
+     */
+    final int nbTuples;
+
+    private CompactTableSupports(IntVar[] vars, Tuples tuples, int kind) {
+        int n = vars.length;
+        boolean star = kind == STAR;
+        List<int[]> valid = new ArrayList<>(tuples.nbTuples());
+        boolean hasStar = kind != POSITIVE && tuples.allowUniversalValue();
+        int u = hasStar ? tuples.getStarValue() : 0;
+        top:
+        for (int ti = 0; ti < tuples.nbTuples(); ti++) {
+            int[] tuple = tuples.get(ti);
+            for (int i = 0; i < tuple.length; i++) {
+                if (!vars[i].contains(tuple[i]) && !(hasStar && tuple[i] == u)) {
+                    continue top;
+                }
+            }
+            if (!star && hasStar) {
+                expand(vars, tuple.clone(), 0, u, valid);
+            } else {
+                valid.add(tuple);
+            }
+        }
+        if (kind == NEGATIVE) {
+            // conflicts must be distinct to be counted
+            valid.sort(CompactTableSupports::compare);
+            int k = 0;
+            for (int t = 0; t < valid.size(); t++) {
+                if (k == 0 || compare(valid.get(k - 1), valid.get(t)) != 0) {
+                    valid.set(k++, valid.get(t));
+                }
+            }
+            valid.subList(k, valid.size()).clear();
+        }
+        int nbValid = valid.size();
+        int nw = (nbValid + 63) / 64;
+        this.nbTuples = nbValid;
+        this.offset = new int[n];
+        this.supports = new long[n][][];
+        this.incSupports = star ? new long[n][][] : null;
+        for (int i = 0; i < n; i++) {
+            int lb = vars[i].getLB();
+            int ub = vars[i].getUB();
+            offset[i] = lb;
+            supports[i] = new long[ub - lb + 1][nw];
+            if (star) {
+                incSupports[i] = new long[ub - lb + 1][nw];
+            }
+        }
+        int wI = 0;
+        byte bI = 63;
+        for (int k = 0; k < nbValid; k++) {
+            int[] tuple = valid.get(k);
+            long bit = 1L << bI;
+            for (int i = 0; i < tuple.length; i++) {
+                int val = tuple[i];
+                if (!star || val != u) {
+                    supports[i][val - offset[i]][wI] |= bit;
+                    if (star) {
+                        incSupports[i][val - offset[i]][wI] |= bit;
+                    }
+                } else {
+                    int ub = vars[i].getUB();
+                    for (val = vars[i].getLB(); val <= ub; val = vars[i].nextValue(val)) {
+                        supports[i][val - offset[i]][wI] |= bit;
+                    }
+                }
+            }
+            if (--bI < 0) {
+                bI = 63;
+                wI++;
+            }
+        }
+    }
+
+    /**
+     * Add the tuples matching <i>tuple</i> over the initial domains to <i>out</i>, from the <i>i</i>-th variable.
+     */
+    private static void expand(IntVar[] vars, int[] tuple, int i, int star, List<int[]> out) {
+        while (i < tuple.length && tuple[i] != star) {
+            i++;
+        }
+        if (i == tuple.length) {
+            if (out.size() == MAX_EXPANDED) {
+                throw new SolverException("Too many conflicts once the short tuples are expanded");
+            }
+            out.add(tuple.clone());
+        } else {
+            int ub = vars[i].getUB();
+            for (int v = vars[i].getLB(); v <= ub; v = vars[i].nextValue(v)) {
+                tuple[i] = v;
+                expand(vars, tuple, i + 1, star, out);
+            }
+            tuple[i] = star;
+        }
+    }
+
+    /**
+     * Estimate the number of long words of the supports of a relation, without building them.
+     * Short conflicts are counted once expanded over the current domains, duplicates are not detected.
+     *
+     * @param vars   scope
+     * @param tuples tuples of the relation
+     * @return an upper bound of the number of words of the supports, or {@link Long#MAX_VALUE} if the short conflicts
+     * expand to more than {@link #MAX_EXPANDED} tuples
+     */
+    public static long estimateWords(IntVar[] vars, Tuples tuples) {
+        long nbTuples = tuples.nbTuples();
+        if (!tuples.isFeasible() && tuples.allowUniversalValue()) {
+            int star = tuples.getStarValue();
+            nbTuples = 0;
+            for (int t = 0; t < tuples.nbTuples() && nbTuples <= MAX_EXPANDED; t++) {
+                int[] tuple = tuples.get(t);
+                long p = 1;
+                for (int i = 0; i < tuple.length && p <= MAX_EXPANDED; i++) {
+                    if (tuple[i] == star) {
+                        p *= vars[i].getDomainSize();
+                    }
+                }
+                nbTuples += p;
+            }
+            if (nbTuples > MAX_EXPANDED) {
+                return Long.MAX_VALUE;
+            }
+        }
+        long values = 0;
+        for (IntVar v : vars) {
+            values += (long) v.getUB() - v.getLB() + 1;
+        }
+        return values * ((nbTuples + 63) / 64);
+    }
+
+    private static int compare(int[] a, int[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) {
+                return Integer.compare(a[i], b[i]);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Get the supports of a relation over variables, from the ones already built in the model if any.
+     *
+     * @param vars   scope, with their initial domains
+     * @param tuples tuples of the relation
+     * @param kind   kind of supports, among {@link #POSITIVE}, {@link #STAR} and {@link #NEGATIVE}
+     * @return the supports of the relation, possibly shared with other propagators
+     */
+    static CompactTableSupports of(IntVar[] vars, Tuples tuples, int kind) {
+        Model model = vars[0].getModel();
+        Relations relations = (Relations) model.getHook(HOOK_NAME);
+        if (relations == null) {
+            relations = new Relations();
+            model.addHook(HOOK_NAME, relations);
+        }
+        return relations.get(new Key(vars, tuples, kind));
+    }
+
+    /**
+     * Supports built in a model, by relation
+     */
+    static final class Relations {
+
+        private final Map<Key, CompactTableSupports> map = new HashMap<>();
+
+        synchronized CompactTableSupports get(Key key) {
+            return map.computeIfAbsent(key, k -> new CompactTableSupports(k.vars, k.tuples, k.kind));
+        }
+    }
+
+    /**
+     * A relation: the content of the tuples and the initial domains of the variables
+     */
+    private static final class Key {
+
+        private final IntVar[] vars;
+        private final Tuples tuples;
+        private final int kind;
+        private final int[][] domains;
+        private final int hash;
+
+        Key(IntVar[] vars, Tuples tuples, int kind) {
+            this.vars = vars;
+            this.tuples = tuples;
+            this.kind = kind;
+            this.domains = new int[vars.length][];
+            int h = 31 * tuples.contentHash() + kind;
+            for (int i = 0; i < vars.length; i++) {
+                IntVar v = vars[i];
+                // a range is given by its bounds, an enumerated domain by all its values
+                if (v.getDomainSize() == v.getUB() - v.getLB() + 1) {
+                    domains[i] = new int[]{v.getLB(), v.getUB()};
+                } else {
+                    int[] values = new int[v.getDomainSize() + 1];
+                    values[0] = Integer.MIN_VALUE;
+                    int k = 1;
+                    int ub = v.getUB();
+                    for (int val = v.getLB(); val <= ub; val = v.nextValue(val)) {
+                        values[k++] = val;
+                    }
+                    domains[i] = values;
+                }
+                h = 31 * h + Arrays.hashCode(domains[i]);
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return hash == k.hash && kind == k.kind
+                    && Arrays.deepEquals(domains, k.domains)
+                    && tuples.sameContent(k.tuples);
+        }
+    }
+}
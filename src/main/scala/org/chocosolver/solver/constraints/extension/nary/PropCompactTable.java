@@ -38,6 +38,7 @@ public class PropCompactTable extends Propagator<IntVar> {
 
     RSparseBitSet currTable;
     protected Tuples tuples; // only for checker
+    protected CompactTableSupports relation; // shared with the propagators on the same relation
     protected long[][][] supports;
     int[][] residues;
     protected int[] offset;
@@ -57,8 +58,8 @@ public class PropCompactTable extends Propagator<IntVar> {
     public PropCompactTable(IntVar[] vars, Tuples tuples) {
         super(vars, PropagatorPriority.QUADRATIC, true);
         this.tuples = tuples;
-        this.currTable = new RSparseBitSet(model.getEnvironment(), this.tuples.nbTuples());
         computeSupports(tuples);
+        this.currTable = new RSparseBitSet(model.getEnvironment(), relation.nbTuples);
         monitors = new IIntDeltaMonitor[vars.length];
         for (int i = 0; i < vars.length; i++) {
             monitors[i] = vars[i].monitorDelta(this);
@@ -89,36 +90,16 @@ public class PropCompactTable extends Propagator<IntVar> {
     }
 
     protected void computeSupports(Tuples tuples) {
-        int n = vars.length;
-        offset = new int[n];
-        supports = new long[n][][];
-        residues = new int[n][];
-        long[] tmp;
-        for (int i = 0; i < n; i++) {
-            int lb = vars[i].getLB();
-            int ub = vars[i].getUB();
-            offset[i] = lb;
-            supports[i] = new long[ub - lb + 1][currTable.words.length];
-            residues[i] = new int[ub - lb + 1];
-        }
-        int wI = 0;
-        byte bI = 63;
-        top:
-        for (int ti = 0; ti < tuples.nbTuples(); ti++) {
-            int[] tuple = tuples.get(ti);
-            for (int i = 0; i < tuple.length; i++) {
-                if (!vars[i].contains(tuple[i])) {
-                    continue top;
-                }
-            }
-            for (int i = 0; i < tuple.length; i++) {
-                tmp = supports[i][tuple[i] - offset[i]];
-                tmp[wI] |= 1L << (bI);
-            }
-            if (--bI < 0) {
-                bI = 63;
-                wI++;
-            }
+        relation = CompactTableSupports.of(vars, tuples, CompactTableSupports.POSITIVE);
+        offset = relation.offset;
+        supports = relation.supports;
+        makeResidues();
+    }
+
+    protected void makeResidues() {
+        residues = new int[vars.length][];
+        for (int i = 0; i < vars.length; i++) {
+            residues[i] = new int[supports[i].length];
         }
     }
 
@@ -137,11 +118,14 @@ public class PropCompactTable extends Propagator<IntVar> {
                 }
                 currTable.intersectWithMask();
             }
+            // the table now reflects the current domains
+            for (int i = 0; i < vars.length; i++) {
+                monitors[i].unfreeze();
+            }
         }
+        // the other monitors may hold removals not yet notified to this propagator:
+        // they are consumed by propagate(int, int) only
         filterDomains();
-        for (int i = 0; i < vars.length; i++) {
-            monitors[i].unfreeze();
-        }
     }
 
     @Override
@@ -160,12 +144,21 @@ public class PropCompactTable extends Propagator<IntVar> {
         currTable.intersectWithMask();
         monitors[vIdx].unfreeze();
         if (currTable.isEmpty()) { // fail as soon as possible
-            fails();
+            onEmptyTable();
         }
         forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
     }
 
-    private void filterDomains() throws ContradictionException {
+    /**
+     * Called when no tuple of the table is valid anymore
+     *
+     * @throws ContradictionException since no tuple supports the current domains
+     */
+    protected void onEmptyTable() throws ContradictionException {
+        fails();
+    }
+
+    protected void filterDomains() throws ContradictionException {
         if (currTable.isEmpty()) {// to keep as we skip instantiated vars
             fails();
         }
@@ -257,7 +250,7 @@ public class PropCompactTable extends Propagator<IntVar> {
             }
         }
 
-        private boolean isEmpty() {
+        protected boolean isEmpty() {
             return limit.get() == -1;
         }
 
@@ -282,7 +275,7 @@ public class PropCompactTable extends Propagator<IntVar> {
             }
         }
 
-        private void intersectWithMask() {
+        protected void intersectWithMask() {
             for (int i = limit.get(); i >= 0; i--) {
                 int offset = index[i];
                 long w = words[offset].get() & mask[offset];
@@ -297,6 +290,29 @@ public class PropCompactTable extends Propagator<IntVar> {
             }
         }
 
+        /**
+         * @return number of bits set in both this and <i>m</i>
+         */
+        protected long intersectCount(long[] m) {
+            long c = 0;
+            for (int i = limit.get(); i >= 0; i--) {
+                int offset = index[i];
+                c += Long.bitCount(words[offset].get() & m[offset]);
+            }
+            return c;
+        }
+
+        /**
+         * @return number of bits set in this
+         */
+        protected long count() {
+            long c = 0;
+            for (int i = limit.get(); i >= 0; i--) {
+                c += Long.bitCount(words[index[i]].get());
+            }
+            return c;
+        }
+
         private int intersectIndex(long[] m) {
             for (int i = limit.get(); i >= 0; i--) {
                 int offset = index[i];
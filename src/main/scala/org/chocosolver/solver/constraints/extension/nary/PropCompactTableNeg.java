@@ -0,0 +1,146 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.extension.nary;
+
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+
+/**
+ * Propagator for table constraint based on
+ * "Extending Compact-Table to Negative and Short Tables",
+ * H. Verhaeghe and C. Lecoutre and P. Schauss, AAAI-17.
+ * Only for infeasible tuples, possibly short: short tuples are expanded over the initial domains.
+ * <p>
+ * The current table stores the conflicts which are still valid.
+ * A value (x,a) has a support as long as the number of valid conflicts involving (x,a)
+ * is less than the number of valid tuples involving (x,a), that is, the product of the sizes of the other domains.
+ * Counting requires the current table to match all the current domains: the domains reduced since the table
+ * was last updated, for instance by events not yet notified to this propagator, are synchronized before filtering.
+ *
+ * @author Jia'nan Chen
+ * @see PropCompactTable
+ */
+public class PropCompactTableNeg extends PropCompactTable {
+
+    /**
+     * Size of the domains, when the filtering starts
+     */
+    private final long[] sizes;
+
+    /**
+     * Size of the domains the current table matches
+     */
+    private final IStateInt[] tableSizes;
+
+    /**
+     * Create a propagator for table constraint
+     * Only for infeasible Tuples
+     * @param vars   scope
+     * @param tuples list of infeasible tuples
+     */
+    public PropCompactTableNeg(IntVar[] vars, Tuples tuples) {
+        super(vars, tuples);
+        assert !tuples.isFeasible();
+        this.sizes = new long[vars.length];
+        this.tableSizes = new IStateInt[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            tableSizes[i] = model.getEnvironment().makeInt(vars[i].getDomainSize());
+        }
+    }
+
+    @Override
+    protected void computeSupports(Tuples tuples) {
+        relation = CompactTableSupports.of(vars, tuples, CompactTableSupports.NEGATIVE);
+        offset = relation.offset;
+        supports = relation.supports;
+    }
+
+    @Override
+    protected void onEmptyTable() {
+        // no valid conflict: the constraint is entailed
+    }
+
+    @Override
+    public void propagate(int vIdx, int mask) throws ContradictionException {
+        super.propagate(vIdx, mask);
+        // the current table already contains all the removals of this variable
+        tableSizes[vIdx].set(vars[vIdx].getDomainSize());
+    }
+
+    /**
+     * Update the current table with the domains which are smaller than the ones it matches
+     */
+    private void synchronize() {
+        for (int i = 0; i < vars.length && !currTable.isEmpty(); i++) {
+            if (vars[i].getDomainSize() != tableSizes[i].get()) {
+                update(i);
+            }
+        }
+    }
+
+    private void update(int i) {
+        currTable.clearMask();
+        int ub = vars[i].getUB();
+        for (int v = vars[i].getLB(); v <= ub; v = vars[i].nextValue(v)) {
+            currTable.addToMask(supports[i][v - offset[i]]);
+        }
+        currTable.intersectWithMask();
+        tableSizes[i].set(vars[i].getDomainSize());
+    }
+
+    @Override
+    protected void filterDomains() throws ContradictionException {
+        synchronize();
+        boolean modified;
+        do {
+            if (currTable.isEmpty()) {
+                setPassive();
+                return;
+            }
+            long nbConflicts = currTable.count();
+            // counts must match the domains of the current table: update it right after removing values
+            for (int i = 0; i < vars.length; i++) {
+                sizes[i] = vars[i].getDomainSize();
+            }
+            modified = false;
+            for (int i = 0; i < vars.length; i++) {
+                long prod = 1;
+                for (int j = 0; j < vars.length && prod <= nbConflicts; j++) {
+                    if (j != i) {
+                        prod *= sizes[j];
+                    }
+                }
+                if (prod > nbConflicts) {
+                    continue;
+                }
+                int ub = vars[i].getUB();
+                boolean pruned = false;
+                for (int v = vars[i].getLB(); v <= ub; v = vars[i].nextValue(v)) {
+                    if (currTable.intersectCount(supports[i][v - offset[i]]) == prod) {
+                        pruned |= vars[i].removeValue(v, this);
+                    }
+                }
+                if (pruned) {
+                    // previous variables may have lost their supports
+                    modified = true;
+                    update(i);
+                    if (currTable.isEmpty()) {
+                        setPassive();
+                        return;
+                    }
+                    sizes[i] = vars[i].getDomainSize();
+                    nbConflicts = currTable.count();
+                }
+            }
+        } while (modified);
+    }
+}
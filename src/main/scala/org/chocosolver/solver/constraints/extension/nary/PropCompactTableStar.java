@@ -71,47 +71,10 @@ public class PropCompactTableStar extends PropCompactTable {
     }
 
     protected void computeSupports(Tuples tuples) {
-        int n = vars.length;
-        offset = new int[n];
-        supports = new long[n][][];
-        inc_supports = new long[n][][];
-        residues = new int[n][];
-        for (int i = 0; i < n; i++) {
-            int lb = vars[i].getLB();
-            int ub = vars[i].getUB();
-            offset[i] = lb;
-            supports[i] = new long[ub - lb + 1][currTable.words.length];
-            inc_supports[i] = new long[ub - lb + 1][currTable.words.length];
-            residues[i] = new int[ub - lb + 1];
-        }
-        int wI = 0;
-        byte bI = 63;
-        int star = tuples.getStarValue();
-        top:
-        for (int ti = 0; ti < tuples.nbTuples(); ti++) {
-            int[] tuple = tuples.get(ti);
-            for (int i = 0; i < tuple.length; i++) {
-                if (!vars[i].contains(tuple[i]) && tuple[i] != star) {
-                    continue top;
-                }
-            }
-            long index = 1L << bI;
-            for (int i = 0; i < tuple.length; i++) {
-                int val = tuple[i];
-                if (val != star) {
-                    supports[i][val - offset[i]][wI] |= index;
-                    inc_supports[i][val - offset[i]][wI] |= index;
-                } else {
-                    int u = supports[i].length + offset[i];
-                    for (val = offset[i]; val <= u; val = vars[i].nextValue(val)) {
-                        supports[i][val - offset[i]][wI] |= index;
-                    }
-                }
-            }
-            if (--bI < 0) {
-                bI = 63;
-                wI++;
-            }
-        }
+        relation = CompactTableSupports.of(vars, tuples, CompactTableSupports.STAR);
+        offset = relation.offset;
+        supports = relation.supports;
+        inc_supports = relation.incSupports;
+        makeResidues();
     }
 }
\ No newline at end of file
@@ -0,0 +1,339 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.extension.nary;
+
+import gnu.trove.list.array.TIntArrayList;
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.delta.IIntDeltaMonitor;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
+import org.chocosolver.util.ESat;
+import org.chocosolver.util.objects.graphs.MultivaluedDecisionDiagram;
+import org.chocosolver.util.procedure.IntProcedure;
+
+import java.util.Arrays;
+
+/**
+ * Incremental implementation of the MDD constraint, based on
+ * "Improving GAC-4 for Table and MDD Constraints", G. Perez and J-C. Régin, CP14 (MDD4R).
+ * <p>
+ * The diagram is unfolded into a layered graph. The edges alive are stored in reversible sparse sets:
+ * the outgoing and incoming edges of each node, and the edges labelled by each value of each variable.
+ * When a value is removed, its edges are removed; a node which loses all its outgoing (resp. incoming) edges
+ * is removed with its incoming (resp. outgoing) edges, and a value which loses all its edges is removed from its variable.
+ * Contrary to {@link PropLargeMDDC}, which explores the diagram on each call,
+ * a propagation costs time proportional to the number of edges removed, and does not allocate.
+ *
+ * @author Jia'nan Chen
+ * @see PropLargeMDDC
+ */
+public class PropLargeMDDCIncr extends Propagator<IntVar> {
+
+    private static final int ROOT = 0, SINK = 1;
+
+    private final MultivaluedDecisionDiagram MDD;
+    private final int nvars;
+
+    /**
+     * First (layer, value) index of each layer
+     */
+    private final int[] lvBase;
+
+    /**
+     * Layer and value of each (layer, value) index
+     */
+    private final int[] lvLayer;
+    private final int[] lvValue;
+
+    /**
+     * Source, destination and (layer, value) index of each edge
+     */
+    private final int[] eSrc;
+    private final int[] eDst;
+    private final int[] eLv;
+
+    // three groups of reversible sparse sets: edges of each (layer, value), outgoing and incoming edges of each node.
+    // elements of a set are stored in [start, start + size), size is trailed
+    private final int[] lvStart, lvEdges, lvPos;
+    private final IStateInt[] lvSize;
+    private final int[] outStart, outEdges, outPos;
+    private final IStateInt[] outSize;
+    private final int[] inStart, inEdges, inPos;
+    private final IStateInt[] inSize;
+
+    /**
+     * Nodes to remove, with their remaining edges, each at most once
+     */
+    private final int[] stack;
+    private final boolean[] onStack;
+    private int top;
+
+    private final IIntDeltaMonitor[] monitors;
+
+    /**
+     * Layer whose removed values are processed
+     */
+    private int layer;
+
+    private final IntProcedure onValRem;
+
+    /**
+     * Create a propagator maintaining GAC based on a MDD.
+     * The MDD can be shared between multiple propagators, no copy is achieved.
+     *
+     * @param MDD  Multi-valued Decision Diagram, stores the solutions
+     * @param VARS the related variables -- the order is important, and need to match the MDD.
+     */
+    public PropLargeMDDCIncr(MultivaluedDecisionDiagram MDD, IntVar... VARS) {
+        super(VARS, PropagatorPriority.QUADRATIC, true);
+        this.MDD = MDD;
+        this.nvars = vars.length;
+        this.lvBase = new int[nvars + 1];
+        for (int l = 0; l < nvars; l++) {
+            lvBase[l + 1] = lvBase[l] + MDD.getNodeSize(l);
+        }
+        int nlv = lvBase[nvars];
+        this.lvLayer = new int[nlv];
+        this.lvValue = new int[nlv];
+        for (int l = 0; l < nvars; l++) {
+            for (int i = 0; i < MDD.getNodeSize(l); i++) {
+                lvLayer[lvBase[l] + i] = l;
+                lvValue[lvBase[l] + i] = MDD.getOffset(l) + i;
+            }
+        }
+        // unfold the graph: traversed layer by layer, position of a node in the graph -> index
+        int[] diag = MDD.getDiagram();
+        int[] ids = new int[diag.length];
+        Arrays.fill(ids, -1);
+        TIntArrayList nodes = new TIntArrayList();
+        TIntArrayList layers = new TIntArrayList();
+        nodes.add(0);
+        layers.add(0);
+        nodes.add(MultivaluedDecisionDiagram.TERMINAL);
+        layers.add(nvars);
+        ids[0] = ROOT;
+        TIntArrayList src = new TIntArrayList(), dst = new TIntArrayList(), lv = new TIntArrayList();
+        for (int k = 0; k < nodes.size(); k++) {
+            if (k == SINK) {
+                continue;
+            }
+            int node = nodes.getQuick(k);
+            int l = layers.getQuick(k);
+            for (int i = 0; i < MDD.getNodeSize(l); i++) {
+                int child = diag[node + i];
+                if (child == MultivaluedDecisionDiagram.EMPTY) {
+                    continue;
+                }
+                int c;
+                if (child == MultivaluedDecisionDiagram.TERMINAL) {
+                    c = SINK;
+                } else {
+                    if (ids[child] < 0) {
+                        ids[child] = nodes.size();
+                        nodes.add(child);
+                        layers.add(l + 1);
+                    }
+                    c = ids[child];
+                }
+                src.add(k);
+                dst.add(c);
+                lv.add(lvBase[l] + i);
+            }
+        }
+        this.eSrc = src.toArray();
+        this.eDst = dst.toArray();
+        this.eLv = lv.toArray();
+        int nn = nodes.size();
+        int ne = eSrc.length;
+        IEnvironment env = model.getEnvironment();
+        this.lvStart = new int[nlv + 1];
+        this.lvEdges = new int[ne];
+        this.lvPos = new int[ne];
+        this.lvSize = fill(eLv, lvStart, lvEdges, lvPos, env);
+        this.outStart = new int[nn + 1];
+        this.outEdges = new int[ne];
+        this.outPos = new int[ne];
+        this.outSize = fill(eSrc, outStart, outEdges, outPos, env);
+        this.inStart = new int[nn + 1];
+        this.inEdges = new int[ne];
+        this.inPos = new int[ne];
+        this.inSize = fill(eDst, inStart, inEdges, inPos, env);
+        this.stack = new int[nn];
+        this.onStack = new boolean[nn];
+        this.monitors = new IIntDeltaMonitor[nvars];
+        for (int i = 0; i < nvars; i++) {
+            monitors[i] = vars[i].monitorDelta(this);
+        }
+        this.onValRem = v -> removeValue(v - MDD.getOffset(layer) + lvBase[layer], layer);
+    }
+
+    /**
+     * Group the edges by <i>key</i> into <i>elements</i>, and create the size of each group
+     */
+    private static IStateInt[] fill(int[] key, int[] start, int[] elements, int[] pos, IEnvironment env) {
+        int n = start.length - 1;
+        for (int e = 0; e < key.length; e++) {
+            start[key[e] + 1]++;
+        }
+        for (int k = 0; k < n; k++) {
+            start[k + 1] += start[k];
+        }
+        int[] next = Arrays.copyOf(start, n);
+        for (int e = 0; e < key.length; e++) {
+            int p = next[key[e]]++;
+            elements[p] = e;
+            pos[e] = p;
+        }
+        IStateInt[] size = new IStateInt[n];
+        for (int k = 0; k < n; k++) {
+            size[k] = env.makeInt(start[k + 1] - start[k]);
+        }
+        return size;
+    }
+
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+        if (PropagatorEventType.isFullPropagation(evtmask)) {
+            clearStack();
+            for (int l = 0; l < nvars; l++) {
+                int o = MDD.getOffset(l);
+                vars[l].updateBounds(o, o + MDD.getNodeSize(l) - 1, this);
+                for (int i = 0; i < MDD.getNodeSize(l); i++) {
+                    if (!vars[l].contains(o + i)) {
+                        removeValue(lvBase[l] + i, l);
+                    }
+                }
+            }
+            // nodes without incoming or outgoing edges (uncompressed graph)
+            for (int n = SINK + 1; n < stack.length; n++) {
+                if (inSize[n].get() == 0 && outSize[n].get() > 0 || outSize[n].get() == 0 && inSize[n].get() > 0) {
+                    push(n);
+                }
+            }
+            removeNodes();
+            for (int k = 0; k < lvSize.length; k++) {
+                if (lvSize[k].get() == 0) {
+                    vars[lvLayer[k]].removeValue(lvValue[k], this);
+                }
+            }
+            for (int i = 0; i < nvars; i++) {
+                monitors[i].unfreeze();
+            }
+        }
+    }
+
+    @Override
+    public void propagate(int vIdx, int mask) throws ContradictionException {
+        clearStack();
+        layer = vIdx;
+        monitors[vIdx].freeze();
+        monitors[vIdx].forEachRemVal(onValRem);
+        monitors[vIdx].unfreeze();
+        removeNodes();
+    }
+
+    /**
+     * Remove the edges labelled by a value, the value at index <i>k</i> in <i>l</i>
+     */
+    private void removeValue(int k, int l) throws ContradictionException {
+        if (k < lvBase[l] || k >= lvBase[l + 1]) {
+            return;
+        }
+        while (lvSize[k].get() > 0) {
+            removeEdge(lvEdges[lvStart[k] + lvSize[k].get() - 1]);
+        }
+    }
+
+    /**
+     * Remove the nodes of the stack, with their remaining edges
+     */
+    private void removeNodes() throws ContradictionException {
+        while (top > 0) {
+            int n = stack[--top];
+            onStack[n] = false;
+            if (outSize[n].get() == 0) {
+                while (inSize[n].get() > 0) {
+                    removeEdge(inEdges[inStart[n] + inSize[n].get() - 1]);
+                }
+            } else {
+                while (outSize[n].get() > 0) {
+                    removeEdge(outEdges[outStart[n] + outSize[n].get() - 1]);
+                }
+            }
+        }
+    }
+
+    private void removeEdge(int e) throws ContradictionException {
+        int k = eLv[e];
+        if (remove(e, k, lvStart, lvEdges, lvPos, lvSize) == 0) {
+            vars[lvLayer[k]].removeValue(lvValue[k], this);
+        }
+        int s = eSrc[e];
+        // the node lost all its outgoing edges: its incoming edges must be removed
+        if (remove(e, s, outStart, outEdges, outPos, outSize) == 0 && inSize[s].get() > 0) {
+            push(s);
+        }
+        int d = eDst[e];
+        if (remove(e, d, inStart, inEdges, inPos, inSize) == 0 && outSize[d].get() > 0) {
+            push(d);
+        }
+    }
+
+    private void push(int n) {
+        if (!onStack[n]) {
+            onStack[n] = true;
+            stack[top++] = n;
+        }
+    }
+
+    /**
+     * Empty the stack, which may not be after a failure
+     */
+    private void clearStack() {
+        while (top > 0) {
+            onStack[stack[--top]] = false;
+        }
+    }
+
+    /**
+     * Remove the edge <i>e</i> from the set of <i>k</i>
+     *
+     * @return the new size of the set
+     */
+    private static int remove(int e, int k, int[] start, int[] elements, int[] pos, IStateInt[] size) {
+        int last = start[k] + size[k].get() - 1;
+        int p = pos[e];
+        int f = elements[last];
+        elements[p] = f;
+        pos[f] = p;
+        elements[last] = e;
+        pos[e] = last;
+        return size[k].add(-1);
+    }
+
+    @Override
+    public ESat isEntailed() {
+        if (isCompletelyInstantiated()) {
+            int[] diag = MDD.getDiagram();
+            int l = 0;
+            int n = vars[l].getValue() - MDD.getOffset(l);
+            while (l < nvars - 1 && diag[n] > 0) {
+                l++;
+                n = diag[n] + vars[l].getValue() - MDD.getOffset(l);
+            }
+            return ESat.eval(l == nvars - 1 && diag[n] == MultivaluedDecisionDiagram.TERMINAL);
+        }
+        return ESat.UNDEFINED;
+    }
+}
@@ -17,7 +17,7 @@ import org.chocosolver.solver.variables.IntVar;
 
 /**
  * Ensures that all variables from VARS take a different value.
- * The consistency level should be chosen among "AC", "BC", "FC" and "DEFAULT".
+ * The consistency level should be chosen among "AC", "BC", "FC", "AUTO" and "DEFAULT".
  */
 public class AllDifferent extends Constraint {
 
@@ -26,6 +26,9 @@ public class AllDifferent extends Constraint {
     public static final String ACFast= "ACFast";
     public static final String ACFast2= "ACFast2";
     public static final String ACNaive= "ACNaive";
+    public static final String ACIncr= "ACIncr";
+    public static final String ACFastbit= "ACFastbit";
+    public static final String AUTO= "AUTO";
     public static final String BC= "BC";
     public static final String FC= "FC";
     public static final String NEQS= "NEQS";
@@ -35,12 +38,12 @@ public class AllDifferent extends Constraint {
         super(ConstraintsName.ALLDIFFERENT, createPropagators(vars, type));
     }
 
-    private static Propagator[] createPropagators(IntVar[] VARS, String consistency) {
+    private static Propagator<?>[] createPropagators(IntVar[] VARS, String consistency) {
         switch (consistency) {
             case NEQS: {
                 int s = VARS.length;
                 int k = 0;
-                Propagator[] props = new Propagator[(s * s - s) / 2];
+                Propagator<?>[] props = new Propagator<?>[(s * s - s) / 2];
                 for (int i = 0; i < s - 1; i++) {
                     for (int j = i + 1; j < s; j++) {
                         props[k++] = new PropNotEqualX_Y(VARS[i], VARS[j]);
@@ -49,19 +52,25 @@ public class AllDifferent extends Constraint {
                 return props;
             }
             case FC:
-                return new Propagator[]{new PropAllDiffInst(VARS)};
+                return new Propagator<?>[]{new PropAllDiffInst(VARS)};
             case BC:
-                return new Propagator[]{new PropAllDiffInst(VARS), new PropAllDiffBC(VARS)};
+                return new Propagator<?>[]{new PropAllDiffInst(VARS), new PropAllDiffBC(VARS)};
             case AC:
-                return new Propagator[]{new PropAllDiffInst(VARS), new PropAllDiffAC(VARS)};
+                return new Propagator<?>[]{new PropAllDiffInst(VARS), new PropAllDiffAC(VARS)};
             case AC2:
-                return new Propagator[]{new PropAllDiffInst(VARS), new PropAllDiffAC2(VARS)};
+                return new Propagator<?>[]{new PropAllDiffInst(VARS), new PropAllDiffAC2(VARS)};
             case ACFast:
-                return new Propagator[]{new PropAllDiffInst(VARS), new PropAllDiffACFast(VARS)};
+                return new Propagator<?>[]{new PropAllDiffInst(VARS), new PropAllDiffACFast(VARS)};
             case ACFast2:
-                return new Propagator[]{new PropAllDiffInst(VARS), new PropAllDiffACFast2(VARS)};
+                return new Propagator<?>[]{new PropAllDiffInst(VARS), new PropAllDiffACFast2(VARS)};
             case ACNaive:
-                return new Propagator[]{new PropAllDiffInst(VARS), new PropAllDiffAC_Naive(VARS)};
+                return new Propagator<?>[]{new PropAllDiffInst(VARS), new PropAllDiffAC_Naive(VARS)};
+            case ACIncr:
+                return new Propagator<?>[]{new PropAllDiffInst(VARS), new PropAllDiffACIncr(VARS)};
+            case ACFastbit:
+                return new Propagator<?>[]{new PropAllDiffInst(VARS), new PropAllDiffAC_Fastbit(VARS)};
+            case AUTO:
+                return new Propagator<?>[]{new PropAllDiffInst(VARS), new PropAllDiffAuto(VARS)};
             case DEFAULT:
             default: {
                 // adds a Probabilistic AC (only if at least some variables have an enumerated domain)
@@ -72,7 +81,7 @@ public class AllDifferent extends Constraint {
                     }
                 }
                 if (enumDom) {
-                    return new Propagator[]{new PropAllDiffInst(VARS), new PropAllDiffBC(VARS), new PropAllDiffAdaptative(VARS)};
+                    return new Propagator<?>[]{new PropAllDiffInst(VARS), new PropAllDiffBC(VARS), new PropAllDiffAdaptative(VARS)};
                 } else {
                     return createPropagators(VARS, "BC");
                 }
@@ -12,8 +12,10 @@ package org.chocosolver.solver.constraints.nary.alldifferent;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.constraints.nary.alldifferent.algo.AlgoAllDiffAC;
+import org.chocosolver.solver.constraints.nary.alldifferent.algo.AllDiffComponents;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
 import org.chocosolver.util.ESat;
 
 /**
@@ -25,6 +27,9 @@ import org.chocosolver.util.ESat;
  * <p/>
  * Runs incrementally for maintaining a matching
  * <p/>
+ * The variables are partitioned into independent components (see {@link AllDiffComponents}),
+ * only the components whose variables have been modified are filtered again
+ * <p/>
  *
  * @author Jean-Guillaume Fages
  */
@@ -35,6 +40,7 @@ public class PropAllDiffAC extends Propagator<IntVar> {
     //***********************************************************************************
 
     protected AlgoAllDiffAC filter;
+    protected AllDiffComponents components;
 
     //***********************************************************************************
     // CONSTRUCTORS
@@ -47,8 +53,9 @@ public class PropAllDiffAC extends Propagator<IntVar> {
      * @param variables array of integer variables
      */
     public PropAllDiffAC(IntVar[] variables) {
-        super(variables, PropagatorPriority.QUADRATIC, false);
+        super(variables, PropagatorPriority.QUADRATIC, true);
         this.filter = new AlgoAllDiffAC(variables, this);
+        this.components = new AllDiffComponents(variables);
     }
 
     //***********************************************************************************
@@ -57,7 +64,22 @@ public class PropAllDiffAC extends Propagator<IntVar> {
 
     @Override
     public void propagate(int evtmask) throws ContradictionException {
-        filter.propagate();
+        if (PropagatorEventType.isFullPropagation(evtmask)) {
+            components.markAll();
+        }
+        int s;
+        while ((s = components.pollDirty()) >= 0) {
+            filter.propagate(components.getVars(), s, components.getEnd(s));
+            if (!filter.isConnected()) {
+                components.split(s);
+            }
+        }
+    }
+
+    @Override
+    public void propagate(int vIdx, int mask) throws ContradictionException {
+        components.onUpdate(vIdx);
+        forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
     }
 
     @Override
@@ -13,8 +13,12 @@ import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.constraints.nary.alldifferent.algo.AlgoAllDiffACFast2;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Counter;
 import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.delta.IIntDeltaMonitor;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
 import org.chocosolver.util.ESat;
+import org.chocosolver.util.procedure.UnaryIntProcedure;
 
 /**
  * Propagator for AllDifferent AC constraint for integer variables
@@ -27,6 +31,9 @@ import org.chocosolver.util.ESat;
  * <p/>
  * Runs incrementally for maintaining a matching
  * <p/>
+ * Removals that change neither the matching nor Γ(A) (see {@link AlgoAllDiffACFast2#isSafeRemoval(int, int)})
+ * are read from the delta monitors and handled without running the filtering again.
+ * <p/>
  *
  */
 
@@ -37,6 +44,10 @@ public class PropAllDiffACFast2 extends Propagator<IntVar> {
     //***********************************************************************************
 
     protected AlgoAllDiffACFast2 filter;
+    protected IIntDeltaMonitor[] monitors;
+    private UnaryIntProcedure<Integer> onValRem;
+    // whether a removal of this round of events may change the matching or Γ(A)
+    private boolean unsafe;
 
     //***********************************************************************************
     // CONSTRUCTORS
@@ -49,8 +60,28 @@ public class PropAllDiffACFast2 extends Propagator<IntVar> {
      * @param variables array of integer variables
      */
     public PropAllDiffACFast2(IntVar[] variables) {
-        super(variables, PropagatorPriority.QUADRATIC, false);
+        super(variables, PropagatorPriority.QUADRATIC, true);
         this.filter = new AlgoAllDiffACFast2(variables, this);
+        this.monitors = new IIntDeltaMonitor[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            monitors[i] = vars[i].monitorDelta(this);
+        }
+        this.onValRem = new UnaryIntProcedure<Integer>() {
+            int var;
+
+            @Override
+            public UnaryIntProcedure<Integer> set(Integer o) {
+                var = o;
+                return this;
+            }
+
+            @Override
+            public void execute(int i) {
+                if (!unsafe && !filter.isSafeRemoval(var, i)) {
+                    unsafe = true;
+                }
+            }
+        };
     }
 
     //***********************************************************************************
@@ -59,7 +90,26 @@ public class PropAllDiffACFast2 extends Propagator<IntVar> {
 
     @Override
     public void propagate(int evtmask) throws ContradictionException {
+        unsafe = false;
         filter.propagate();
+        for (int i = 0; i < vars.length; i++) {
+            monitors[i].unfreeze();
+        }
+    }
+
+    @Override
+    public void propagate(int vIdx, int mask) throws ContradictionException {
+        if (!unsafe) {
+            monitors[vIdx].freeze();
+            monitors[vIdx].forEachRemVal(onValRem.set(vIdx));
+        }
+        monitors[vIdx].unfreeze();
+        if (unsafe) {
+            forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
+        } else {
+            // the result of the last filtering still holds
+            getMetrics().add(Counter.SKIPPED_EVENTS, 1);
+        }
     }
 
     @Override
@@ -13,8 +13,12 @@ import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.constraints.nary.alldifferent.algo.*;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Counter;
 import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.delta.IIntDeltaMonitor;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
 import org.chocosolver.util.ESat;
+import org.chocosolver.util.procedure.UnaryIntProcedure;
 
 import static java.lang.System.out;
 
@@ -31,6 +35,9 @@ import static java.lang.System.out;
  * <p/>
  * Runs incrementally for maintaining a matching
  * <p/>
+ * Removals that change neither the matching nor Γ(A) (see {@link AlgoAllDiffAC_Naive#isSafeRemoval(int, int)})
+ * are read from the delta monitors and handled without running the filtering again.
+ * <p/>
  *
  * @author Jia'nan Chen
  */
@@ -42,6 +49,10 @@ public class PropAllDiffAC_Naive extends Propagator<IntVar> {
     //***********************************************************************************
 
     protected AlgoAllDiffAC_Naive filter;
+    protected IIntDeltaMonitor[] monitors;
+    private UnaryIntProcedure<Integer> onValRem;
+    // whether a removal of this round of events may change the matching or Γ(A)
+    private boolean unsafe;
 
     //***********************************************************************************
     // CONSTRUCTORS
@@ -54,15 +65,35 @@ public class PropAllDiffAC_Naive extends Propagator<IntVar> {
      * @param variables array of integer variables
      */
     public PropAllDiffAC_Naive(IntVar[] variables) {
-        super(variables, PropagatorPriority.QUADRATIC, false);
+        super(variables, PropagatorPriority.QUADRATIC, true);
 //        out.println("vars length: " + variables.length);
         if (variables.length <= 32) {
             this.filter = new AlgoAllDiffAC_Naive32(variables, this);
         } else if (variables.length <= 64) {
             this.filter = new AlgoAllDiffAC_Naive64(variables, this);
         } else {
-            this.filter = new AlgoAllDiffAC_Naive2(variables, this);
+            this.filter = new AlgoAllDiffAC_NaiveN(variables, this);
+        }
+        this.monitors = new IIntDeltaMonitor[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            monitors[i] = vars[i].monitorDelta(this);
         }
+        this.onValRem = new UnaryIntProcedure<Integer>() {
+            int var;
+
+            @Override
+            public UnaryIntProcedure<Integer> set(Integer o) {
+                var = o;
+                return this;
+            }
+
+            @Override
+            public void execute(int i) {
+                if (!unsafe && !filter.isSafeRemoval(var, i)) {
+                    unsafe = true;
+                }
+            }
+        };
     }
 
     //***********************************************************************************
@@ -71,7 +102,26 @@ public class PropAllDiffAC_Naive extends Propagator<IntVar> {
 
     @Override
     public void propagate(int evtmask) throws ContradictionException {
+        unsafe = false;
         filter.propagate();
+        for (int i = 0; i < vars.length; i++) {
+            monitors[i].unfreeze();
+        }
+    }
+
+    @Override
+    public void propagate(int vIdx, int mask) throws ContradictionException {
+        if (!unsafe) {
+            monitors[vIdx].freeze();
+            monitors[vIdx].forEachRemVal(onValRem.set(vIdx));
+        }
+        monitors[vIdx].unfreeze();
+        if (unsafe) {
+            forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
+        } else {
+            // the result of the last filtering still holds
+            getMetrics().add(Counter.SKIPPED_EVENTS, 1);
+        }
     }
 
     @Override
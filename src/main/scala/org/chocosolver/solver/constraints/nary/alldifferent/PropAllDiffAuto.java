@@ -0,0 +1,221 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.alldifferent;
+
+import gnu.trove.set.hash.TIntHashSet;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.constraints.nary.alldifferent.algo.AlgoAllDiffAC;
+import org.chocosolver.solver.constraints.nary.alldifferent.algo.AlgoAllDiffAC_Naive;
+import org.chocosolver.solver.constraints.nary.alldifferent.algo.AlgoAllDiffAC_Naive32;
+import org.chocosolver.solver.constraints.nary.alldifferent.algo.AlgoAllDiffAC_Naive64;
+import org.chocosolver.solver.constraints.nary.alldifferent.algo.AlgoAllDiffAC_NaiveN;
+import org.chocosolver.solver.constraints.nary.alldifferent.algo.AlgoAllDiffBC;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.ESat;
+
+/**
+ * Propagator for AllDifferent constraint for integer variables
+ * which selects its filtering algorithm by itself.
+ * <p/>
+ * The AC algorithm is chosen on creation:
+ * a bit-parallel one when the number of distinct values is small
+ * (at most {@link #MAX_BIT_PARALLEL_VALUES} or twice the number of variables),
+ * that is {@link AlgoAllDiffAC_Naive32} or {@link AlgoAllDiffAC_Naive64} when the variables fit in a word
+ * and {@link AlgoAllDiffAC_NaiveN} beyond,
+ * the Tarjan-based {@link AlgoAllDiffAC} otherwise.
+ * <p/>
+ * Then, on each call, either AC or BC is run, depending on the number of values each of them
+ * removed per microsecond in the previous calls (decaying average).
+ * The initial propagation always runs AC, and the less efficient algorithm is regularly tried again
+ * so that the measure follows the search.
+ * <p/>
+ *
+ * @author Jia'nan Chen
+ */
+public class PropAllDiffAuto extends Propagator<IntVar> {
+
+    //***********************************************************************************
+    // VARIABLES
+    //***********************************************************************************
+
+    /**
+     * Number of distinct values always accepted by the bit-parallel algorithms
+     */
+    public static final int MAX_BIT_PARALLEL_VALUES = 256;
+
+    /**
+     * Weight of the past calls in the measure
+     */
+    private static final double DECAY = 0.9;
+
+    /**
+     * Every EXPLORE calls, the less efficient algorithm is run
+     */
+    private static final int EXPLORE = 32;
+
+    // exactly one of them is not null
+    private AlgoAllDiffAC_Naive bitFilter;
+    private AlgoAllDiffAC acFilter;
+
+    private AlgoAllDiffBC bcFilter;
+
+    // decaying sums of the values removed and of the time spent (in microseconds)
+    private double acPruned, acTime, bcPruned, bcTime;
+    private int calls;
+
+    /**
+     * Set once the initial propagation, which always runs AC, is done
+     */
+    private boolean initialized;
+
+    // number of calls to each algorithm
+    private long nbAC, nbBC;
+
+    //***********************************************************************************
+    // CONSTRUCTORS
+    //***********************************************************************************
+
+    /**
+     * AllDifferent constraint for integer variables
+     * enables to control the cardinality of the matching
+     *
+     * @param variables array of integer variables
+     */
+    public PropAllDiffAuto(IntVar[] variables) {
+        super(variables, PropagatorPriority.QUADRATIC, false);
+        int maxValues = Math.max(MAX_BIT_PARALLEL_VALUES, 2 * variables.length);
+        if (countValues(variables, maxValues) <= maxValues) {
+            if (variables.length <= 32) {
+                this.bitFilter = new AlgoAllDiffAC_Naive32(variables, this);
+            } else if (variables.length <= 64) {
+                this.bitFilter = new AlgoAllDiffAC_Naive64(variables, this);
+            } else {
+                this.bitFilter = new AlgoAllDiffAC_NaiveN(variables, this);
+            }
+        } else {
+            this.acFilter = new AlgoAllDiffAC(variables, this);
+        }
+        this.bcFilter = new AlgoAllDiffBC(this);
+        this.bcFilter.reset(vars);
+    }
+
+    private static int countValues(IntVar[] variables, int max) {
+        TIntHashSet values = new TIntHashSet();
+        for (IntVar v : variables) {
+            for (int k = v.getLB(), ub = v.getUB(); k <= ub; k = v.nextValue(k)) {
+                values.add(k);
+                if (values.size() > max) {
+                    return values.size();
+                }
+            }
+        }
+        return values.size();
+    }
+
+    //***********************************************************************************
+    // PROPAGATION
+    //***********************************************************************************
+
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+        // a coarse propagator is always called with a full propagation mask
+        boolean ac = !initialized || selectAC();
+        initialized = true;
+        long size = domainSizes();
+        long pruned = 0;
+        long startTime = System.nanoTime();
+        try {
+            if (ac) {
+                nbAC++;
+                if (bitFilter != null) {
+                    bitFilter.propagate();
+                } else {
+                    acFilter.propagate();
+                }
+            } else {
+                nbBC++;
+                bcFilter.filter();
+            }
+            pruned = size - domainSizes();
+        } catch (ContradictionException e) {
+            // a failure counts as removing all the values
+            pruned = size;
+            throw e;
+        } finally {
+            record(ac, pruned, (System.nanoTime() - startTime) / 1000d);
+        }
+    }
+
+    /**
+     * Add a call to the measure of an algorithm
+     *
+     * @param ac     <i>true</i> for AC, <i>false</i> for BC
+     * @param pruned number of values removed
+     * @param time   time spent, in microseconds
+     */
+    void record(boolean ac, long pruned, double time) {
+        if (ac) {
+            acPruned = acPruned * DECAY + pruned;
+            acTime = acTime * DECAY + time;
+        } else {
+            bcPruned = bcPruned * DECAY + pruned;
+            bcTime = bcTime * DECAY + time;
+        }
+    }
+
+    /**
+     * @return <i>true</i> if AC should be run on this call, <i>false</i> for BC
+     */
+    boolean selectAC() {
+        // acPruned / acTime >= bcPruned / bcTime, also true while AC is not measured
+        boolean acBetter = acPruned * bcTime >= bcPruned * acTime;
+        if (++calls % EXPLORE == 0) {
+            return !acBetter;
+        }
+        return acBetter;
+    }
+
+    private long domainSizes() {
+        long size = 0;
+        for (int i = 0; i < vars.length; i++) {
+            size += vars[i].getDomainSize();
+        }
+        return size;
+    }
+
+    /**
+     * @return <i>true</i> if a bit-parallel algorithm is used for AC
+     */
+    public boolean isBitParallel() {
+        return bitFilter != null;
+    }
+
+    /**
+     * @return number of calls which ran AC
+     */
+    public long getNbACCalls() {
+        return nbAC;
+    }
+
+    /**
+     * @return number of calls which ran BC
+     */
+    public long getNbBCCalls() {
+        return nbBC;
+    }
+
+    @Override
+    public ESat isEntailed() {
+        return ESat.TRUE; // redundant propagator (used with PropAllDiffInst)
+    }
+
+}
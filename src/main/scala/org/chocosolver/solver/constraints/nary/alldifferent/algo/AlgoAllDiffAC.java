@@ -9,10 +9,10 @@
  */
 package org.chocosolver.solver.constraints.nary.alldifferent.algo;
 
-import amtf.Measurer;
-import gnu.trove.map.hash.TIntIntHashMap;
 import org.chocosolver.solver.ICause;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Phase;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.graphOperations.connectivity.StrongConnectivityFinder;
 import org.chocosolver.util.objects.graphs.DirectedGraph;
@@ -52,10 +52,20 @@ public class AlgoAllDiffAC {
     // for augmenting matching (BFS)
     private int[] father;
     private BitSet in;
-    private TIntIntHashMap map;
+    private ValueIndex valueIndex;
     private int[] fifo;
     private IntVar[] vars;
     private ICause aCause;
+    private IPropagatorMetrics metrics;
+    // 当前过滤的变量为sub[from, to)，nodes是其变量和值对应的点
+    private int[] all;
+    private int[] sub;
+    private int from, to;
+    private BitSet nodes;
+    private BitSet restriction;
+    // 是否添加了额外的点t；上次过滤后变量是否连通
+    private boolean sink;
+    private boolean connected;
 
     //***********************************************************************************
     // CONSTRUCTORS
@@ -66,28 +76,16 @@ public class AlgoAllDiffAC {
 
         this.vars = variables;
 		aCause = cause;
+		metrics = IPropagatorMetrics.of(cause);
         n = vars.length;
         // 存储匹配
         matching = new int[n];
         for (int i = 0; i < n; i++) {
             matching[i] = -1;
         }
-        map = new TIntIntHashMap();
-        IntVar v;
-        int ub;
-        int idx = n;
-        // 统计所有变量论域中不同值的个数
-        for (int i = 0; i < n; i++) {
-            v = vars[i];
-            ub = v.getUB();
-            for (int j = v.getLB(); j <= ub; j = v.nextValue(j)) {
-                if (!map.containsKey(j)) {
-                    map.put(j, idx);
-                    idx++;
-                }
-            }
-        }
-        n2 = idx;
+        // 统计所有变量论域中不同值的个数，值节点编号为n + 取值编号
+        valueIndex = new ValueIndex(vars);
+        n2 = n + valueIndex.size();
         // 使用队列实现非递归广度优先搜索
         fifo = new int[n2];
         // 用Bitset邻接矩阵的有向图
@@ -99,6 +97,12 @@ public class AlgoAllDiffAC {
         // 标记进入fifo队列中的点（true表示进入过，false表示没有进入过）
         in = new BitSet(n2);
         SCCfinder = new StrongConnectivityFinder(digraph);
+        all = new int[n];
+        for (int i = 0; i < n; i++) {
+            all[i] = i;
+        }
+        nodes = new BitSet(n2);
+        restriction = new BitSet(n2 + 1);
     }
 
     //***********************************************************************************
@@ -106,15 +110,33 @@ public class AlgoAllDiffAC {
     //***********************************************************************************
 
     public boolean propagate() throws ContradictionException {
+        return propagate(all, 0, n);
+    }
+
+    /**
+     * Filter the variables vars[varIdx[from]], ..., vars[varIdx[to - 1]] only.
+     * These variables must not share any value with the other ones
+     * (see {@link AllDiffComponents}), the matching of the other variables is kept.
+     *
+     * @param varIdx indices of variables
+     * @param from   first position in <i>varIdx</i>
+     * @param to     last position in <i>varIdx</i> (exclusive)
+     * @return <i>true</i> if a domain has been modified
+     * @throws ContradictionException if the variables can not take different values
+     */
+    public boolean propagate(int[] varIdx, int from, int to) throws ContradictionException {
 //        System.out.println("----------------" + id + " propagate----------------");
+        this.sub = varIdx;
+        this.from = from;
+        this.to = to;
 
-        long startTime = System.nanoTime();
+        long startTime = metrics.start();
         findMaximumMatching();
-        Measurer.matchingTime += System.nanoTime() - startTime;
+        metrics.stop(Phase.MATCHING, startTime);
 
-        startTime = System.nanoTime();
+        startTime = metrics.start();
         boolean filter = filter();
-        Measurer.filterTime += System.nanoTime() - startTime;
+        metrics.stop(Phase.FILTERING, startTime);
         return filter;
     }
 
@@ -123,23 +145,25 @@ public class AlgoAllDiffAC {
     //***********************************************************************************
 
     private void findMaximumMatching() throws ContradictionException {
-        // 每次都重新建图
-        for (int i = 0; i < n2; i++) {
-            digraph.getSuccOf(i).clear();
-            digraph.getPredOf(i).clear();
-        }
-        free.set(0, n2);
+        // 每次都重新建图（只重建要过滤的变量及其取值，点在第一次遇到时清空）
+        // 其他分量的点上可能残留指向这些点的旧边，它们只在重建该分量时被清除，不会被访问到
         int k, ub;
         IntVar v;
-        for (int i = 0; i < n; i++) {
+        nodes.clear();
+        for (int p = from; p < to; p++) {
+            int i = sub[p];
+            clearNode(i);
             v = vars[i];
             ub = v.getUB();
             int mate = matching[i];
             for (k = v.getLB(); k <= ub; k = v.nextValue(k)) {
-                int j = map.get(k);
-                // 利用之前已经找到的匹配
-                if (mate == j) {
-                    assert free.get(i) && free.get(j);
+                int j = valueIndex.indexOf(k) + n;
+                if (!nodes.get(j)) {
+                    clearNode(j);
+                }
+                // 利用之前已经找到的匹配（回溯后不同变量的旧匹配可能是同一个值）
+                if (mate == j && free.get(j)) {
+                    assert free.get(i);
                     digraph.addArc(j, i);
                     free.clear(i);
                     free.clear(j);
@@ -150,15 +174,33 @@ public class AlgoAllDiffAC {
         }
         // 尝试为每个变量都寻找一个匹配，即最大匹配的个数要与变量个数相等，否则回溯
         // 利用匈牙利算法寻找最大匹配
-        for (int i = free.nextSetBit(0); i >= 0 && i < n; i = free.nextSetBit(i + 1)) {
-            tryToMatch(i);
+        for (int p = from; p < to; p++) {
+            if (free.get(sub[p])) {
+                tryToMatch(sub[p]);
+            }
         }
         // 匹配边是由值指向变量，非匹配边是由变量指向值
-        for (int i = 0; i < n; i++) {
+        for (int p = from; p < to; p++) {
+            int i = sub[p];
             matching[i] = digraph.getPredOf(i).isEmpty()?-1:digraph.getPredOf(i).iterator().next();
         }
     }
 
+    /**
+     * @return <i>true</i> if the variables filtered by the last call are known to be connected
+     * in the value graph, that is, to share values, directly or not
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    private void clearNode(int x) {
+        digraph.getSuccOf(x).clear();
+        digraph.getPredOf(x).clear();
+        free.set(x);
+        nodes.set(x);
+    }
+
     private void tryToMatch(int i) throws ContradictionException {
         int mate = augmentPath_BFS(i);
         if (mate != -1) {// 值mate是一个自由点
@@ -213,18 +255,23 @@ public class AlgoAllDiffAC {
     //***********************************************************************************
 
     private void buildSCC() {
-        if (n2 > n * 2) {// 添加额外的点t
+        restriction.clear();
+        restriction.or(nodes);
+        int nbVars = to - from;
+        sink = nodes.cardinality() > nbVars * 2;
+        if (sink) {// 添加额外的点t
             digraph.removeNode(n2);
             digraph.addNode(n2);
-            for (int i = n; i < n2; i++) {
+            for (int i = nodes.nextSetBit(n); i >= 0; i = nodes.nextSetBit(i + 1)) {
                 if (free.get(i)) {
                     digraph.addArc(i, n2);
                 } else {
                     digraph.addArc(n2, i);
                 }
             }
+            restriction.set(n2);
         }
-        SCCfinder.findAllSCC();
+        SCCfinder.findAllSCCOf(restriction);
         nodeSCC = SCCfinder.getNodesSCC();
         digraph.removeNode(n2);
     }
@@ -234,11 +281,16 @@ public class AlgoAllDiffAC {
         buildSCC();
         int j, ub;
         IntVar v;
-        for (int i = 0; i < n; i++) {
+        // 变量都在同一个不含t的强连通分量中，则过滤后仍然连通
+        int scc = nodeSCC[sub[from]];
+        connected = !sink || nodeSCC[n2] != scc;
+        for (int p = from; p < to; p++) {
+            int i = sub[p];
+            connected &= nodeSCC[i] == scc;
             v = vars[i];
             ub = v.getUB();
             for (int k = v.getLB(); k <= ub; k = v.nextValue(k)) {
-                j = map.get(k);
+                j = valueIndex.indexOf(k) + n;
                 if (nodeSCC[i] != nodeSCC[j]) {
                     if (matching[i] == j) {
                         filter |= v.instantiateTo(k, aCause);
@@ -256,14 +308,14 @@ public class AlgoAllDiffAC {
 //            if (!v.hasEnumeratedDomain()) {
 //                ub = v.getUB();
 //                for (int k = v.getLB(); k <= ub; k++) {
-//                    j = map.get(k);
+//                    j = valueIndex.indexOf(k) + n;
 //                    if (!(digraph.arcExists(i, j) || digraph.arcExists(j, i))) {
 //                        filter |= v.removeValue(k, aCause);
 //                    }
 //                }
 //                int lb = v.getLB();
 //                for (int k = v.getUB(); k >= lb; k--) {
-//                    j = map.get(k);
+//                    j = valueIndex.indexOf(k) + n;
 //                    if (!(digraph.arcExists(i, j) || digraph.arcExists(j, i))) {
 //                        filter |= v.removeValue(k, aCause);
 //                    }
@@ -1,10 +1,9 @@
 package org.chocosolver.solver.constraints.nary.alldifferent.algo;
 
-import amtf.Measurer;
-import gnu.trove.iterator.TIntIntIterator;
-import gnu.trove.map.hash.TIntIntHashMap;
 import org.chocosolver.solver.ICause;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Phase;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.objects.SparseSet;
 
@@ -35,14 +34,13 @@ public class AlgoAllDiffAC2 {
     private int arity;
     private IntVar[] vars;
     private ICause aCause;
+    private IPropagatorMetrics metrics;
 
     // numValue是二部图中取值编号的个数
     private int numValue;
 
-    // 索引到值
-    private int[] idx2Val;
-    // 值到索引
-    private TIntIntHashMap val2Idx;
+    // 取值与取值编号的映射
+    private ValueIndex valueIndex;
 
     // 已访问过的变量和值
     private BitSet variable_visited_;
@@ -81,26 +79,12 @@ public class AlgoAllDiffAC2 {
 
         this.vars = variables;
         aCause = cause;
+        metrics = IPropagatorMetrics.of(cause);
         arity = vars.length;
         addArity = arity + 1;
-        val2Idx = new TIntIntHashMap();
         // 统计所有变量论域中不同值的个数
-        for (int i = 0; i < arity; ++i) {
-            IntVar v = vars[i];
-            for (int j = v.getLB(), ub = v.getUB(); j <= ub; j = v.nextValue(j)) {
-                if (!val2Idx.containsKey(j)) {
-                    val2Idx.put(j, val2Idx.size());
-                }
-            }
-        }
-
-        numValue = val2Idx.size();
-        idx2Val = new int[numValue];
-        TIntIntIterator it = val2Idx.iterator();
-        while (it.hasNext()) {
-            it.advance();
-            idx2Val[it.value()] = it.key();
-        }
+        valueIndex = new ValueIndex(vars);
+        numValue = valueIndex.size();
 
         valUnmatchedVar = new SparseSet[numValue];
         for (int i = 0; i < numValue; ++i) {
@@ -150,13 +134,13 @@ public class AlgoAllDiffAC2 {
 //                System.out.println(v.toString());
 //            }
 //        }
-        long startTime = System.nanoTime();
+        long startTime = metrics.start();
         findMaximumMatching();
-        Measurer.matchingTime += System.nanoTime() - startTime;
+        metrics.stop(Phase.MATCHING, startTime);
 
-        startTime = System.nanoTime();
+        startTime = metrics.start();
         boolean filter = filter();
-        Measurer.filterTime += System.nanoTime() - startTime;
+        metrics.stop(Phase.FILTERING, startTime);
         return filter;
     }
 
@@ -189,7 +173,7 @@ public class AlgoAllDiffAC2 {
             IntVar v = vars[node];
 
             for (int value = v.getLB(), ub = v.getUB(); value <= ub; value = v.nextValue(value)) {
-                int valIdx = val2Idx.get(value);
+                int valIdx = valueIndex.indexOf(value);
                 if (value_visited_.get(valIdx)) continue;
                 value_visited_.set(valIdx);
                 if (val2Var[valIdx] == -1) {
@@ -251,7 +235,7 @@ public class AlgoAllDiffAC2 {
             IntVar v = vars[varIdx];
             if (v.getDomainSize() == 1) {
                 // 取出变量的唯一值
-                int valIdx = val2Idx.get(v.getValue());
+                int valIdx = valueIndex.indexOf(v.getValue());
                 valUnmatchedVar[valIdx].add(varIdx);
 //                System.out.println(v.getName() + " : " + varIdx + " is singleton = " + v.getValue() + " : " + valIdx);
 
@@ -273,7 +257,7 @@ public class AlgoAllDiffAC2 {
                 int oldMatchingIndex = var2Val[varIdx];
                 if (oldMatchingIndex != -1) {
                     // 如果oldMatchingValue无效
-                    if (!v.contains(idx2Val[oldMatchingIndex])) {
+                    if (!v.contains(valueIndex.valueOf(oldMatchingIndex))) {
                         val2Var[oldMatchingIndex] = -1;
                         var2Val[varIdx] = -1;
                     } else {
@@ -283,7 +267,7 @@ public class AlgoAllDiffAC2 {
                 }
 
                 for (int value = v.getLB(), ub = v.getUB(); value <= ub; value = v.nextValue(value)) {
-                    int valIdx = val2Idx.get(value);
+                    int valIdx = valueIndex.indexOf(value);
                     // Forward-checking should propagate xsu != value.
                     valUnmatchedVar[valIdx].add(varIdx);
                 }
@@ -310,7 +294,7 @@ public class AlgoAllDiffAC2 {
 //        if (id == 2) {
 //            System.out.println("-----final matching-----");
 //            for (int i = 0; i < arity; i++) {
-//                System.out.println(vars[i].getName() + " match " + idx2Val[var2Val[i]]);
+//                System.out.println(vars[i].getName() + " match " + valueIndex.valueOf(var2Val[i]));
 //            }
 //            System.out.println("------------------");
 //        }
@@ -427,7 +411,7 @@ public class AlgoAllDiffAC2 {
             if (!v.isInstantiated()) {
                 int ub = v.getUB();
                 for (int k = v.getLB(); k <= ub; k = v.nextValue(k)) {
-                    int valIdx = val2Idx.get(k);
+                    int valIdx = valueIndex.indexOf(k);
                     if (nodeSCC[varIdx] != nodeSCC[valIdx + addArity]) {
                         if (valIdx == var2Val[varIdx]) {
                             filter |= v.instantiateTo(k, aCause);
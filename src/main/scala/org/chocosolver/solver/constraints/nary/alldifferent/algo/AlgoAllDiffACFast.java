@@ -9,10 +9,11 @@
  */
 package org.chocosolver.solver.constraints.nary.alldifferent.algo;
 
-import amtf.Measurer;
-import gnu.trove.map.hash.TIntIntHashMap;
 import org.chocosolver.solver.ICause;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Counter;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Phase;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.graphOperations.connectivity.StrongConnectivityNewFinder;
 import org.chocosolver.util.objects.graphs.DirectedGraph;
@@ -43,7 +44,8 @@ public class AlgoAllDiffACFast {
     private int n, n2;
     private IntVar[] vars;
     private ICause aCause;
-    private TIntIntHashMap map;
+    private IPropagatorMetrics metrics;
+    private ValueIndex valueIndex;
     private DirectedGraph digraph;
     private int[] matching;
     private BitSet free;
@@ -67,26 +69,14 @@ public class AlgoAllDiffACFast {
 
         this.vars = variables;
         aCause = cause;
+        metrics = IPropagatorMetrics.of(cause);
         n = vars.length;
         // 存储匹配
         matching = new int[n];
         Arrays.fill(matching, -1);
-        map = new TIntIntHashMap();
-        IntVar v;
-        int ub;
-        int idx = n;
-        // 统计所有变量论域中不同值的个数
-        for (int i = 0; i < n; i++) {
-            v = vars[i];
-            ub = v.getUB();
-            for (int j = v.getLB(); j <= ub; j = v.nextValue(j)) {
-                if (!map.containsKey(j)) {
-                    map.put(j, idx);
-                    idx++;
-                }
-            }
-        }
-        n2 = idx;
+        // 统计所有变量论域中不同值的个数，值节点编号为n + 取值编号
+        valueIndex = new ValueIndex(vars);
+        n2 = n + valueIndex.size();
         // 用Bitset邻接矩阵的有向图，因为没有辅助点，所以是n2，非n2 + 1
         digraph = new DirectedGraph(n2, SetType.BITSET, false);
         // free应该区分匹配点和非匹配点（true表示非匹配点，false表示匹配点）
@@ -111,13 +101,13 @@ public class AlgoAllDiffACFast {
 //            System.out.println(v.toString());
 //        }
 //        System.out.println("----------------" + id + " propagate----------------");
-        long startTime = System.nanoTime();
+        long startTime = metrics.start();
         findMaximumMatching();
-        Measurer.matchingTime += System.nanoTime() - startTime;
+        metrics.stop(Phase.MATCHING, startTime);
 
-        startTime = System.nanoTime();
+        startTime = metrics.start();
         boolean filter = filter();
-        Measurer.filterTime += System.nanoTime() - startTime;
+        metrics.stop(Phase.FILTERING, startTime);
         return filter;
     }
 
@@ -139,7 +129,7 @@ public class AlgoAllDiffACFast {
             ub = v.getUB();
             int mate = matching[i];
             for (k = v.getLB(); k <= ub; k = v.nextValue(k)) {
-                int j = map.get(k);
+                int j = valueIndex.indexOf(k) + n;
                 // 利用之前已经找到的匹配
                 if (mate == j) {
                     assert free.get(i) && free.get(j);
@@ -268,9 +258,9 @@ public class AlgoAllDiffACFast {
             if (!v.isInstantiated()) {
                 ub = v.getUB();
                 for (int k = v.getLB(); k <= ub; k = v.nextValue(k)) {
-                    j = map.get(k);
+                    j = valueIndex.indexOf(k) + n;
                     if (distinction.get(i) && !distinction.get(j)) { // 删除第一类边，变量在Γ(A)中，值在Dc-A中
-                        ++Measurer.numDelValuesP1;
+                        metrics.add(Counter.REMOVED_GAMMA, 1);
                         filter |= v.removeValue(k, aCause);
 //                        System.out.println("first delete: " + v.getName() + ", " + k);
 //                    digraph.removeArc(i, j);
@@ -279,10 +269,10 @@ public class AlgoAllDiffACFast {
                             if (matching[i] == j) {
                                 int valNum = v.getDomainSize();
                                 filter |= v.instantiateTo(k, aCause);
-                                Measurer.numDelValuesP2 += valNum - 1;
+                                metrics.add(Counter.REMOVED_SCC, valNum - 1);
 //                                System.out.println("instantiate  : " + v.getName() + ", " + k);
                             } else {
-                                ++Measurer.numDelValuesP2;
+                                metrics.add(Counter.REMOVED_SCC, 1);
                                 filter |= v.removeValue(k, aCause);
 //                                System.out.println("second delete: " + v.getName() + ", " + k);
                                 // 我觉得不用更新digraph，因为每次调用propagate时都会更新digraph
@@ -298,14 +288,14 @@ public class AlgoAllDiffACFast {
 //            if (!v.hasEnumeratedDomain()) {
 //                ub = v.getUB();
 //                for (int k = v.getLB(); k <= ub; k++) {
-//                    j = map.get(k);
+//                    j = valueIndex.indexOf(k) + n;
 //                    if (!(digraph.arcExists(i, j) || digraph.arcExists(j, i))) {
 //                        filter |= v.removeValue(k, aCause);
 //                    }
 //                }
 //                int lb = v.getLB();
 //                for (int k = v.getUB(); k >= lb; k--) {
-//                    j = map.get(k);
+//                    j = valueIndex.indexOf(k) + n;
 //                    if (!(digraph.arcExists(i, j) || digraph.arcExists(j, i))) {
 //                        filter |= v.removeValue(k, aCause);
 //                    }
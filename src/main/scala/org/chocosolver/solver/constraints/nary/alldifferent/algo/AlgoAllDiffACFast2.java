@@ -1,13 +1,14 @@
 package org.chocosolver.solver.constraints.nary.alldifferent.algo;
 
-import amtf.Measurer;
-import gnu.trove.iterator.TIntIntIterator;
-import gnu.trove.map.hash.TIntIntHashMap;
 import org.chocosolver.solver.ICause;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Counter;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Phase;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.objects.SparseSet;
 
+import java.util.Arrays;
 import java.util.BitSet;
 
 /**
@@ -35,14 +36,13 @@ public class AlgoAllDiffACFast2 {
     private int arity;
     private IntVar[] vars;
     private ICause aCause;
+    private IPropagatorMetrics metrics;
 
     // numValue是二部图中取值编号的个数
     private int numValue;
 
-    // 索引到值
-    private int[] idx2Val;
-    // 值到索引
-    private TIntIntHashMap val2Idx;
+    // 取值与取值编号的映射
+    private ValueIndex valueIndex;
 
     // 已访问过的变量和值
     private BitSet variable_visited_;
@@ -65,6 +65,8 @@ public class AlgoAllDiffACFast2 {
     private SparseSet notGamma;
     // Dc-A
     private SparseSet notA;
+    // 变量进入Γ(A)所经由的取值编号（BFS树），不在Γ(A)中为-1
+    private int[] gammaFrom;
 
     private int[] fifo;
 
@@ -84,25 +86,11 @@ public class AlgoAllDiffACFast2 {
 
         this.vars = variables;
         aCause = cause;
+        metrics = IPropagatorMetrics.of(cause);
         arity = vars.length;
-        val2Idx = new TIntIntHashMap();
         // 统计所有变量论域中不同值的个数
-        for (int i = 0; i < arity; ++i) {
-            IntVar v = vars[i];
-            for (int j = v.getLB(), ub = v.getUB(); j <= ub; j = v.nextValue(j)) {
-                if (!val2Idx.containsKey(j)) {
-                    val2Idx.put(j, val2Idx.size());
-                }
-            }
-        }
-
-        numValue = val2Idx.size();
-        idx2Val = new int[numValue];
-        TIntIntIterator it = val2Idx.iterator();
-        while (it.hasNext()) {
-            it.advance();
-            idx2Val[it.value()] = it.key();
-        }
+        valueIndex = new ValueIndex(vars);
+        numValue = valueIndex.size();
 
         valUnmatchedVar = new SparseSet[numValue];
         for (int i = 0; i < numValue; ++i) {
@@ -129,6 +117,8 @@ public class AlgoAllDiffACFast2 {
         freeNode = new SparseSet(numValue);
         notGamma = new SparseSet(arity);
         notA = new SparseSet(numValue);
+        gammaFrom = new int[arity];
+        Arrays.fill(gammaFrom, -1);
 
         fifo = new int[arity];
 
@@ -156,16 +146,37 @@ public class AlgoAllDiffACFast2 {
 //                System.out.println(v.toString());
 //            }
 //        }
-        long startTime = System.nanoTime();
+        // 匹配可能被修改，过滤完成前不能跳过任何删值
+        Arrays.fill(gammaFrom, -1);
+        long startTime = metrics.start();
         findMaximumMatching();
-        Measurer.matchingTime += System.nanoTime() - startTime;
+        metrics.stop(Phase.MATCHING, startTime);
 
-        startTime = System.nanoTime();
+        startTime = metrics.start();
         boolean filter = filter();
-        Measurer.filterTime += System.nanoTime() - startTime;
+        metrics.stop(Phase.FILTERING, startTime);
         return filter;
     }
 
+    /**
+     * Check, in O(1), whether removing <i>value</i> from the variable <i>varIdx</i> leaves the last filtering valid.
+     * This is the case when the variable belongs to Γ(A) and the value is in A, but is neither its matched value
+     * nor the value through which it was reached from a free value:
+     * the matching and the alternating paths from the free values are kept, so are Γ(A), A and the SCCs.
+     *
+     * @param varIdx index of a variable
+     * @param value  a value removed from the variable
+     * @return <i>true</i> if the filtering does not need to be run again because of this removal
+     */
+    public boolean isSafeRemoval(int varIdx, int value) {
+        int from = gammaFrom[varIdx];
+        if (from < 0) {
+            return false;
+        }
+        int valIdx = valueIndex.indexOf(value);
+        return valIdx != from && valIdx != var2Val[varIdx] && !notA.contain(valIdx);
+    }
+
     //***********************************************************************************
     // Initialization
     //***********************************************************************************
@@ -195,7 +206,7 @@ public class AlgoAllDiffACFast2 {
             IntVar v = vars[node];
 
             for (int value = v.getLB(), ub = v.getUB(); value <= ub; value = v.nextValue(value)) {
-                int valIdx = val2Idx.get(value);
+                int valIdx = valueIndex.indexOf(value);
                 if (value_visited_.get(valIdx)) continue;
                 value_visited_.set(valIdx);
                 if (val2Var[valIdx] == -1) {
@@ -256,7 +267,7 @@ public class AlgoAllDiffACFast2 {
             IntVar v = vars[varIdx];
             if (v.getDomainSize() == 1) {
                 // 取出变量的唯一值
-                int valIdx = val2Idx.get(v.getValue());
+                int valIdx = valueIndex.indexOf(v.getValue());
                 valUnmatchedVar[valIdx].add(varIdx);
 //                System.out.println(v.getName() + " : " + varIdx + " is singleton = " + v.getValue() + " : " + valIdx);
 
@@ -278,7 +289,7 @@ public class AlgoAllDiffACFast2 {
                 int oldMatchingIndex = var2Val[varIdx];
                 if (oldMatchingIndex != -1) {
                     // 如果oldMatchingValue无效
-                    if (!v.contains(idx2Val[oldMatchingIndex])) {
+                    if (!v.contains(valueIndex.valueOf(oldMatchingIndex))) {
                         val2Var[oldMatchingIndex] = -1;
                         var2Val[varIdx] = -1;
                     } else {
@@ -288,7 +299,7 @@ public class AlgoAllDiffACFast2 {
                 }
 
                 for (int value = v.getLB(), ub = v.getUB(); value <= ub; value = v.nextValue(value)) {
-                    int valIdx = val2Idx.get(value);
+                    int valIdx = valueIndex.indexOf(value);
                     // Forward-checking should propagate xsu != value.
                     valUnmatchedVar[valIdx].add(varIdx);
                 }
@@ -315,7 +326,7 @@ public class AlgoAllDiffACFast2 {
 //        if (id == 2) {
 //            System.out.println("-----final matching-----");
 //            for (int i = 0; i < arity; i++) {
-//                System.out.println(vars[i].getName() + " match " + idx2Val[var2Val[i]]);
+//                System.out.println(vars[i].getName() + " match " + valueIndex.valueOf(var2Val[i]));
 //            }
 //            System.out.println("------------------");
 //        }
@@ -347,6 +358,7 @@ public class AlgoAllDiffACFast2 {
                 if (notGamma.contain(varIdx)) {
                     fifo[indexLast++] = varIdx;
                     notGamma.remove(varIdx);
+                    gammaFrom[varIdx] = valIdx;
                     restriction.clear(varIdx);
                 }
             }
@@ -361,6 +373,7 @@ public class AlgoAllDiffACFast2 {
                     if (notGamma.contain(varIdx)) {
                         fifo[indexLast++] = varIdx;
                         notGamma.remove(varIdx);
+                        gammaFrom[varIdx] = valIdx;
                         restriction.clear(varIdx);
                     }
                 }
@@ -453,9 +466,9 @@ public class AlgoAllDiffACFast2 {
             if (!v.isInstantiated()) {
                 int ub = v.getUB();
                 for (int k = v.getLB(); k <= ub; k = v.nextValue(k)) {
-                    int valIdx = val2Idx.get(k);
+                    int valIdx = valueIndex.indexOf(k);
                     if (!notGamma.contain(varIdx) && notA.contain(valIdx)) {
-                        ++Measurer.numDelValuesP1;
+                        metrics.add(Counter.REMOVED_GAMMA, 1);
                         filter |= v.removeValue(k, aCause);
                         //                System.out.println("first delete: " + v.getName() + ", " + k);
                     } else if (notGamma.contain(varIdx) && notA.contain(valIdx)) {
@@ -463,10 +476,10 @@ public class AlgoAllDiffACFast2 {
                             if (valIdx == var2Val[varIdx]) {
                                 int valNum = v.getDomainSize();
                                 filter |= v.instantiateTo(k, aCause);
-                                Measurer.numDelValuesP2 += valNum - 1;
+                                metrics.add(Counter.REMOVED_SCC, valNum - 1);
 //                            System.out.println("instantiate  : " + v.getName() + ", " + k);
                             } else {
-                                ++Measurer.numDelValuesP2;
+                                metrics.add(Counter.REMOVED_SCC, 1);
                                 filter |= v.removeValue(k, aCause);
 //                            System.out.println("second delete: " + v.getName() + ", " + k);
                             }
@@ -0,0 +1,467 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.alldifferent.algo;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.solver.ICause;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Counter;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Phase;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.objects.SparseSet;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Algorithm of Alldifferent with AC
+ * <p>
+ * Incremental version of the Zhang algorithm (IJCAI-18,
+ * "A Fast Algorithm for Generalized Arc Consistency of the Alldifferent Constraint").
+ * <p>
+ * Contrary to the other algorithms of this package, the value graph is not rebuilt on each call:
+ * <ul>
+ * <li>the matching (var2Val / val2Var) is stored in the environment and restored on backtrack,</li>
+ * <li>for each value, the variables that may take it are kept in a reversible sparse set,
+ * updated from the removed values (see {@link #onValueRemoved(int, int)}),</li>
+ * <li>the matching is repaired only from the variables whose mate has been removed.</li>
+ * </ul>
+ * A value set is always a superset of the variables that currently contain the value
+ * (values removed by the propagator itself are not reported by the delta monitors),
+ * so each access to it is guarded by a <code>contains</code> check.
+ *
+ * @author Jean-Guillaume Fages, Zhe Li, Jia'nan Chen
+ */
+public class AlgoAllDiffACIncr {
+
+    //***********************************************************************************
+    // VARIABLES
+    //***********************************************************************************
+
+    private int arity;
+    private IntVar[] vars;
+    private ICause aCause;
+    private IPropagatorMetrics metrics;
+
+    // numValue是二部图中取值编号的个数
+    private int numValue;
+    // 取值与取值编号的映射
+    private ValueIndex valueIndex;
+
+    // matching, restored on backtrack
+    private IStateInt[] var2Val;
+    private IStateInt[] val2Var;
+
+    // value graph: for each value, the reversible sparse set of variables that may take it.
+    // 每个(变量, 初始值)对有一个编号，按变量连续分配；各值的集合存放在同一数组中，按出现次数分段，
+    // 内存与初始论域大小之和成正比
+    private int[] varStart;
+    private int[] varValues;
+    private int[] pairVar;
+    private int[] pairPos;
+    private int[] valStart;
+    private int[] valPairs;
+    private IStateInt[] valVarsSize;
+
+    // variables whose mate has been removed since the last call
+    private int[] unmatched;
+    private int nbUnmatched;
+    private BitSet inUnmatched;
+
+    // augmenting path (BFS)
+    private int[] visiting;
+    private int[] variableVisitedFrom;
+    private BitSet variableVisited;
+    private BitSet valueVisited;
+
+    // Xc-Γ(A)
+    private SparseSet notGamma;
+    // Dc-A
+    private SparseSet notA;
+    private int[] fifo;
+
+    // SCC
+    private int nbSCC, stackIdx, searchIdx;
+    private int[] nodeSCC;
+    private int[] stack, p, inf, dfn, cursor;
+    private BitSet inStack, restriction;
+
+    //***********************************************************************************
+    // CONSTRUCTORS
+    //***********************************************************************************
+
+    public AlgoAllDiffACIncr(IntVar[] variables, ICause cause) {
+        this.vars = variables;
+        aCause = cause;
+        metrics = IPropagatorMetrics.of(cause);
+        arity = vars.length;
+        IEnvironment environment = vars[0].getModel().getEnvironment();
+        // 统计所有变量论域中不同值的个数
+        valueIndex = new ValueIndex(vars);
+        numValue = valueIndex.size();
+
+        var2Val = new IStateInt[arity];
+        for (int i = 0; i < arity; ++i) {
+            var2Val[i] = environment.makeInt(-1);
+        }
+        val2Var = new IStateInt[numValue];
+        valVarsSize = new IStateInt[numValue];
+        varStart = new int[arity + 1];
+        for (int i = 0; i < arity; ++i) {
+            varStart[i + 1] = varStart[i] + vars[i].getDomainSize();
+        }
+        int nbPairs = varStart[arity];
+        varValues = new int[nbPairs];
+        pairVar = new int[nbPairs];
+        pairPos = new int[nbPairs];
+        valPairs = new int[nbPairs];
+        valStart = new int[numValue + 1];
+        for (int i = 0, pair = 0; i < arity; ++i) {
+            IntVar v = vars[i];
+            for (int k = v.getLB(), ub = v.getUB(); k <= ub; k = v.nextValue(k), pair++) {
+                varValues[pair] = k;
+                pairVar[pair] = i;
+                valStart[valueIndex.indexOf(k) + 1]++;
+            }
+        }
+        for (int j = 0; j < numValue; ++j) {
+            val2Var[j] = environment.makeInt(-1);
+            valVarsSize[j] = environment.makeInt(valStart[j + 1]);
+            valStart[j + 1] += valStart[j];
+        }
+        int[] next = Arrays.copyOf(valStart, numValue);
+        for (int pair = 0; pair < nbPairs; pair++) {
+            int pos = next[valueIndex.indexOf(varValues[pair])]++;
+            valPairs[pos] = pair;
+            pairPos[pair] = pos;
+        }
+
+        unmatched = new int[arity];
+        inUnmatched = new BitSet(arity);
+
+        visiting = new int[arity];
+        variableVisitedFrom = new int[arity];
+        variableVisited = new BitSet(arity);
+        valueVisited = new BitSet(numValue);
+
+        notGamma = new SparseSet(arity);
+        notA = new SparseSet(numValue);
+        fifo = new int[arity];
+
+        int n = arity + numValue;
+        nodeSCC = new int[n];
+        stack = new int[n];
+        p = new int[n];
+        inf = new int[n];
+        dfn = new int[n];
+        cursor = new int[numValue];
+        inStack = new BitSet(n);
+        restriction = new BitSet(arity);
+    }
+
+    //***********************************************************************************
+    // EVENTS
+    //***********************************************************************************
+
+    /**
+     * Updates the value graph when <i>value</i> is removed from the domain of <i>vars[varIdx]</i>.
+     * If <i>value</i> was the mate of the variable, the variable is recorded for repair.
+     *
+     * @param varIdx index of the variable
+     * @param value  removed value
+     */
+    public void onValueRemoved(int varIdx, int value) {
+        int valIdx = valueIndex.indexOf(value);
+        removeFromValue(valIdx, varIdx, value);
+        if (var2Val[varIdx].get() == valIdx) {
+            var2Val[varIdx].set(-1);
+            val2Var[valIdx].set(-1);
+            markUnmatched(varIdx);
+        }
+    }
+
+    private void removeFromValue(int valIdx, int varIdx, int value) {
+        int pair = pairOf(varIdx, value);
+        if (pair < 0) {
+            return;
+        }
+        int size = valVarsSize[valIdx].get();
+        int end = valStart[valIdx] + size;
+        int pos = pairPos[pair];
+        if (pos < end) {
+            int last = valPairs[end - 1];
+            valPairs[pos] = last;
+            pairPos[last] = pos;
+            valPairs[end - 1] = pair;
+            pairPos[pair] = end - 1;
+            valVarsSize[valIdx].set(size - 1);
+        }
+    }
+
+    /**
+     * @return the number of the pair (<i>varIdx</i>, <i>value</i>), or -1 if <i>value</i> is not in the initial domain
+     */
+    private int pairOf(int varIdx, int value) {
+        int from = varStart[varIdx], to = varStart[varIdx + 1];
+        // 区间论域直接定位，否则二分查找
+        if (varValues[to - 1] - varValues[from] == to - from - 1) {
+            return value >= varValues[from] && value <= varValues[to - 1] ? from + value - varValues[from] : -1;
+        }
+        int pair = Arrays.binarySearch(varValues, from, to, value);
+        return pair >= 0 ? pair : -1;
+    }
+
+    private void markUnmatched(int varIdx) {
+        if (!inUnmatched.get(varIdx)) {
+            inUnmatched.set(varIdx);
+            unmatched[nbUnmatched++] = varIdx;
+        }
+    }
+
+    //***********************************************************************************
+    // PROPAGATION
+    //***********************************************************************************
+
+    /**
+     * Full propagation: every variable is checked against its mate before repairing the matching.
+     */
+    public boolean propagateFull() throws ContradictionException {
+        for (int varIdx = 0; varIdx < arity; varIdx++) {
+            int valIdx = var2Val[varIdx].get();
+            if (valIdx == -1 || !vars[varIdx].contains(valueIndex.valueOf(valIdx))) {
+                if (valIdx != -1) {
+                    var2Val[varIdx].set(-1);
+                    val2Var[valIdx].set(-1);
+                }
+                markUnmatched(varIdx);
+            }
+        }
+        return propagate();
+    }
+
+    /**
+     * Incremental propagation: the matching is repaired from the variables recorded
+     * by {@link #onValueRemoved(int, int)} only.
+     */
+    public boolean propagate() throws ContradictionException {
+        long startTime = metrics.start();
+        repairMatching();
+        metrics.stop(Phase.MATCHING, startTime);
+
+        startTime = metrics.start();
+        boolean filter = filter();
+        metrics.stop(Phase.FILTERING, startTime);
+        return filter;
+    }
+
+    //***********************************************************************************
+    // MATCHING
+    //***********************************************************************************
+
+    private void repairMatching() throws ContradictionException {
+        try {
+            for (int i = 0; i < nbUnmatched; i++) {
+                int varIdx = unmatched[i];
+                // stale entries may remain after a failure, the matching has been restored since
+                if (var2Val[varIdx].get() == -1) {
+                    variableVisited.clear();
+                    valueVisited.clear();
+                    if (!makeAugmentingPath(varIdx)) {
+                        // No augmenting path exists.
+                        vars[0].instantiateTo(vars[0].getLB() - 1, aCause);
+                    }
+                }
+            }
+        } finally {
+            nbUnmatched = 0;
+            inUnmatched.clear();
+        }
+    }
+
+    private boolean makeAugmentingPath(int start) {
+        int numToVisit = 0;
+        int numVisited = 0;
+        visiting[numToVisit++] = start;
+        variableVisited.set(start);
+        variableVisitedFrom[start] = -1;
+        while (numVisited < numToVisit) {
+            int node = visiting[numVisited++];
+            IntVar v = vars[node];
+            for (int value = v.getLB(), ub = v.getUB(); value <= ub; value = v.nextValue(value)) {
+                int valIdx = valueIndex.indexOf(value);
+                if (valueVisited.get(valIdx)) continue;
+                valueVisited.set(valIdx);
+                int mate = val2Var[valIdx].get();
+                if (mate == -1) {
+                    // free value: flip the path back to start
+                    int pathNode = node;
+                    int pathValue = valIdx;
+                    while (pathNode != -1) {
+                        int oldValue = var2Val[pathNode].get();
+                        var2Val[pathNode].set(pathValue);
+                        val2Var[pathValue].set(pathNode);
+                        pathNode = variableVisitedFrom[pathNode];
+                        pathValue = oldValue;
+                    }
+                    return true;
+                } else if (!variableVisited.get(mate)) {
+                    variableVisited.set(mate);
+                    visiting[numToVisit++] = mate;
+                    variableVisitedFrom[mate] = node;
+                }
+            }
+        }
+        return false;
+    }
+
+    //***********************************************************************************
+    // PRUNING
+    //***********************************************************************************
+
+    // 从自由值出发寻找交替路，区分论文中的四个集合
+    private void distinguish() {
+        notGamma.fill();
+        notA.fill();
+        restriction.set(0, arity);
+        int indexFirst = 0, indexLast = 0;
+        for (int valIdx = 0; valIdx < numValue; valIdx++) {
+            if (val2Var[valIdx].get() == -1) {
+                notA.remove(valIdx);
+                indexLast = enqueueVarsOf(valIdx, indexLast);
+            }
+        }
+        while (indexFirst != indexLast) {
+            int valIdx = var2Val[fifo[indexFirst++]].get();
+            notA.remove(valIdx);
+            indexLast = enqueueVarsOf(valIdx, indexLast);
+        }
+    }
+
+    private int enqueueVarsOf(int valIdx, int indexLast) {
+        int start = valStart[valIdx];
+        int value = valueIndex.valueOf(valIdx);
+        for (int i = valVarsSize[valIdx].get() - 1; i >= 0; i--) {
+            int varIdx = pairVar[valPairs[start + i]];
+            if (notGamma.contain(varIdx) && vars[varIdx].contains(value)) {
+                fifo[indexLast++] = varIdx;
+                notGamma.remove(varIdx);
+                restriction.clear(varIdx);
+            }
+        }
+        return indexLast;
+    }
+
+    private void buildSCC() {
+        inStack.clear();
+        nbSCC = 0;
+        for (int first = restriction.nextSetBit(0); first >= 0; first = restriction.nextSetBit(first)) {
+            findSCC(first);
+        }
+    }
+
+    // Tarjan on the implicit graph: variable -> its mate, value -> the other variables that may take it
+    private void findSCC(int start) {
+        stackIdx = 0;
+        searchIdx = -1;
+        int i = start, j;
+        stepForward(i, i);
+        j = var2Val[i].get() + arity;
+        stepForward(i, j);
+        i = j;
+        while (stackIdx != 0) {
+            int next = -1;
+            if (i >= arity) {
+                int valIdx = i - arity;
+                int from = valStart[valIdx];
+                int value = valueIndex.valueOf(valIdx);
+                while (cursor[valIdx] > 0 && next == -1) {
+                    int varIdx = pairVar[valPairs[from + --cursor[valIdx]]];
+                    if (restriction.get(varIdx) && varIdx != val2Var[valIdx].get() && vars[varIdx].contains(value)) {
+                        next = varIdx;
+                    }
+                }
+            }
+            if (next != -1) {
+                if (!inStack.get(next)) {
+                    stepForward(i, next);
+                    i = next;
+                    j = var2Val[i].get() + arity;
+                    stepForward(i, j);
+                    i = j;
+                } else {
+                    inf[i] = Math.min(inf[i], dfn[next]);
+                }
+            } else {
+                if (inf[i] == dfn[i]) {
+                    int y;
+                    do {
+                        y = stack[--stackIdx];
+                        inStack.clear(y);
+                        if (y < arity) {
+                            restriction.clear(y);
+                        }
+                        nodeSCC[y] = nbSCC;
+                    } while (y != i);
+                    nbSCC++;
+                }
+                inf[p[i]] = Math.min(inf[p[i]], inf[i]);
+                i = p[i];
+            }
+        }
+    }
+
+    private void stepForward(int pre, int sub) {
+        searchIdx++;
+        dfn[sub] = searchIdx;
+        inf[sub] = searchIdx;
+        p[sub] = pre;
+        stack[stackIdx++] = sub;
+        inStack.set(sub);
+        if (sub >= arity) {
+            cursor[sub - arity] = valVarsSize[sub - arity].get();
+        }
+    }
+
+    private boolean filter() throws ContradictionException {
+        distinguish();
+        buildSCC();
+        boolean filter = false;
+        for (int varIdx = 0; varIdx < arity; varIdx++) {
+            IntVar v = vars[varIdx];
+            if (!v.isInstantiated()) {
+                boolean inGamma = !notGamma.contain(varIdx);
+                int ub = v.getUB();
+                for (int k = v.getLB(); k <= ub; k = v.nextValue(k)) {
+                    int valIdx = valueIndex.indexOf(k);
+                    if (!notA.contain(valIdx)) {
+                        continue;
+                    }
+                    if (inGamma) {
+                        metrics.add(Counter.REMOVED_GAMMA, 1);
+                        filter |= v.removeValue(k, aCause);
+                        removeFromValue(valIdx, varIdx, k);
+                    } else if (nodeSCC[varIdx] != nodeSCC[valIdx + arity]) {
+                        if (valIdx == var2Val[varIdx].get()) {
+                            metrics.add(Counter.REMOVED_SCC, v.getDomainSize() - 1);
+                            filter |= v.instantiateTo(k, aCause);
+                        } else {
+                            metrics.add(Counter.REMOVED_SCC, 1);
+                            filter |= v.removeValue(k, aCause);
+                            removeFromValue(valIdx, varIdx, k);
+                        }
+                    }
+                }
+            }
+        }
+        return filter;
+    }
+}
@@ -1,9 +1,10 @@
 package org.chocosolver.solver.constraints.nary.alldifferent.algo;
 
-import amtf.Measurer;
-import gnu.trove.map.hash.TIntIntHashMap;
 import org.chocosolver.solver.ICause;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Counter;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Phase;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.objects.NaiveBitSet;
 import org.chocosolver.util.objects.SparseSet;
@@ -22,8 +23,10 @@ import java.util.BitSet;
  * <p>
  * We try to use the bit to speed up.
  * <p>
- * The version of Fastbit1 can normally run.
- * We try to optimize it from three aspects.
+ * Each edge (x, v) of the value graph is a bit, at index x * numValue + v,
+ * so that the edges of a variable are a range and the edges of a value a column.
+ * The alternating paths are extended with word-level kernels of {@link NaiveBitSet}:
+ * ranged first intersection (edges of a variable) and and-or (edges of a value).
  * <p>
  * 1. initialization
  * 2. bit operation
@@ -40,8 +43,9 @@ public class AlgoAllDiffAC_Fastbit {
     private int n, n2;
     private IntVar[] vars;
     private ICause aCause;
-    // 原map是取值到取值编号的映射，一对一
-    private TIntIntHashMap map;
+    private IPropagatorMetrics metrics;
+    // 取值与取值编号的映射，一对一
+    private ValueIndex valueIndex;
     private DirectedGraph digraph;
     private int[] matching;
     private BitSet free;
@@ -53,8 +57,6 @@ public class AlgoAllDiffAC_Fastbit {
     // 以下是bit版本所需数据结构========================
     // numValue是二部图中取值编号的个数，numBit是二部图的最大边数
     private int numValue;
-    // 需要新增一个取值编号到取值的映射，也是一对一
-    private TIntIntHashMap idToVal;
 
     // 保留边
     private NaiveBitSet leftEdge;
@@ -68,7 +70,7 @@ public class AlgoAllDiffAC_Fastbit {
     // 变量、值的匹配边和非匹配边
     private int[] varMatchedEdge;
     private int[] valMatchedEdge;
-    private NaiveBitSet[] varEdge;
+    // 变量的边是连续区间[x * numValue, (x + 1) * numValue)，故只需记录值的边
     private NaiveBitSet[] valEdge;
 
     // Xc-Γ(A)
@@ -83,28 +85,14 @@ public class AlgoAllDiffAC_Fastbit {
     public AlgoAllDiffAC_Fastbit(IntVar[] variables, ICause cause) {
         this.vars = variables;
         aCause = cause;
+        metrics = IPropagatorMetrics.of(cause);
         n = vars.length;
         // 存储匹配
         matching = new int[n];
         Arrays.fill(matching, -1);
-        map = new TIntIntHashMap();
-        idToVal = new TIntIntHashMap();
-        IntVar v;
-        int ub;
-        int idx = n;
-        // 统计所有变量论域中不同值的个数
-        for (int i = 0; i < n; i++) {
-            v = vars[i];
-            ub = v.getUB();
-            for (int j = v.getLB(); j <= ub; j = v.nextValue(j)) {
-                if (!map.containsKey(j)) {
-                    map.put(j, idx);
-                    idToVal.put(idx, j);
-                    idx++;
-                }
-            }
-        }
-        n2 = idx;
+        // 统计所有变量论域中不同值的个数，值节点编号为n + 取值编号
+        valueIndex = new ValueIndex(vars);
+        n2 = n + valueIndex.size();
         numValue = n2 - n;
         int numBit = n * numValue;
         // 用Bitset邻接矩阵的有向图，因为没有辅助点，所以是n2，非n2 + 1
@@ -126,26 +114,19 @@ public class AlgoAllDiffAC_Fastbit {
 
         varMatchedEdge = new int[n];
         valMatchedEdge = new int[numValue];
-        varEdge = new NaiveBitSet[n];
         valEdge = new NaiveBitSet[numValue];
 
-        for (int i = 0; i < n; ++i) {
-            varEdge[i] = new NaiveBitSet(numBit);
-        }
         for (int i = 0; i < numValue; ++i) {
             valEdge[i] = new NaiveBitSet(numBit);
         }
 
-        // 只在构造函数中，初始化varEdge、valEdge
+        // 只在构造函数中，初始化valEdge
         for (int i = 0; i < n; i++) {
-            v = vars[i];
-            ub = v.getUB();
-            for (int k = v.getLB(); k <= ub; k = v.nextValue(k)) {
-                int j = map.get(k);
+            IntVar v = vars[i];
+            for (int k = v.getLB(), ub = v.getUB(); k <= ub; k = v.nextValue(k)) {
                 // Idx是二部图变量、值和边的索引
-                int valNewIdx = j - n; // 因为建立map时是从n开始的，所以这里需要减去n
+                int valNewIdx = valueIndex.indexOf(k);
                 int edgeIdx = i * numValue + valNewIdx;
-                varEdge[i].set(edgeIdx);
                 valEdge[valNewIdx].set(edgeIdx);
             }
         }
@@ -159,14 +140,13 @@ public class AlgoAllDiffAC_Fastbit {
     //***********************************************************************************
 
     public boolean propagate() throws ContradictionException {
-//        Measurer.propNum++;
-        long startTime = System.nanoTime();
+        long startTime = metrics.start();
         findMaximumMatching();
-        Measurer.matchingTime += System.nanoTime() - startTime;
+        metrics.stop(Phase.MATCHING, startTime);
 
-        startTime = System.nanoTime();
+        startTime = metrics.start();
         boolean filter = filter();
-        Measurer.filterTime += System.nanoTime() - startTime;
+        metrics.stop(Phase.FILTERING, startTime);
         return filter;
     }
 
@@ -195,7 +175,7 @@ public class AlgoAllDiffAC_Fastbit {
             ub = v.getUB();
             int mate = matching[i];
             for (k = v.getLB(); k <= ub; k = v.nextValue(k)) {
-                int j = map.get(k);
+                int j = valueIndex.indexOf(k) + n;
                 // 利用之前已经找到的匹配
                 if (mate == j) {
                     assert free.get(i) && free.get(j);
@@ -235,10 +215,6 @@ public class AlgoAllDiffAC_Fastbit {
 //        for (int a : valMatchedEdge) {
 //            out.println(a);
 //        }
-//        out.println("---varEdge---");
-//        for (NaiveBitSet a : varEdge) {
-//            out.println(a.toString());
-//        }
 //        out.println("---valEdge---");
 //        for (NaiveBitSet a : valEdge) {
 //            out.println(a.toString());
@@ -318,15 +294,15 @@ public class AlgoAllDiffAC_Fastbit {
                 int varIdx = notGamma.next();
                 int fromIdx = varIdx * numValue;
                 int endIdx = fromIdx + numValue - 1;
-//                if (searchEdge.isIntersect(varEdge[varIdx], fromIdx, endIdx) != -1) {
-//                    extended = true;
-//                    searchEdge.set(varMatchedEdge[varIdx]);
-//                    notGamma.remove();
-//                    // 把与匹配值相连的边并入
-//                    int valNewIdx = matching[varIdx] - n;
-//                    searchEdge.addIntersection(valEdge[valNewIdx], leftEdge);
-//                    notA.remove(valNewIdx);
-//                }
+                if (searchEdge.isIntersect(leftEdge, fromIdx, endIdx) != -1) {
+                    extended = true;
+                    searchEdge.set(varMatchedEdge[varIdx]);
+                    notGamma.remove();
+                    // 把与匹配值相连的边并入
+                    int valNewIdx = matching[varIdx] - n;
+                    searchEdge.addIntersection(valEdge[valNewIdx], leftEdge);
+                    notA.remove(valNewIdx);
+                }
             }
         } while (extended);
 
@@ -351,8 +327,11 @@ public class AlgoAllDiffAC_Fastbit {
             while (notGamma.hasNextInvalid()) {
                 varIdx = notGamma.next();
                 v = vars[varIdx];
-                k = idToVal.get(valIdx + n);
-                filter |= v.removeValue(k, aCause);
+                k = valueIndex.valueOf(valIdx);
+                if (v.removeValue(k, aCause)) {
+                    metrics.add(Counter.REMOVED_GAMMA, 1);
+                    filter = true;
+                }
                 leftEdge.clear(varIdx * numValue + valIdx);
             }
         }
@@ -404,12 +383,14 @@ public class AlgoAllDiffAC_Fastbit {
                     // 根据边索引得到对应的变量和取值
                     varIdx = edgeIdx / numValue;
                     IntVar v = vars[varIdx];
-                    int k = idToVal.get(edgeIdx % numValue + n);
+                    int k = valueIndex.valueOf(edgeIdx % numValue);
                     if (matchedEdge.get(edgeIdx)) { // 如果edge是匹配边
+                        metrics.add(Counter.REMOVED_SCC, v.getDomainSize() - 1);
                         filter |= v.instantiateTo(k, aCause);
 //                        System.out.println(v.getName() + " instantiate to " + k);
-                        leftEdge.clear(varEdge[varIdx]);
+                        leftEdge.clear(varIdx * numValue, varIdx * numValue + numValue - 1);
                     } else { // 如果edge是非匹配边
+                        metrics.add(Counter.REMOVED_SCC, 1);
                         filter |= v.removeValue(k, aCause);
 //                        System.out.println(v.getName() + " remove " + k);
                         leftEdge.clear(edgeIdx);
@@ -435,15 +416,15 @@ public class AlgoAllDiffAC_Fastbit {
         searchEdge.clear();
         if (matchedEdge.get(edgeIdx)) { // 如果edge是匹配边
             matchedEdgeIdx = edgeIdx;
-//            searchEdge.addIntersection(valEdge[valNewIdx], leftEdge);
+            searchEdge.addIntersection(valEdge[valNewIdx], leftEdge);
             searchEdge.clear(edgeIdx);
         } else { // 如果edge是非匹配边
             matchedEdgeIdx = valMatchedEdge[valNewIdx];
             searchEdge.set(edgeIdx);
         }
-//                Measurer.propNum++;
+        metrics.add(Counter.SCC_CHECKS, 1);
         // 开始搜索
-        long startTime = System.nanoTime();
+        long startTime = metrics.start();
         boolean extended;
         notGamma.restore();
         do {
@@ -451,27 +432,26 @@ public class AlgoAllDiffAC_Fastbit {
             // 头部扩展，匹配变量
             notGamma.iterateValid();
             while (notGamma.hasNextValid()) {
-                Measurer.propNum++;
                 int varIdx = notGamma.next();
                 int fromIdx = varIdx * numValue;
                 int endIdx = fromIdx + numValue - 1;
-//                int intersectEdgeIdx = searchEdge.isIntersect(varEdge[varIdx], fromIdx, endIdx);
-//                if (intersectEdgeIdx != -1) {
-//                    extended = true;
-//                    // 记录路径, 变量的一条入边
-//                    father[varIdx] = intersectEdgeIdx;
-//                    notGamma.remove();
-//                    if (varMatchedEdge[varIdx] == matchedEdgeIdx) {
-//                        Measurer.checkSCCTime += System.nanoTime() - startTime;
-//                        return true;
-//                    }
-//                    // 把与匹配值相连的边并入
-//                    valNewIdx = matching[varIdx] - n;
-////                    searchEdge.addIntersection(valEdge[valNewIdx], leftEdge);
-//                }
+                int intersectEdgeIdx = searchEdge.isIntersect(leftEdge, fromIdx, endIdx);
+                if (intersectEdgeIdx != -1) {
+                    extended = true;
+                    // 记录路径, 变量的一条入边
+                    father[varIdx] = intersectEdgeIdx;
+                    notGamma.remove();
+                    if (varMatchedEdge[varIdx] == matchedEdgeIdx) {
+                        metrics.stop(Phase.SCC, startTime);
+                        return true;
+                    }
+                    // 把与匹配值相连的边并入
+                    valNewIdx = matching[varIdx] - n;
+                    searchEdge.addIntersection(valEdge[valNewIdx], leftEdge);
+                }
             }
         } while (extended);
-        Measurer.checkSCCTime += System.nanoTime() - startTime;
+        metrics.stop(Phase.SCC, startTime);
         return false;
     }
 
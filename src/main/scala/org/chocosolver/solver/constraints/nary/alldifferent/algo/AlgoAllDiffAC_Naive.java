@@ -1,8 +1,5 @@
 package org.chocosolver.solver.constraints.nary.alldifferent.algo;
 
-import amtf.Measurer;
-import gnu.trove.iterator.TIntIntIterator;
-import gnu.trove.map.hash.TIntIntHashMap;
 import org.chocosolver.solver.ICause;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.variables.IntVar;
@@ -31,5 +28,18 @@ public abstract class AlgoAllDiffAC_Naive {
 
     public abstract boolean propagate() throws ContradictionException;
 
+    /**
+     * Check whether removing <i>value</i> from the variable <i>varIdx</i> leaves the last filtering valid,
+     * in which case the propagator does not need to run {@link #propagate()} again.
+     * By default, no removal is considered as safe.
+     *
+     * @param varIdx index of a variable
+     * @param value  a value removed from the variable
+     * @return <i>true</i> if the filtering does not need to be run again because of this removal
+     */
+    public boolean isSafeRemoval(int varIdx, int value) {
+        return false;
+    }
+
 
 }
\ No newline at end of file
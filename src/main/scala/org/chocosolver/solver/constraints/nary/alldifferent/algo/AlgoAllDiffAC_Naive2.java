@@ -1,10 +1,10 @@
 package org.chocosolver.solver.constraints.nary.alldifferent.algo;
 
-import amtf.Measurer;
-import gnu.trove.iterator.TIntIntIterator;
-import gnu.trove.map.hash.TIntIntHashMap;
 import org.chocosolver.solver.ICause;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Counter;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Phase;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.objects.NaiveBitSet;
 import org.chocosolver.util.objects.SparseSet;
@@ -34,6 +34,7 @@ public class AlgoAllDiffAC_Naive2 extends AlgoAllDiffAC_Naive {
     private int arity;
     private IntVar[] vars;
     private ICause aCause;
+    private IPropagatorMetrics metrics;
 
     // 自由值集合
     private SparseSet freeNode;
@@ -41,10 +42,8 @@ public class AlgoAllDiffAC_Naive2 extends AlgoAllDiffAC_Naive {
     // 以下是bit版本所需数据结构========================
     // numValue是二部图中取值编号的个数，numBit是二部图的最大边数
     private int numValue;
-    // 值到索引
-    private int[] idx2Val;
-    // 索引到值
-    private TIntIntHashMap val2Idx;
+    // 取值与取值编号的映射
+    private ValueIndex valueIndex;
 
     // Xc-Γ(A)
     private SparseSet notGamma;
@@ -85,29 +84,11 @@ public class AlgoAllDiffAC_Naive2 extends AlgoAllDiffAC_Naive {
 
         this.vars = variables;
         aCause = cause;
+        metrics = IPropagatorMetrics.of(cause);
         arity = vars.length;
-        val2Idx = new TIntIntHashMap();
-        IntVar v;
         // 统计所有变量论域中不同值的个数
-        for (int i = 0; i < arity; ++i) {
-            v = vars[i];
-            for (int j = v.getLB(), ub = v.getUB(); j <= ub; j = v.nextValue(j)) {
-                if (!val2Idx.containsKey(j)) {
-                    val2Idx.put(j, val2Idx.size());
-                }
-            }
-        }
-
-        numValue = val2Idx.size();
-        idx2Val = new int[numValue];
-        TIntIntIterator it = val2Idx.iterator();
-        while (it.hasNext()) {
-            it.advance();
-            idx2Val[it.value()] = it.key();
-        }
-
-//        System.out.println("-----------idx2Val-----------");
-//        System.out.println(Arrays.toString(idx2Val));
+        valueIndex = new ValueIndex(vars);
+        numValue = valueIndex.size();
 
         valMask = new NaiveBitSet[numValue];
         for (int i = 0; i < numValue; ++i) {
@@ -156,13 +137,13 @@ public class AlgoAllDiffAC_Naive2 extends AlgoAllDiffAC_Naive {
 //                System.out.println(v.toString());
 //            }
 //        }
-        long startTime = System.nanoTime();
+        long startTime = metrics.start();
         findMaximumMatching();
-        Measurer.matchingTime += System.nanoTime() - startTime;
+        metrics.stop(Phase.MATCHING, startTime);
 
-        startTime = System.nanoTime();
+        startTime = metrics.start();
         boolean filter = filter();
-        Measurer.filterTime += System.nanoTime() - startTime;
+        metrics.stop(Phase.FILTERING, startTime);
         return filter;
     }
 
@@ -196,7 +177,7 @@ public class AlgoAllDiffAC_Naive2 extends AlgoAllDiffAC_Naive {
             IntVar v = vars[node];
 
             for (int value = v.getLB(), ub = v.getUB(); value <= ub; value = v.nextValue(value)) {
-                int valIdx = val2Idx.get(value);
+                int valIdx = valueIndex.indexOf(value);
                 if (value_visited_.get(valIdx)) continue;
                 value_visited_.set(valIdx);
                 if (val2Var[valIdx] == -1) {
@@ -264,7 +245,7 @@ public class AlgoAllDiffAC_Naive2 extends AlgoAllDiffAC_Naive {
             // !! 这里可以修改一下 已赋值 就不参与修改了
             if (v.getDomainSize() == 1) {
                 // 取出变量的唯一值
-                int valIdx = val2Idx.get(v.getValue());
+                int valIdx = valueIndex.indexOf(v.getValue());
                 valMask[valIdx].set(varIdx);
 //                System.out.println(v.getName() + " : " + varIdx + " is singleton = " + v.getValue() + " : " + valIdx);
 
@@ -287,7 +268,7 @@ public class AlgoAllDiffAC_Naive2 extends AlgoAllDiffAC_Naive {
                 int oldMatchingIndex = var2Val[varIdx];
                 if (oldMatchingIndex != -1) {
                     // 如果oldMatchingValue无效
-                    if (!v.contains(idx2Val[oldMatchingIndex])) {
+                    if (!v.contains(valueIndex.valueOf(oldMatchingIndex))) {
                         val2Var[oldMatchingIndex] = -1;
                         var2Val[varIdx] = -1;
                     } else {
@@ -298,7 +279,7 @@ public class AlgoAllDiffAC_Naive2 extends AlgoAllDiffAC_Naive {
                 }
 
                 for (int value = v.getLB(), ub = v.getUB(); value <= ub; value = v.nextValue(value)) {
-                    int valIdx = val2Idx.get(value);
+                    int valIdx = valueIndex.indexOf(value);
                     // Forward-checking should propagate xsu != value.
                     // !! 可以增量修改值
                     valMask[valIdx].set(varIdx);
@@ -321,7 +302,7 @@ public class AlgoAllDiffAC_Naive2 extends AlgoAllDiffAC_Naive {
 //        if (id == 2) {
 //            System.out.println("-----final matching-----");
 //            for (int i = 0; i < arity; i++) {
-//                System.out.println(vars[i].getName() + " match " + idx2Val[var2Val[i]]);
+//                System.out.println(vars[i].getName() + " match " + valueIndex.valueOf(var2Val[i]));
 //            }
 //            System.out.println("------------------");
 //        }
@@ -393,9 +374,9 @@ public class AlgoAllDiffAC_Naive2 extends AlgoAllDiffAC_Naive {
             if (!v.isInstantiated()) {
                 int ub = v.getUB();
                 for (int k = v.getLB(); k <= ub; k = v.nextValue(k)) {
-                    int valIdx = val2Idx.get(k);
+                    int valIdx = valueIndex.indexOf(k);
                     if (!notGamma.contain(varIdx) && notA.contain(valIdx)) {
-                        ++Measurer.numDelValuesP1;
+                        metrics.add(Counter.REMOVED_GAMMA, 1);
                         filter |= v.removeValue(k, aCause);
                         //                System.out.println("first delete: " + v.getName() + ", " + k);
                     } else if (notGamma.contain(varIdx) && notA.contain(valIdx)) {
@@ -403,10 +384,10 @@ public class AlgoAllDiffAC_Naive2 extends AlgoAllDiffAC_Naive {
                             if (valIdx == var2Val[varIdx]) {
                                 int valNum = v.getDomainSize();
                                 filter |= v.instantiateTo(k, aCause);
-                                Measurer.numDelValuesP2 += valNum - 1;
+                                metrics.add(Counter.REMOVED_SCC, valNum - 1);
 //                            System.out.println("instantiate  : " + v.getName() + ", " + k);
                             } else {
-                                ++Measurer.numDelValuesP2;
+                                metrics.add(Counter.REMOVED_SCC, 1);
                                 filter |= v.removeValue(k, aCause);
 //                            System.out.println("second delete: " + v.getName() + ", " + k);
                             }
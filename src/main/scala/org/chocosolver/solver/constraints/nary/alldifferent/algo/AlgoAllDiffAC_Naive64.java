@@ -1,11 +1,11 @@
 package org.chocosolver.solver.constraints.nary.alldifferent.algo;
 
-import amtf.Measurer;
-import gnu.trove.iterator.TIntIntIterator;
-import gnu.trove.map.hash.TIntIntHashMap;
 import org.chocosolver.memory.trailing.trail.chunck.World;
 import org.chocosolver.solver.ICause;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Counter;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Phase;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.objects.NaiveBitSet;
 import org.chocosolver.util.objects.SparseSet;
@@ -37,6 +37,7 @@ public class AlgoAllDiffAC_Naive64 extends AlgoAllDiffAC_Naive {
     private int arity;
     private IntVar[] vars;
     private ICause aCause;
+    private IPropagatorMetrics metrics;
 
     // 自由值集合
     private SparseSet freeNode;
@@ -44,15 +45,15 @@ public class AlgoAllDiffAC_Naive64 extends AlgoAllDiffAC_Naive {
     // 以下是bit版本所需数据结构========================
     // numValue是二部图中取值编号的个数，numBit是二部图的最大边数
     private int numValue;
-    // 值到索引
-    private int[] idx2Val;
-    // 索引到值
-    private TIntIntHashMap val2Idx;
+    // 取值与取值编号的映射
+    private ValueIndex valueIndex;
 
     // Xc-Γ(A)
     private SparseSet notGamma;
     // Dc-A
     private SparseSet notA;
+    // 变量进入Γ(A)所经由的取值编号（BFS树），不在Γ(A)中为-1
+    private int[] gammaFrom;
 
     // 已访问过的变量和值
     private long variable_visited_;
@@ -99,29 +100,11 @@ public class AlgoAllDiffAC_Naive64 extends AlgoAllDiffAC_Naive {
 
         this.vars = variables;
         aCause = cause;
+        metrics = IPropagatorMetrics.of(cause);
         arity = vars.length;
-        val2Idx = new TIntIntHashMap();
-        IntVar v;
         // 统计所有变量论域中不同值的个数
-        for (int i = 0; i < arity; ++i) {
-            v = vars[i];
-            for (int j = v.getLB(), ub = v.getUB(); j <= ub; j = v.nextValue(j)) {
-                if (!val2Idx.containsKey(j)) {
-                    val2Idx.put(j, val2Idx.size());
-                }
-            }
-        }
-
-        numValue = val2Idx.size();
-        idx2Val = new int[numValue];
-        TIntIntIterator it = val2Idx.iterator();
-        while (it.hasNext()) {
-            it.advance();
-            idx2Val[it.value()] = it.key();
-        }
-
-//        System.out.println("-----------idx2Val-----------");
-//        System.out.println(Arrays.toString(idx2Val));
+        valueIndex = new ValueIndex(vars);
+        numValue = valueIndex.size();
 
         valMask = new long[numValue];
 
@@ -143,6 +126,8 @@ public class AlgoAllDiffAC_Naive64 extends AlgoAllDiffAC_Naive {
 
         notGamma = new SparseSet(arity);
         notA = new SparseSet(numValue);
+        gammaFrom = new int[arity];
+        Arrays.fill(gammaFrom, -1);
         freeNode = new SparseSet(numValue);
         gammaFrontier = 0L;
         gammaMask = 0L;
@@ -164,16 +149,37 @@ public class AlgoAllDiffAC_Naive64 extends AlgoAllDiffAC_Naive {
 //                System.out.println(v.toString());
 //            }
 //        }
-        long startTime = System.nanoTime();
+        // 匹配可能被修改，过滤完成前不能跳过任何删值
+        Arrays.fill(gammaFrom, -1);
+        long startTime = metrics.start();
         findMaximumMatching();
-        Measurer.matchingTime += System.nanoTime() - startTime;
+        metrics.stop(Phase.MATCHING, startTime);
 
-        startTime = System.nanoTime();
+        startTime = metrics.start();
         boolean filter = filter();
-        Measurer.filterTime += System.nanoTime() - startTime;
+        metrics.stop(Phase.FILTERING, startTime);
         return filter;
     }
 
+    /**
+     * Check, in O(1), whether removing <i>value</i> from the variable <i>varIdx</i> leaves the last filtering valid.
+     * This is the case when the variable belongs to Γ(A) and the value is in A, but is neither its matched value
+     * nor the value through which it was reached from a free value:
+     * the matching and the alternating paths from the free values are kept, so are Γ(A), A and the SCCs.
+     *
+     * @param varIdx index of a variable
+     * @param value  a value removed from the variable
+     * @return <i>true</i> if the filtering does not need to be run again because of this removal
+     */
+    public boolean isSafeRemoval(int varIdx, int value) {
+        int from = gammaFrom[varIdx];
+        if (from < 0) {
+            return false;
+        }
+        int valIdx = valueIndex.indexOf(value);
+        return valIdx != from && valIdx != var2Val[varIdx] && !notA.contain(valIdx);
+    }
+
     //***********************************************************************************
     // Initialization
     //***********************************************************************************
@@ -204,7 +210,7 @@ public class AlgoAllDiffAC_Naive64 extends AlgoAllDiffAC_Naive {
             v = vars[node];
 //            for (int value = varMask[node].nextSetBit(0); value != -1; value = varMask[node].nextSetBit(value + 1)) {
             for (int val = v.getLB(), ub = v.getUB(); val <= ub; val = v.nextValue(val)) {
-                int value = val2Idx.get(val);
+                int value = valueIndex.indexOf(val);
 //                valMask[value] |= 1L << node;
 //                valMask[value] |= 1L << varIdx;
                 if (value_visited_.get(value)) continue;
@@ -275,7 +281,7 @@ public class AlgoAllDiffAC_Naive64 extends AlgoAllDiffAC_Naive {
             // !! 这里可以修改一下 已赋值 就不参与修改了
             if (v.getDomainSize() == 1) {
                 // 取出变量的唯一值
-                int valIdx = val2Idx.get(v.getValue());
+                int valIdx = valueIndex.indexOf(v.getValue());
 //                System.out.println(v.getName() + " : " + varIdx + " is singleton = " + v.getValue() + " : " + valIdx);
 
                 int oldValIdx = var2Val[varIdx];
@@ -298,7 +304,7 @@ public class AlgoAllDiffAC_Naive64 extends AlgoAllDiffAC_Naive {
                 int oldMatchingIndex = var2Val[varIdx];
                 if (oldMatchingIndex != -1) {
                     // 如果oldMatchingValue无效
-                    if (!v.contains(idx2Val[oldMatchingIndex])) {
+                    if (!v.contains(valueIndex.valueOf(oldMatchingIndex))) {
                         val2Var[oldMatchingIndex] = -1;
                         var2Val[varIdx] = -1;
                     } else {
@@ -307,7 +313,7 @@ public class AlgoAllDiffAC_Naive64 extends AlgoAllDiffAC_Naive {
                 }
 
                 for (int value = v.getLB(), ub = v.getUB(); value <= ub; value = v.nextValue(value)) {
-                    int valIdx = val2Idx.get(value);
+                    int valIdx = valueIndex.indexOf(value);
                     // Forward-checking should propagate xsu != value.
                     valMask[valIdx] |= 1L << varIdx;
                 }
@@ -330,7 +336,7 @@ public class AlgoAllDiffAC_Naive64 extends AlgoAllDiffAC_Naive {
 //        if (id == 2) {
 //            System.out.println("-----final matching-----");
 //            for (int i = 0; i < arity; i++) {
-//                System.out.println(vars[i].getName() + " match " + idx2Val[var2Val[i]]);
+//                System.out.println(vars[i].getName() + " match " + valueIndex.valueOf(var2Val[i]));
 //            }
 //            System.out.println("------------------");
 //        }
@@ -352,6 +358,7 @@ public class AlgoAllDiffAC_Naive64 extends AlgoAllDiffAC_Naive {
         while (freeNode.hasNextValid()) {
             int i = freeNode.next();
             notA.remove(i);
+            setGammaFrom(valMask[i] & ~gammaMask, i);
             gammaMask |= valMask[i];
         }
         gammaFrontier = gammaMask;
@@ -359,6 +366,7 @@ public class AlgoAllDiffAC_Naive64 extends AlgoAllDiffAC_Naive {
         for (int varIdx = nextSetBit(gammaFrontier, 0);
              varIdx != BITS_PER_WORD; varIdx = nextSetBit(gammaFrontier, 0)) {
             int valIdx = var2Val[varIdx];
+            setGammaFrom(valMask[valIdx] & ~gammaMask, valIdx);
             gammaFrontier |= valMask[valIdx] & ~gammaMask;
             // 除去第i个变量
             gammaFrontier &= ~(1L << varIdx);
@@ -370,6 +378,14 @@ public class AlgoAllDiffAC_Naive64 extends AlgoAllDiffAC_Naive {
 
     }
 
+    private void setGammaFrom(long added, int valIdx) {
+        // added中的变量经由取值valIdx进入Γ(A)
+        while (added != 0L) {
+            gammaFrom[Long.numberOfTrailingZeros(added)] = valIdx;
+            added &= added - 1;
+        }
+    }
+
     private void initiateMatrix() {
         // 重置两个矩阵
         // 只重置notGamma的变量
@@ -395,9 +411,9 @@ public class AlgoAllDiffAC_Naive64 extends AlgoAllDiffAC_Naive {
             if (!v.isInstantiated()) {
                 int ub = v.getUB();
                 for (int k = v.getLB(); k <= ub; k = v.nextValue(k)) {
-                    int valIdx = val2Idx.get(k);
+                    int valIdx = valueIndex.indexOf(k);
                     if (!notGamma.contain(varIdx) && notA.contain(valIdx)) {
-                        ++Measurer.numDelValuesP1;
+                        metrics.add(Counter.REMOVED_GAMMA, 1);
                         filter |= v.removeValue(k, aCause);
                         //                System.out.println("first delete: " + v.getName() + ", " + k);
                     } else if (notGamma.contain(varIdx) && notA.contain(valIdx)) {
@@ -405,10 +421,10 @@ public class AlgoAllDiffAC_Naive64 extends AlgoAllDiffAC_Naive {
                             if (valIdx == var2Val[varIdx]) {
                                 int valNum = v.getDomainSize();
                                 filter |= v.instantiateTo(k, aCause);
-                                Measurer.numDelValuesP2 += valNum - 1;
+                                metrics.add(Counter.REMOVED_SCC, valNum - 1);
 //                            System.out.println("instantiate  : " + v.getName() + ", " + k);
                             } else {
-                                ++Measurer.numDelValuesP2;
+                                metrics.add(Counter.REMOVED_SCC, 1);
                                 filter |= v.removeValue(k, aCause);
 //                            System.out.println("second delete: " + v.getName() + ", " + k);
                             }
@@ -0,0 +1,427 @@
+package org.chocosolver.solver.constraints.nary.alldifferent.algo;
+
+import org.chocosolver.solver.ICause;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Counter;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Phase;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.objects.NaiveBitSet;
+import org.chocosolver.util.objects.SparseSet;
+
+import java.util.Arrays;
+
+/**
+ * Algorithm of Alldifferent with AC
+ * <p>
+ * Uses Zhang algorithm in the paper of IJCAI-18
+ * "A Fast Algorithm for Generalized Arc Consistency of the Alldifferent Constraint"
+ * <p>
+ * Same as {@link AlgoAllDiffAC_Naive64} for any number of variables:
+ * each set of variables is stored on <i>nbWords</i> consecutive longs of a flat array,
+ * and the frontiers are expanded a whole word at a time.
+ * <p>
+ *
+ * @author Jia'nan Chen
+ */
+public class AlgoAllDiffAC_NaiveN extends AlgoAllDiffAC_Naive {
+
+    //***********************************************************************************
+    // VARIABLES
+    //***********************************************************************************
+
+    private int arity;
+    private IntVar[] vars;
+    private ICause aCause;
+    private IPropagatorMetrics metrics;
+
+    // 每个变量集合所占的long个数
+    private int nbWords;
+
+    // 自由值集合
+    private SparseSet freeNode;
+
+    // numValue是二部图中取值编号的个数
+    private int numValue;
+    // 取值与取值编号的映射
+    private ValueIndex valueIndex;
+
+    // Xc-Γ(A)
+    private SparseSet notGamma;
+    // Dc-A
+    private SparseSet notA;
+    // 变量进入Γ(A)所经由的取值编号（BFS树），不在Γ(A)中为-1
+    private int[] gammaFrom;
+
+    // 已访问过的值
+    private NaiveBitSet value_visited_;
+
+    // matching
+    private int[] val2Var;
+    private int[] var2Val;
+
+    // 记录队列
+    private int[] visiting_;
+    private int[] variable_visited_from_;
+
+    // 与值相连的变量，值i的集合位于[i * nbWords, (i + 1) * nbWords)
+    private long[] valMask;
+
+    // 变量到变量的连通性，变量i的集合位于[i * nbWords, (i + 1) * nbWords)
+    // 对于惰性算法，记录是否知道-变量到变量的连通性
+    private long[] graphLinkedMatrix;
+    private long[] graphLinkedFrontier;
+
+    // 记录gamma的前沿
+    private long[] gammaFrontier;
+    // 记录gamma的bitset
+    private long[] gammaMask;
+
+    protected final static int ADDRESS_BITS_PER_WORD = 6;
+    protected final static int BIT_INDEX_MASK = (1 << ADDRESS_BITS_PER_WORD) - 1;
+
+    //***********************************************************************************
+    // CONSTRUCTORS
+    //***********************************************************************************
+
+    public AlgoAllDiffAC_NaiveN(IntVar[] variables, ICause cause) {
+        super(variables, cause);
+        this.vars = variables;
+        aCause = cause;
+        metrics = IPropagatorMetrics.of(cause);
+        arity = vars.length;
+        nbWords = (arity + BIT_INDEX_MASK) >>> ADDRESS_BITS_PER_WORD;
+        // 统计所有变量论域中不同值的个数
+        valueIndex = new ValueIndex(vars);
+        numValue = valueIndex.size();
+
+        valMask = new long[numValue * nbWords];
+
+        visiting_ = new int[arity];
+        // 变量的前驱变量，若前驱变量是-1，则表示无前驱变量，就是第一个变量
+        variable_visited_from_ = new int[arity];
+        value_visited_ = new NaiveBitSet(numValue);
+
+        var2Val = new int[arity];
+        val2Var = new int[numValue];
+        for (int i = 0; i < arity; ++i) {
+            var2Val[i] = -1;
+        }
+        for (int i = 0; i < numValue; ++i) {
+            val2Var[i] = -1;
+        }
+
+        notGamma = new SparseSet(arity);
+        notA = new SparseSet(numValue);
+        gammaFrom = new int[arity];
+        Arrays.fill(gammaFrom, -1);
+        freeNode = new SparseSet(numValue);
+        gammaFrontier = new long[nbWords];
+        gammaMask = new long[nbWords];
+
+        graphLinkedMatrix = new long[arity * nbWords];
+        graphLinkedFrontier = new long[arity * nbWords];
+    }
+
+    //***********************************************************************************
+    // PROPAGATION
+    //***********************************************************************************
+
+    public boolean propagate() throws ContradictionException {
+        // 匹配可能被修改，过滤完成前不能跳过任何删值
+        Arrays.fill(gammaFrom, -1);
+        long startTime = metrics.start();
+        findMaximumMatching();
+        metrics.stop(Phase.MATCHING, startTime);
+
+        startTime = metrics.start();
+        boolean filter = filter();
+        metrics.stop(Phase.FILTERING, startTime);
+        return filter;
+    }
+
+    /**
+     * Check, in O(1), whether removing <i>value</i> from the variable <i>varIdx</i> leaves the last filtering valid.
+     * This is the case when the variable belongs to Γ(A) and the value is in A, but is neither its matched value
+     * nor the value through which it was reached from a free value:
+     * the matching and the alternating paths from the free values are kept, so are Γ(A), A and the SCCs.
+     *
+     * @param varIdx index of a variable
+     * @param value  a value removed from the variable
+     * @return <i>true</i> if the filtering does not need to be run again because of this removal
+     */
+    public boolean isSafeRemoval(int varIdx, int value) {
+        int from = gammaFrom[varIdx];
+        if (from < 0) {
+            return false;
+        }
+        int valIdx = valueIndex.indexOf(value);
+        return valIdx != from && valIdx != var2Val[varIdx] && !notA.contain(valIdx);
+    }
+
+    //***********************************************************************************
+    // Initialization
+    //***********************************************************************************
+
+    private void MakeAugmentingPath(int start) {
+        // 从变量start开始BFS，visiting_作为队列，
+        // variable_visited_from_记录BFS树，找到自由值后沿树回溯修改匹配
+        // 值只经由其匹配变量入队，故只需记录访问过的值
+        int num_to_visit = 0;
+        int num_visited = 0;
+        visiting_[num_to_visit++] = start;
+        variable_visited_from_[start] = -1;
+        IntVar v;
+        while (num_visited < num_to_visit) {
+            int node = visiting_[num_visited++];
+            v = vars[node];
+            for (int val = v.getLB(), ub = v.getUB(); val <= ub; val = v.nextValue(val)) {
+                int value = valueIndex.indexOf(val);
+                if (value_visited_.get(value)) continue;
+                value_visited_.set(value);
+                if (val2Var[value] == -1) {
+                    // 未匹配值，沿路径修改匹配
+                    int path_node = node;
+                    int path_value = value;
+                    while (path_node != -1) {
+                        int old_value = var2Val[path_node];
+                        var2Val[path_node] = path_value;
+                        val2Var[path_value] = path_node;
+                        path_node = variable_visited_from_[path_node];
+                        path_value = old_value;
+                    }
+                    freeNode.remove(value);
+                    return;
+                } else {
+                    // 该值的匹配变量入队
+                    int next_node = val2Var[value];
+                    visiting_[num_to_visit++] = next_node;
+                    variable_visited_from_[next_node] = node;
+                    freeNode.remove(value);
+                }
+            }
+        }
+    }
+
+    private void findMaximumMatching() throws ContradictionException {
+        for (int i = 0; i < valMask.length; ++i) {
+            valMask[i] = 0L;
+        }
+
+        freeNode.fill();
+
+        // matching 有效性检查
+        for (int varIdx = 0; varIdx < arity; varIdx++) {
+            IntVar v = vars[varIdx];
+            if (v.getDomainSize() == 1) {
+                int valIdx = valueIndex.indexOf(v.getValue());
+
+                int oldValIdx = var2Val[varIdx];
+                int oldVarIdx = val2Var[valIdx];
+
+                if (oldValIdx != -1 && oldValIdx != valIdx) {
+                    val2Var[oldValIdx] = -1;
+                }
+                if (oldVarIdx != -1 && oldVarIdx != varIdx) {
+                    var2Val[oldVarIdx] = -1;
+                }
+
+                val2Var[valIdx] = varIdx;
+                var2Val[varIdx] = valIdx;
+
+                freeNode.remove(valIdx);
+
+            } else {
+                // 检查原匹配是否失效
+                int oldMatchingIndex = var2Val[varIdx];
+                if (oldMatchingIndex != -1) {
+                    if (!v.contains(valueIndex.valueOf(oldMatchingIndex))) {
+                        val2Var[oldMatchingIndex] = -1;
+                        var2Val[varIdx] = -1;
+                    } else {
+                        freeNode.remove(oldMatchingIndex);
+                    }
+                }
+
+                int word = varIdx >>> ADDRESS_BITS_PER_WORD;
+                long bit = 1L << varIdx;
+                for (int value = v.getLB(), ub = v.getUB(); value <= ub; value = v.nextValue(value)) {
+                    valMask[valueIndex.indexOf(value) * nbWords + word] |= bit;
+                }
+            }
+        }
+
+        // Compute max matching.
+        for (int varIdx = 0; varIdx < arity; varIdx++) {
+            if (var2Val[varIdx] == -1) {
+                value_visited_.clear();
+                MakeAugmentingPath(varIdx);
+            }
+            if (var2Val[varIdx] == -1) {
+                // No augmenting path exists.
+                vars[0].instantiateTo(vars[0].getLB() - 1, aCause);
+            }
+        }
+    }
+
+    //***********************************************************************************
+    // PRUNING
+    //***********************************************************************************
+
+    private void distinguish() {
+        notGamma.fill();
+        notA.fill();
+        for (int k = 0; k < nbWords; k++) {
+            gammaMask[k] = 0L;
+        }
+
+        freeNode.iterateValid();
+        while (freeNode.hasNextValid()) {
+            int valIdx = freeNode.next();
+            notA.remove(valIdx);
+            int base = valIdx * nbWords;
+            for (int k = 0; k < nbWords; k++) {
+                setGammaFrom(k, valMask[base + k] & ~gammaMask[k], valIdx);
+                gammaMask[k] |= valMask[base + k];
+            }
+        }
+        System.arraycopy(gammaMask, 0, gammaFrontier, 0, nbWords);
+
+        // 按字扩展前沿：取出一个字中的全部变量，再把它们匹配值相连的新变量并入
+        int w = 0;
+        while (w < nbWords) {
+            long word = gammaFrontier[w];
+            if (word == 0L) {
+                w++;
+                continue;
+            }
+            gammaFrontier[w] = 0L;
+            int lowest = w;
+            while (word != 0L) {
+                int varIdx = (w << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                int valIdx = var2Val[varIdx];
+                int base = valIdx * nbWords;
+                for (int k = 0; k < nbWords; k++) {
+                    long added = valMask[base + k] & ~gammaMask[k];
+                    if (added != 0L) {
+                        setGammaFrom(k, added, valIdx);
+                        gammaMask[k] |= added;
+                        gammaFrontier[k] |= added;
+                        if (k < lowest) {
+                            lowest = k;
+                        }
+                    }
+                }
+                notGamma.remove(varIdx);
+                notA.remove(valIdx);
+            }
+            w = lowest;
+        }
+    }
+
+    private void setGammaFrom(int word, long added, int valIdx) {
+        // 第word个字中added的变量经由取值valIdx进入Γ(A)
+        while (added != 0L) {
+            gammaFrom[(word << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(added)] = valIdx;
+            added &= added - 1;
+        }
+    }
+
+    private void initiateMatrix() {
+        // 只重置notGamma的变量
+        notGamma.iterateValid();
+        while (notGamma.hasNextValid()) {
+            int varIdx = notGamma.next();
+            // 从变量id拿到匹配值再拿到该值所能到达的变量mask
+            if (!vars[varIdx].isInstantiated()) {
+                int row = varIdx * nbWords;
+                int base = var2Val[varIdx] * nbWords;
+                for (int k = 0; k < nbWords; k++) {
+                    long m = valMask[base + k] & ~gammaMask[k];
+                    graphLinkedMatrix[row + k] = m;
+                    graphLinkedFrontier[row + k] = m;
+                }
+                int own = row + (varIdx >>> ADDRESS_BITS_PER_WORD);
+                graphLinkedMatrix[own] &= ~(1L << varIdx);
+                graphLinkedFrontier[own] &= ~(1L << varIdx);
+            }
+        }
+    }
+
+    private boolean filter() throws ContradictionException {
+        distinguish();
+        initiateMatrix();
+        boolean filter = false;
+        for (int varIdx = 0; varIdx < arity; varIdx++) {
+            IntVar v = vars[varIdx];
+            if (!v.isInstantiated()) {
+                int ub = v.getUB();
+                for (int k = v.getLB(); k <= ub; k = v.nextValue(k)) {
+                    int valIdx = valueIndex.indexOf(k);
+                    if (!notGamma.contain(varIdx) && notA.contain(valIdx)) {
+                        metrics.add(Counter.REMOVED_GAMMA, 1);
+                        filter |= v.removeValue(k, aCause);
+                    } else if (notGamma.contain(varIdx) && notA.contain(valIdx)) {
+                        if (!linked(varIdx, val2Var[valIdx]) && !checkSCC(varIdx, valIdx)) {
+                            if (valIdx == var2Val[varIdx]) {
+                                int valNum = v.getDomainSize();
+                                filter |= v.instantiateTo(k, aCause);
+                                metrics.add(Counter.REMOVED_SCC, valNum - 1);
+                            } else {
+                                metrics.add(Counter.REMOVED_SCC, 1);
+                                filter |= v.removeValue(k, aCause);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return filter;
+    }
+
+    private boolean linked(int varIdx, int target) {
+        return (graphLinkedMatrix[varIdx * nbWords + (target >>> ADDRESS_BITS_PER_WORD)] & 1L << target) != 0L;
+    }
+
+    private boolean checkSCC(int varIdx, int valIdx) {
+        int target = val2Var[valIdx];
+        int row = varIdx * nbWords;
+        int targetWord = row + (target >>> ADDRESS_BITS_PER_WORD);
+        long targetBit = 1L << target;
+        int w = 0;
+        while (w < nbWords) {
+            long word = graphLinkedFrontier[row + w];
+            if (word == 0L) {
+                w++;
+                continue;
+            }
+            graphLinkedFrontier[row + w] = 0L;
+            int lowest = w;
+            while (word != 0L) {
+                int i = (w << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                // 并入变量i已知的可达变量，新增的变量加入前沿
+                int base = i * nbWords;
+                for (int k = 0; k < nbWords; k++) {
+                    long added = graphLinkedMatrix[base + k] & ~graphLinkedMatrix[row + k];
+                    if (added != 0L) {
+                        graphLinkedMatrix[row + k] |= added;
+                        graphLinkedFrontier[row + k] |= added;
+                        if (k < lowest) {
+                            lowest = k;
+                        }
+                    }
+                }
+                if ((graphLinkedMatrix[targetWord] & targetBit) != 0L) {
+                    // 尚未扩展的变量留在前沿中
+                    graphLinkedFrontier[row + w] |= word;
+                    return true;
+                }
+            }
+            w = lowest;
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,258 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.alldifferent.algo;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.solver.variables.IntVar;
+
+import java.util.BitSet;
+
+/**
+ * Partition of the variables of an AllDifferent constraint into independent components,
+ * that is the connected components of the value graph: two variables are in the same component
+ * if they are linked by a chain of variables sharing values.
+ * <p/>
+ * Since domains only shrink down a branch, a component can only split:
+ * once at a fixpoint, each component can be filtered alone and only the components
+ * whose variables have been modified need to be filtered again.
+ * A component made of a single variable (in particular, an instantiated variable whose value
+ * is not shared anymore) is dropped: it can not be filtered.
+ * <p/>
+ * The components are contiguous ranges of {@link #getVars()}, the ranges being restored on backtrack.
+ * Typical use in a propagator:
+ * <pre>
+ *     int s;
+ *     while ((s = components.pollDirty()) >= 0) {
+ *         filter.propagate(components.getVars(), s, components.getEnd(s));
+ *         components.split(s);
+ *     }
+ * </pre>
+ * <p/>
+ *
+ * @author Jia'nan Chen
+ */
+public class AllDiffComponents {
+
+    //***********************************************************************************
+    // VARIABLES
+    //***********************************************************************************
+
+    private final IntVar[] vars;
+    private final int n;
+    private final ValueIndex valueIndex;
+
+    // 变量的排列，同一分量的变量是连续的，分量内的顺序无需回溯
+    private final int[] perm;
+    // 变量所在分量的起始位置
+    private final IStateInt[] first;
+    // 以该位置起始的分量的结束位置（不含）
+    private final IStateInt[] end;
+
+    // 需要重新过滤的分量（记录的是其中某个位置）
+    private final BitSet dirty;
+
+    // 并查集与取值所属的位置，用时间戳代替清空
+    private final int[] parent;
+    private final int[] owner;
+    private final int[] ownerStamp;
+    private int stamp;
+    // 按分量重排时使用
+    private final int[] count;
+    private final int[] tmp;
+
+    //***********************************************************************************
+    // CONSTRUCTORS
+    //***********************************************************************************
+
+    /**
+     * Create a partition with a single component containing all <i>variables</i>.
+     *
+     * @param variables array of integer variables
+     */
+    public AllDiffComponents(IntVar[] variables) {
+        this.vars = variables;
+        this.n = variables.length;
+        this.valueIndex = new ValueIndex(variables);
+        IEnvironment environment = variables[0].getModel().getEnvironment();
+        perm = new int[n];
+        first = new IStateInt[n];
+        end = new IStateInt[n];
+        for (int i = 0; i < n; i++) {
+            perm[i] = i;
+            first[i] = environment.makeInt(0);
+            end[i] = environment.makeInt(n);
+        }
+        dirty = new BitSet(n);
+        parent = new int[n];
+        owner = new int[valueIndex.size()];
+        ownerStamp = new int[valueIndex.size()];
+        count = new int[n];
+        tmp = new int[n];
+    }
+
+    //***********************************************************************************
+    // EVENTS
+    //***********************************************************************************
+
+    /**
+     * Mark the component of the variable <i>varIdx</i> to be filtered again.
+     *
+     * @param varIdx index of a modified variable
+     */
+    public void onUpdate(int varIdx) {
+        int s = first[varIdx].get();
+        if (end[s].get() - s > 1) {
+            dirty.set(s);
+        }
+    }
+
+    /**
+     * Mark all the components to be filtered again.
+     */
+    public void markAll() {
+        for (int s = 0; s < n; s = end[s].get()) {
+            if (end[s].get() - s > 1) {
+                dirty.set(s);
+            }
+        }
+    }
+
+    /**
+     * Select a component to filter and unmark it.
+     *
+     * @return the start of the selected component in {@link #getVars()}, -1 if no component needs to be filtered
+     */
+    public int pollDirty() {
+        int p = dirty.nextSetBit(0);
+        if (p < 0) {
+            return -1;
+        }
+        // 回溯后记录的位置可能已不是分量的起点
+        int s = first[perm[p]].get();
+        dirty.clear(s, end[s].get());
+        return s;
+    }
+
+    /**
+     * Unmark all the components, for instance after filtering all the variables at once.
+     */
+    public void clearDirty() {
+        dirty.clear();
+    }
+
+    //***********************************************************************************
+    // ACCESSORS
+    //***********************************************************************************
+
+    /**
+     * @return indices of the variables, ordered such that each component is a range
+     */
+    public int[] getVars() {
+        return perm;
+    }
+
+    /**
+     * @param start start of a component
+     * @return end (exclusive) of the component
+     */
+    public int getEnd(int start) {
+        return end[start].get();
+    }
+
+    /**
+     * @param varIdx index of a variable
+     * @return start of the component of the variable
+     */
+    public int getStart(int varIdx) {
+        return first[varIdx].get();
+    }
+
+    //***********************************************************************************
+    // SPLITTING
+    //***********************************************************************************
+
+    /**
+     * Split the component starting at <i>start</i> into the connected components of its current value graph.
+     * Should be called once the component is at a fixpoint.
+     *
+     * @param start start of a component
+     */
+    public void split(int start) {
+        int e = end[start].get();
+        if (e - start <= 1) {
+            return;
+        }
+        stamp++;
+        for (int p = start; p < e; p++) {
+            parent[p] = p;
+        }
+        int nbRoots = e - start;
+        for (int p = start; p < e; p++) {
+            IntVar v = vars[perm[p]];
+            for (int k = v.getLB(), ub = v.getUB(); k <= ub; k = v.nextValue(k)) {
+                int j = valueIndex.indexOf(k);
+                if (ownerStamp[j] != stamp) {
+                    ownerStamp[j] = stamp;
+                    owner[j] = p;
+                } else {
+                    int a = find(p), b = find(owner[j]);
+                    if (a != b) {
+                        // 根取较小位置，保证分量按首次出现的顺序排列
+                        if (a < b) {
+                            parent[b] = a;
+                        } else {
+                            parent[a] = b;
+                        }
+                        nbRoots--;
+                    }
+                }
+            }
+        }
+        if (nbRoots == 1) {
+            return;
+        }
+        // 计数排序：count[root]先记录分量大小，再记录分量的写入位置
+        for (int p = start; p < e; p++) {
+            count[p] = 0;
+        }
+        for (int p = start; p < e; p++) {
+            count[find(p)]++;
+        }
+        int offset = start;
+        for (int p = start; p < e; p++) {
+            if (parent[p] == p) {
+                int size = count[p];
+                count[p] = offset;
+                end[offset].set(offset + size);
+                offset += size;
+            }
+        }
+        for (int p = start; p < e; p++) {
+            tmp[count[find(p)]++] = perm[p];
+        }
+        for (int p = start; p < e; ) {
+            int q = end[p].get();
+            for (int r = p; r < q; r++) {
+                perm[r] = tmp[r];
+                first[tmp[r]].set(p);
+            }
+            p = q;
+        }
+    }
+
+    private int find(int p) {
+        while (parent[p] != p) {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.alldifferent.algo;
+
+import org.chocosolver.solver.variables.IntVar;
+
+import java.util.Arrays;
+
+/**
+ * Indexing of the distinct values of a set of variables, used by the AllDifferent algorithms
+ * to number the value nodes of the value graph.
+ * <p/>
+ * Values are numbered from 0 to {@link #size()} - 1 in increasing order.
+ * When the values are dense enough (span at most {@link #DENSE_FACTOR} times the number of values,
+ * or {@link #DENSE_SPAN} values), a value is found by a direct access in an array offset by the minimum value,
+ * otherwise by a binary search in the sorted values.
+ * Either way, no hash probe is done in the propagation loops.
+ * <p/>
+ *
+ * @author Jia'nan Chen
+ */
+public final class ValueIndex {
+
+    /**
+     * Maximum ratio between the span of the values and their number to use a direct access array
+     */
+    public static final int DENSE_FACTOR = 8;
+
+    /**
+     * Span below which a direct access array is always used
+     */
+    public static final int DENSE_SPAN = 1 << 12;
+
+    // 按升序排列的不同取值，下标即取值编号
+    private final int[] values;
+
+    // 取值到编号的直接映射（下标为value - offset，-1表示不存在），稀疏时为null
+    private final int[] dense;
+
+    private final int offset;
+
+    /**
+     * Index the values in the current domains of <i>variables</i>.
+     *
+     * @param variables array of integer variables
+     */
+    public ValueIndex(IntVar[] variables) {
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        long card = 0;
+        for (IntVar v : variables) {
+            min = Math.min(min, v.getLB());
+            max = Math.max(max, v.getUB());
+            card += v.getDomainSize();
+        }
+        if (card == 0) {
+            values = new int[0];
+            dense = null;
+            offset = 0;
+            return;
+        }
+        long span = (long) max - min + 1;
+        if (span <= Math.max(DENSE_SPAN, DENSE_FACTOR * card)) {
+            // 先标记出现过的值，再按升序编号
+            boolean[] present = new boolean[(int) span];
+            int size = 0;
+            for (IntVar v : variables) {
+                for (int k = v.getLB(), ub = v.getUB(); k <= ub; k = v.nextValue(k)) {
+                    if (!present[k - min]) {
+                        present[k - min] = true;
+                        size++;
+                    }
+                }
+            }
+            values = new int[size];
+            dense = new int[(int) span];
+            offset = min;
+            int idx = 0;
+            for (int i = 0; i < span; i++) {
+                if (present[i]) {
+                    values[idx] = i + min;
+                    dense[i] = idx++;
+                } else {
+                    dense[i] = -1;
+                }
+            }
+        } else {
+            int[] all = new int[(int) Math.min(card, Integer.MAX_VALUE)];
+            int size = 0;
+            for (IntVar v : variables) {
+                for (int k = v.getLB(), ub = v.getUB(); k <= ub; k = v.nextValue(k)) {
+                    all[size++] = k;
+                }
+            }
+            Arrays.sort(all, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || all[distinct - 1] != all[i]) {
+                    all[distinct++] = all[i];
+                }
+            }
+            values = Arrays.copyOf(all, distinct);
+            dense = null;
+            offset = 0;
+        }
+    }
+
+    /**
+     * @return the number of distinct values
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @param value a value
+     * @return the index of <i>value</i>, in [0, {@link #size()}), or -1 if <i>value</i> was not indexed
+     */
+    public int indexOf(int value) {
+        if (dense != null) {
+            int i = value - offset;
+            return i >= 0 && i < dense.length ? dense[i] : -1;
+        }
+        int i = Arrays.binarySearch(values, value);
+        return i >= 0 ? i : -1;
+    }
+
+    /**
+     * @param idx an index, in [0, {@link #size()})
+     * @return the value whose index is <i>idx</i>
+     */
+    public int valueOf(int idx) {
+        return values[idx];
+    }
+
+    /**
+     * @return <i>true</i> if values are found by direct access
+     */
+    public boolean isDense() {
+        return dense != null;
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.propagation;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.exception.ContradictionException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A priority-driven, variable-oriented and event-batched propagation engine.
+ * <p>
+ * Contrary to {@link PropagationEngine}, a scheduled propagator is not put in a queue but marked in
+ * a bit set of dirty propagators of its priority, indexed by its position in the engine.
+ * The dirty propagators of the lowest non-empty priority are executed in one sweep, by increasing position,
+ * that is in the order of activation (by priority and arity when
+ * {@link org.chocosolver.solver.Settings#sortPropagatorActivationWRTPriority()} is set).
+ * The variable modifications made during a sweep are dispatched only once the sweep is over,
+ * so that the events a propagator receives from several variables, or several times from the same variable,
+ * are coalesced into one execution.
+ * The pending modifications are however dispatched before executing a propagator which reacts to fine events:
+ * such a propagator expects to be notified of all the modifications of its variables before it runs
+ * (for instance, it may consume its delta monitors as a whole), as with {@link PropagationEngine}.
+ * <p>
+ * Propagators which have no position in the engine (temporary ones) are still scheduled in the queues.
+ * The setting {@link org.chocosolver.solver.Settings#enableHybridizationOfPropagationEngine()} is ignored.
+ * <p>
+ * Usage: <code>model.getSolver().setEngine(new BatchPropagationEngine(model));</code>
+ *
+ * @author Jia'nan Chen
+ */
+public class BatchPropagationEngine extends PropagationEngine {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    /**
+     * Dirty propagators, one bit set per priority
+     */
+    private long[][] dirty;
+
+    /**
+     * Number of dirty propagators, per priority
+     */
+    private final int[] nbDirty;
+
+    // statistics: schedules, coalesced schedules, wake-ups, batches, largest batch
+    private long nbSchedules;
+    private long nbCoalesced;
+    private long nbWakeUps;
+    private long nbBatches;
+    private int maxBatchSize;
+
+    /**
+     * An event-batched propagation engine.
+     * @param model the declaring model
+     */
+    public BatchPropagationEngine(Model model) {
+        super(model);
+        this.dirty = new long[8][1];
+        this.nbDirty = new int[8];
+    }
+
+    @Override
+    public void propagate() throws ContradictionException {
+        activatePropagators();
+        do {
+            dispatch();
+            for (int i = nextNotEmpty(0); i > -1; i = nextNotEmpty(0)) {
+                sweep(i);
+                if (nbDirty[i] == 0 && pro_queue[i].isEmpty()) {
+                    notEmpty = notEmpty & ~(1 << i);
+                }
+                dispatch();
+            }
+        } while (!var_queue.isEmpty());
+    }
+
+    /**
+     * Execute, by increasing position, the propagators of priority <i>prio</i> which are dirty,
+     * then the ones which are queued.
+     * @param prio a priority
+     * @throws ContradictionException if a propagation fails
+     */
+    private void sweep(int prio) throws ContradictionException {
+        int size = nbDirty[prio];
+        nbBatches++;
+        if (size > maxBatchSize) {
+            maxBatchSize = size;
+        }
+        long[] words = dirty[prio];
+        for (int w = 0; w < words.length && nbDirty[prio] > 0; w++) {
+            // read again: a propagator with a larger position may be marked on execution, or the array replaced on renumbering
+            while (dirty[prio] == words && words[w] != 0) {
+                int b = Long.numberOfTrailingZeros(words[w]);
+                words[w] &= ~(1L << b);
+                nbDirty[prio]--;
+                nbWakeUps++;
+                reviseAfterDispatch(propagators.get((w << ADDRESS_BITS_PER_WORD) + b));
+            }
+            if (dirty[prio] != words) {
+                // positions have changed, the next scan handles the remaining propagators
+                return;
+            }
+        }
+        while (!pro_queue[prio].isEmpty()) {
+            nbWakeUps++;
+            reviseAfterDispatch(pro_queue[prio].pollFirst());
+        }
+    }
+
+    /**
+     * Execute a propagator, once the pending modifications are dispatched if it reacts to fine events.
+     * @param prop a propagator
+     * @throws ContradictionException if the propagation fails
+     */
+    private void reviseAfterDispatch(Propagator<?> prop) throws ContradictionException {
+        if (prop.reactToFineEvent()) {
+            dispatch();
+        }
+        revise(prop);
+    }
+
+    /**
+     * Dispatch the events of the modified variables to their propagators.
+     */
+    private void dispatch() {
+        while (!var_queue.isEmpty()) {
+            schedule(var_queue.pollFirst());
+        }
+    }
+
+    @Override
+    public void schedule(Propagator<?> prop, int pindice, int mask) {
+        prop.doScheduleEvent(pindice, mask);
+        nbSchedules++;
+        int pos = prop.getPosition();
+        if (pos < 0) {
+            notEmpty = notEmpty | (1 << prop.doSchedule(pro_queue));
+        } else {
+            int prio = prop.doSchedule();
+            if (prio > 0) {
+                mark(prio, pos);
+                notEmpty = notEmpty | (1 << prio);
+            } else {
+                nbCoalesced++;
+            }
+        }
+    }
+
+    private void mark(int prio, int pos) {
+        int w = pos >> ADDRESS_BITS_PER_WORD;
+        if (w >= dirty[prio].length) {
+            long[] tmp = new long[Math.max(w + 1, dirty[prio].length * 2)];
+            System.arraycopy(dirty[prio], 0, tmp, 0, dirty[prio].length);
+            dirty[prio] = tmp;
+        }
+        dirty[prio][w] |= 1L << pos;
+        nbDirty[prio]++;
+    }
+
+    /**
+     * Collect and unmark the dirty propagators, before their positions change.
+     */
+    private List<Propagator<?>> undirty() {
+        List<Propagator<?>> props = new ArrayList<>();
+        for (int prio = 0; prio < dirty.length; prio++) {
+            if (nbDirty[prio] > 0) {
+                long[] words = dirty[prio];
+                for (int w = 0; w < words.length; w++) {
+                    while (words[w] != 0) {
+                        int b = Long.numberOfTrailingZeros(words[w]);
+                        words[w] &= ~(1L << b);
+                        props.add(propagators.get((w << ADDRESS_BITS_PER_WORD) + b));
+                    }
+                }
+                // a new array: tells the ongoing scan
+                dirty[prio] = new long[words.length];
+                nbDirty[prio] = 0;
+            }
+        }
+        return props;
+    }
+
+    /**
+     * Mark again the dirty propagators, at their new positions.
+     */
+    private void redirty(List<Propagator<?>> props) {
+        for (int i = 0; i < props.size(); i++) {
+            Propagator<?> p = props.get(i);
+            if (p.getPosition() > -1) {
+                mark(p.getPriority().priority, p.getPosition());
+            } else {
+                p.doFlush();
+            }
+        }
+    }
+
+    @Override
+    public void propagateOnBacktrack(Propagator<?> propagator) {
+        List<Propagator<?>> props = undirty();
+        super.propagateOnBacktrack(propagator);
+        redirty(props);
+    }
+
+    @Override
+    public void dynamicDeletion(Propagator<?>... ps) {
+        List<Propagator<?>> props = undirty();
+        super.dynamicDeletion(ps);
+        redirty(props);
+    }
+
+    @Override
+    public void flush() {
+        super.flush();
+        for (int prio = 0; prio < dirty.length; prio++) {
+            if (nbDirty[prio] > 0) {
+                long[] words = dirty[prio];
+                for (int w = 0; w < words.length; w++) {
+                    while (words[w] != 0) {
+                        int b = Long.numberOfTrailingZeros(words[w]);
+                        words[w] &= ~(1L << b);
+                        propagators.get((w << ADDRESS_BITS_PER_WORD) + b).doFlush();
+                    }
+                }
+                nbDirty[prio] = 0;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        dirty = new long[8][1];
+        for (int prio = 0; prio < nbDirty.length; prio++) {
+            nbDirty[prio] = 0;
+        }
+    }
+
+    /**
+     * @return number of events dispatched to propagators
+     */
+    public long getNbSchedules() {
+        return nbSchedules;
+    }
+
+    /**
+     * @return number of events dispatched to propagators which were already dirty
+     */
+    public long getNbCoalesced() {
+        return nbCoalesced;
+    }
+
+    /**
+     * @return number of propagator executions
+     */
+    public long getNbWakeUps() {
+        return nbWakeUps;
+    }
+
+    /**
+     * @return number of sweeps
+     */
+    public long getNbBatches() {
+        return nbBatches;
+    }
+
+    /**
+     * @return the largest number of dirty propagators at the start of a sweep
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * @return the mean number of propagators executed per sweep
+     */
+    public double getMeanBatchSize() {
+        return nbBatches == 0 ? 0 : (double) nbWakeUps / nbBatches;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BatchPropagationEngine: %d schedules (%d coalesced), %d wake-ups, %d batches (max: %d, mean: %.2f)",
+                nbSchedules, nbCoalesced, nbWakeUps, nbBatches, maxBatchSize, getMeanBatchSize());
+    }
+}
@@ -48,11 +48,11 @@ public class PropagationEngine {
     /**
      * The model declaring this engine
      */
-    private final Model model;
+    protected final Model model;
     /**
      * The array of propagators to execute
      */
-    private final List<Propagator> propagators;
+    protected final List<Propagator> propagators;
     /**
      * To deal with propagators added dynamically
      */
@@ -61,19 +61,19 @@ public class PropagationEngine {
      * The main structure of this engine: seven circular queues,
      * each of them is dedicated to store propagator to execute wrt their priority.
      */
-    private final CircularQueue<Propagator>[] pro_queue;
+    protected final CircularQueue<Propagator>[] pro_queue;
 
-    private final CircularQueue<Variable> var_queue;
+    protected final CircularQueue<Variable> var_queue;
 
     private final CircularQueue<Propagator> awake_queue;
     /**
      * The last propagator executed
      */
-    private Propagator lastProp;
+    protected Propagator lastProp;
     /**
      * One bit per queue: true if the queue is not empty.
      */
-    private int notEmpty;
+    protected int notEmpty;
     /**
      * PropagatorEventType's mask for delayed propagation
      */
@@ -164,19 +164,7 @@ public class PropagationEngine {
             manageModifications();
             for (int i = nextNotEmpty(0); i > -1; i = nextNotEmpty(0)) {
                 while (!pro_queue[i].isEmpty()) {
-                    lastProp = pro_queue[i].pollFirst();
-                    // revision of the variable
-                    lastProp.unschedule();
-                    delayedPropagationType = 0;
-                    if (lastProp.reactToFineEvent()) {
-                        lastProp.doFinePropagation();
-                        // now we can check whether a delayed propagation has been scheduled
-                        if (delayedPropagationType > 0) {
-                            lastProp.propagate(delayedPropagationType);
-                        }
-                    } else if (lastProp.isActive()) { // need to be checked due to views
-                        lastProp.propagate(PropagatorEventType.FULL_PROPAGATION.getMask());
-                    }
+                    revise(pro_queue[i].pollFirst());
                     if (hybrid < 0b01) {
                         manageModifications();
                     }
@@ -186,11 +174,33 @@ public class PropagationEngine {
         } while (!var_queue.isEmpty());
     }
 
+    /**
+     * Run the pending events of a scheduled propagator, which is unscheduled first
+     * @param propagator a propagator to revise
+     * @throws ContradictionException if propagation fails
+     */
+    protected final void revise(Propagator<?> propagator) throws ContradictionException {
+        lastProp = propagator;
+        // revision of the variable
+        lastProp.unschedule();
+        lastProp.incRevisionCount();
+        delayedPropagationType = 0;
+        if (lastProp.reactToFineEvent()) {
+            lastProp.doFinePropagation();
+            // now we can check whether a delayed propagation has been scheduled
+            if (delayedPropagationType > 0) {
+                lastProp.propagate(delayedPropagationType);
+            }
+        } else if (lastProp.isActive()) { // need to be checked due to views
+            lastProp.propagate(PropagatorEventType.FULL_PROPAGATION.getMask());
+        }
+    }
+
     /**
      * Checks if some propagators were added or have to be propagated on backtrack
      * @throws ContradictionException if a propagation fails
      */
-    private void activatePropagators() throws ContradictionException {
+    protected void activatePropagators() throws ContradictionException {
         int cw = model.getEnvironment().getWorldIndex(); // get current index
         dynPropagators.descending(cw, awake_queue::addLast);
         while (!awake_queue.isEmpty()) {
@@ -209,6 +219,7 @@ public class PropagationEngine {
             propagator.setActive();
         }
         if (propagator.isActive()) {
+            propagator.incRevisionCount();
             propagator.propagate(PropagatorEventType.FULL_PROPAGATION.getMask());
             while (!var_queue.isEmpty()) {
                 schedule(var_queue.pollFirst());
@@ -224,7 +235,7 @@ public class PropagationEngine {
         }
     }
 
-    private int nextNotEmpty(int fromIndex) {
+    protected int nextNotEmpty(int fromIndex) {
         int word = notEmpty & (WORD_MASK << fromIndex);
         if (word != 0) {
             return Integer.numberOfTrailingZeros(word);
@@ -274,7 +285,7 @@ public class PropagationEngine {
         variable.storeEvents(type.getMask(), cause);
     }
 
-    private void schedule(Variable variable) {
+    protected void schedule(Variable variable) {
         int mask = variable.getMask();
         if (mask > 0) {
             ICause cause = variable.getCause();
@@ -298,7 +309,7 @@ public class PropagationEngine {
         variable.clearEvents();
     }
 
-    public void schedule(Propagator prop, int pindice, int mask) {
+    public void schedule(Propagator<?> prop, int pindice, int mask) {
         prop.doScheduleEvent(pindice, mask);
         notEmpty = notEmpty | (1 << prop.doSchedule(pro_queue));
     }
@@ -392,7 +403,7 @@ public class PropagationEngine {
      *
      * @param propagator a propagator
      */
-    public void propagateOnBacktrack(Propagator propagator) {
+    public void propagateOnBacktrack(Propagator<?> propagator) {
         int idx = propagator.getPosition();
         assert propagators.get(idx) == propagator : "Try to remove the wrong propagator";
         shift(idx);
@@ -406,8 +417,8 @@ public class PropagationEngine {
      *
      * @param ps a list of propagators
      */
-    public void dynamicDeletion(Propagator... ps) {
-        for (Propagator toDelete : ps) {
+    public void dynamicDeletion(Propagator<?>... ps) {
+        for (Propagator<?> toDelete : ps) {
             if (lastProp == toDelete) {
                 lastProp = null;
             }
@@ -0,0 +1,184 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.search.loop.learn;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A lock-free exchange of learnt clauses between the workers of a portfolio.
+ * <p>
+ * Clauses are published in a ring buffer of fixed capacity and read by each worker from its own cursor.
+ * Nothing is locked: a worker which reads too late may miss the clauses overwritten meanwhile,
+ * which is harmless since sharing clauses is only a hint.
+ * <p>
+ * Variables are referred to by their declaration index in their model (see {@link org.chocosolver.solver.Model#getVar(int)}),
+ * so that a clause learnt by a worker can be rebuilt in the model of another worker,
+ * provided that the models declare the same variables in the same order.
+ *
+ * @author Jia'nan Chen
+ * @see ClauseSharing
+ */
+public class ClauseExchange {
+
+    /**
+     * A shared clause: a disjunction of literals <i>x<sub>i</sub> &isin; S<sub>i</sub></i>.
+     * A nogood from restarts is stored with singletons (<i>x = v</i>) and negated singletons (<i>x &ne; v</i>).
+     */
+    public static final class SharedClause {
+        /**
+         * Sequence number in the exchange
+         */
+        final long seq;
+        /**
+         * Id of the publishing worker
+         */
+        final int producer;
+        /**
+         * Set to <i>true</i> for a nogood from restarts, <i>false</i> for a signed clause
+         */
+        public final boolean nogood;
+        /**
+         * Declaration indices of the variables
+         */
+        public final int[] vars;
+        /**
+         * For a nogood: the values, for a signed clause: the bounds of the ranges of each set, in sequence
+         */
+        public final int[][] values;
+        /**
+         * For a nogood: <i>true</i> if the literal is <i>x = v</i>, <i>false</i> if it is <i>x &ne; v</i>
+         */
+        public final boolean[] eq;
+
+        SharedClause(long seq, int producer, boolean nogood, int[] vars, int[][] values, boolean[] eq) {
+            this.seq = seq;
+            this.producer = producer;
+            this.nogood = nogood;
+            this.vars = vars;
+            this.values = values;
+            this.eq = eq;
+        }
+
+        /**
+         * @return number of literals
+         */
+        public int size() {
+            return vars.length;
+        }
+    }
+
+    private final AtomicReferenceArray<SharedClause> buffer;
+
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Maximum number of literals of a shared clause
+     */
+    private final int maxSize;
+
+    // statistics: published, imported
+    private final AtomicLong nbPublished = new AtomicLong();
+    private final AtomicLong nbImported = new AtomicLong();
+
+    /**
+     * Create an exchange.
+     *
+     * @param capacity number of clauses kept, rounded up to a power of 2
+     * @param maxSize  maximum number of literals of a shared clause
+     */
+    public ClauseExchange(int capacity, int maxSize) {
+        int c = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.buffer = new AtomicReferenceArray<>(c);
+        this.mask = c - 1;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param size number of literals of a clause
+     * @return <i>true</i> if a clause of <i>size</i> literals is worth sharing
+     */
+    public boolean accept(int size) {
+        return size > 0 && size <= maxSize;
+    }
+
+    /**
+     * Publish a nogood: a disjunction of <i>x = v</i> and <i>x &ne; v</i>.
+     *
+     * @param producer id of the publishing worker
+     * @param vars     declaration indices of the variables
+     * @param values   values
+     * @param eq       kinds of literal
+     */
+    public void publishNogood(int producer, int[] vars, int[] values, boolean[] eq) {
+        publish(producer, true, vars, new int[][]{values}, eq);
+    }
+
+    /**
+     * Publish a signed clause: a disjunction of <i>x &isin; S</i>.
+     *
+     * @param producer id of the publishing worker
+     * @param vars     declaration indices of the variables
+     * @param ranges   for each set, the bounds of its ranges
+     */
+    public void publishSignedClause(int producer, int[] vars, int[][] ranges) {
+        publish(producer, false, vars, ranges, null);
+    }
+
+    private void publish(int producer, boolean nogood, int[] vars, int[][] values, boolean[] eq) {
+        long seq = tail.getAndIncrement();
+        buffer.set((int) (seq & mask), new SharedClause(seq, producer, nogood, vars, values, eq));
+        nbPublished.incrementAndGet();
+    }
+
+    /**
+     * Read the clauses published by the other workers since <i>from</i>.
+     *
+     * @param reader   id of the reading worker, its own clauses are skipped
+     * @param from     sequence number of the first clause to read
+     * @param consumer action to apply on each clause
+     * @return the sequence number to read from next time
+     */
+    public long read(int reader, long from, Consumer<SharedClause> consumer) {
+        long to = tail.get();
+        if (to - from > buffer.length()) {
+            from = to - buffer.length();
+        }
+        for (; from < to; from++) {
+            SharedClause c = buffer.get((int) (from & mask));
+            if (c == null || c.seq < from) {
+                // not written by the publisher yet, read it next time
+                break;
+            }
+            if (c.seq == from && c.producer != reader) {
+                consumer.accept(c);
+                nbImported.incrementAndGet();
+            }
+        }
+        return from;
+    }
+
+    /**
+     * @return number of clauses published
+     */
+    public long getNbPublished() {
+        return nbPublished.get();
+    }
+
+    /**
+     * @return number of clauses imported, all workers included
+     */
+    public long getNbImported() {
+        return nbImported.get();
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.search.loop.learn;
+
+import gnu.trove.list.array.TIntArrayList;
+import org.chocosolver.sat.PropNogoods;
+import org.chocosolver.sat.SatSolver;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.nary.clauses.ClauseBuilder;
+import org.chocosolver.solver.search.loop.monitors.IMonitorRestart;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.util.objects.setDataStructures.iterable.IntIterableRangeSet;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The connection of one worker to a {@link ClauseExchange}.
+ * <p>
+ * The learnt signed clauses (see {@link LearnSignedClauses}) and the nogoods from restarts
+ * (see {@link org.chocosolver.solver.search.loop.monitors.NogoodFromRestarts}) of the worker are published
+ * when they are not larger than the limit of the exchange.
+ * The clauses published by the other workers are imported on restart, at root node:
+ * nogoods into the nogood store if the worker records nogoods from restarts, signed clauses otherwise.
+ * The nogoods are added to the SAT solver of the store on its next coarse propagation,
+ * once it has backtracked to its root level (see {@link PropNogoods#addNogoodAtRoot(TIntList)}).
+ * Signed clauses are imported only by workers which learn signed clauses.
+ * <p>
+ * Only the variables declared when this is created are shared, the clauses on other variables are ignored.
+ *
+ * @author Jia'nan Chen
+ */
+public class ClauseSharing implements IMonitorRestart {
+
+    private final Model model;
+
+    private final ClauseExchange exchange;
+
+    private final int id;
+
+    /**
+     * Declaration index of the variables, by variable id, -1 if not shared
+     */
+    private final int[] indices;
+
+    /**
+     * Next clause to read in the exchange
+     */
+    private long cursor;
+
+    // stores of this worker: nogoods recorded from restarts, learnt signed clauses
+    private PropNogoods png;
+    private boolean signed;
+
+    /**
+     * Connect a worker to an exchange.
+     *
+     * @param model    the model of the worker
+     * @param exchange the exchange
+     * @param id       the id of the worker, unique among the workers of the exchange
+     */
+    public ClauseSharing(Model model, ClauseExchange exchange, int id) {
+        this.model = model;
+        this.exchange = exchange;
+        this.id = id;
+        int n = model.getNbVars();
+        int max = -1;
+        for (int i = 0; i < n; i++) {
+            max = Math.max(max, model.getVar(i).getId());
+        }
+        this.indices = new int[max + 1];
+        Arrays.fill(indices, -1);
+        for (int i = 0; i < n; i++) {
+            indices[model.getVar(i).getId()] = i;
+        }
+    }
+
+    /**
+     * Publish the nogoods recorded in <i>png</i> and import the shared ones in it.
+     *
+     * @param png the nogood store of the worker
+     */
+    public void connectNogoods(PropNogoods png) {
+        this.png = png;
+    }
+
+    /**
+     * Publish the learnt signed clauses and import the shared ones.
+     */
+    public void connectSignedClauses() {
+        this.signed = true;
+    }
+
+    private int indexOf(IntVar var) {
+        int i = var.getId();
+        return i < indices.length ? indices[i] : -1;
+    }
+
+    /**
+     * Publish the nogood made of the <i>n</i> first literals.
+     *
+     * @param vars   variables
+     * @param values values
+     * @param eq     <i>true</i> for <i>x = v</i>, <i>false</i> for <i>x &ne; v</i>
+     * @param n      number of literals
+     */
+    public void exportNogood(IntVar[] vars, int[] values, boolean[] eq, int n) {
+        if (!exchange.accept(n)) {
+            return;
+        }
+        int[] idx = new int[n];
+        for (int i = 0; i < n; i++) {
+            if ((idx[i] = indexOf(vars[i])) < 0) {
+                return;
+            }
+        }
+        exchange.publishNogood(id, idx, Arrays.copyOf(values, n), Arrays.copyOf(eq, n));
+    }
+
+    /**
+     * Publish a signed clause.
+     *
+     * @param literals the literals of the clause
+     */
+    public void exportSignedClause(Map<IntVar, IntIterableRangeSet> literals) {
+        int n = literals.size();
+        if (!exchange.accept(n)) {
+            return;
+        }
+        int[] idx = new int[n];
+        int[][] ranges = new int[n][];
+        int k = 0;
+        for (Map.Entry<IntVar, IntIterableRangeSet> e : literals.entrySet()) {
+            if ((idx[k] = indexOf(e.getKey())) < 0) {
+                return;
+            }
+            IntIterableRangeSet set = e.getValue();
+            int[] r = new int[set.getNbRanges() * 2];
+            for (int j = 0; j < set.getNbRanges(); j++) {
+                r[2 * j] = set.minOfRange(j);
+                r[2 * j + 1] = set.maxOfRange(j);
+            }
+            ranges[k++] = r;
+        }
+        exchange.publishSignedClause(id, idx, ranges);
+    }
+
+    @Override
+    public void afterRestart() {
+        cursor = exchange.read(id, cursor, this::importClause);
+    }
+
+    private void importClause(ClauseExchange.SharedClause c) {
+        IntVar[] vars = new IntVar[c.size()];
+        for (int i = 0; i < vars.length; i++) {
+            if (c.vars[i] >= model.getNbVars()) {
+                return;
+            }
+            Variable v = model.getVar(c.vars[i]);
+            if ((v.getTypeAndKind() & Variable.INT) == 0) {
+                return;
+            }
+            vars[i] = (IntVar) v;
+        }
+        if (c.nogood && png != null) {
+            // addLearnt cannot be used: it assumes the clause is asserting at the current node
+            TIntArrayList lits = new TIntArrayList(vars.length);
+            for (int i = 0; i < vars.length; i++) {
+                int l = png.Literal(vars[i], c.values[0][i], true);
+                lits.add(c.eq[i] ? l : SatSolver.negated(l));
+            }
+            // the trail of the SAT solver may not be back to level 0 yet
+            png.addNogoodAtRoot(lits);
+        } else if (signed) {
+            ClauseBuilder ngb = model.getClauseBuilder();
+            // literals of the same variable are merged into one set
+            Map<IntVar, IntIterableRangeSet> literals = new HashMap<>();
+            for (int i = 0; i < vars.length; i++) {
+                IntIterableRangeSet set;
+                if (c.nogood) {
+                    if (c.eq[i]) {
+                        set = new IntIterableRangeSet(c.values[0][i]);
+                    } else {
+                        set = new IntIterableRangeSet();
+                        set.addAll(ngb.getInitialDomain(vars[i]));
+                        set.remove(c.values[0][i]);
+                    }
+                } else {
+                    set = new IntIterableRangeSet();
+                    int[] r = c.values[i];
+                    for (int j = 0; j < r.length; j += 2) {
+                        set.addBetween(r[j], r[j + 1]);
+                    }
+                }
+                IntIterableRangeSet prev = literals.putIfAbsent(vars[i], set);
+                if (prev != null) {
+                    prev.addAll(set);
+                }
+            }
+            literals.forEach(ngb::put);
+            ngb.buildNogood(model);
+        }
+    }
+}
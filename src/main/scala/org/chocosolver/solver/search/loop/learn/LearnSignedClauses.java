@@ -53,6 +53,10 @@ public class LearnSignedClauses<E extends ExplanationForSignedClause> implements
      * Maximum cardinality to add nogoods to the store
      */
     private final int max_card;
+    /**
+     * The connection to the other workers of a portfolio, if any
+     */
+    private ClauseSharing sharing;
 
     /**
      * Build a learned able to learn signed clauses on conflicts and solutions.
@@ -66,6 +70,15 @@ public class LearnSignedClauses<E extends ExplanationForSignedClause> implements
         this.max_card = mSolver.getModel().getSettings().getMaxLearntClauseCardinality();
     }
 
+    /**
+     * Publish the learnt signed clauses to, and import them from, other workers.
+     * @param sharing the connection of this worker to the exchange
+     */
+    public void setSharing(ClauseSharing sharing) {
+        this.sharing = sharing;
+        sharing.connectSignedClauses();
+    }
+
     public void setExplanation(E explanation) {
         lastExplanation = explanation;
     }
@@ -138,6 +151,9 @@ public class LearnSignedClauses<E extends ExplanationForSignedClause> implements
     private void addLearntConstraint() {
         if (lastExplanation != null && lastExplanation.getCardinality() > 0
                 && lastExplanation.getCardinality() <= max_card) {
+            if (sharing != null) {
+                sharing.exportSignedClause(lastExplanation.getLiterals());
+            }
             lastExplanation.extractConstraint(mSolver.getModel(), ngstore);
         }
     }
@@ -12,6 +12,7 @@ package org.chocosolver.solver.search.loop.monitors;
 import org.chocosolver.sat.PropNogoods;
 import org.chocosolver.sat.SatSolver;
 import org.chocosolver.solver.Model;
+import org.chocosolver.solver.search.loop.learn.ClauseSharing;
 import org.chocosolver.solver.search.strategy.assignments.DecisionOperatorFactory;
 import org.chocosolver.solver.search.strategy.decision.Decision;
 import org.chocosolver.solver.search.strategy.decision.IntDecision;
@@ -45,6 +46,16 @@ public class NogoodFromRestarts implements IMonitorRestart {
      */
     private final PropNogoods png;
 
+    /**
+     * The connection to the other workers of a portfolio, if any
+     */
+    private ClauseSharing sharing;
+
+    // when shared, variables, values and kinds of literal (x = v or x != v) of the clauses
+    private IntVar[] xs;
+    private int[] vs;
+    private boolean[] eqs;
+
     /**
      * A constraint for the specific Nogood store designed to store ONLY positive decisions.
      * Beware :
@@ -60,6 +71,15 @@ public class NogoodFromRestarts implements IMonitorRestart {
         decisions = new ArrayDeque<>(16);
     }
 
+    /**
+     * Publish the nogoods to, and import them from, other workers.
+     * @param sharing the connection of this worker to the exchange
+     */
+    public void setSharing(ClauseSharing sharing) {
+        this.sharing = sharing;
+        sharing.connectNogoods(png);
+    }
+
     @Override
     public void beforeRestart() {
         extractNogoodFromPath();
@@ -71,6 +91,11 @@ public class NogoodFromRestarts implements IMonitorRestart {
         png.getModel().getSolver().getDecisionPath().transferInto(decisions, false);
         Decision<IntVar> decision;
         int[] lits = new int[d];
+        if (sharing != null && (xs == null || xs.length < d)) {
+            xs = new IntVar[d];
+            vs = new int[d];
+            eqs = new boolean[d];
+        }
         int i = 0;
         while (!decisions.isEmpty()) {
             decision = decisions.pollFirst();
@@ -78,8 +103,10 @@ public class NogoodFromRestarts implements IMonitorRestart {
                 IntDecision id = (IntDecision) decision;
                 if (id.getDecOp() == DecisionOperatorFactory.makeIntEq()) {
                     if (id.hasNext() || id.getArity() == 1) {
+                        share(i, id, false);
                         lits[i++] = SatSolver.negated(png.Literal(id.getDecisionVariable(), id.getDecisionValue(), true));
                     } else {
+                        share(i, id, false);
                         if (i == 0) {
                             // value can be removed permanently from var!
                             png.addLearnt(SatSolver.negated(png.Literal(id.getDecisionVariable(), id.getDecisionValue(), true)));
@@ -87,11 +114,16 @@ public class NogoodFromRestarts implements IMonitorRestart {
                             lits[i] = SatSolver.negated(png.Literal(id.getDecisionVariable(), id.getDecisionValue(), true));
                             png.addLearnt(Arrays.copyOf(lits, i + 1));
                         }
+                        if (sharing != null) {
+                            sharing.exportNogood(xs, vs, eqs, i + 1);
+                        }
                     }
                 } else if (id.getDecOp() == DecisionOperatorFactory.makeIntNeq()) {
                     if (id.hasNext()) {
+                        share(i, id, true);
                         lits[i++] = png.Literal(id.getDecisionVariable(), id.getDecisionValue(), true);
                     } else {
+                        share(i, id, true);
                         if (i == 0) {
                             // value can be removed permanently from var!
                             png.addLearnt(png.Literal(id.getDecisionVariable(), id.getDecisionValue(), true));
@@ -99,6 +131,9 @@ public class NogoodFromRestarts implements IMonitorRestart {
                             lits[i] = png.Literal(id.getDecisionVariable(), id.getDecisionValue(), true);
                             png.addLearnt(Arrays.copyOf(lits, i + 1));
                         }
+                        if (sharing != null) {
+                            sharing.exportNogood(xs, vs, eqs, i + 1);
+                        }
                     }
                 } else {
                     throw new UnsupportedOperationException("NogoodStoreFromRestarts cannot deal with such operator: " + ((IntDecision) decision).getDecOp());
@@ -108,4 +143,12 @@ public class NogoodFromRestarts implements IMonitorRestart {
             }
         }
     }
+
+    private void share(int i, IntDecision id, boolean eq) {
+        if (sharing != null) {
+            xs[i] = id.getDecisionVariable();
+            vs[i] = id.getDecisionValue();
+            eqs[i] = eq;
+        }
+    }
 }
@@ -12,6 +12,7 @@ package org.chocosolver.solver.search.loop.monitors;
 import org.chocosolver.solver.exception.ContradictionException;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -65,6 +66,13 @@ public final class SearchMonitorList implements IMonitorClose, IMonitorContradic
     private List<IMonitorUpBranch> mubra = new ArrayList<>();
 
 
+    /**
+     * @return a read-only view of the restart monitors
+     */
+    public List<IMonitorRestart> getRestartMonitors() {
+        return Collections.unmodifiableList(mrest);
+    }
+
     @Override
     public void beforeInitialize() {
         for (int i = 0; i < minit.size(); i++) {
@@ -35,6 +35,21 @@ public final class MeasuresRecorder extends Measures {
 
     transient private LongSupplier currentNanoTime;
 
+    /**
+     * Set by another thread to ask for a snapshot, checked by the search on each node, failure and fixpoint
+     */
+    transient private volatile boolean snapshotRequested;
+
+    /**
+     * Number of snapshots taken
+     */
+    transient private long snapshotCount;
+
+    /**
+     * Last snapshot taken, published to other threads
+     */
+    transient private volatile SearchSnapshot snapshot;
+
     /**
      * Create a measures recorder
      */
@@ -120,6 +135,9 @@ public final class MeasuresRecorder extends Measures {
         if (depth > maxDepth) {
             maxDepth = depth;
         }
+        if (snapshotRequested) {
+            takeSnapshot();
+        }
     }
 
     /**
@@ -141,6 +159,9 @@ public final class MeasuresRecorder extends Measures {
      */
     public final void incFailCount() {
         failCount++;
+        if (snapshotRequested) {
+            takeSnapshot();
+        }
     }
 
     /**
@@ -148,6 +169,9 @@ public final class MeasuresRecorder extends Measures {
      */
     public final void incFixpointCount() {
         fixpointCount++;
+        if (snapshotRequested) {
+            takeSnapshot();
+        }
     }
 
     /**
@@ -196,6 +220,39 @@ public final class MeasuresRecorder extends Measures {
         this.boundsManager = boundsManager;
     }
 
+    //****************************************************************************************************************//
+    //**************************************** SNAPSHOTS *************************************************************//
+    //****************************************************************************************************************//
+
+    /**
+     * Ask for a snapshot of the measures. Can be called from any thread.
+     * The snapshot is taken by the thread which solves on the next node, failure or fixpoint,
+     * and is then available through {@link #getLastSnapshot()}.
+     */
+    public final void requestSnapshot() {
+        snapshotRequested = true;
+    }
+
+    /**
+     * Take a snapshot of the measures and publish it.
+     * Must be called by the thread which solves, or when no resolution is running.
+     * @return the snapshot taken
+     */
+    public final SearchSnapshot takeSnapshot() {
+        snapshotRequested = false;
+        SearchSnapshot s = new SearchSnapshot(this, ++snapshotCount);
+        snapshot = s;
+        return s;
+    }
+
+    /**
+     * Can be called from any thread.
+     * @return the last snapshot taken, or <tt>null</tt> if none has been taken yet
+     */
+    public final SearchSnapshot getLastSnapshot() {
+        return snapshot;
+    }
+
     public final void setReadingTimeCount(long readingTimeCount) {
         if(this.readingTimeCount <= 0) {
             this.readingTimeCount = readingTimeCount;
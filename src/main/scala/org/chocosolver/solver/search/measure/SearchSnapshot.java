@@ -0,0 +1,266 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.search.measure;
+
+import org.chocosolver.solver.search.SearchState;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable and consistent view of the measures of a search, taken at a given time.
+ * <p>
+ * A snapshot is built by the thread which solves, on demand of another thread (see {@link MeasuresRecorder#requestSnapshot()}),
+ * so that all its counters refer to the same point of the search.
+ * A snapshot is said to be <i>stale</i> when the search did not answer the last demand in time,
+ * for instance because a propagation takes long: its counters are then the ones of the previous snapshot.
+ *
+ * @author Jia'nan Chen
+ */
+public final class SearchSnapshot {
+
+    private final String modelName;
+    private final long sequence;
+    private final long wallTime;
+    private final long timeCount;
+    private final SearchState state;
+    private final long solutionCount;
+    private final long nodeCount;
+    private final long failCount;
+    private final long backtrackCount;
+    private final long restartCount;
+    private final long depth;
+    private final long maxDepth;
+    private final long fixpointCount;
+    private final Number bound;
+    private final boolean stale;
+    private final Map<String, Long> propagations;
+
+    SearchSnapshot(MeasuresRecorder mr, long sequence) {
+        this.modelName = mr.getModelName();
+        this.sequence = sequence;
+        this.wallTime = System.currentTimeMillis();
+        this.timeCount = mr.getTimeCountInNanoSeconds();
+        this.state = mr.getSearchState();
+        this.solutionCount = mr.getSolutionCount();
+        this.nodeCount = mr.getNodeCount();
+        this.failCount = mr.getFailCount();
+        this.backtrackCount = mr.getBackTrackCount();
+        this.restartCount = mr.getRestartCount();
+        this.depth = mr.getCurrentDepth();
+        this.maxDepth = mr.getMaxDepth();
+        this.fixpointCount = mr.getFixpointCount();
+        this.bound = mr.hasObjective() && mr.getSolutionCount() > 0 ? mr.getBestSolutionValue() : null;
+        this.stale = false;
+        this.propagations = Collections.emptyMap();
+    }
+
+    private SearchSnapshot(SearchSnapshot s, long wallTime, boolean stale, Map<String, Long> propagations) {
+        this.modelName = s.modelName;
+        this.sequence = s.sequence;
+        this.wallTime = wallTime;
+        this.timeCount = s.timeCount;
+        this.state = s.state;
+        this.solutionCount = s.solutionCount;
+        this.nodeCount = s.nodeCount;
+        this.failCount = s.failCount;
+        this.backtrackCount = s.backtrackCount;
+        this.restartCount = s.restartCount;
+        this.depth = s.depth;
+        this.maxDepth = s.maxDepth;
+        this.fixpointCount = s.fixpointCount;
+        this.bound = s.bound;
+        this.stale = stale;
+        this.propagations = propagations;
+    }
+
+    /**
+     * @return a copy of this, stamped at the current time and flagged as stale
+     */
+    public SearchSnapshot asStale() {
+        return new SearchSnapshot(this, System.currentTimeMillis(), true, propagations);
+    }
+
+    /**
+     * @param propagations number of revisions, by type of constraint
+     * @return a copy of this with the number of revisions by type of constraint
+     */
+    public SearchSnapshot withPropagations(Map<String, Long> propagations) {
+        return new SearchSnapshot(this, wallTime, stale,
+                Collections.unmodifiableMap(new TreeMap<>(propagations)));
+    }
+
+    /**
+     * @return name of the model
+     */
+    public String getModelName() {
+        return modelName;
+    }
+
+    /**
+     * @return rank of the demand answered by this snapshot
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return when this has been taken, in milliseconds since the epoch
+     */
+    public long getWallTime() {
+        return wallTime;
+    }
+
+    /**
+     * @return resolution time, in nanoseconds
+     */
+    public long getTimeCountInNanoSeconds() {
+        return timeCount;
+    }
+
+    /**
+     * @return the search state
+     */
+    public SearchState getSearchState() {
+        return state;
+    }
+
+    /**
+     * @return number of solutions found
+     */
+    public long getSolutionCount() {
+        return solutionCount;
+    }
+
+    /**
+     * @return number of nodes
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return number of failures
+     */
+    public long getFailCount() {
+        return failCount;
+    }
+
+    /**
+     * @return number of backtracks
+     */
+    public long getBackTrackCount() {
+        return backtrackCount;
+    }
+
+    /**
+     * @return number of restarts
+     */
+    public long getRestartCount() {
+        return restartCount;
+    }
+
+    /**
+     * @return current depth of the search
+     */
+    public long getCurrentDepth() {
+        return depth;
+    }
+
+    /**
+     * @return maximum depth reached
+     */
+    public long getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return number of fixpoints computed
+     */
+    public long getFixpointCount() {
+        return fixpointCount;
+    }
+
+    /**
+     * @return the best objective value found, or <tt>null</tt> if there is no objective or no solution yet
+     */
+    public Number getBound() {
+        return bound;
+    }
+
+    /**
+     * @return <tt>true</tt> if the search did not answer the demand of this snapshot in time
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * @return number of revisions by type of constraint, approximate and possibly empty
+     */
+    public Map<String, Long> getPropagations() {
+        return propagations;
+    }
+
+    /**
+     * @return this snapshot as a one-line JSON object
+     */
+    public String toJson() {
+        StringBuilder st = new StringBuilder(256);
+        st.append("{\"model\":");
+        quote(st, modelName);
+        st.append(",\"seq\":").append(sequence)
+                .append(",\"wall\":").append(wallTime)
+                .append(",\"time\":").append(timeCount / 1_000_000)
+                .append(",\"state\":\"").append(state).append('"')
+                .append(",\"stale\":").append(stale)
+                .append(",\"solutions\":").append(solutionCount)
+                .append(",\"nodes\":").append(nodeCount)
+                .append(",\"fails\":").append(failCount)
+                .append(",\"backtracks\":").append(backtrackCount)
+                .append(",\"restarts\":").append(restartCount)
+                .append(",\"depth\":").append(depth)
+                .append(",\"maxDepth\":").append(maxDepth)
+                .append(",\"fixpoints\":").append(fixpointCount)
+                .append(",\"bound\":").append(bound)
+                .append(",\"propagations\":{");
+        boolean first = true;
+        for (Map.Entry<String, Long> e : propagations.entrySet()) {
+            if (!first) {
+                st.append(',');
+            }
+            first = false;
+            quote(st, e.getKey());
+            st.append(':').append(e.getValue());
+        }
+        return st.append("}}").toString();
+    }
+
+    private static void quote(StringBuilder st, String s) {
+        st.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                st.append('\\').append(c);
+            } else if (c < 0x20) {
+                st.append(String.format("\\u%04x", (int) c));
+            } else {
+                st.append(c);
+            }
+        }
+        st.append('"');
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+}
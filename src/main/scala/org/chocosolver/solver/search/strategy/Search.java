@@ -299,6 +299,19 @@ public class Search {
         return new DomOverWDeg(vars, 0, new IntDomainMin());
     }
 
+    /**
+     * Assignment strategy which selects a variable according to <code>DomOverWDeg</code> and assign
+     * it to its lower bound. Variables are kept in a priority structure updated incrementally,
+     * which is faster than {@link #domOverWDegSearch(IntVar...)} on models with many variables.
+     *
+     * @param vars list of variables
+     * @return assignment strategy
+     * @see DomOverWDegIncr
+     */
+    public static AbstractStrategy<IntVar> domOverWDegIncrSearch(IntVar... vars) {
+        return new DomOverWDegIncr(vars, 0, new IntDomainMin());
+    }
+
     /**
      * Create an Activity based search strategy.
      * <p>
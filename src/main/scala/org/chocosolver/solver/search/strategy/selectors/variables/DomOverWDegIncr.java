@@ -0,0 +1,316 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.search.strategy.selectors.variables;
+
+import gnu.trove.list.array.TIntArrayList;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.search.loop.monitors.IMonitorContradiction;
+import org.chocosolver.solver.search.strategy.assignments.DecisionOperatorFactory;
+import org.chocosolver.solver.search.strategy.decision.Decision;
+import org.chocosolver.solver.search.strategy.selectors.values.IntValueSelector;
+import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
+import org.chocosolver.solver.variables.IVariableMonitor;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.solver.variables.events.IEventType;
+import org.chocosolver.util.objects.IntMap;
+
+import java.util.Arrays;
+
+/**
+ * Incremental implementation of DowOverWDeg[1].
+ * <p>
+ * Contrary to {@link DomOverWDeg}, which scans all the variables on each decision,
+ * the uninstantiated variables are kept in a binary heap ordered by dom/wdeg,
+ * and only the variables whose domain or weighted degree changed since the last decision are moved in the heap.
+ * The variables modified by propagation are logged on domain events; the log is trailed,
+ * so that the variables restored on backtrack are moved in the heap too.
+ * Selecting a variable then costs O(k.log(n)), where k is the number of variables modified since the last decision.
+ * <p>
+ * The weighted degree of a variable is 1 plus the number of failures of the propagators it is involved in.
+ * Contrary to {@link DomOverWDeg}, the weight of a propagator is not ignored when it has less than 2
+ * uninstantiated variables, since this requires to re-evaluate the degree of the variables on each instantiation.
+ * Ties are broken by a random order of the variables, drawn once.
+ * <p>
+ * [1]: F. Boussemart, F. Hemery, C. Lecoutre, and L. Sais, Boosting Systematic Search by Weighting
+ * Constraints, ECAI-04. <br/>
+ *
+ * @author Jia'nan Chen
+ * @see DomOverWDeg
+ */
+public class DomOverWDegIncr extends AbstractStrategy<IntVar> implements IMonitorContradiction, IVariableMonitor<IntVar> {
+
+    /**
+     * Map (variable id - index in vars)
+     */
+    private final IntMap v2i;
+
+    /**
+     * Weighted degree of each variable
+     */
+    private final int[] wdeg;
+
+    /**
+     * Random rank of each variable, to break ties
+     */
+    private final int[] rank;
+
+    /**
+     * The way value is selected for a given variable
+     */
+    private final IntValueSelector valueSelector;
+
+    // binary heap: heap stores indices of variables, pos their position in the heap (-1 if not in the heap)
+    private final int[] heap;
+    private final int[] pos;
+    private int size;
+
+    // keys used in the heap: only changed when a variable is updated, to keep the heap invariant
+    private final long[] hdom;
+    private final long[] hwdeg;
+
+    /**
+     * Indices of the variables modified by propagation, by segment
+     */
+    private final TIntArrayList log;
+
+    /**
+     * Size of the log already processed at the current world
+     */
+    private final IStateInt logSize;
+
+    /**
+     * Segment of the log in which each variable has been lastly logged
+     */
+    private final int[] stamp;
+    private int segment;
+
+    /**
+     * Indices of the variables whose weighted degree changed since the last decision
+     */
+    private final TIntArrayList pending;
+
+    private boolean built;
+
+    /**
+     * Creates an incremental DomOverWDeg variable selector
+     *
+     * @param variables     decision variables
+     * @param seed          seed for breaking ties randomly
+     * @param valueSelector a value selector
+     */
+    public DomOverWDegIncr(IntVar[] variables, long seed, IntValueSelector valueSelector) {
+        super(variables);
+        Model model = variables[0].getModel();
+        int n = vars.length;
+        this.valueSelector = valueSelector;
+        this.v2i = new IntMap(n * 3 / 2 + 1, -1);
+        for (int i = 0; i < n; i++) {
+            v2i.put(vars[i].getId(), i);
+        }
+        this.wdeg = new int[n];
+        Arrays.fill(wdeg, 1);
+        this.rank = new int[n];
+        java.util.Random random = new java.util.Random(seed);
+        for (int i = 0; i < n; i++) {
+            int j = random.nextInt(i + 1);
+            rank[i] = rank[j];
+            rank[j] = i;
+        }
+        this.heap = new int[n];
+        this.pos = new int[n];
+        Arrays.fill(pos, -1);
+        this.hdom = new long[n];
+        this.hwdeg = new long[n];
+        this.log = new TIntArrayList();
+        this.logSize = model.getEnvironment().makeInt(0);
+        this.stamp = new int[n];
+        Arrays.fill(stamp, -1);
+        this.pending = new TIntArrayList();
+    }
+
+    @Override
+    public boolean init() {
+        Solver solver = vars[0].getModel().getSolver();
+        if (!solver.getSearchMonitors().contains(this)) {
+            solver.plugMonitor(this);
+            for (int i = 0; i < vars.length; i++) {
+                vars[i].addMonitor(this);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void remove() {
+        Solver solver = vars[0].getModel().getSolver();
+        if (solver.getSearchMonitors().contains(this)) {
+            solver.unplugMonitor(this);
+            for (int i = 0; i < vars.length; i++) {
+                vars[i].removeMonitor(this);
+            }
+        }
+    }
+
+    @Override
+    public void onUpdate(IntVar var, IEventType evt) {
+        int i = v2i.get(var.getId());
+        if (i > -1 && stamp[i] != segment) {
+            stamp[i] = segment;
+            log.add(i);
+        }
+    }
+
+    @Override
+    public void onContradiction(ContradictionException cex) {
+        if (cex.c instanceof Propagator) {
+            Propagator<?> p = (Propagator<?>) cex.c;
+            for (int k = 0; k < p.getNbVars(); k++) {
+                Variable v = p.getVar(k);
+                int i = v2i.get(v.getId());
+                if (i > -1) {
+                    if (wdeg[i]++ == hwdeg[i]) {
+                        pending.add(i);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public Decision<IntVar> computeDecision(IntVar variable) {
+        if (variable == null || variable.isInstantiated()) {
+            return null;
+        }
+        int currentVal = valueSelector.selectValue(variable);
+        return variable.getModel().getSolver().getDecisionPath().makeIntDecision(variable, DecisionOperatorFactory.makeIntEq(), currentVal);
+    }
+
+    @Override
+    public Decision<IntVar> getDecision() {
+        if (!built) {
+            built = true;
+            for (int i = 0; i < vars.length; i++) {
+                update(i);
+            }
+            log.resetQuick();
+            logSize.set(0);
+            pending.resetQuick();
+        }
+        for (int k = 0; k < pending.size(); k++) {
+            update(pending.getQuick(k));
+        }
+        pending.resetQuick();
+        // variables in [from, size) of the log: modified by propagation in the current world, or restored on backtrack
+        int from = logSize.get();
+        int to = from;
+        segment++;
+        for (int k = from; k < log.size(); k++) {
+            int i = log.getQuick(k);
+            if (stamp[i] != segment) {
+                stamp[i] = segment;
+                update(i);
+                log.setQuick(to++, i);
+            }
+        }
+        log.remove(to, log.size() - to);
+        logSize.set(to);
+        segment++;
+        while (size > 0 && vars[heap[0]].isInstantiated()) {
+            delete(heap[0]);
+        }
+        return computeDecision(size > 0 ? vars[heap[0]] : null);
+    }
+
+    /**
+     * @return the weighted degree of the variable at index <i>i</i>
+     */
+    public int getWeightedDegree(int i) {
+        return wdeg[i];
+    }
+
+    private void update(int i) {
+        IntVar v = vars[i];
+        if (v.isInstantiated()) {
+            if (pos[i] > -1) {
+                delete(i);
+            }
+            return;
+        }
+        hdom[i] = v.getDomainSize();
+        hwdeg[i] = wdeg[i];
+        if (pos[i] < 0) {
+            heap[size] = i;
+            pos[i] = size++;
+            siftUp(pos[i]);
+        } else {
+            siftDown(siftUp(pos[i]));
+        }
+    }
+
+    private void delete(int i) {
+        int p = pos[i];
+        int last = heap[--size];
+        pos[i] = -1;
+        if (p < size) {
+            heap[p] = last;
+            pos[last] = p;
+            siftDown(siftUp(p));
+        }
+    }
+
+    /**
+     * @return <i>true</i> if the variable at index <i>a</i> is preferred to the one at index <i>b</i>
+     */
+    private boolean better(int a, int b) {
+        long ca = hdom[a] * hwdeg[b];
+        long cb = hdom[b] * hwdeg[a];
+        return ca < cb || ca == cb && rank[a] < rank[b];
+    }
+
+    private int siftUp(int p) {
+        int i = heap[p];
+        while (p > 0) {
+            int q = (p - 1) >> 1;
+            if (!better(i, heap[q])) {
+                break;
+            }
+            heap[p] = heap[q];
+            pos[heap[p]] = p;
+            p = q;
+        }
+        heap[p] = i;
+        pos[i] = p;
+        return p;
+    }
+
+    private void siftDown(int p) {
+        int i = heap[p];
+        int half = size >> 1;
+        while (p < half) {
+            int c = (p << 1) + 1;
+            if (c + 1 < size && better(heap[c + 1], heap[c])) {
+                c++;
+            }
+            if (!better(heap[c], i)) {
+                break;
+            }
+            heap[p] = heap[c];
+            pos[heap[p]] = p;
+            p = c;
+        }
+        heap[p] = i;
+        pos[i] = p;
+    }
+}
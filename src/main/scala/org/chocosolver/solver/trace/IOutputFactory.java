@@ -14,6 +14,8 @@ import org.chocosolver.solver.Solution;
 import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.search.loop.monitors.*;
 import org.chocosolver.solver.trace.frames.StatisticsPanel;
+import org.chocosolver.solver.trace.telemetry.ISnapshotSink;
+import org.chocosolver.solver.trace.telemetry.TelemetrySampler;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.Variable;
 import org.chocosolver.util.tools.StringUtils;
@@ -247,6 +249,20 @@ public interface IOutputFactory extends ISelf<Solver> {
         }
     }
 
+    /**
+     * Plug a search monitor which publishes consistent snapshots of the statistics to <i>sinks</i> every {@code f} ms.
+     *
+     * @param f     frequency, in millisecond
+     * @param sinks destinations of the snapshots
+     * @return the monitor plugged, to be closed once no more resolution is expected
+     * @see TelemetrySampler
+     */
+    default TelemetrySampler streamStatistics(long f, ISnapshotSink... sinks) {
+        TelemetrySampler sampler = new TelemetrySampler(ref(), f, sinks);
+        ref().plugMonitor(sampler);
+        return sampler;
+    }
+
 
     /**
      * Create and show a simple dashboard that render resolution statistics every 100 milliseconds.
@@ -0,0 +1,133 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.trace.metrics;
+
+import org.chocosolver.solver.ICause;
+import org.chocosolver.solver.constraints.Propagator;
+
+/**
+ * Metrics attached to one propagator: elapsed time per filtering phase and a few counters.
+ * <p>
+ * Typical use in a filtering algorithm:
+ * <pre>
+ *     long t = metrics.start();
+ *     findMaximumMatching();
+ *     metrics.stop(Phase.MATCHING, t);
+ * </pre>
+ * When metrics are disabled (default), the propagator holds {@link Default#NONE}
+ * whose methods are empty, so that the calls vanish once inlined.
+ *
+ * @author Jia'nan Chen
+ * @see PropagatorMetricsRegistry
+ */
+public interface IPropagatorMetrics {
+
+    /**
+     * Timed phases of a filtering algorithm.
+     */
+    enum Phase {
+        /**
+         * Computation (or repair) of the maximum matching.
+         */
+        MATCHING,
+        /**
+         * Whole filtering step, once the matching is known.
+         */
+        FILTERING,
+        /**
+         * Strongly connected component detection, part of the filtering step.
+         */
+        SCC
+    }
+
+    /**
+     * Counters of a filtering algorithm.
+     */
+    enum Counter {
+        /**
+         * Values removed because they belong to the Hall set Γ(A) but not to the variable's set A.
+         */
+        REMOVED_GAMMA,
+        /**
+         * Values removed because their edge links two distinct strongly connected components.
+         */
+        REMOVED_SCC,
+        /**
+         * Number of SCC checks.
+         */
+        SCC_CHECKS,
+        /**
+         * Number of variable events handled without filtering,
+         * the removed values leaving the matching and Γ(A) unchanged.
+         */
+        SKIPPED_EVENTS
+    }
+
+    /**
+     * @return a start timestamp to give back to {@link #stop(Phase, long)}
+     */
+    long start();
+
+    /**
+     * Record the time elapsed since <i>start</i> for the phase <i>phase</i>.
+     *
+     * @param phase a phase
+     * @param start the value returned by {@link #start()}
+     */
+    void stop(Phase phase, long start);
+
+    /**
+     * Add <i>delta</i> to the counter <i>counter</i>.
+     *
+     * @param counter a counter
+     * @param delta   value to add
+     */
+    void add(Counter counter, long delta);
+
+    /**
+     * @return <i>true</i> if this actually records something
+     */
+    boolean isEnabled();
+
+    /**
+     * @param cause a cause, generally the propagator that runs a filtering algorithm
+     * @return the metrics of <i>cause</i> if it is a propagator, {@link Default#NONE} otherwise
+     */
+    static IPropagatorMetrics of(ICause cause) {
+        if (cause instanceof Propagator) {
+            return ((Propagator) cause).getMetrics();
+        }
+        return Default.NONE;
+    }
+
+    enum Default implements IPropagatorMetrics {
+        NONE() {
+            @Override
+            public long start() {
+                return 0L;
+            }
+
+            @Override
+            public void stop(Phase phase, long start) {
+                // nothing to do by default
+            }
+
+            @Override
+            public void add(Counter counter, long delta) {
+                // nothing to do by default
+            }
+
+            @Override
+            public boolean isEnabled() {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.trace.metrics;
+
+import org.chocosolver.solver.constraints.Propagator;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Recording implementation of {@link IPropagatorMetrics}.
+ * <p>
+ * For each phase, it stores the number of calls, the total and maximum elapsed time (in nanoseconds)
+ * and a histogram with power-of-two buckets: bucket <i>b</i> counts durations <i>d</i>
+ * such that 2<sup>b-1</sup> &le; <i>d</i> &lt; 2<sup>b</sup>.
+ * <p>
+ * Values are stored in atomic arrays, they can safely be read from another thread
+ * (e.g., a monitor) while the solver is running.
+ *
+ * @author Jia'nan Chen
+ */
+public class PropagatorMetrics implements IPropagatorMetrics {
+
+    /**
+     * Number of buckets of each histogram.
+     */
+    public static final int BUCKETS = 64;
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private static final Counter[] COUNTERS = Counter.values();
+
+    /**
+     * The observed propagator
+     */
+    private final Propagator<?> propagator;
+
+    /**
+     * Per phase: number of calls
+     */
+    private final AtomicLongArray calls;
+
+    /**
+     * Per phase: total time
+     */
+    private final AtomicLongArray total;
+
+    /**
+     * Per phase: maximum time
+     */
+    private final AtomicLongArray max;
+
+    /**
+     * Per phase: histogram, phase p stored in [p * BUCKETS, (p + 1) * BUCKETS)
+     */
+    private final AtomicLongArray histogram;
+
+    /**
+     * Counters values
+     */
+    private final AtomicLongArray counters;
+
+    /**
+     * Create metrics for <i>propagator</i>.
+     *
+     * @param propagator the observed propagator
+     */
+    public PropagatorMetrics(Propagator<?> propagator) {
+        this.propagator = propagator;
+        this.calls = new AtomicLongArray(PHASES.length);
+        this.total = new AtomicLongArray(PHASES.length);
+        this.max = new AtomicLongArray(PHASES.length);
+        this.histogram = new AtomicLongArray(PHASES.length * BUCKETS);
+        this.counters = new AtomicLongArray(COUNTERS.length);
+    }
+
+    @Override
+    public long start() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void stop(Phase phase, long start) {
+        long d = System.nanoTime() - start;
+        int p = phase.ordinal();
+        calls.incrementAndGet(p);
+        total.addAndGet(p, d);
+        max.accumulateAndGet(p, d, Math::max);
+        histogram.incrementAndGet(p * BUCKETS + bucket(d));
+    }
+
+    @Override
+    public void add(Counter counter, long delta) {
+        counters.addAndGet(counter.ordinal(), delta);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * @return the observed propagator
+     */
+    public Propagator<?> getPropagator() {
+        return propagator;
+    }
+
+    /**
+     * @param phase a phase
+     * @return number of times <i>phase</i> has been recorded
+     */
+    public long getCalls(Phase phase) {
+        return calls.get(phase.ordinal());
+    }
+
+    /**
+     * @param phase a phase
+     * @return total time spent in <i>phase</i>, in nanoseconds
+     */
+    public long getTotalTime(Phase phase) {
+        return total.get(phase.ordinal());
+    }
+
+    /**
+     * @param phase a phase
+     * @return maximum time spent in one call of <i>phase</i>, in nanoseconds
+     */
+    public long getMaxTime(Phase phase) {
+        return max.get(phase.ordinal());
+    }
+
+    /**
+     * Estimate a quantile of the time spent in <i>phase</i> from the histogram.
+     * The estimation is the upper bound of the bucket the quantile falls in,
+     * it is thus at most twice the real value.
+     *
+     * @param phase a phase
+     * @param q     the quantile, in [0,1]
+     * @return an upper bound of the <i>q</i>-quantile, in nanoseconds
+     */
+    public long getQuantile(Phase phase, double q) {
+        int p = phase.ordinal();
+        long n = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            n += histogram.get(p * BUCKETS + b);
+        }
+        if (n == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(q * n));
+        long c = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            c += histogram.get(p * BUCKETS + b);
+            if (c >= rank) {
+                return Math.min(b == 63 ? Long.MAX_VALUE : (1L << b) - 1, getMaxTime(phase));
+            }
+        }
+        return getMaxTime(phase);
+    }
+
+    /**
+     * @param phase  a phase
+     * @param bucket a bucket index, in [0, {@link #BUCKETS})
+     * @return number of calls of <i>phase</i> that fall in <i>bucket</i>
+     */
+    public long getHistogram(Phase phase, int bucket) {
+        return histogram.get(phase.ordinal() * BUCKETS + bucket);
+    }
+
+    /**
+     * @param counter a counter
+     * @return the value of <i>counter</i>
+     */
+    public long getCounter(Counter counter) {
+        return counters.get(counter.ordinal());
+    }
+
+    /**
+     * Set all values to 0.
+     */
+    public void reset() {
+        for (int i = 0; i < PHASES.length; i++) {
+            calls.set(i, 0L);
+            total.set(i, 0L);
+            max.set(i, 0L);
+        }
+        for (int i = 0; i < histogram.length(); i++) {
+            histogram.set(i, 0L);
+        }
+        for (int i = 0; i < COUNTERS.length; i++) {
+            counters.set(i, 0L);
+        }
+    }
+
+    private static int bucket(long d) {
+        return d <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(d);
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.trace.metrics;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Counter;
+import org.chocosolver.solver.trace.metrics.IPropagatorMetrics.Phase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Metrics of the propagators of a model.
+ * <p>
+ * Each propagator asks for its metrics on creation, through {@link #register(Propagator)}.
+ * When the registry is disabled (default, see {@link org.chocosolver.solver.Settings#enablePropagatorMetrics()}),
+ * {@link IPropagatorMetrics.Default#NONE} is returned and nothing is recorded.
+ * Enabling or disabling the registry only impacts propagators created afterwards.
+ * <p>
+ * Since each model has its own registry, models solved concurrently
+ * (e.g., in a {@link org.chocosolver.solver.ParallelPortfolio}) do not interfere.
+ *
+ * @author Jia'nan Chen
+ */
+public class PropagatorMetricsRegistry {
+
+    private static final String[] QUANTILES = {"p50", "p90", "p99"};
+
+    private static final double[] QVALUES = {.5, .9, .99};
+
+    /**
+     * Set to <i>true</i> to record metrics of propagators created from now on
+     */
+    private volatile boolean enabled;
+
+    /**
+     * Registered metrics, in creation order
+     */
+    private final Queue<PropagatorMetrics> metrics;
+
+    /**
+     * Create a registry.
+     *
+     * @param enabled set to <i>true</i> to record metrics
+     */
+    public PropagatorMetricsRegistry(boolean enabled) {
+        this.enabled = enabled;
+        this.metrics = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * @param propagator a newly created propagator
+     * @return the metrics to use for <i>propagator</i>
+     */
+    public IPropagatorMetrics register(Propagator<?> propagator) {
+        if (!enabled) {
+            return IPropagatorMetrics.Default.NONE;
+        }
+        PropagatorMetrics m = new PropagatorMetrics(propagator);
+        metrics.add(m);
+        return m;
+    }
+
+    /**
+     * @return <i>true</i> if new propagators get recording metrics
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enable or disable recording for propagators created from now on.
+     *
+     * @param enabled set to <i>true</i> to record metrics
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return a snapshot of the registered metrics
+     */
+    public List<PropagatorMetrics> getMetrics() {
+        return new ArrayList<>(metrics);
+    }
+
+    /**
+     * @param phase a phase
+     * @return total time spent in <i>phase</i> over all propagators, in nanoseconds
+     */
+    public long getTotalTime(Phase phase) {
+        long t = 0L;
+        for (PropagatorMetrics m : metrics) {
+            t += m.getTotalTime(phase);
+        }
+        return t;
+    }
+
+    /**
+     * @param counter a counter
+     * @return sum of <i>counter</i> over all propagators
+     */
+    public long getCounter(Counter counter) {
+        long c = 0L;
+        for (PropagatorMetrics m : metrics) {
+            c += m.getCounter(counter);
+        }
+        return c;
+    }
+
+    /**
+     * Set the values of all metrics to 0.
+     */
+    public void reset() {
+        for (PropagatorMetrics m : metrics) {
+            m.reset();
+        }
+    }
+
+    /**
+     * Write the metrics in CSV format, one line per propagator, preceded by a header.
+     * Times are given in nanoseconds.
+     *
+     * @param out where to write
+     * @throws IOException if an I/O error occurs
+     */
+    public void toCSV(Appendable out) throws IOException {
+        out.append("propagator,id");
+        for (Phase p : Phase.values()) {
+            String n = p.name().toLowerCase();
+            out.append(',').append(n).append(".calls");
+            out.append(',').append(n).append(".total");
+            out.append(',').append(n).append(".max");
+            for (String q : QUANTILES) {
+                out.append(',').append(n).append('.').append(q);
+            }
+        }
+        for (Counter c : Counter.values()) {
+            out.append(',').append(c.name().toLowerCase());
+        }
+        out.append('\n');
+        for (PropagatorMetrics m : metrics) {
+            out.append(m.getPropagator().getClass().getSimpleName())
+                    .append(',').append(Integer.toString(m.getPropagator().getId()));
+            for (Phase p : Phase.values()) {
+                out.append(',').append(Long.toString(m.getCalls(p)));
+                out.append(',').append(Long.toString(m.getTotalTime(p)));
+                out.append(',').append(Long.toString(m.getMaxTime(p)));
+                for (double q : QVALUES) {
+                    out.append(',').append(Long.toString(m.getQuantile(p, q)));
+                }
+            }
+            for (Counter c : Counter.values()) {
+                out.append(',').append(Long.toString(m.getCounter(c)));
+            }
+            out.append('\n');
+        }
+    }
+
+    /**
+     * Write the metrics in JSON format, as an array with one object per propagator.
+     * Times are given in nanoseconds, histograms are truncated after their last non-empty bucket.
+     *
+     * @param out where to write
+     * @throws IOException if an I/O error occurs
+     */
+    public void toJSON(Appendable out) throws IOException {
+        out.append('[');
+        boolean first = true;
+        for (PropagatorMetrics m : metrics) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            out.append("\n  {\"propagator\":\"").append(m.getPropagator().getClass().getSimpleName())
+                    .append("\",\"id\":").append(Integer.toString(m.getPropagator().getId()));
+            for (Phase p : Phase.values()) {
+                out.append(",\"").append(p.name().toLowerCase()).append("\":{")
+                        .append("\"calls\":").append(Long.toString(m.getCalls(p)))
+                        .append(",\"total\":").append(Long.toString(m.getTotalTime(p)))
+                        .append(",\"max\":").append(Long.toString(m.getMaxTime(p)));
+                for (int i = 0; i < QUANTILES.length; i++) {
+                    out.append(",\"").append(QUANTILES[i]).append("\":")
+                            .append(Long.toString(m.getQuantile(p, QVALUES[i])));
+                }
+                int last = PropagatorMetrics.BUCKETS - 1;
+                while (last >= 0 && m.getHistogram(p, last) == 0) {
+                    last--;
+                }
+                out.append(",\"histogram\":[");
+                for (int b = 0; b <= last; b++) {
+                    if (b > 0) {
+                        out.append(',');
+                    }
+                    out.append(Long.toString(m.getHistogram(p, b)));
+                }
+                out.append("]}");
+            }
+            for (Counter c : Counter.values()) {
+                out.append(",\"").append(c.name().toLowerCase()).append("\":")
+                        .append(Long.toString(m.getCounter(c)));
+            }
+            out.append('}');
+        }
+        out.append("\n]\n");
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.trace.telemetry;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.search.measure.SearchSnapshot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A sink which serves the last snapshot as JSON over HTTP, on the loopback interface only.
+ * <p>
+ * <code>curl http://localhost:port/</code> returns the last snapshot, or <code>{}</code> if none has been received yet.
+ *
+ * @author Jia'nan Chen
+ */
+public class HttpSink implements ISnapshotSink {
+
+    private final HttpServer server;
+
+    private volatile SearchSnapshot last;
+
+    /**
+     * Create a sink and start serving.
+     * @param port port to listen to, 0 to pick a free one (see {@link #getPort()})
+     * @throws SolverException if the server cannot be started
+     */
+    public HttpSink(int port) {
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            throw new SolverException("Unable to listen to port " + port + ": " + e.getMessage());
+        }
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        SearchSnapshot s = last;
+        byte[] body = (s == null ? "{}" : s.toJson()).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    /**
+     * @return the port this sink listens to
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void accept(SearchSnapshot snapshot) {
+        last = snapshot;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.trace.telemetry;
+
+import org.chocosolver.solver.search.measure.SearchSnapshot;
+
+/**
+ * A destination for the snapshots published by a {@link TelemetrySampler}.
+ * <p>
+ * Snapshots are given by the sampler thread, never by the thread which solves:
+ * a sink may then block or do I/O without slowing down the search.
+ *
+ * @author Jia'nan Chen
+ */
+@FunctionalInterface
+public interface ISnapshotSink {
+
+    /**
+     * Receive a snapshot.
+     * @param snapshot the snapshot published
+     */
+    void accept(SearchSnapshot snapshot);
+
+    /**
+     * Release the resources of this sink, called once the sampling ends.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.trace.telemetry;
+
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.search.measure.SearchSnapshot;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A sink which writes each snapshot as a JSON object on its own line (JSON Lines).
+ * Lines are flushed as soon as written, so that the file can be followed during the resolution.
+ *
+ * @author Jia'nan Chen
+ */
+public class JsonLinesSink implements ISnapshotSink {
+
+    private final Writer out;
+
+    /**
+     * Create a sink which appends snapshots to a file.
+     * @param file the file to write in, created if needed
+     * @throws SolverException if the file cannot be opened
+     */
+    public JsonLinesSink(Path file) {
+        try {
+            this.out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new SolverException("Unable to open " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Create a sink which writes snapshots to a writer.
+     * @param out the writer, closed with this sink
+     */
+    public JsonLinesSink(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void accept(SearchSnapshot snapshot) {
+        try {
+            out.write(snapshot.toJson());
+            out.write('\n');
+            out.flush();
+        } catch (IOException ignored) {
+            // telemetry must not interrupt the resolution
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
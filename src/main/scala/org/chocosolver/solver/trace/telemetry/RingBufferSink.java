@@ -0,0 +1,74 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.trace.telemetry;
+
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.search.measure.SearchSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A sink which keeps the last snapshots in memory, the oldest ones being overwritten.
+ *
+ * @author Jia'nan Chen
+ */
+public class RingBufferSink implements ISnapshotSink {
+
+    private final SearchSnapshot[] buffer;
+
+    /**
+     * Number of snapshots received
+     */
+    private long count;
+
+    /**
+     * Create a sink which keeps the <i>capacity</i> last snapshots.
+     * @param capacity number of snapshots kept
+     * @throws SolverException if <i>capacity</i> is not positive
+     */
+    public RingBufferSink(int capacity) {
+        if (capacity < 1) {
+            throw new SolverException("The capacity of a ring buffer must be positive");
+        }
+        this.buffer = new SearchSnapshot[capacity];
+    }
+
+    @Override
+    public synchronized void accept(SearchSnapshot snapshot) {
+        buffer[(int) (count++ % buffer.length)] = snapshot;
+    }
+
+    /**
+     * @return the snapshots kept, oldest first
+     */
+    public synchronized List<SearchSnapshot> getSnapshots() {
+        int n = (int) Math.min(count, buffer.length);
+        List<SearchSnapshot> list = new ArrayList<>(n);
+        for (long i = count - n; i < count; i++) {
+            list.add(buffer[(int) (i % buffer.length)]);
+        }
+        return list;
+    }
+
+    /**
+     * @return the last snapshot received, or <tt>null</tt> if none
+     */
+    public synchronized SearchSnapshot getLast() {
+        return count > 0 ? buffer[(int) ((count - 1) % buffer.length)] : null;
+    }
+
+    /**
+     * @return number of snapshots received, including the overwritten ones
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+}
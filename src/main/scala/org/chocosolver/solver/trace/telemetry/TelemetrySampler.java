@@ -0,0 +1,208 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.trace.telemetry;
+
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.search.loop.monitors.IMonitorClose;
+import org.chocosolver.solver.search.loop.monitors.IMonitorInitialize;
+import org.chocosolver.solver.search.measure.MeasuresRecorder;
+import org.chocosolver.solver.search.measure.SearchSnapshot;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A search monitor which publishes snapshots of the measures to sinks every XX ms.
+ * <p>
+ * Contrary to {@link org.chocosolver.solver.trace.LogStatEveryXXms}, which reads the measures while they are updated,
+ * a snapshot is taken by the thread which solves, on demand (see {@link MeasuresRecorder#requestSnapshot()}):
+ * its counters are consistent.
+ * The search only pays for a volatile read on each node, failure and fixpoint, and for one snapshot every XX ms.
+ * When the search does not answer in time (for instance, when a single propagation takes long),
+ * the previous snapshot is published again, flagged as stale, so that stalls can be spotted.
+ * <p>
+ * The number of revisions by type of constraint is read directly from the propagators by the sampler thread,
+ * and is then only approximate.
+ * <p>
+ * A last snapshot is published when the resolution ends.
+ * Sinks are kept opened between resolutions, call {@link #close()} to release them.
+ *
+ * @author Jia'nan Chen
+ */
+public class TelemetrySampler implements IMonitorInitialize, IMonitorClose {
+
+    /**
+     * The solver sampled
+     */
+    private final Solver solver;
+
+    /**
+     * Delay between two snapshots, in milliseconds
+     */
+    private final long period;
+
+    /**
+     * Delay to wait for the search to answer, in milliseconds
+     */
+    private final long patience;
+
+    private final ISnapshotSink[] sinks;
+
+    /**
+     * Set to <tt>true</tt> to count revisions by type of constraint
+     */
+    private final boolean propagations;
+
+    /**
+     * A thread which samples the measures, one per resolution.
+     */
+    private Thread sampler;
+
+    /**
+     * A boolean to kill the sampler when the resolution ends.
+     */
+    private volatile boolean alive;
+
+    /**
+     * Last snapshot published
+     */
+    private volatile SearchSnapshot last;
+
+    /**
+     * Create a monitor which publishes snapshots every <i>period</i> milliseconds,
+     * with the number of revisions by type of constraint.
+     * @param solver the solver to instrument
+     * @param period delay between two snapshots, in milliseconds
+     * @param sinks  destinations of the snapshots
+     */
+    public TelemetrySampler(Solver solver, long period, ISnapshotSink... sinks) {
+        this(solver, period, true, sinks);
+    }
+
+    /**
+     * Create a monitor which publishes snapshots every <i>period</i> milliseconds.
+     * @param solver       the solver to instrument
+     * @param period       delay between two snapshots, in milliseconds
+     * @param propagations set to <tt>true</tt> to count revisions by type of constraint
+     * @param sinks        destinations of the snapshots
+     */
+    public TelemetrySampler(Solver solver, long period, boolean propagations, ISnapshotSink... sinks) {
+        this.solver = solver;
+        this.period = Math.max(1, period);
+        this.patience = Math.max(1, Math.min(this.period / 4, 50));
+        this.propagations = propagations;
+        this.sinks = sinks.clone();
+    }
+
+    @Override
+    public void afterInitialize(boolean correct) {
+        if (correct) {
+            alive = true;
+            sampler = new Thread(this::sample, "telemetry-" + solver.getModel().getName());
+            sampler.setDaemon(true);
+            sampler.start();
+        }
+    }
+
+    @Override
+    public void afterClose() {
+        if (sampler != null) {
+            alive = false;
+            sampler.interrupt();
+            try {
+                sampler.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sampler = null;
+            // the last snapshot is built by the solving thread itself
+            publish(solver.getMeasures().takeSnapshot());
+        }
+    }
+
+    private void sample() {
+        MeasuresRecorder mr = solver.getMeasures();
+        SearchSnapshot prev = mr.getLastSnapshot();
+        try {
+            while (alive) {
+                Thread.sleep(period);
+                mr.requestSnapshot();
+                long deadline = System.nanoTime() + patience * 1_000_000L;
+                SearchSnapshot s = mr.getLastSnapshot();
+                while (s == prev && System.nanoTime() < deadline) {
+                    Thread.sleep(1);
+                    s = mr.getLastSnapshot();
+                }
+                if (s != prev) {
+                    prev = s;
+                    publish(s);
+                } else if (last != null) {
+                    // the search did not answer in time: send the previous snapshot again, marked as stale
+                    publish(last.asStale());
+                }
+            }
+        } catch (InterruptedException ignored) {
+        }
+    }
+
+    private void publish(SearchSnapshot s) {
+        if (propagations) {
+            s = s.withPropagations(countPropagations());
+        }
+        last = s;
+        for (ISnapshotSink sink : sinks) {
+            sink.accept(s);
+        }
+    }
+
+    /**
+     * Sum up the revisions of the propagators by type of constraint.
+     * Counters are read while the search updates them: values are approximate, but never decrease.
+     */
+    private Map<String, Long> countPropagations() {
+        Map<String, Long> counts = new HashMap<>();
+        Constraint[] cstrs;
+        try {
+            cstrs = solver.getModel().getCstrs();
+        } catch (RuntimeException e) {
+            // constraints added during resolution
+            return counts;
+        }
+        for (Constraint c : cstrs) {
+            if (c == null) {
+                continue;
+            }
+            long n = 0;
+            for (Propagator<?> p : c.getPropagators()) {
+                n += p.getRevisionCount();
+            }
+            counts.merge(c.getName(), n, Long::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * @return the last snapshot published, or <tt>null</tt> if none
+     */
+    public SearchSnapshot getLastSnapshot() {
+        return last;
+    }
+
+    /**
+     * Close the sinks. The sampler should not be used anymore.
+     */
+    public void close() {
+        for (ISnapshotSink sink : sinks) {
+            sink.close();
+        }
+    }
+}
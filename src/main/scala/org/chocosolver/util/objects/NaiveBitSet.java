@@ -58,8 +58,21 @@ public class NaiveBitSet {
         }
     }
 
+    // 将b复制到本集合的[startIndex, startIndex + b.bitSize)区间，区间外的位不变
     public void set(int startIndex, NaiveBitSet b) {
-//        for(int i = wordIndex(startIndex);)
+        int a = wordIndex(startIndex);
+        int offset = wordOffset(startIndex);
+        for (int i = 0; i < b.longSize; ++i) {
+            // b的最后一个字只取有效位
+            long mask = i == b.longSize - 1 ? b.lastMask : WORD_MASK;
+            long bits = b.words[i] & mask;
+            int j = a + i;
+            this.words[j] = (this.words[j] & ~(mask << offset)) | (bits << offset);
+            if (offset != 0 && j + 1 < longSize) {
+                int shift = BITS_PER_WORD - offset;
+                this.words[j + 1] = (this.words[j + 1] & ~(mask >>> shift)) | (bits >>> shift);
+            }
+        }
     }
 
     public void naiveSet(int s, NaiveBitSet nbs) {
@@ -163,6 +176,26 @@ public class NaiveBitSet {
         this.words[wordIndex(bitIndex)] &= ~(1L << bitIndex);
     }
 
+    // 清空[fromIndex, toIndex]区间
+    public void clear(int fromIndex, int toIndex) {
+        if (fromIndex > toIndex) {
+            return;
+        }
+        int u = wordIndex(fromIndex);
+        int v = wordIndex(toIndex);
+        long firstMask = WORD_MASK << fromIndex;
+        long endMask = WORD_MASK >>> (BIT_INDEX_MASK - wordOffset(toIndex));
+        if (u == v) {
+            this.words[u] &= ~(firstMask & endMask);
+        } else {
+            this.words[u] &= ~firstMask;
+            for (int i = u + 1; i < v; ++i) {
+                this.words[i] = 0L;
+            }
+            this.words[v] &= ~endMask;
+        }
+    }
+
     // 从本集合中移除s中的元素
     public void clear(NaiveBitSet s) {
         for (int i = 0; i < longSize; ++i) {
@@ -264,6 +297,34 @@ public class NaiveBitSet {
         return false;
     }
 
+    // 判断两个集合在[fromIndex, toIndex]区间内是否有交集
+    // 如果有，返回区间内第一个相交的值
+    // 如果没有，返回-1
+    public int isIntersect(NaiveBitSet s, int fromIndex, int toIndex) {
+        if (fromIndex > toIndex) {
+            return -1;
+        }
+        int u = wordIndex(fromIndex);
+        int v = wordIndex(toIndex);
+        long word = this.words[u] & s.words[u] & (WORD_MASK << fromIndex);
+        while (u < v) {
+            if (word != 0L) {
+                return u * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+            }
+            ++u;
+            word = this.words[u] & s.words[u];
+        }
+        word &= WORD_MASK >>> (BIT_INDEX_MASK - wordOffset(toIndex));
+        return word != 0L ? u * BITS_PER_WORD + Long.numberOfTrailingZeros(word) : -1;
+    }
+
+    // 并入a和b的交集
+    public void addIntersection(NaiveBitSet a, NaiveBitSet b) {
+        for (int i = 0; i < longSize; ++i) {
+            this.words[i] |= a.words[i] & b.words[i];
+        }
+    }
+
     public int nextSetBit(int fromIndex) {
         if (fromIndex < 0) {
             throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
@@ -0,0 +1,225 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.extension;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.variables.IntVar;
+
+import java.util.Random;
+import java.util.function.BiFunction;
+
+/**
+ * A small random model made of table constraints, used to compare the table propagators and the propagation engines.
+ * <p>
+ * Domains are random subsets of [0, {@link #MAX_VALUE}], so that they may have holes.
+ * Tables are positive or negative, of arity 3 or 4 so that the binary algorithms are not used,
+ * and may share their relation with another table.
+ * Two decomposed constraints, <code>x0 != x1</code> and <code>x0 + xn <= MAX_VALUE</code>,
+ * are possibly added to mix other propagators in.
+ * The number of solutions is computed by enumerating all the assignments, without any propagator.
+ *
+ * @author Jia'nan Chen
+ */
+public final class RandomTableModel {
+
+    public static final int MAX_VALUE = 5;
+
+    /**
+     * Universal value of the short tuples
+     */
+    public static final int STAR = -1;
+
+    private final int[][] domains;
+    private final int[][] scopes;
+    private final int[][][] relations;
+    private final boolean[] feasible;
+    private final boolean different;
+    private final boolean sum;
+    private final long seed;
+
+    /**
+     * Generate a random model.
+     *
+     * @param seed         seed of the generator
+     * @param shortTuples  set to <i>true</i> to allow universal values in the tuples
+     * @param onlyPositive set to <i>true</i> to generate positive tables only
+     */
+    public RandomTableModel(long seed, boolean shortTuples, boolean onlyPositive) {
+        this.seed = seed;
+        Random r = new Random(seed);
+        int n = 3 + r.nextInt(4);
+        domains = new int[n][];
+        for (int i = 0; i < n; i++) {
+            int k = 2 + r.nextInt(4);
+            domains[i] = new int[k];
+            for (int j = 0; j < k; j++) {
+                domains[i][j] = r.nextInt(MAX_VALUE + 1);
+            }
+        }
+        int nc = 2 + r.nextInt(4);
+        scopes = new int[nc][];
+        relations = new int[nc][][];
+        feasible = new boolean[nc];
+        for (int c = 0; c < nc; c++) {
+            int arity = 3 + r.nextInt(Math.min(2, n - 2));
+            scopes[c] = new int[arity];
+            boolean[] used = new boolean[n];
+            for (int i = 0; i < arity; i++) {
+                int v;
+                do {
+                    v = r.nextInt(n);
+                } while (used[v]);
+                used[v] = true;
+                scopes[c][i] = v;
+            }
+            // share the relation with the previous constraint
+            if (c > 0 && relations[c - 1].length > 0 && relations[c - 1][0].length == arity && r.nextInt(3) == 0) {
+                relations[c] = relations[c - 1];
+                feasible[c] = feasible[c - 1];
+                continue;
+            }
+            feasible[c] = onlyPositive || r.nextBoolean();
+            relations[c] = new int[1 + r.nextInt(40)][arity];
+            for (int[] tuple : relations[c]) {
+                for (int i = 0; i < arity; i++) {
+                    tuple[i] = shortTuples && r.nextInt(5) == 0 ? STAR : r.nextInt(MAX_VALUE + 1);
+                }
+            }
+        }
+        different = r.nextBoolean();
+        sum = r.nextBoolean();
+    }
+
+    /**
+     * Build the model.
+     *
+     * @param positive table algorithm for positive tables
+     * @param negative table algorithm for negative tables
+     * @return a new model, whose variables are those of the tables
+     */
+    public Model build(String positive, String negative) {
+        return build((vars, tuples) -> vars[0].getModel().table(vars, tuples, positive),
+                (vars, tuples) -> vars[0].getModel().table(vars, tuples, negative));
+    }
+
+    /**
+     * Build the model.
+     *
+     * @param positive creates the constraint of a positive table, over its scope
+     * @param negative creates the constraint of a negative table, over its scope
+     * @return a new model, whose variables are those of the tables
+     */
+    public Model build(BiFunction<IntVar[], Tuples, Constraint> positive,
+                       BiFunction<IntVar[], Tuples, Constraint> negative) {
+        Model model = new Model("random table model " + seed);
+        IntVar[] vars = new IntVar[domains.length];
+        for (int i = 0; i < vars.length; i++) {
+            vars[i] = model.intVar("x" + i, domains[i]);
+        }
+        Tuples last = null;
+        for (int c = 0; c < scopes.length; c++) {
+            Tuples tuples;
+            if (c > 0 && relations[c] == relations[c - 1]) {
+                // same relation: half the time the Tuples object is shared, otherwise its content is copied
+                tuples = c % 2 == 0 ? last : copy(relations[c], feasible[c]);
+            } else {
+                tuples = copy(relations[c], feasible[c]);
+            }
+            IntVar[] scope = new IntVar[scopes[c].length];
+            for (int i = 0; i < scope.length; i++) {
+                scope[i] = vars[scopes[c][i]];
+            }
+            (feasible[c] ? positive : negative).apply(scope, tuples).post();
+            last = tuples;
+        }
+        if (different) {
+            model.arithm(vars[0], "!=", vars[1]).post();
+        }
+        if (sum) {
+            model.arithm(vars[0], "+", vars[vars.length - 1], "<=", MAX_VALUE).post();
+        }
+        return model;
+    }
+
+    private static Tuples copy(int[][] relation, boolean feasible) {
+        Tuples tuples = new Tuples(feasible);
+        boolean star = false;
+        for (int[] tuple : relation) {
+            tuples.add(tuple.clone());
+            for (int v : tuple) {
+                star |= v == STAR;
+            }
+        }
+        if (star) {
+            tuples.setUniversalValue(STAR);
+        }
+        return tuples;
+    }
+
+    /**
+     * Count the solutions of a model built from this, with a random search.
+     *
+     * @param model a model built from this
+     * @return the number of solutions of <i>model</i>
+     */
+    public long countSolutions(Model model) {
+        Solver solver = model.getSolver();
+        solver.setSearch(Search.randomSearch(model.retrieveIntVars(true), seed));
+        long count = 0;
+        while (solver.solve()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of solutions, by enumeration of all the assignments
+     */
+    public long countSolutions() {
+        return enumerate(new int[domains.length], 0);
+    }
+
+    private long enumerate(int[] assignment, int i) {
+        if (i == assignment.length) {
+            return satisfies(assignment) ? 1 : 0;
+        }
+        long count = 0;
+        boolean[] seen = new boolean[MAX_VALUE + 1];
+        for (int v : domains[i]) {
+            if (!seen[v]) {
+                seen[v] = true;
+                assignment[i] = v;
+                count += enumerate(assignment, i + 1);
+            }
+        }
+        return count;
+    }
+
+    private boolean satisfies(int[] assignment) {
+        for (int c = 0; c < scopes.length; c++) {
+            boolean match = false;
+            for (int t = 0; t < relations[c].length && !match; t++) {
+                match = true;
+                for (int i = 0; i < scopes[c].length && match; i++) {
+                    int v = relations[c][t][i];
+                    match = v == STAR || v == assignment[scopes[c][i]];
+                }
+            }
+            if (match != feasible[c]) {
+                return false;
+            }
+        }
+        return (!different || assignment[0] != assignment[1])
+                && (!sum || assignment[0] + assignment[assignment.length - 1] <= MAX_VALUE);
+    }
+}
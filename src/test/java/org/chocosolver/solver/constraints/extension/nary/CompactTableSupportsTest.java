@@ -0,0 +1,100 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.extension.nary;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.extension.RandomTableModel;
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.variables.IntVar;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Compact-Table propagators on the same relation share their supports, and only then.
+ *
+ * @author Jia'nan Chen
+ */
+public class CompactTableSupportsTest {
+
+    private static final int NB_SEEDS = 500;
+
+    private static Tuples tuples() {
+        return tuples(true);
+    }
+
+    private static Tuples tuples(boolean feasible) {
+        Tuples tuples = new Tuples(feasible);
+        tuples.add(0, 1, 2);
+        tuples.add(1, 2, 0);
+        tuples.add(2, 0, 1);
+        tuples.add(2, 2, 2);
+        return tuples;
+    }
+
+    private static CompactTableSupports supports(Constraint c) {
+        return ((PropCompactTable) c.getPropagator(0)).relation;
+    }
+
+    @Test
+    public void testShared() {
+        Model model = new Model();
+        IntVar[] x = model.intVarArray("x", 3, 0, 2);
+        IntVar[] y = model.intVarArray("y", 3, 0, 2);
+        Tuples tuples = tuples();
+        Constraint c1 = model.table(x, tuples, "CT+");
+        Constraint c2 = model.table(y, tuples, "CT+");
+        // another Tuples object, with the same content
+        Constraint c3 = model.table(new IntVar[]{x[0], y[1], x[2]}, tuples(), "CT+");
+        assertSame(supports(c1), supports(c2));
+        assertSame(supports(c1), supports(c3));
+    }
+
+    @Test
+    public void testNotShared() {
+        Model model = new Model();
+        IntVar[] x = model.intVarArray("x", 3, 0, 2);
+        IntVar[] y = new IntVar[]{model.intVar("y0", 0, 2), model.intVar("y1", new int[]{0, 2}), model.intVar("y2", 0, 2)};
+        Constraint c1 = model.table(x, tuples(), "CT+");
+        // different initial domains
+        Constraint c2 = model.table(y, tuples(), "CT+");
+        Tuples other = tuples();
+        other.add(1, 1, 1);
+        Constraint c3 = model.table(x, other, "CT+");
+        // forbidden tuples, with the same content
+        Constraint c4 = model.table(x, tuples(false), "CT-");
+        assertNotSame(supports(c1), supports(c2));
+        assertNotSame(supports(c1), supports(c3));
+        assertNotSame(supports(c1), supports(c4));
+        assertNotSame(supports(c1), supports(new Model().table(new Model().intVarArray("x", 3, 0, 2), tuples(), "CT+")));
+    }
+
+    @Test
+    public void testSameSolutions() {
+        for (long seed = 0; seed < NB_SEEDS; seed++) {
+            RandomTableModel rtm = new RandomTableModel(seed, seed % 2 == 0, true);
+            assertEquals("seed " + seed, rtm.countSolutions(), rtm.countSolutions(rtm.build("CT+", "CT+")));
+        }
+    }
+
+    @Test
+    public void testCopy() {
+        for (long seed = 0; seed < NB_SEEDS; seed++) {
+            RandomTableModel rtm = new RandomTableModel(seed, false, true);
+            Model model = rtm.build("CT+", "CT+");
+            Model copy = model.copy();
+            assertEquals("seed " + seed, rtm.countSolutions(), rtm.countSolutions(copy));
+            assertEquals("seed " + seed, rtm.countSolutions(), rtm.countSolutions(model));
+        }
+    }
+}
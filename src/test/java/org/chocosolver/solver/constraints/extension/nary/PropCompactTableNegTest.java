@@ -0,0 +1,118 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.extension.nary;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.extension.RandomTableModel;
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.variables.IntVar;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compact-Table for negative tables, and the automatic choice of the table algorithms.
+ *
+ * @author Jia'nan Chen
+ */
+public class PropCompactTableNegTest {
+
+    private static final int NB_SEEDS = 500;
+
+    @Test
+    public void testNegative() {
+        for (long seed = 0; seed < NB_SEEDS; seed++) {
+            RandomTableModel rtm = new RandomTableModel(seed, false, false);
+            long expected = rtm.countSolutions();
+            assertEquals("seed " + seed, expected, rtm.countSolutions(rtm.build("GAC3rm+", "GAC3rm")));
+            assertEquals("seed " + seed, expected, rtm.countSolutions(rtm.build("CT+", "CT-")));
+        }
+    }
+
+    @Test
+    public void testShortNegative() {
+        for (long seed = 0; seed < NB_SEEDS; seed++) {
+            RandomTableModel rtm = new RandomTableModel(seed, true, false);
+            assertEquals("seed " + seed, rtm.countSolutions(), rtm.countSolutions(rtm.build("CT+", "CT-")));
+        }
+    }
+
+    @Test
+    public void testAuto() {
+        for (long seed = 0; seed < NB_SEEDS; seed++) {
+            RandomTableModel rtm = new RandomTableModel(seed, seed % 2 == 0, false);
+            assertEquals("seed " + seed, rtm.countSolutions(), rtm.countSolutions(rtm.build("AUTO", "AUTO")));
+        }
+    }
+
+    @Test
+    public void testFullyForbidden() {
+        Model model = new Model();
+        IntVar[] vars = model.intVarArray("x", 3, 0, 1);
+        Tuples tuples = new Tuples(false);
+        tuples.setUniversalValue(-1);
+        tuples.add(0, -1, -1);
+        tuples.add(1, -1, 0);
+        tuples.add(1, 0, 1);
+        model.table(vars, tuples, "CT-").post();
+        // only x = (1, 1, 1) remains
+        assertEquals(1, model.getSolver().findAllSolutions().size());
+        model = new Model();
+        vars = model.intVarArray("x", 3, 0, 1);
+        tuples = new Tuples(false);
+        tuples.setUniversalValue(-1);
+        tuples.add(-1, -1, -1);
+        model.table(vars, tuples, "CT-").post();
+        assertFalse(model.getSolver().solve());
+    }
+
+    @Test
+    public void testHugeShortNegative() {
+        int n = 22;
+        for (long seed = 0; seed < 5; seed++) {
+            Random r = new Random(seed);
+            Tuples tuples = new Tuples(false);
+            tuples.setUniversalValue(-1);
+            int[][] conflicts = new int[80][n];
+            for (int[] conflict : conflicts) {
+                Arrays.fill(conflict, -1);
+                for (int k = 3 + r.nextInt(2); k > 0; k--) {
+                    conflict[r.nextInt(n)] = r.nextInt(2);
+                }
+                tuples.add(conflict);
+            }
+            Model model = new Model();
+            IntVar[] vars = model.boolVarArray("b", n);
+            // each conflict expands to at least 2^18 tuples
+            assertTrue(CompactTableSupports.estimateWords(vars, tuples) == Long.MAX_VALUE);
+            model.table(vars, tuples).post();
+            long expected = 0;
+            for (int a = 0; a < 1 << n; a++) {
+                boolean ok = true;
+                for (int c = 0; c < conflicts.length && ok; c++) {
+                    boolean match = true;
+                    for (int i = 0; i < n && match; i++) {
+                        match = conflicts[c][i] < 0 || conflicts[c][i] == (a >> i & 1);
+                    }
+                    ok = !match;
+                }
+                if (ok) {
+                    expected++;
+                }
+            }
+            assertEquals("seed " + seed, expected, model.getSolver().streamSolutions().count());
+        }
+    }
+}
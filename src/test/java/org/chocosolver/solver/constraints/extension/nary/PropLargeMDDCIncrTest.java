@@ -0,0 +1,93 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.extension.nary;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.ConstraintsName;
+import org.chocosolver.solver.constraints.extension.RandomTableModel;
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.propagation.BatchPropagationEngine;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.objects.graphs.MultivaluedDecisionDiagram;
+import org.junit.Test;
+
+import java.util.function.BiFunction;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The incremental MDD propagator must find the same solutions as {@link PropLargeMDDC}.
+ *
+ * @author Jia'nan Chen
+ */
+public class PropLargeMDDCIncrTest {
+
+    private static final int NB_SEEDS = 500;
+
+    private static final BiFunction<IntVar[], Tuples, Constraint> MDDC = (vars, tuples) ->
+            new Constraint(ConstraintsName.MDDC, new PropLargeMDDC(new MultivaluedDecisionDiagram(vars, tuples), vars));
+
+    private static final BiFunction<IntVar[], Tuples, Constraint> MDDC_INCR = (vars, tuples) ->
+            vars[0].getModel().mddc(vars, new MultivaluedDecisionDiagram(vars, tuples));
+
+    private static final BiFunction<IntVar[], Tuples, Constraint> GAC3RM = (vars, tuples) ->
+            vars[0].getModel().table(vars, tuples, "GAC3rm");
+
+    @Test
+    public void testSameSolutions() {
+        for (long seed = 0; seed < NB_SEEDS; seed++) {
+            RandomTableModel rtm = new RandomTableModel(seed, false, false);
+            long expected = rtm.countSolutions();
+            assertEquals("seed " + seed, expected, rtm.countSolutions(rtm.build(MDDC, GAC3RM)));
+            assertEquals("seed " + seed, expected, rtm.countSolutions(rtm.build(MDDC_INCR, GAC3RM)));
+        }
+    }
+
+    @Test
+    public void testTableAlgorithm() {
+        for (long seed = 0; seed < NB_SEEDS; seed++) {
+            RandomTableModel rtm = new RandomTableModel(seed, false, true);
+            assertEquals("seed " + seed, rtm.countSolutions(), rtm.countSolutions(rtm.build("MDD+", "GAC3rm")));
+        }
+    }
+
+    @Test
+    public void testBatchEngine() {
+        for (long seed = 0; seed < NB_SEEDS; seed++) {
+            RandomTableModel rtm = new RandomTableModel(seed, false, false);
+            Model model = rtm.build(MDDC_INCR, GAC3RM);
+            model.getSolver().setEngine(new BatchPropagationEngine(model));
+            assertEquals("seed " + seed, rtm.countSolutions(), rtm.countSolutions(model));
+        }
+    }
+
+    @Test
+    public void testDomainWithHoles() {
+        Model model = new Model();
+        IntVar[] vars = new IntVar[]{
+                model.intVar("x", new int[]{0, 2}),
+                model.intVar("y", new int[]{0, 1, 2}),
+                model.intVar("z", new int[]{1, 3})};
+        Tuples tuples = new Tuples(true);
+        tuples.add(0, 0, 1);
+        tuples.add(1, 0, 1);
+        tuples.add(1, 1, 3);
+        tuples.add(2, 1, 3);
+        tuples.add(2, 2, 2);
+        tuples.add(2, 2, 3);
+        // the graph is built over domains without holes
+        Model other = new Model();
+        model.mddc(vars, new MultivaluedDecisionDiagram(new IntVar[]{
+                other.intVar(0, 2), other.intVar(0, 2), other.intVar(0, 3)}, tuples)).post();
+        // (0,0,1), (2,1,3) and (2,2,3)
+        assertEquals(3, model.getSolver().findAllSolutions().size());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.alldifferent;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.variables.IntVar;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ACFastbit must prune exactly as AC, the reference filtering of {@link org.chocosolver.solver.constraints.nary.alldifferent.algo.AlgoAllDiffAC},
+ * on random domains with holes.
+ *
+ * @author Jia'nan Chen
+ */
+public class PropAllDiffAC_FastbitTest {
+
+    private static final int NB_SEEDS = 300;
+
+    /**
+     * @param maxVars largest number of variables, values are taken in [0, n + 3)
+     */
+    private static Model model(long seed, int maxVars, String consistency) {
+        Random r = new Random(seed);
+        Model model = new Model();
+        int n = 3 + r.nextInt(maxVars - 2);
+        IntVar[] x = new IntVar[n];
+        for (int i = 0; i < n; i++) {
+            int[] values = new int[1 + r.nextInt(n + 1)];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = r.nextInt(n + 3);
+            }
+            x[i] = model.intVar("x" + i, values);
+        }
+        model.allDifferent(x, consistency).post();
+        model.getSolver().setSearch(Search.randomSearch(x, seed));
+        return model;
+    }
+
+    /**
+     * @return the domains after the root propagation, <tt>null</tt> if it fails
+     */
+    private static String root(Model model) {
+        try {
+            model.getSolver().propagate();
+        } catch (ContradictionException e) {
+            return null;
+        }
+        return domains(model);
+    }
+
+    private static String domains(Model model) {
+        StringBuilder sb = new StringBuilder();
+        for (IntVar v : model.retrieveIntVars(true)) {
+            sb.append(v).append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testSameRootPruning() {
+        int failed = 0, pruned = 0;
+        // more than 64 values for some seeds, over several words
+        for (long seed = 0; seed < NB_SEEDS; seed++) {
+            Model model = model(seed, 80, AllDifferent.AC);
+            String initial = domains(model);
+            String ac = root(model);
+            assertEquals("seed " + seed, ac, root(model(seed, 80, AllDifferent.ACFastbit)));
+            if (ac == null) {
+                failed++;
+            } else if (!ac.equals(initial)) {
+                pruned++;
+            }
+        }
+        // both failures and prunings are compared
+        assertTrue(failed > 0 && pruned > 0);
+    }
+
+    @Test
+    public void testSameSolutions() {
+        long total = 0;
+        for (long seed = 0; seed < NB_SEEDS; seed++) {
+            long count = model(seed, 8, AllDifferent.ACFastbit).getSolver().streamSolutions().count();
+            assertEquals("seed " + seed, model(seed, 8, AllDifferent.AC).getSolver().streamSolutions().count(), count);
+            total += count;
+        }
+        assertTrue(total > 0);
+    }
+}
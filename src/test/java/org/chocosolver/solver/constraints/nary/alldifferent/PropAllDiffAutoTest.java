@@ -0,0 +1,103 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.alldifferent;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.variables.IntVar;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The AUTO AllDifferent runs AC on the initial propagation, then AC or BC depending on their measured pruning.
+ *
+ * @author Jia'nan Chen
+ */
+public class PropAllDiffAutoTest {
+
+    private static final int NB_SEEDS = 200;
+
+    private static Model model(long seed, String consistency) {
+        Random r = new Random(seed);
+        Model model = new Model();
+        int n = 5 + r.nextInt(4);
+        IntVar[] x = new IntVar[n];
+        for (int i = 0; i < n; i++) {
+            int[] values = new int[2 + r.nextInt(n)];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = r.nextInt(n + 2);
+            }
+            x[i] = model.intVar("x" + i, values);
+        }
+        model.allDifferent(x, consistency).post();
+        model.arithm(x[0], "+", x[n - 1], "<=", n).post();
+        model.getSolver().setSearch(Search.randomSearch(x, seed));
+        return model;
+    }
+
+    private static PropAllDiffAuto propagator(Model model) {
+        for (Constraint c : model.getCstrs()) {
+            if (c.getPropagator(c.getPropagators().length - 1) instanceof PropAllDiffAuto) {
+                return (PropAllDiffAuto) c.getPropagator(c.getPropagators().length - 1);
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    @Test
+    public void testSameSolutions() {
+        long bc = 0;
+        for (long seed = 0; seed < NB_SEEDS; seed++) {
+            Model auto = model(seed, AllDifferent.AUTO);
+            long count = auto.getSolver().streamSolutions().count();
+            assertEquals("seed " + seed, model(seed, "AC").getSolver().streamSolutions().count(), count);
+            PropAllDiffAuto prop = propagator(auto);
+            // the initial propagation runs AC, unless another propagator fails first
+            assertTrue("seed " + seed, count == 0 || prop.getNbACCalls() > 0);
+            bc += prop.getNbBCCalls();
+        }
+        assertTrue(bc > 0);
+    }
+
+    @Test
+    public void testBCRuns() {
+        Model model = new Model();
+        IntVar[] x = model.intVarArray("x", 8, 0, 8);
+        model.allDifferent(x, AllDifferent.AUTO).post();
+        assertEquals(9 * 8 * 7 * 6 * 5 * 4 * 3 * 2, model.getSolver().streamSolutions().count());
+        PropAllDiffAuto prop = propagator(model);
+        assertTrue(prop.getNbBCCalls() > 0);
+    }
+
+    @Test
+    public void testSelection() {
+        Model model = new Model();
+        PropAllDiffAuto prop = new PropAllDiffAuto(model.intVarArray("x", 4, 0, 5));
+        // AC removes more values per microsecond
+        prop.record(true, 10, 10d);
+        prop.record(false, 1, 10d);
+        assertTrue(prop.selectAC());
+        // now BC does
+        prop.record(false, 1000, 10d);
+        assertFalse(prop.selectAC());
+        // AC is tried again every 32 calls
+        for (int i = 3; i < 32; i++) {
+            assertFalse(prop.selectAC());
+        }
+        assertTrue(prop.selectAC());
+        assertFalse(prop.selectAC());
+    }
+}
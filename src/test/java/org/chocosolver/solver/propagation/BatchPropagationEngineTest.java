@@ -0,0 +1,79 @@
+/*
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ *
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.propagation;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.extension.RandomTableModel;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The batch engine must find the same solutions as {@link PropagationEngine},
+ * in particular with propagators which consume their delta monitors.
+ *
+ * @author Jia'nan Chen
+ */
+public class BatchPropagationEngineTest {
+
+    private static final int NB_SEEDS = 500;
+
+    private static long count(RandomTableModel rtm, String positive, String negative, boolean batch) {
+        Model model = rtm.build(positive, negative);
+        if (batch) {
+            model.getSolver().setEngine(new BatchPropagationEngine(model));
+        }
+        return rtm.countSolutions(model);
+    }
+
+    @Test
+    public void testCompactTable() {
+        for (long seed = 0; seed < NB_SEEDS; seed++) {
+            RandomTableModel rtm = new RandomTableModel(seed, false, false);
+            long expected = rtm.countSolutions();
+            assertEquals("seed " + seed, expected, count(rtm, "CT+", "CT-", false));
+            assertEquals("seed " + seed, expected, count(rtm, "CT+", "CT-", true));
+        }
+    }
+
+    @Test
+    public void testShortCompactTable() {
+        for (long seed = 0; seed < NB_SEEDS; seed++) {
+            RandomTableModel rtm = new RandomTableModel(seed, true, false);
+            long expected = rtm.countSolutions();
+            assertEquals("seed " + seed, expected, count(rtm, "CT+", "CT-", false));
+            assertEquals("seed " + seed, expected, count(rtm, "CT+", "CT-", true));
+        }
+    }
+
+    @Test
+    public void testCoarseTables() {
+        for (long seed = 0; seed < NB_SEEDS; seed++) {
+            RandomTableModel rtm = new RandomTableModel(seed, false, false);
+            long expected = rtm.countSolutions();
+            assertEquals("seed " + seed, expected, count(rtm, "GAC3rm+", "GAC3rm", true));
+            assertEquals("seed " + seed, expected, count(rtm, "STR2+", "GAC2001", true));
+        }
+    }
+
+    @Test
+    public void testHybridization() {
+        for (long seed = 0; seed < NB_SEEDS; seed++) {
+            RandomTableModel rtm = new RandomTableModel(seed, false, false);
+            long expected = rtm.countSolutions();
+            for (byte hybrid = 1; hybrid <= 2; hybrid++) {
+                Model model = rtm.build("CT+", "CT-");
+                model.getSettings().setHybridizationOfPropagationEngine(hybrid);
+                model.getSolver().setEngine(new PropagationEngine(model));
+                assertEquals("seed " + seed + ", hybridization " + hybrid, expected, rtm.countSolutions(model));
+            }
+        }
+    }
+}